@@ -20,7 +20,6 @@
 package org.xwiki.rendering.block;
 
 import java.security.InvalidParameterException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,6 +38,7 @@
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * Implementation for Block operations. All blocks should extend this class. Supports the notion of generic parameters
@@ -62,7 +62,7 @@ public abstract class AbstractBlock implements Block
     /**
      * The Blocks this Block contains.
      */
-    private List<Block> childrenBlocks;
+    private ChildBlockList childrenBlocks;
 
     /**
      * The Block containing this Block.
@@ -79,6 +79,11 @@ public abstract class AbstractBlock implements Block
      */
     private Block previousSiblingBlock;
 
+    /**
+     * @see #getRevision()
+     */
+    private long revision;
+
     /**
      * Empty constructor to construct an empty block.
      */
@@ -147,31 +152,6 @@ public AbstractBlock(List<? extends Block> childrenBlocks, Map<String, String> p
         addChildren(childrenBlocks);
     }
 
-    /**
-     * Get the position of the provided block in the provided list of blocks.
-     * <p>
-     * Can't use {@link List#indexOf(Object)} since it's using {@link Object#equals(Object)} internally which is not
-     * what we want since two WordBlock with the same text or two spaces are equals for example but we want to be able
-     * to target one specific Block.
-     *
-     * @param block the block for which to find the position
-     * @param blocks the list of blocks in which to look for the passed block
-     * @return the position of the block, -1 if the block can't be found
-     */
-    private static int indexOfBlock(Block block, List<Block> blocks)
-    {
-        int position = 0;
-
-        for (Block child : blocks) {
-            if (child == block) {
-                return position;
-            }
-            ++position;
-        }
-
-        return -1;
-    }
-
     @Override
     public void addChild(Block blockToAdd)
     {
@@ -184,7 +164,7 @@ public void addChildren(List<? extends Block> blocksToAdd)
         if (!blocksToAdd.isEmpty()) {
             if (this.childrenBlocks == null) {
                 // Create the list with just the exact required size
-                this.childrenBlocks = new ArrayList<>(blocksToAdd.size());
+                this.childrenBlocks = new ChildBlockList(blocksToAdd.size());
             }
 
             for (Block blockToAdd : blocksToAdd) {
@@ -199,6 +179,7 @@ public void setChildren(List<? extends Block> children)
         if (children.isEmpty()) {
             if (this.childrenBlocks != null) {
                 this.childrenBlocks.clear();
+                modified();
             }
         } else {
             if (this.childrenBlocks != null) {
@@ -236,11 +217,12 @@ public void insertChildBefore(Block blockToInsert, Block nextBlock)
                 blockToInsert.setPreviousSiblingBlock(null);
 
                 if (this.childrenBlocks == null) {
-                    this.childrenBlocks = new ArrayList<>(1);
+                    this.childrenBlocks = new ChildBlockList(1);
                 }
             }
             blockToInsert.setNextSiblingBlock(null);
             this.childrenBlocks.add(blockToInsert);
+            modified();
         } else {
             // If there's a previous block to nextBlock then get it to set its next sibling
             Block previousBlock = nextBlock.getPreviousSibling();
@@ -253,11 +235,12 @@ public void insertChildBefore(Block blockToInsert, Block nextBlock)
             blockToInsert.setNextSiblingBlock(nextBlock);
             nextBlock.setPreviousSiblingBlock(blockToInsert);
             if (this.childrenBlocks == null || this.childrenBlocks.isEmpty()) {
-                this.childrenBlocks = new ArrayList<>(1);
+                this.childrenBlocks = new ChildBlockList(1);
                 this.childrenBlocks.add(blockToInsert);
             } else {
                 this.childrenBlocks.add(indexOfChild(nextBlock), blockToInsert);
             }
+            modified();
         }
     }
 
@@ -278,9 +261,10 @@ public void insertChildAfter(Block blockToInsert, Block previousBlock)
             blockToInsert.setPreviousSiblingBlock(previousBlock);
             previousBlock.setNextSiblingBlock(blockToInsert);
             if (this.childrenBlocks == null) {
-                this.childrenBlocks = new ArrayList<>(1);
+                this.childrenBlocks = new ChildBlockList(1);
             }
             this.childrenBlocks.add(indexOfChild(previousBlock) + 1, blockToInsert);
+            modified();
         }
     }
 
@@ -332,6 +316,8 @@ public void replaceChild(List<Block> newBlocks, Block oldBlock)
 
         oldBlock.setNextSiblingBlock(null);
         oldBlock.setPreviousSiblingBlock(null);
+
+        modified();
     }
 
     /**
@@ -346,7 +332,7 @@ public void replaceChild(List<Block> newBlocks, Block oldBlock)
      */
     private int indexOfChild(Block block)
     {
-        return indexOfBlock(block, getChildren());
+        return this.childrenBlocks == null ? -1 : this.childrenBlocks.identityIndexOf(block);
     }
 
     /**
@@ -398,6 +384,8 @@ public void setParameter(String name, String value)
         }
 
         this.parameters.put(name, value);
+
+        modified();
     }
 
     @Override
@@ -409,6 +397,8 @@ public void setParameters(Map<String, String> parameters)
             this.parameters.clear();
             this.parameters.putAll(parameters);
         }
+
+        modified();
     }
 
     @Override
@@ -432,6 +422,8 @@ public void setAttribute(String name, Object value)
         }
 
         this.attributes.put(name, value);
+
+        modified();
     }
 
     @Override
@@ -443,6 +435,8 @@ public void setAttributes(Map<String, Object> attributes)
             this.attributes.clear();
             this.attributes.putAll(attributes);
         }
+
+        modified();
     }
 
     @Override
@@ -479,8 +473,7 @@ public Block getPreviousSibling()
     public void removeBlock(Block childBlockToRemove)
     {
         // Remove block
-        List<Block> children = getChildren();
-        int position = indexOfBlock(childBlockToRemove, children);
+        int position = indexOfChild(childBlockToRemove);
         if (position == -1) {
             throw new InvalidParameterException("Provided Block to remove is not a child");
         }
@@ -499,6 +492,30 @@ public void removeBlock(Block childBlockToRemove)
             childBlockToRemove.setNextSiblingBlock(null);
             childBlockToRemove.setPreviousSiblingBlock(null);
         }
+
+        modified();
+    }
+
+    @Override
+    public long getRevision()
+    {
+        return this.revision;
+    }
+
+    /**
+     * Indicate that the block was modified: increment the revision of the block and of all its ancestors (see
+     * {@link #getRevision()}). Blocks extending this class should call it when they modify their own state.
+     *
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected void modified()
+    {
+        for (Block block = this; block != null; block = block.getParent()) {
+            if (block instanceof AbstractBlock abstractBlock) {
+                abstractBlock.revision++;
+            }
+        }
     }
 
     @Override
@@ -547,7 +564,7 @@ public Block clone()
     @Override
     public Block clone(BlockFilter blockFilter)
     {
-        Block block;
+        AbstractBlock block;
         try {
             block = (AbstractBlock) super.clone();
         } catch (CloneNotSupportedException e) {
@@ -555,15 +572,21 @@ public Block clone(BlockFilter blockFilter)
             throw new RuntimeException("Failed to clone object", e);
         }
 
+        // The clone is filled without using the modification methods since it still shares the parent of this block:
+        // they would mark the ancestors of this block as modified (see #modified()).
+
         if (this.parameters != null) {
-            ((AbstractBlock) block).parameters = new LinkedHashMap<>(this.parameters);
+            block.parameters = new LinkedHashMap<>(this.parameters);
         }
 
-        // Clone attribute values if possible as documented in getAttribute().
-        this.getAttributes().forEach((key, value) -> block.setAttribute(key, ObjectUtils.cloneIfPossible(value)));
+        if (this.attributes != null) {
+            block.attributes = LinkedHashMap.newLinkedHashMap(this.attributes.size());
+            // Clone attribute values if possible as documented in getAttribute().
+            this.attributes.forEach((key, value) -> block.attributes.put(key, ObjectUtils.cloneIfPossible(value)));
+        }
 
         if (this.childrenBlocks != null) {
-            ((AbstractBlock) block).childrenBlocks = new ArrayList<>(this.childrenBlocks.size());
+            block.childrenBlocks = new ChildBlockList(this.childrenBlocks.size());
             for (Block childBlock : this.childrenBlocks) {
                 if (blockFilter != null) {
                     Block clonedChildBlocks = childBlock.clone(blockFilter);
@@ -574,9 +597,9 @@ public Block clone(BlockFilter blockFilter)
                         filteredBlocks = clonedChildBlocks.getChildren();
                     }
 
-                    block.addChildren(filteredBlocks);
+                    filteredBlocks.forEach(block::appendClonedChild);
                 } else {
-                    block.addChild(childBlock.clone());
+                    block.appendClonedChild(childBlock.clone());
                 }
             }
         }
@@ -584,6 +607,26 @@ public Block clone(BlockFilter blockFilter)
         return block;
     }
 
+    /**
+     * Add a child at the end of the children of a block being cloned, without marking it as modified.
+     *
+     * @param childBlock the child to add
+     */
+    private void appendClonedChild(Block childBlock)
+    {
+        int size = this.childrenBlocks.size();
+        Block lastBlock = size > 0 ? this.childrenBlocks.get(size - 1) : null;
+
+        childBlock.setParent(this);
+        childBlock.setPreviousSiblingBlock(lastBlock);
+        childBlock.setNextSiblingBlock(null);
+        if (lastBlock != null) {
+            lastBlock.setNextSiblingBlock(childBlock);
+        }
+
+        this.childrenBlocks.add(childBlock);
+    }
+
     @Override
     public void traverse(Listener listener)
     {
@@ -29,6 +29,7 @@
 import org.xwiki.rendering.block.match.BlockMatcher;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * Represents an element of a XWiki Document's content. For example there are Blocks for Paragraphs, Bold parts,
@@ -373,4 +374,20 @@ default <T> Optional<T> get(Function<Block, Optional<T>> searcher, Axes axes)
     {
         return Optional.empty();
     }
+
+    /**
+     * The revision of a block changes each time the block or one of its descendants is modified (children inserted,
+     * removed or replaced, parameters or attributes set, etc.). It can be used to know if a block changed since it was
+     * last processed, for example to reuse the result of its previous rendering.
+     * <p>
+     * Modifications done directly on the list returned by {@link #getChildren()} are not tracked.
+     *
+     * @return the revision of the block, or a negative value if the modifications of the block are not tracked
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default long getRevision()
+    {
+        return -1;
+    }
 }
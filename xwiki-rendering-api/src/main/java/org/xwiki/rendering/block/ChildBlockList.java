@@ -0,0 +1,264 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.block;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * The list of children of an {@link AbstractBlock}, stored in a gap buffer.
+ * <p>
+ * Blocks are usually modified at (or close to) the position of the previous modification: blocks are appended while
+ * parsing, and transformations replace or insert siblings while going through the children in document order. With a
+ * gap buffer, inserting or removing a block only moves the blocks located between the previous and the new position
+ * instead of shifting the whole tail of the list, and {@link #identityIndexOf(Block)} starts looking for a block where
+ * the previous lookup found one. This makes sibling modifications amortized O(1) for these access patterns.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+final class ChildBlockList extends AbstractList<Block> implements RandomAccess
+{
+    private Block[] elements;
+
+    /**
+     * The index of the first free slot of the gap.
+     */
+    private int gapStart;
+
+    /**
+     * The index of the first element located after the gap.
+     */
+    private int gapEnd;
+
+    /**
+     * The position from which to start looking for a block in {@link #identityIndexOf(Block)}.
+     */
+    private int searchHint;
+
+    /**
+     * @param initialCapacity the initial capacity of the list
+     */
+    ChildBlockList(int initialCapacity)
+    {
+        this.elements = new Block[Math.max(initialCapacity, 1)];
+        this.gapEnd = this.elements.length;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.elements.length - (this.gapEnd - this.gapStart);
+    }
+
+    @Override
+    public Block get(int index)
+    {
+        Objects.checkIndex(index, size());
+
+        return this.elements[toPhysicalIndex(index)];
+    }
+
+    @Override
+    public Block set(int index, Block element)
+    {
+        Objects.checkIndex(index, size());
+
+        int physicalIndex = toPhysicalIndex(index);
+        Block previous = this.elements[physicalIndex];
+        this.elements[physicalIndex] = element;
+
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Block element)
+    {
+        Objects.checkIndex(index, size() + 1);
+
+        ensureGap(1);
+        moveGap(index);
+        this.elements[this.gapStart++] = element;
+        this.searchHint = index;
+        ++this.modCount;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Block> collection)
+    {
+        Objects.checkIndex(index, size() + 1);
+
+        Object[] blocks = collection.toArray();
+        if (blocks.length == 0) {
+            return false;
+        }
+
+        ensureGap(blocks.length);
+        moveGap(index);
+        System.arraycopy(blocks, 0, this.elements, this.gapStart, blocks.length);
+        this.gapStart += blocks.length;
+        this.searchHint = index;
+        ++this.modCount;
+
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Block> collection)
+    {
+        return addAll(size(), collection);
+    }
+
+    @Override
+    public Block remove(int index)
+    {
+        Objects.checkIndex(index, size());
+
+        moveGap(index);
+        Block removed = this.elements[this.gapEnd];
+        this.elements[this.gapEnd++] = null;
+        this.searchHint = index;
+        ++this.modCount;
+
+        return removed;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(this.elements, null);
+        this.gapStart = 0;
+        this.gapEnd = this.elements.length;
+        this.searchHint = 0;
+        ++this.modCount;
+    }
+
+    /**
+     * Get the position of the provided block in the list.
+     * <p>
+     * Can't use {@link java.util.List#indexOf(Object)} since it's using {@link Object#equals(Object)} internally which
+     * is not what we want since two WordBlock with the same text or two spaces are equals for example but we want to be
+     * able to target one specific Block.
+     * <p>
+     * The search starts at the position of the last modification or lookup and goes in both directions, so that
+     * looking up a block that is next to the previous one is done in constant time.
+     *
+     * @param block the block for which to find the position
+     * @return the position of the block, -1 if the block can't be found
+     */
+    int identityIndexOf(Block block)
+    {
+        int size = size();
+        if (size == 0) {
+            return -1;
+        }
+
+        // The last sibling doesn't have any next sibling, which is the common case when appending.
+        if (block != null && block.getNextSibling() == null && get(size - 1) == block) {
+            return size - 1;
+        }
+
+        int start = Math.min(this.searchHint, size - 1);
+        int after = start;
+        int before = start - 1;
+        while (after < size || before >= 0) {
+            if (after < size) {
+                if (this.elements[toPhysicalIndex(after)] == block) {
+                    this.searchHint = after;
+                    return after;
+                }
+                ++after;
+            }
+            if (before >= 0) {
+                if (this.elements[toPhysicalIndex(before)] == block) {
+                    this.searchHint = before;
+                    return before;
+                }
+                --before;
+            }
+        }
+
+        return -1;
+    }
+
+    private int toPhysicalIndex(int index)
+    {
+        return index < this.gapStart ? index : index + (this.gapEnd - this.gapStart);
+    }
+
+    /**
+     * Make sure the gap can hold at least the passed number of elements.
+     *
+     * @param length the minimum length of the gap
+     */
+    private void ensureGap(int length)
+    {
+        int gapLength = this.gapEnd - this.gapStart;
+        if (gapLength < length) {
+            int size = size();
+            int newCapacity = Math.max(this.elements.length + (this.elements.length >> 1), size + length);
+            Block[] newElements = new Block[newCapacity];
+            int tailLength = this.elements.length - this.gapEnd;
+            System.arraycopy(this.elements, 0, newElements, 0, this.gapStart);
+            System.arraycopy(this.elements, this.gapEnd, newElements, newCapacity - tailLength, tailLength);
+            this.elements = newElements;
+            this.gapEnd = newCapacity - tailLength;
+        }
+    }
+
+    /**
+     * Move the gap so that it starts at the passed index.
+     *
+     * @param index the new start of the gap
+     */
+    private void moveGap(int index)
+    {
+        int gapLength = this.gapEnd - this.gapStart;
+        if (index < this.gapStart) {
+            // Move the elements located between the index and the gap to the end of the gap.
+            int count = this.gapStart - index;
+            System.arraycopy(this.elements, index, this.elements, index + gapLength, count);
+            clearRange(index, Math.min(this.gapStart, index + gapLength));
+        } else if (index > this.gapStart) {
+            // Move the elements located between the gap and the index to the start of the gap.
+            int count = index - this.gapStart;
+            System.arraycopy(this.elements, this.gapEnd, this.elements, this.gapStart, count);
+            clearRange(Math.max(this.gapEnd, index), this.gapEnd + count);
+        }
+        this.gapStart = index;
+        this.gapEnd = index + gapLength;
+    }
+
+    /**
+     * Release the references held by the slots that became part of the gap.
+     */
+    private void clearRange(int from, int to)
+    {
+        if (from < to) {
+            Arrays.fill(this.elements, from, to, null);
+        }
+    }
+}
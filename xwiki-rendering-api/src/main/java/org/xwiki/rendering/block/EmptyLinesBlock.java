@@ -58,6 +58,8 @@ public int getEmptyLinesCount()
     public void setEmptyLinesCount(int count)
     {
         this.count = count;
+
+        modified();
     }
 
     @Override
@@ -118,6 +118,8 @@ public boolean isFreeStandingURI()
     public void setId(String id)
     {
         this.id = id;
+
+        modified();
     }
 
     /**
@@ -169,7 +169,8 @@ public XDOM clone()
     {
         XDOM clone = (XDOM) super.clone();
 
-        // The cloned XDOM should not increment the current id generator
+        // The cloned XDOM should not increment the current id generator. The copy shares the ids generated so far with
+        // the current id generator instead of copying them (see IdGenerator#IdGenerator(IdGenerator)).
         if (this.idGenerator != null) {
             clone.idGenerator = new IdGenerator(this.idGenerator);
         }
@@ -23,6 +23,7 @@
 import java.util.Properties;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration properties for the Rendering module.
@@ -70,4 +71,26 @@
      * @since 3.3M1
      */
     List<String> getTransformationNames();
+
+    /**
+     * @return the maximum number of parsed contents kept by the
+     *         {@link org.xwiki.rendering.parser.ParsedContentCache}, 0 to disable the cache
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getParsedContentCacheSize()
+    {
+        return 100;
+    }
+
+    /**
+     * @return true if statistics about the macro executions should be aggregated in memory, see
+     *         {@link org.xwiki.rendering.instrumentation.RenderingInstrumentation#getMacroExecutionStatistics()}
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default boolean isMacroStatisticsEnabled()
+    {
+        return false;
+    }
 }
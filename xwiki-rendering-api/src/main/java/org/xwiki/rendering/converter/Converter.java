@@ -24,6 +24,7 @@
 import org.xwiki.component.annotation.Role;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * Convert source content in a given Syntax to another Syntax.
@@ -45,4 +46,31 @@
      */
     void convert(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer)
         throws ConversionException;
+
+    /**
+     * Converts content from a Syntax to another, optionally without executing any transformation. When no
+     * transformation is executed the implementation is free to stream the parser events directly to the renderer
+     * without building the intermediate {@link org.xwiki.rendering.block.XDOM}. The default implementation only
+     * supports executing the transformations and fails otherwise.
+     *
+     * @param source the content to be converted
+     * @param sourceSyntax the Syntax in which the content is represented
+     * @param targetSyntax the Syntax to which to convert to
+     * @param printer the printer that will receive the result of the conversion
+     * @param transform true if the registered transformations should be executed on the parsed content
+     * @throws ConversionException in case of a conversion error (invalid Syntax, etc), or if the transformations
+     *             cannot be skipped by this converter
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default void convert(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer,
+        boolean transform) throws ConversionException
+    {
+        if (!transform) {
+            throw new ConversionException(
+                "Converting without executing the transformations is not supported by [" + getClass().getName() + "]");
+        }
+
+        convert(source, sourceSyntax, targetSyntax, printer);
+    }
 }
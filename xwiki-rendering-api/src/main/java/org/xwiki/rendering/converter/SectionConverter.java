@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.converter;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Transform and render a single section of a document, for example to edit a section or to preview the target of
+ * an anchor, without rendering the whole document.
+ * <p>
+ * The macros located after the section are not executed. The content located before the section is still
+ * transformed, so that what depends on it (e.g. footnote numbering, generated ids) is the same as when rendering the
+ * whole document. The headers of the whole document are available to the section (e.g. for a table of contents), and
+ * the blocks that the transformations add at the end of the document (e.g. the list of footnotes) are rendered after
+ * the section.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+@Role
+public interface SectionConverter
+{
+    /**
+     * Transforms and renders the section at the given position. Sections are numbered in document order, starting at
+     * 1, nested sections included (this is the numbering used when editing a section).
+     *
+     * @param xdom the document containing the section, it's not modified
+     * @param sectionNumber the position of the section in the document, starting at 1
+     * @param context the context of the transformations
+     * @param targetSyntax the Syntax to which to render the section
+     * @param printer the printer that will receive the result of the rendering
+     * @throws ConversionException if there is no such section or the transformation or rendering failed
+     */
+    void convert(XDOM xdom, int sectionNumber, TransformationContext context, Syntax targetSyntax,
+        WikiPrinter printer) throws ConversionException;
+
+    /**
+     * Transforms and renders the section starting with the header with the given id.
+     *
+     * @param xdom the document containing the section, it's not modified
+     * @param headerId the id of the header of the section
+     * @param context the context of the transformations
+     * @param targetSyntax the Syntax to which to render the section
+     * @param printer the printer that will receive the result of the rendering
+     * @throws ConversionException if there is no such section or the transformation or rendering failed
+     */
+    void convert(XDOM xdom, String headerId, TransformationContext context, Syntax targetSyntax,
+        WikiPrinter printer) throws ConversionException;
+}
@@ -0,0 +1,141 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.instrumentation;
+
+import java.util.List;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Statistics about the executions of a macro, including a histogram of the execution durations.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class MacroExecutionStatistics
+{
+    /**
+     * The upper bounds (exclusive, in nanoseconds) of the histogram buckets: less than 1ms, 10ms, 100ms and 1s. The
+     * histogram has one more bucket for the executions which took 1s or more.
+     */
+    public static final List<Long> BUCKET_BOUNDS = List.of(1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L);
+
+    private final long count;
+
+    private final long errorCount;
+
+    private final long totalDuration;
+
+    private final long maxDuration;
+
+    private final long blockCount;
+
+    private final long[] histogram;
+
+    /**
+     * @param count see {@link #getCount()}
+     * @param errorCount see {@link #getErrorCount()}
+     * @param totalDuration see {@link #getTotalDuration()}
+     * @param maxDuration see {@link #getMaxDuration()}
+     * @param blockCount see {@link #getBlockCount()}
+     * @param histogram see {@link #getHistogram()}
+     */
+    public MacroExecutionStatistics(long count, long errorCount, long totalDuration, long maxDuration,
+        long blockCount, long[] histogram)
+    {
+        this.count = count;
+        this.errorCount = errorCount;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+        this.blockCount = blockCount;
+        this.histogram = histogram.clone();
+    }
+
+    /**
+     * @param duration a duration, in nanoseconds
+     * @return the index of the histogram bucket of the passed duration
+     */
+    public static int getBucket(long duration)
+    {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.size() && duration >= BUCKET_BOUNDS.get(bucket)) {
+            bucket++;
+        }
+
+        return bucket;
+    }
+
+    /**
+     * @return the number of executions of the macro
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @return the number of failed executions of the macro
+     */
+    public long getErrorCount()
+    {
+        return this.errorCount;
+    }
+
+    /**
+     * @return the cumulated duration of the executions of the macro, in nanoseconds
+     */
+    public long getTotalDuration()
+    {
+        return this.totalDuration;
+    }
+
+    /**
+     * @return the average duration of the executions of the macro, in nanoseconds
+     */
+    public long getAverageDuration()
+    {
+        return this.count > 0 ? this.totalDuration / this.count : 0;
+    }
+
+    /**
+     * @return the duration of the longest execution of the macro, in nanoseconds
+     */
+    public long getMaxDuration()
+    {
+        return this.maxDuration;
+    }
+
+    /**
+     * @return the cumulated number of blocks produced by the executions of the macro
+     */
+    public long getBlockCount()
+    {
+        return this.blockCount;
+    }
+
+    /**
+     * @return the number of executions in each duration bucket (see {@link #BUCKET_BOUNDS})
+     */
+    public long[] getHistogram()
+    {
+        return this.histogram.clone();
+    }
+}
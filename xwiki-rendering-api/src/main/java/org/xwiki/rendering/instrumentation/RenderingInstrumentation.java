@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.instrumentation;
+
+import java.util.Map;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Receives the duration of the various rendering stages (parsing, transformations, macro executions and rendering) to
+ * help finding what makes a content slow to render.
+ * <p>
+ * Measuring a stage has a cost, so callers are expected to measure and report durations only when
+ * {@link #isEnabled()} returns {@code true}. All durations are expressed in nanoseconds.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+@Role
+public interface RenderingInstrumentation
+{
+    /**
+     * @return true if the rendering stages should be measured and reported
+     */
+    boolean isEnabled();
+
+    /**
+     * Called after the execution of a transformation.
+     *
+     * @param transformation the name of the executed transformation
+     * @param duration the duration of the transformation, in nanoseconds
+     * @param failed true if the transformation failed
+     */
+    void onTransformation(String transformation, long duration, boolean failed);
+
+    /**
+     * Called after the execution of a macro.
+     *
+     * @param macroId the identifier of the executed macro
+     * @param inline true if the macro was executed inline
+     * @param duration the duration of the macro execution, in nanoseconds
+     * @param blockCount the number of blocks produced by the macro
+     * @param failed true if the macro execution failed
+     */
+    void onMacroExecution(String macroId, boolean inline, long duration, int blockCount, boolean failed);
+
+    /**
+     * Called after parsing a content into an XDOM.
+     *
+     * @param syntax the syntax of the parsed content
+     * @param duration the duration of the parsing, in nanoseconds
+     * @param failed true if the parsing failed
+     */
+    void onParse(Syntax syntax, long duration, boolean failed);
+
+    /**
+     * Called after rendering a content.
+     *
+     * @param syntax the syntax in which the content was rendered
+     * @param duration the duration of the rendering, in nanoseconds
+     * @param failed true if the rendering failed
+     */
+    void onRender(Syntax syntax, long duration, boolean failed);
+
+    /**
+     * Called after converting a content by sending the parser events directly to a renderer. The parsing and the
+     * rendering are interleaved in this case so they are reported together instead of through
+     * {@link #onParse(Syntax, long, boolean)} and {@link #onRender(Syntax, long, boolean)}.
+     *
+     * @param sourceSyntax the syntax of the parsed content
+     * @param targetSyntax the syntax in which the content was rendered
+     * @param duration the duration of the parsing and rendering, in nanoseconds
+     * @param failed true if the conversion failed
+     */
+    void onStreamingConversion(Syntax sourceSyntax, Syntax targetSyntax, long duration, boolean failed);
+
+    /**
+     * @return the statistics about the macros executed since the last {@link #resetMacroExecutionStatistics()},
+     *         indexed by macro identifier
+     */
+    default Map<String, MacroExecutionStatistics> getMacroExecutionStatistics()
+    {
+        return Map.of();
+    }
+
+    /**
+     * Forget the statistics about the macros executed so far.
+     */
+    default void resetMacroExecutionStatistics()
+    {
+        // Nothing to forget by default
+    }
+}
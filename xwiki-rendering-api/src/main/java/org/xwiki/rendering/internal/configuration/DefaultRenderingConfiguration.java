@@ -74,6 +74,11 @@ public class DefaultRenderingConfiguration implements RenderingConfiguration, In
      */
     private Properties interWikiDefinitions = new Properties();
 
+    /**
+     * @see #isMacroStatisticsEnabled()
+     */
+    private boolean macroStatisticsEnabled;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -131,4 +136,19 @@ public List<String> getTransformationNames()
     {
         return this.transformationNames;
     }
+
+    @Override
+    public boolean isMacroStatisticsEnabled()
+    {
+        return this.macroStatisticsEnabled;
+    }
+
+    /**
+     * @param macroStatisticsEnabled true if statistics about the macro executions should be aggregated in memory
+     * @since 18.7.0RC1
+     */
+    public void setMacroStatisticsEnabled(boolean macroStatisticsEnabled)
+    {
+        this.macroStatisticsEnabled = macroStatisticsEnabled;
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.rendering.internal.converter;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.io.Reader;
 
 import javax.inject.Inject;
@@ -30,11 +32,17 @@
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
 import org.xwiki.rendering.converter.ConversionException;
 import org.xwiki.rendering.converter.Converter;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.TransformationContext;
@@ -63,28 +71,129 @@ public class DefaultConverter implements Converter
     @Inject
     private TransformationManager transformationManager;
 
+    /**
+     * Used to know if there is any transformation to execute.
+     */
+    @Inject
+    private RenderingConfiguration configuration;
+
+    /**
+     * Used to report the duration of the parsing and the rendering.
+     */
+    @Inject
+    private RenderingInstrumentation instrumentation;
+
     @Override
     public void convert(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer)
         throws ConversionException
+    {
+        convert(source, sourceSyntax, targetSyntax, printer, !this.configuration.getTransformationNames().isEmpty());
+    }
+
+    @Override
+    public void convert(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer,
+        boolean transform) throws ConversionException
+    {
+        // Without transformation there is no need for the XDOM: send the parser events directly to the renderer
+        if (transform || !convertStreaming(source, sourceSyntax, targetSyntax, printer)) {
+            convertXDOM(source, sourceSyntax, targetSyntax, printer, transform);
+        }
+    }
+
+    /**
+     * @return true if the content was converted, false if there isn't any stream parser or print renderer for the
+     *     passed syntaxes
+     */
+    private boolean convertStreaming(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer)
+        throws ConversionException
+    {
+        ComponentManager componentManager = this.componentManagerProvider.get();
+        String sourceHint = sourceSyntax.toIdString();
+        String targetHint = targetSyntax.toIdString();
+        if (!componentManager.hasComponent(StreamParser.class, sourceHint)
+            || !componentManager.hasComponent(PrintRendererFactory.class, targetHint)) {
+            return false;
+        }
+
+        StreamParser parser;
+        PrintRendererFactory rendererFactory;
+        try {
+            parser = componentManager.getInstance(StreamParser.class, sourceHint);
+            rendererFactory = componentManager.getInstance(PrintRendererFactory.class, targetHint);
+        } catch (ComponentLookupException e) {
+            throw new ConversionException(
+                "Failed to locate the streaming Parser or Renderer for [" + sourceSyntax + "] to [" + targetSyntax
+                    + "] conversion", e);
+        }
+
+        // The events are rendered as they are parsed: buffer the output so that nothing is written to the printer when
+        // the parsing fails part way, as when converting through the XDOM.
+        DefaultWikiPrinter buffer = new DefaultWikiPrinter();
+        PrintRenderer renderer = rendererFactory.createRenderer(buffer);
+        // The parsing and the rendering are interleaved so they can only be measured together
+        boolean instrumented = this.instrumentation.isEnabled();
+        long start = instrumented ? System.nanoTime() : 0;
+        boolean failed = true;
+        try {
+            parser.parse(source, renderer);
+
+            if (renderer instanceof Flushable flushable) {
+                flushable.flush();
+            }
+
+            failed = false;
+        } catch (ParseException e) {
+            throw new ConversionException("Failed to parse input source", e);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to flush the renderer", e);
+        } finally {
+            if (instrumented) {
+                this.instrumentation.onStreamingConversion(sourceSyntax, targetSyntax, System.nanoTime() - start,
+                    failed);
+            }
+
+            rendererFactory.release(renderer);
+        }
+
+        printer.print(buffer.toString());
+
+        return true;
+    }
+
+    private void convertXDOM(Reader source, Syntax sourceSyntax, Syntax targetSyntax, WikiPrinter printer,
+        boolean transform) throws ConversionException
     {
         // Step 1: Find the parser and generate a XDOM
         XDOM xdom;
+        Parser parser;
         try {
-            Parser parser = this.componentManagerProvider.get().getInstance(Parser.class, sourceSyntax.toIdString());
-            xdom = parser.parse(source);
+            parser = this.componentManagerProvider.get().getInstance(Parser.class, sourceSyntax.toIdString());
         } catch (ComponentLookupException e) {
             throw new ConversionException("Failed to locate Parser for syntax [" + sourceSyntax + "]", e);
+        }
+        boolean instrumented = this.instrumentation.isEnabled();
+        long start = instrumented ? System.nanoTime() : 0;
+        try {
+            xdom = parser.parse(source);
         } catch (ParseException e) {
+            if (instrumented) {
+                this.instrumentation.onParse(sourceSyntax, System.nanoTime() - start, true);
+            }
             throw new ConversionException("Failed to parse input source", e);
         }
+        if (instrumented) {
+            this.instrumentation.onParse(sourceSyntax, System.nanoTime() - start, false);
+        }
 
         // Step 2: Run transformations
-        try {
-            TransformationContext context = new TransformationContext(xdom, sourceSyntax);
-            context.setTargetSyntax(targetSyntax);
-            this.transformationManager.performTransformations(xdom, context);
-        } catch (TransformationException e) {
-            throw new ConversionException("Failed to execute some transformations", e);
+        if (transform) {
+            try {
+                TransformationContext context = new TransformationContext(xdom, sourceSyntax);
+                context.setTargetSyntax(targetSyntax);
+                this.transformationManager.performTransformations(xdom, context);
+            } catch (TransformationException e) {
+                throw new ConversionException("Failed to execute some transformations", e);
+            }
         }
 
         // Step 3: Locate the Renderer and render the content in the passed printer
@@ -94,6 +203,10 @@ public void convert(Reader source, Syntax sourceSyntax, Syntax targetSyntax, Wik
         } catch (ComponentLookupException e) {
             throw new ConversionException("Failed to locate Renderer for syntax [" + targetSyntax + "]", e);
         }
+        start = instrumented ? System.nanoTime() : 0;
         renderer.render(xdom, printer);
+        if (instrumented) {
+            this.instrumentation.onRender(targetSyntax, System.nanoTime() - start, false);
+        }
     }
 }
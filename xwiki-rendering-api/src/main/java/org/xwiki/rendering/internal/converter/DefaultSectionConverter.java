@@ -0,0 +1,209 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.SectionBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.converter.ConversionException;
+import org.xwiki.rendering.converter.SectionConverter;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+/**
+ * Default implementation for {@link SectionConverter}.
+ * <p>
+ * The document is cloned and the content located after the section, except the headers, is removed from the clone
+ * before executing the transformations on it, so that the content following the section is not transformed.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Singleton
+public class DefaultSectionConverter implements SectionConverter
+{
+    private static final ClassBlockMatcher SECTION_MATCHER = new ClassBlockMatcher(SectionBlock.class);
+
+    private static final ClassBlockMatcher HEADER_MATCHER = new ClassBlockMatcher(HeaderBlock.class);
+
+    /**
+     * Used to lookup the renderer.
+     */
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    /**
+     * Used to execute transformations.
+     */
+    @Inject
+    private TransformationManager transformationManager;
+
+    /**
+     * Used to report the duration of the rendering.
+     */
+    @Inject
+    private RenderingInstrumentation instrumentation;
+
+    @Override
+    public void convert(XDOM xdom, int sectionNumber, TransformationContext context, Syntax targetSyntax,
+        WikiPrinter printer) throws ConversionException
+    {
+        XDOM workingXDOM = xdom.clone();
+        List<SectionBlock> sections = workingXDOM.getBlocks(SECTION_MATCHER, Block.Axes.DESCENDANT);
+        if (sectionNumber < 1 || sectionNumber > sections.size()) {
+            throw new ConversionException(
+                "Failed to find section [" + sectionNumber + "], the document has [" + sections.size() + "] sections");
+        }
+
+        convert(workingXDOM, sections.get(sectionNumber - 1), context, targetSyntax, printer);
+    }
+
+    @Override
+    public void convert(XDOM xdom, String headerId, TransformationContext context, Syntax targetSyntax,
+        WikiPrinter printer) throws ConversionException
+    {
+        XDOM workingXDOM = xdom.clone();
+        Predicate<SectionBlock> hasHeader = section -> section.getHeaderBlock() != null
+            && headerId.equals(section.getHeaderBlock().getId());
+        SectionBlock section = workingXDOM.<SectionBlock>getBlocks(SECTION_MATCHER, Block.Axes.DESCENDANT).stream()
+            .filter(hasHeader).findFirst()
+            .orElseThrow(() -> new ConversionException("Failed to find a section with header id [" + headerId + "]"));
+
+        convert(workingXDOM, section, context, targetSyntax, printer);
+    }
+
+    private void convert(XDOM workingXDOM, SectionBlock section, TransformationContext context, Syntax targetSyntax,
+        WikiPrinter printer) throws ConversionException
+    {
+        // The content located after the section is not transformed. The headers of the rest of the document are kept
+        // since they are needed by a table of contents. The content located before the section is transformed since
+        // it affects the section (e.g. footnote numbering, generated ids).
+        removeFollowingContent(workingXDOM, section, getAncestors(section));
+        List<Block> documentBlocks = workingXDOM.getChildren();
+        Block lastDocumentBlock = documentBlocks.get(documentBlocks.size() - 1);
+
+        try {
+            TransformationContext workingContext = context.clone();
+            workingContext.setXDOM(workingXDOM);
+            this.transformationManager.performTransformations(workingXDOM, workingContext);
+        } catch (TransformationException e) {
+            throw new ConversionException("Failed to execute some transformations", e);
+        }
+
+        // The blocks added at the end of the document by the transformations (e.g. the list of footnotes) are
+        // generated for the section and thus rendered after it. The last block of the document is never replaced by
+        // the transformations since it is either the section (or one of its ancestors) or contains only headers.
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(section);
+        boolean generated = false;
+        for (Block block : workingXDOM.getChildren()) {
+            if (generated) {
+                blocks.add(block);
+            } else {
+                generated = block == lastDocumentBlock;
+            }
+        }
+
+        BlockRenderer renderer;
+        try {
+            renderer = this.componentManagerProvider.get().getInstance(BlockRenderer.class, targetSyntax.toIdString());
+        } catch (ComponentLookupException e) {
+            throw new ConversionException("Failed to locate Renderer for syntax [" + targetSyntax + "]", e);
+        }
+        if (!this.instrumentation.isEnabled()) {
+            renderer.render(blocks, printer);
+        } else {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                renderer.render(blocks, printer);
+                failed = false;
+            } finally {
+                this.instrumentation.onRender(targetSyntax, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private Set<Block> getAncestors(Block block)
+    {
+        Set<Block> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Block parent = block.getParent(); parent != null; parent = parent.getParent()) {
+            ancestors.add(parent);
+        }
+
+        return ancestors;
+    }
+
+    /**
+     * @return true if the section was found in the passed block, in which case the following content was removed
+     */
+    private boolean removeFollowingContent(Block block, SectionBlock section, Set<Block> sectionAncestors)
+    {
+        boolean following = false;
+        for (Block child : List.copyOf(block.getChildren())) {
+            if (following) {
+                keepOnlyHeaders(block, child);
+            } else if (child == section) {
+                following = true;
+            } else if (sectionAncestors.contains(child)) {
+                following = removeFollowingContent(child, section, sectionAncestors);
+            }
+        }
+
+        return following;
+    }
+
+    private void keepOnlyHeaders(Block parent, Block block)
+    {
+        if (!(block instanceof HeaderBlock)) {
+            if (block.getFirstBlock(HEADER_MATCHER, Block.Axes.DESCENDANT) != null) {
+                for (Block child : List.copyOf(block.getChildren())) {
+                    keepOnlyHeaders(block, child);
+                }
+            } else {
+                parent.removeBlock(block);
+            }
+        }
+    }
+}
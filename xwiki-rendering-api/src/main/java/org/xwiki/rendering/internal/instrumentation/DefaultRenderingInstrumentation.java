@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.instrumentation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import jdk.jfr.EventType;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.instrumentation.MacroExecutionStatistics;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Default implementation of {@link RenderingInstrumentation}: emit a JFR event for each rendering stage when a flight
+ * recording is enabled for it and aggregate the macro executions when
+ * {@link RenderingConfiguration#isMacroStatisticsEnabled()} is enabled.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Singleton
+public class DefaultRenderingInstrumentation implements RenderingInstrumentation
+{
+    private static final EventType TRANSFORMATION_EVENT = EventType.getEventType(TransformationEvent.class);
+
+    private static final EventType MACRO_EXECUTION_EVENT = EventType.getEventType(MacroExecutionEvent.class);
+
+    private static final EventType PARSE_EVENT = EventType.getEventType(ParseEvent.class);
+
+    private static final EventType RENDER_EVENT = EventType.getEventType(RenderEvent.class);
+
+    private static final EventType STREAMING_CONVERSION_EVENT =
+        EventType.getEventType(StreamingConversionEvent.class);
+
+    @Inject
+    private RenderingConfiguration configuration;
+
+    private final ConcurrentMap<String, MacroExecutionStatisticsAccumulator> macroStatistics =
+        new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled()
+    {
+        return MACRO_EXECUTION_EVENT.isEnabled() || TRANSFORMATION_EVENT.isEnabled() || PARSE_EVENT.isEnabled()
+            || RENDER_EVENT.isEnabled() || STREAMING_CONVERSION_EVENT.isEnabled()
+            || this.configuration.isMacroStatisticsEnabled();
+    }
+
+    @Override
+    public void onTransformation(String transformation, long duration, boolean failed)
+    {
+        TransformationEvent event = new TransformationEvent();
+        if (event.shouldCommit()) {
+            event.transformation = transformation;
+            event.executionTime = duration;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onMacroExecution(String macroId, boolean inline, long duration, int blockCount, boolean failed)
+    {
+        MacroExecutionEvent event = new MacroExecutionEvent();
+        if (event.shouldCommit()) {
+            event.macroId = macroId;
+            event.inline = inline;
+            event.executionTime = duration;
+            event.blockCount = blockCount;
+            event.failed = failed;
+            event.commit();
+        }
+
+        if (this.configuration.isMacroStatisticsEnabled()) {
+            this.macroStatistics.computeIfAbsent(macroId, key -> new MacroExecutionStatisticsAccumulator())
+                .add(duration, blockCount, failed);
+        }
+    }
+
+    @Override
+    public void onParse(Syntax syntax, long duration, boolean failed)
+    {
+        ParseEvent event = new ParseEvent();
+        if (event.shouldCommit()) {
+            event.syntax = syntax.toIdString();
+            event.executionTime = duration;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRender(Syntax syntax, long duration, boolean failed)
+    {
+        RenderEvent event = new RenderEvent();
+        if (event.shouldCommit()) {
+            event.syntax = syntax.toIdString();
+            event.executionTime = duration;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onStreamingConversion(Syntax sourceSyntax, Syntax targetSyntax, long duration, boolean failed)
+    {
+        StreamingConversionEvent event = new StreamingConversionEvent();
+        if (event.shouldCommit()) {
+            event.sourceSyntax = sourceSyntax.toIdString();
+            event.targetSyntax = targetSyntax.toIdString();
+            event.executionTime = duration;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Map<String, MacroExecutionStatistics> getMacroExecutionStatistics()
+    {
+        Map<String, MacroExecutionStatistics> statistics = new TreeMap<>();
+        this.macroStatistics.forEach((macroId, accumulator) -> statistics.put(macroId, accumulator.getStatistics()));
+
+        return statistics;
+    }
+
+    @Override
+    public void resetMacroExecutionStatistics()
+    {
+        this.macroStatistics.clear();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted after the execution of a macro.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Name("org.xwiki.rendering.MacroExecution")
+@Label("Macro Execution")
+@Category({ "XWiki", "Rendering" })
+@Description("Execution of a macro by the macro transformation")
+class MacroExecutionEvent extends Event
+{
+    @Label("Macro")
+    String macroId;
+
+    @Label("Inline")
+    boolean inline;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long executionTime;
+
+    @Label("Block Count")
+    int blockCount;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.instrumentation;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.xwiki.rendering.instrumentation.MacroExecutionStatistics;
+
+/**
+ * Aggregate the executions of a macro, possibly from several threads at the same time.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+class MacroExecutionStatisticsAccumulator
+{
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder totalDuration = new LongAdder();
+
+    private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder blockCount = new LongAdder();
+
+    private final LongAdder[] histogram = new LongAdder[MacroExecutionStatistics.BUCKET_BOUNDS.size() + 1];
+
+    MacroExecutionStatisticsAccumulator()
+    {
+        for (int i = 0; i < this.histogram.length; i++) {
+            this.histogram[i] = new LongAdder();
+        }
+    }
+
+    void add(long duration, int blocks, boolean failed)
+    {
+        this.count.increment();
+        if (failed) {
+            this.errorCount.increment();
+        }
+        this.totalDuration.add(duration);
+        this.maxDuration.accumulate(duration);
+        this.blockCount.add(blocks);
+        this.histogram[MacroExecutionStatistics.getBucket(duration)].increment();
+    }
+
+    MacroExecutionStatistics getStatistics()
+    {
+        long[] buckets = new long[this.histogram.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = this.histogram[i].sum();
+        }
+
+        return new MacroExecutionStatistics(this.count.sum(), this.errorCount.sum(), this.totalDuration.sum(),
+            this.maxDuration.get(), this.blockCount.sum(), buckets);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted after converting a content by sending the parser events directly to the renderer, in which case
+ * the parsing and the rendering cannot be measured separately.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Name("org.xwiki.rendering.StreamingConversion")
+@Label("Streaming Conversion")
+@Category({ "XWiki", "Rendering" })
+@Description("Parsing and rendering of a content without intermediate XDOM")
+class StreamingConversionEvent extends Event
+{
+    @Label("Source Syntax")
+    String sourceSyntax;
+
+    @Label("Target Syntax")
+    String targetSyntax;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long executionTime;
+
+    @Label("Failed")
+    boolean failed;
+}
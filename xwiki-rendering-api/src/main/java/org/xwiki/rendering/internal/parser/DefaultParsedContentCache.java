@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.ParsedContentCache;
+import org.xwiki.rendering.parser.ParsedContentCacheStatistics;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Default implementation of {@link ParsedContentCache}, keeping the most recently used parsed contents.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Singleton
+public class DefaultParsedContentCache implements ParsedContentCache
+{
+    /**
+     * Used to lookup the parsers.
+     */
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private RenderingConfiguration configuration;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The parsed contents, from the least recently used to the most recently used.
+     */
+    private final Map<Key, XDOM> cache = new LinkedHashMap<>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, XDOM> eldest)
+        {
+            if (size() > configuration.getParsedContentCacheSize()) {
+                evictions.increment();
+
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    /**
+     * The cache key: the content and what influences the result of its parsing.
+     * <p>
+     * The parser instance is used rather than its class since two instances of the same class can be configured
+     * differently. The parsers registered for a syntax are singletons so the same instance is found for each parsing.
+     *
+     * @param content the parsed content
+     * @param syntax the syntax of the parser
+     * @param parser the parser
+     */
+    private record Key(String content, Syntax syntax, Parser parser)
+    {
+    }
+
+    @Override
+    public XDOM parse(String content, Syntax syntax) throws ParseException
+    {
+        Parser parser;
+        try {
+            parser = this.componentManagerProvider.get().getInstance(Parser.class, syntax.toIdString());
+        } catch (ComponentLookupException e) {
+            throw new ParseException("Failed to find a parser for syntax [" + syntax + "]", e);
+        }
+
+        return parse(content, parser);
+    }
+
+    @Override
+    public XDOM parse(String content, Parser parser) throws ParseException
+    {
+        Key key = new Key(content, parser.getSyntax(), parser);
+
+        XDOM xdom;
+        synchronized (this.cache) {
+            xdom = this.cache.get(key);
+        }
+
+        if (xdom != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+
+            // Parse outside of the lock since it can take a while
+            xdom = parser.parse(content);
+
+            if (this.configuration.getParsedContentCacheSize() > 0) {
+                synchronized (this.cache) {
+                    this.cache.put(key, xdom);
+                }
+            }
+        }
+
+        // The cached XDOM is never modified, only copies of it are exposed
+        return xdom.clone();
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    @Override
+    public ParsedContentCacheStatistics getStatistics()
+    {
+        int size;
+        synchronized (this.cache) {
+            size = this.cache.size();
+        }
+
+        return new ParsedContentCacheStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), size);
+    }
+}
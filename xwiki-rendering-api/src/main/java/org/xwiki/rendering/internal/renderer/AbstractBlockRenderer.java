@@ -58,7 +58,8 @@ public void render(Block block, WikiPrinter printer)
     @Override
     public void render(Collection<Block> blocks, WikiPrinter printer)
     {
-        PrintRenderer renderer = getPrintRendererFactory().createRenderer(printer);
+        PrintRendererFactory factory = getPrintRendererFactory();
+        PrintRenderer renderer = factory.createRenderer(printer);
         for (Block block : blocks) {
             block.traverse(renderer);
         }
@@ -72,5 +73,7 @@ public void render(Collection<Block> blocks, WikiPrinter printer)
                 }
             }
         }
+
+        factory.release(renderer);
     }
 }
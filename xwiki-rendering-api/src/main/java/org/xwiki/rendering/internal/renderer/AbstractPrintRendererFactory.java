@@ -19,32 +19,67 @@
  */
 package org.xwiki.rendering.internal.renderer;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.inject.Inject;
 
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.renderer.PrintRenderer;
 import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 
 /**
  * Common code for {@link org.xwiki.rendering.renderer.PrintRendererFactory}, implements the logic to lookup and call
  * the matching Print Renderer.
+ * <p>
+ * {@link ResettablePrintRenderer}s given back through {@link #release(PrintRenderer)} are kept in a small pool and
+ * reused by the following calls to {@link #createRenderer(WikiPrinter)} instead of looking up a new instance. A reused
+ * renderer is initialized again in the context of the new rendering.
  *
  * @version $Id$
  * @since 2.0M3
  */
 public abstract class AbstractPrintRendererFactory implements PrintRendererFactory
 {
+    /**
+     * The maximum number of released renderers to keep for reuse.
+     */
+    private static final int MAX_POOL_SIZE = 16;
+
     /**
      * Used to lookup the {@link PrintRenderer}.
      */
     @Inject
     private ComponentManager componentManager;
 
+    /**
+     * The released renderers waiting to be reused.
+     */
+    private final Queue<ResettablePrintRenderer> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of renderers in {@link #pool} (the size of a {@link ConcurrentLinkedQueue} is not a constant-time
+     * operation).
+     */
+    private final AtomicInteger poolSize = new AtomicInteger();
+
     @Override
     public PrintRenderer createRenderer(WikiPrinter printer)
     {
+        ResettablePrintRenderer pooledRenderer = this.pool.poll();
+        if (pooledRenderer != null) {
+            this.poolSize.decrementAndGet();
+            // Initialize the renderer in the current context, which can be different from the one of the previous
+            // rendering (e.g. another wiki or user with other listener providers).
+            pooledRenderer.reset(printer);
+
+            return pooledRenderer;
+        }
+
         PrintRenderer renderer;
         try {
             renderer = this.componentManager.getInstance(PrintRenderer.class, getSyntax().toIdString());
@@ -56,4 +91,18 @@ public PrintRenderer createRenderer(WikiPrinter printer)
 
         return renderer;
     }
+
+    @Override
+    public void release(PrintRenderer renderer)
+    {
+        if (renderer instanceof ResettablePrintRenderer resettableRenderer) {
+            if (this.poolSize.incrementAndGet() <= MAX_POOL_SIZE) {
+                // Make sure the pooled renderer does not keep a reference to the content it produced.
+                resettableRenderer.recycle();
+                this.pool.offer(resettableRenderer);
+            } else {
+                this.poolSize.decrementAndGet();
+            }
+        }
+    }
 }
@@ -22,6 +22,7 @@
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -270,4 +271,39 @@ public void setTargetSyntax(Syntax targetSyntax)
             context.targetSyntax = targetSyntax;
         }
     }
+
+    @Override
+    public <V> Callable<V> withCurrentContext(Callable<V> task)
+    {
+        ExecutionContext parentExecutionContext = this.execution.getContext();
+        Context context = peek();
+        if (parentExecutionContext == null || context == NULL_CONTEXT) {
+            return task;
+        }
+
+        // Copy the context right away since the calling thread might modify it before the task is executed.
+        Context contextCopy = context.clone();
+
+        return () -> {
+            // Threads don't share their execution context so create one when the task is executed by a new thread.
+            boolean createExecutionContext = this.execution.getContext() == null;
+            if (createExecutionContext) {
+                ExecutionContext executionContext = new ExecutionContext();
+                executionContext.inheritFrom(parentExecutionContext);
+                this.execution.setContext(executionContext);
+            }
+
+            Deque<Context> stack = getContextStack(true);
+            stack.push(contextCopy.clone());
+            try {
+                return task.call();
+            } finally {
+                stack.pop();
+
+                if (createExecutionContext) {
+                    this.execution.removeContext();
+                }
+            }
+        };
+    }
 }
@@ -37,6 +37,7 @@
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
 import org.xwiki.rendering.transformation.RenderingContext;
 import org.xwiki.rendering.transformation.Transformation;
 import org.xwiki.rendering.transformation.TransformationContext;
@@ -79,14 +80,25 @@ public class DefaultTransformationManager implements TransformationManager
     @Named("context")
     private Provider<ComponentManager> componentManagerProvider;
 
+    /**
+     * Used to report the duration of each transformation.
+     */
+    @Inject
+    private RenderingInstrumentation instrumentation;
+
     @Override
     public void performTransformations(Block block, TransformationContext context) throws TransformationException
     {
         Map<String, String> transformationsInError = null;
         for (Transformation transformation : getTransformations(context)) {
+            boolean instrumented = this.instrumentation.isEnabled();
+            long start = instrumented ? System.nanoTime() : 0;
+            boolean failed = false;
             try {
                 ((MutableRenderingContext) this.renderingContext).transformInContext(transformation, context, block);
             } catch (Exception e) {
+                failed = true;
+
                 // Continue running the other transformations
                 if (transformationsInError == null) {
                     transformationsInError = new HashMap<>();
@@ -94,6 +106,10 @@ public void performTransformations(Block block, TransformationContext context) t
                 transformationsInError.put(transformation.getClass().getName(),
                     ExceptionUtils.getStackTrace(e));
             }
+            if (instrumented) {
+                this.instrumentation.onTransformation(transformation.getClass().getName(), System.nanoTime() - start,
+                    failed);
+            }
         }
         if (transformationsInError != null) {
             StringBuilder builder = new StringBuilder();
@@ -20,6 +20,8 @@
 
 package org.xwiki.rendering.internal.transformation;
 
+import java.util.concurrent.Callable;
+
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.syntax.Syntax;
@@ -86,4 +88,18 @@ void transformInContext(Transformation transformation, TransformationContext con
      * @param targetSyntax the target syntax
      */
     void setTargetSyntax(Syntax targetSyntax);
+
+    /**
+     * Wrap a task so that it's executed with a copy of the current rendering context, for example when the task is
+     * executed by another thread.
+     *
+     * @param task the task to wrap
+     * @param <V> the type of the value returned by the task
+     * @return the task executed with a copy of the current rendering context
+     * @since 18.7.0RC1
+     */
+    default <V> Callable<V> withCurrentContext(Callable<V> task)
+    {
+        return task;
+    }
 }
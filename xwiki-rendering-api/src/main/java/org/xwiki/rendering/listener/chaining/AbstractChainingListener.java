@@ -32,6 +32,7 @@
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * Default and basic implementation of a chaining listener that knows how to delegate event calls to the next listener
@@ -42,11 +43,32 @@
  */
 public abstract class AbstractChainingListener implements ChainingListener
 {
+    /**
+     * The retro compatibility flags of each listener class. They only depend on the methods declared by the class
+     * hierarchy, so there's no need to compute them with reflection again for each new instance (stackable listeners
+     * are created very often during rendering).
+     */
+    private static final ClassValue<RetroCompatibility> RETRO_COMPATIBILITY = new ClassValue<>()
+    {
+        @Override
+        protected RetroCompatibility computeValue(Class<?> type)
+        {
+            return new RetroCompatibility(
+                needsRetroCompatibility(type, method -> method.getName().endsWith("ListItem"), 0),
+                needsRetroCompatibility(type, method -> "onImage".equals(method.getName()), 3));
+        }
+    };
+
     /**
      * The chain to use to know the next listener to call on events.
      */
     private ListenerChain listenerChain;
 
+    /**
+     * The slot of this listener in {@link #listenerChain}, giving direct access to the next listener.
+     */
+    private ListenerSlot listenerSlot;
+
     /**
      * True if {@link #beginListItem(Map)} should redirect to {@link #beginListItem()} for retro compatibility.
      * <p>
@@ -80,23 +102,26 @@ public abstract class AbstractChainingListener implements ChainingListener
      */
     public AbstractChainingListener()
     {
-        this.listItemRetroCompatibility = needsRetroCompatibility(method -> method.getName().endsWith("ListItem"), 0);
-        this.imageRetroCompatibility = needsRetroCompatibility(method -> "onImage".equals(method.getName()), 3);
+        RetroCompatibility retroCompatibility = RETRO_COMPATIBILITY.get(getClass());
+        this.listItemRetroCompatibility = retroCompatibility.listItem;
+        this.imageRetroCompatibility = retroCompatibility.image;
     }
 
     /**
      * Checks if a method needs retro compatibility.
      *
+     * @param type the listener class to check
      * @param methodFilter a predicate to filter the methods
      * @param oldParameterCount the number of parameters the old version of the method has
      * @return true if there is a child class that implements the matched method(s) only with the old parameter count
      * @since 14.2RC1
      */
-    private boolean needsRetroCompatibility(Predicate<Method> methodFilter, int oldParameterCount)
+    private static boolean needsRetroCompatibility(Class<?> type, Predicate<Method> methodFilter,
+        int oldParameterCount)
     {
         boolean result = false;
 
-        for (Class<?> current = getClass(); current != AbstractChainingListener.class; current =
+        for (Class<?> current = type; current != AbstractChainingListener.class; current =
             current.getSuperclass()) {
             Set<Integer> parameterCounts = Arrays.stream(current.getDeclaredMethods())
                 .filter(methodFilter)
@@ -124,6 +149,7 @@ private boolean needsRetroCompatibility(Predicate<Method> methodFilter, int oldP
     public void setListenerChain(ListenerChain listenerChain)
     {
         this.listenerChain = listenerChain;
+        this.listenerSlot = null;
     }
 
     @Override
@@ -132,10 +158,32 @@ public ListenerChain getListenerChain()
         return this.listenerChain;
     }
 
+    /**
+     * Equivalent to {@code getListenerChain().getNextListener(getClass())} but without looking up this listener in the
+     * chain for each event.
+     *
+     * @return the next listener in the chain or {@code null} if there's none
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected ChainingListener getNextListener()
+    {
+        ListenerChain chain = getListenerChain();
+        ListenerSlot slot = this.listenerSlot;
+        if (slot == null || !slot.isValid(chain)) {
+            // The slot changes when the listener chain is modified or replaced, and it's null as long as this listener
+            // is not part of the chain.
+            slot = chain.getSlot(getClass());
+            this.listenerSlot = slot;
+        }
+
+        return slot != null ? slot.getNextListener() : null;
+    }
+
     @Override
     public void beginDefinitionDescription()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginDefinitionDescription();
         }
@@ -144,7 +192,7 @@ public void beginDefinitionDescription()
     @Override
     public void beginDefinitionList(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginDefinitionList(parameters);
         }
@@ -153,7 +201,7 @@ public void beginDefinitionList(Map<String, String> parameters)
     @Override
     public void beginDefinitionTerm()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginDefinitionTerm();
         }
@@ -162,7 +210,7 @@ public void beginDefinitionTerm()
     @Override
     public void beginDocument(MetaData metadata)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginDocument(metadata);
         }
@@ -171,7 +219,7 @@ public void beginDocument(MetaData metadata)
     @Override
     public void beginGroup(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginGroup(parameters);
         }
@@ -180,7 +228,7 @@ public void beginGroup(Map<String, String> parameters)
     @Override
     public void beginFormat(Format format, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginFormat(format, parameters);
         }
@@ -189,7 +237,7 @@ public void beginFormat(Format format, Map<String, String> parameters)
     @Override
     public void beginHeader(HeaderLevel level, String id, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginHeader(level, id, parameters);
         }
@@ -198,7 +246,7 @@ public void beginHeader(HeaderLevel level, String id, Map<String, String> parame
     @Override
     public void beginLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginLink(reference, freestanding, parameters);
         }
@@ -207,7 +255,7 @@ public void beginLink(ResourceReference reference, boolean freestanding, Map<Str
     @Override
     public void beginList(ListType type, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginList(type, parameters);
         }
@@ -216,7 +264,7 @@ public void beginList(ListType type, Map<String, String> parameters)
     @Override
     public void beginListItem()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginListItem();
         }
@@ -230,7 +278,7 @@ public void beginListItem(Map<String, String> parameters)
         if (this.listItemRetroCompatibility) {
             beginListItem();
         } else {
-            ChainingListener next = getListenerChain().getNextListener(getClass());
+            ChainingListener next = getNextListener();
             if (next != null) {
                 next.beginListItem(parameters);
             }
@@ -240,7 +288,7 @@ public void beginListItem(Map<String, String> parameters)
     @Override
     public void beginMacroMarker(String name, Map<String, String> parameters, String content, boolean isInline)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginMacroMarker(name, parameters, content, isInline);
         }
@@ -249,7 +297,7 @@ public void beginMacroMarker(String name, Map<String, String> parameters, String
     @Override
     public void beginParagraph(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginParagraph(parameters);
         }
@@ -258,7 +306,7 @@ public void beginParagraph(Map<String, String> parameters)
     @Override
     public void beginQuotation(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginQuotation(parameters);
         }
@@ -267,7 +315,7 @@ public void beginQuotation(Map<String, String> parameters)
     @Override
     public void beginQuotationLine()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginQuotationLine();
         }
@@ -276,7 +324,7 @@ public void beginQuotationLine()
     @Override
     public void beginSection(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginSection(parameters);
         }
@@ -285,7 +333,7 @@ public void beginSection(Map<String, String> parameters)
     @Override
     public void beginTable(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginTable(parameters);
         }
@@ -294,7 +342,7 @@ public void beginTable(Map<String, String> parameters)
     @Override
     public void beginTableCell(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginTableCell(parameters);
         }
@@ -303,7 +351,7 @@ public void beginTableCell(Map<String, String> parameters)
     @Override
     public void beginTableHeadCell(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginTableHeadCell(parameters);
         }
@@ -312,7 +360,7 @@ public void beginTableHeadCell(Map<String, String> parameters)
     @Override
     public void beginTableRow(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginTableRow(parameters);
         }
@@ -321,7 +369,7 @@ public void beginTableRow(Map<String, String> parameters)
     @Override
     public void beginMetaData(MetaData metadata)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginMetaData(metadata);
         }
@@ -330,7 +378,7 @@ public void beginMetaData(MetaData metadata)
     @Override
     public void beginFigure(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginFigure(parameters);
         }
@@ -339,7 +387,7 @@ public void beginFigure(Map<String, String> parameters)
     @Override
     public void beginFigureCaption(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.beginFigureCaption(parameters);
         }
@@ -348,7 +396,7 @@ public void beginFigureCaption(Map<String, String> parameters)
     @Override
     public void endDefinitionDescription()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endDefinitionDescription();
         }
@@ -357,7 +405,7 @@ public void endDefinitionDescription()
     @Override
     public void endDefinitionList(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endDefinitionList(parameters);
         }
@@ -366,7 +414,7 @@ public void endDefinitionList(Map<String, String> parameters)
     @Override
     public void endDefinitionTerm()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endDefinitionTerm();
         }
@@ -375,7 +423,7 @@ public void endDefinitionTerm()
     @Override
     public void endDocument(MetaData metadata)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endDocument(metadata);
         }
@@ -384,7 +432,7 @@ public void endDocument(MetaData metadata)
     @Override
     public void endGroup(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endGroup(parameters);
         }
@@ -393,7 +441,7 @@ public void endGroup(Map<String, String> parameters)
     @Override
     public void endFormat(Format format, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endFormat(format, parameters);
         }
@@ -402,7 +450,7 @@ public void endFormat(Format format, Map<String, String> parameters)
     @Override
     public void endHeader(HeaderLevel level, String id, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endHeader(level, id, parameters);
         }
@@ -411,7 +459,7 @@ public void endHeader(HeaderLevel level, String id, Map<String, String> paramete
     @Override
     public void endLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endLink(reference, freestanding, parameters);
         }
@@ -420,7 +468,7 @@ public void endLink(ResourceReference reference, boolean freestanding, Map<Strin
     @Override
     public void endList(ListType type, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endList(type, parameters);
         }
@@ -429,7 +477,7 @@ public void endList(ListType type, Map<String, String> parameters)
     @Override
     public void endListItem()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endListItem();
         }
@@ -443,7 +491,7 @@ public void endListItem(Map<String, String> parameters)
         if (this.listItemRetroCompatibility) {
             endListItem();
         } else {
-            ChainingListener next = getListenerChain().getNextListener(getClass());
+            ChainingListener next = getNextListener();
             if (next != null) {
                 next.endListItem(parameters);
             }
@@ -453,7 +501,7 @@ public void endListItem(Map<String, String> parameters)
     @Override
     public void endMacroMarker(String name, Map<String, String> parameters, String content, boolean isInline)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endMacroMarker(name, parameters, content, isInline);
         }
@@ -462,7 +510,7 @@ public void endMacroMarker(String name, Map<String, String> parameters, String c
     @Override
     public void endParagraph(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endParagraph(parameters);
         }
@@ -471,7 +519,7 @@ public void endParagraph(Map<String, String> parameters)
     @Override
     public void endQuotation(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endQuotation(parameters);
         }
@@ -480,7 +528,7 @@ public void endQuotation(Map<String, String> parameters)
     @Override
     public void endQuotationLine()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endQuotationLine();
         }
@@ -489,7 +537,7 @@ public void endQuotationLine()
     @Override
     public void endSection(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endSection(parameters);
         }
@@ -498,7 +546,7 @@ public void endSection(Map<String, String> parameters)
     @Override
     public void endTable(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endTable(parameters);
         }
@@ -507,7 +555,7 @@ public void endTable(Map<String, String> parameters)
     @Override
     public void endTableCell(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endTableCell(parameters);
         }
@@ -516,7 +564,7 @@ public void endTableCell(Map<String, String> parameters)
     @Override
     public void endTableHeadCell(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endTableHeadCell(parameters);
         }
@@ -525,7 +573,7 @@ public void endTableHeadCell(Map<String, String> parameters)
     @Override
     public void endTableRow(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endTableRow(parameters);
         }
@@ -534,7 +582,7 @@ public void endTableRow(Map<String, String> parameters)
     @Override
     public void endMetaData(MetaData metadata)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endMetaData(metadata);
         }
@@ -543,7 +591,7 @@ public void endMetaData(MetaData metadata)
     @Override
     public void endFigure(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endFigure(parameters);
         }
@@ -552,7 +600,7 @@ public void endFigure(Map<String, String> parameters)
     @Override
     public void endFigureCaption(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.endFigureCaption(parameters);
         }
@@ -561,7 +609,7 @@ public void endFigureCaption(Map<String, String> parameters)
     @Override
     public void onEmptyLines(int count)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onEmptyLines(count);
         }
@@ -570,7 +618,7 @@ public void onEmptyLines(int count)
     @Override
     public void onHorizontalLine(Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onHorizontalLine(parameters);
         }
@@ -579,7 +627,7 @@ public void onHorizontalLine(Map<String, String> parameters)
     @Override
     public void onId(String name)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onId(name);
         }
@@ -588,7 +636,7 @@ public void onId(String name)
     @Override
     public void onImage(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onImage(reference, freestanding, parameters);
         }
@@ -602,7 +650,7 @@ public void onImage(ResourceReference reference, boolean freestanding, String id
         if (this.imageRetroCompatibility) {
             onImage(reference, freestanding, parameters);
         } else {
-            ChainingListener next = getListenerChain().getNextListener(getClass());
+            ChainingListener next = getNextListener();
             if (next != null) {
                 next.onImage(reference, freestanding, id, parameters);
             }
@@ -612,7 +660,7 @@ public void onImage(ResourceReference reference, boolean freestanding, String id
     @Override
     public void onMacro(String id, Map<String, String> parameters, String content, boolean inline)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onMacro(id, parameters, content, inline);
         }
@@ -621,7 +669,7 @@ public void onMacro(String id, Map<String, String> parameters, String content, b
     @Override
     public void onNewLine()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onNewLine();
         }
@@ -630,7 +678,7 @@ public void onNewLine()
     @Override
     public void onSpace()
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onSpace();
         }
@@ -639,7 +687,7 @@ public void onSpace()
     @Override
     public void onSpecialSymbol(char symbol)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onSpecialSymbol(symbol);
         }
@@ -648,7 +696,7 @@ public void onSpecialSymbol(char symbol)
     @Override
     public void onVerbatim(String content, boolean inline, Map<String, String> parameters)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onVerbatim(content, inline, parameters);
         }
@@ -657,7 +705,7 @@ public void onVerbatim(String content, boolean inline, Map<String, String> param
     @Override
     public void onWord(String word)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onWord(word);
         }
@@ -666,9 +714,25 @@ public void onWord(String word)
     @Override
     public void onRawText(String text, Syntax syntax)
     {
-        ChainingListener next = getListenerChain().getNextListener(getClass());
+        ChainingListener next = getNextListener();
         if (next != null) {
             next.onRawText(text, syntax);
         }
     }
+
+    /**
+     * The retro compatibility flags of a listener class.
+     */
+    private static final class RetroCompatibility
+    {
+        private final boolean listItem;
+
+        private final boolean image;
+
+        RetroCompatibility(boolean listItem, boolean image)
+        {
+            this.listItem = listItem;
+            this.image = image;
+        }
+    }
 }
@@ -19,9 +19,7 @@
  */
 package org.xwiki.rendering.listener.chaining;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,7 +42,7 @@
      * The full list of chaining listeners. For each of them we have a stack since the ones that implement the
      * {@link StackableChainingListener} interface can be stacked.
      */
-    private Map<Class<? extends ChainingListener>, Deque<ChainingListener>> listeners = new HashMap<>();
+    private Map<Class<? extends ChainingListener>, ListenerSlot> listeners = new HashMap<>();
 
     /**
      * The ordered list of listeners. We only allow one instance per listener class name so we just need to store the
@@ -69,13 +67,15 @@ public void addListener(ChainingListener listener)
      */
     public void removeListener(Class<? extends ChainingListener> listenerClass)
     {
-        Deque<ChainingListener> stack = this.listeners.get(listenerClass);
-        if (!stack.isEmpty()) {
-            stack.pop();
+        ListenerSlot slot = this.listeners.get(listenerClass);
+        if (!slot.isEmpty()) {
+            slot.pop();
         }
-        if (stack.isEmpty()) {
+        if (slot.isEmpty()) {
             this.listeners.remove(listenerClass);
             this.nextListeners.remove(listenerClass);
+            slot.detach();
+            linkSlots();
         }
     }
 
@@ -91,17 +91,31 @@ public void addListener(ChainingListener listener, int index)
         // and don't add the listener as an additional listener in the list (since it's already
         // in there). We need to take these steps since the push() methods below will create
         // new instances of listeners which will add themselves in the chain automatically.
-        Deque<ChainingListener> stack = this.listeners.get(listener.getClass());
-        if (stack == null) {
-            stack = new ArrayDeque<>();
-            this.listeners.put(listener.getClass(), stack);
+        ListenerSlot slot = this.listeners.get(listener.getClass());
+        if (slot == null) {
+            slot = new ListenerSlot(this);
+            this.listeners.put(listener.getClass(), slot);
             if (index > -1 && index < this.nextListeners.size()) {
                 this.nextListeners.add(index, listener.getClass());
             } else {
                 this.nextListeners.add(listener.getClass());
             }
+            linkSlots();
+        }
+        slot.push(listener);
+    }
+
+    /**
+     * Update the link from each slot to the slot of the next listener, after the order of the listeners changed.
+     */
+    private void linkSlots()
+    {
+        ListenerSlot next = null;
+        for (int i = this.nextListeners.size() - 1; i >= 0; i--) {
+            ListenerSlot slot = this.listeners.get(this.nextListeners.get(i));
+            slot.setNext(next);
+            next = slot;
         }
-        stack.push(listener);
     }
 
     /**
@@ -110,12 +124,18 @@ public void addListener(ChainingListener listener, int index)
      */
     public ChainingListener getNextListener(Class<? extends ChainingListener> listenerClass)
     {
-        ChainingListener next = null;
-        int pos = indexOf(listenerClass);
-        if (pos > -1 && this.nextListeners.size() > pos + 1) {
-            next = this.listeners.get(this.nextListeners.get(pos + 1)).peek();
-        }
-        return next;
+        ListenerSlot slot = this.listeners.get(listenerClass);
+        return slot != null ? slot.getNextListener() : null;
+    }
+
+    /**
+     * @param listenerClass the listener class for which we need the slot
+     * @return the slot holding the instances of the passed listener class in this chain or {@code null} if the
+     *         listener is not part of the chain
+     */
+    ListenerSlot getSlot(Class<? extends ChainingListener> listenerClass)
+    {
+        return this.listeners.get(listenerClass);
     }
 
     /**
@@ -125,10 +145,9 @@ public ChainingListener getNextListener(Class<? extends ChainingListener> listen
      */
     public ChainingListener getListener(Class<? extends ChainingListener> listenerClass)
     {
-        Deque<ChainingListener> result = this.listeners.get(listenerClass);
+        ListenerSlot result = this.listeners.get(listenerClass);
         if (result == null) {
-            for (Map.Entry<Class<? extends ChainingListener>, Deque<ChainingListener>> entry
-                : this.listeners.entrySet()) {
+            for (Map.Entry<Class<? extends ChainingListener>, ListenerSlot> entry : this.listeners.entrySet()) {
                 if (listenerClass.isAssignableFrom(entry.getKey())) {
                     result = entry.getValue();
                     break;
@@ -158,8 +177,8 @@ public int indexOf(Class<? extends ChainingListener> listenerClass)
     public void pushListener(Class<? extends ChainingListener> listenerClass)
     {
         if (StackableChainingListener.class.isAssignableFrom(listenerClass)) {
-            Deque<ChainingListener> stack = this.listeners.get(listenerClass);
-            stack.push(((StackableChainingListener) stack.peek()).createChainingListenerInstance());
+            ListenerSlot slot = this.listeners.get(listenerClass);
+            slot.push(((StackableChainingListener) slot.peek()).createChainingListenerInstance());
         }
     }
 
@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.listener.chaining;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Holds the stack of instances of a listener class in a {@link ListenerChain}, along with a direct link to the slot of
+ * the next listener in the chain. Chaining listeners keep a reference to their slot so that forwarding an event to the
+ * next listener doesn't require looking up the listener class in the chain.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+final class ListenerSlot
+{
+    private final ListenerChain chain;
+
+    private final Deque<ChainingListener> stack = new ArrayDeque<>();
+
+    /**
+     * The instance at the top of the stack, kept in a field to avoid going through the stack on each event.
+     */
+    private ChainingListener top;
+
+    private ListenerSlot next;
+
+    private boolean attached = true;
+
+    /**
+     * @param chain the chain this slot belongs to
+     */
+    ListenerSlot(ListenerChain chain)
+    {
+        this.chain = chain;
+    }
+
+    /**
+     * @param chain the chain of the listener using this slot
+     * @return {@code true} if this slot is still part of the passed chain
+     */
+    boolean isValid(ListenerChain chain)
+    {
+        return this.attached && this.chain == chain;
+    }
+
+    /**
+     * Called when the listener class is removed from the chain.
+     */
+    void detach()
+    {
+        this.attached = false;
+        this.next = null;
+    }
+
+    void setNext(ListenerSlot next)
+    {
+        this.next = next;
+    }
+
+    /**
+     * @return the current instance of the next listener in the chain or {@code null} if this is the last listener
+     */
+    ChainingListener getNextListener()
+    {
+        ListenerSlot nextSlot = this.next;
+        return nextSlot != null ? nextSlot.top : null;
+    }
+
+    void push(ChainingListener listener)
+    {
+        this.stack.push(listener);
+        this.top = listener;
+    }
+
+    void pop()
+    {
+        this.stack.pop();
+        this.top = this.stack.peek();
+    }
+
+    ChainingListener peek()
+    {
+        return this.top;
+    }
+
+    boolean isEmpty()
+    {
+        return this.stack.isEmpty();
+    }
+}
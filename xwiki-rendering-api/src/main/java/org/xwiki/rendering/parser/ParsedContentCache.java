@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.parser;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Keeps the result of recent parsings so that parsing the same content again doesn't require running the parser.
+ * <p>
+ * The cached {@link XDOM} is never exposed: each call returns a copy of it which the caller is free to modify (for
+ * example by executing transformations on it).
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+@Role
+public interface ParsedContentCache
+{
+    /**
+     * Parse the passed content with the {@link Parser} registered for the passed syntax, unless the same content was
+     * already parsed with the same parser.
+     *
+     * @param content the content to parse
+     * @param syntax the syntax of the content
+     * @return a new copy of the parsed content
+     * @throws ParseException when failing to find the parser or to parse the content
+     */
+    XDOM parse(String content, Syntax syntax) throws ParseException;
+
+    /**
+     * Parse the passed content with the passed parser, unless the same content was already parsed with the same
+     * parser.
+     *
+     * @param content the content to parse
+     * @param parser the parser to use
+     * @return a new copy of the parsed content
+     * @throws ParseException when failing to parse the content
+     */
+    XDOM parse(String content, Parser parser) throws ParseException;
+
+    /**
+     * Forget all the cached parsed contents.
+     */
+    void clear();
+
+    /**
+     * @return statistics about the usage of the cache
+     */
+    ParsedContentCacheStatistics getStatistics();
+}
@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.parser;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * Statistics about the usage of a {@link ParsedContentCache}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class ParsedContentCacheStatistics
+{
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final int size;
+
+    /**
+     * @param hits see {@link #getHits()}
+     * @param misses see {@link #getMisses()}
+     * @param evictions see {@link #getEvictions()}
+     * @param size see {@link #getSize()}
+     */
+    public ParsedContentCacheStatistics(long hits, long misses, long evictions, int size)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of times a parsed content was found in the cache
+     */
+    public long getHits()
+    {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of times a content had to be parsed
+     */
+    public long getMisses()
+    {
+        return this.misses;
+    }
+
+    /**
+     * @return the number of parsed contents removed from the cache because it was full
+     */
+    public long getEvictions()
+    {
+        return this.evictions;
+    }
+
+    /**
+     * @return the number of parsed contents currently in the cache
+     */
+    public int getSize()
+    {
+        return this.size;
+    }
+}
@@ -20,11 +20,13 @@
 package org.xwiki.rendering.parser;
 
 import java.io.Reader;
+import java.io.StringReader;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.util.IdGenerator;
+import org.xwiki.stability.Unstable;
 
 /**
  * Parse content into a XDOM (a tree of {@link org.xwiki.rendering.block.Block}s).
@@ -60,4 +62,35 @@ default XDOM parse(Reader source, IdGenerator idGenerator) throws ParseException
     {
         return parse(source);
     }
+
+    /**
+     * Parse content which is already in memory. Implementations can read it directly instead of going through a
+     * {@link Reader}.
+     *
+     * @param source the content to parse
+     * @return the tree representation of the content as {@link org.xwiki.rendering.block.Block}s
+     * @throws ParseException if an unexpected error happens during the parsing
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default XDOM parse(CharSequence source) throws ParseException
+    {
+        return parse(new StringReader(source.toString()));
+    }
+
+    /**
+     * Parse content which is already in memory. Implementations can read it directly instead of going through a
+     * {@link Reader}.
+     *
+     * @param source the content to parse
+     * @param idGenerator the id generator to use for automatically generating ids during parsing
+     * @return the tree representation of the content as {@link org.xwiki.rendering.block.Block}s
+     * @throws ParseException if an unexpected error happens during the parsing
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default XDOM parse(CharSequence source, IdGenerator idGenerator) throws ParseException
+    {
+        return parse(new StringReader(source.toString()), idGenerator);
+    }
 }
@@ -20,11 +20,13 @@
 package org.xwiki.rendering.parser;
 
 import java.io.Reader;
+import java.io.StringReader;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.util.IdGenerator;
+import org.xwiki.stability.Unstable;
 
 /**
  * Streaming based parser. Instead of returning a resulting XDOM it send events during the parsing.
@@ -61,4 +63,35 @@ default void parse(Reader source, Listener listener, IdGenerator idGenerator) th
         parse(source, listener);
     }
 
+    /**
+     * Parse content which is already in memory. Implementations can read it directly instead of going through a
+     * {@link Reader}.
+     *
+     * @param source the content to parse
+     * @param listener the listener that receives an event for each element
+     * @throws ParseException if an unexpected error happens during the parsing
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default void parse(CharSequence source, Listener listener) throws ParseException
+    {
+        parse(new StringReader(source.toString()), listener);
+    }
+
+    /**
+     * Parse content which is already in memory. Implementations can read it directly instead of going through a
+     * {@link Reader}.
+     *
+     * @param source the content to parse
+     * @param listener the listener that receives an event for each element
+     * @param idGenerator the id generator to use for automatically generating ids during parsing
+     * @throws ParseException if an unexpected error happens during the parsing
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default void parse(CharSequence source, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        parse(new StringReader(source.toString()), listener, idGenerator);
+    }
+
 }
@@ -25,6 +25,7 @@
 import org.xwiki.rendering.listener.chaining.AbstractChainingListener;
 import org.xwiki.rendering.listener.chaining.ChainingListener;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -83,6 +84,33 @@ protected void pushPrinter(WikiPrinter wikiPrinter)
         }
     }
 
+    /**
+     * Forget all the printers previously set and use the provided one instead.
+     *
+     * @param wikiPrinter the new {@link WikiPrinter} to use
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected void resetPrinter(WikiPrinter wikiPrinter)
+    {
+        this.printers.clear();
+
+        setPrinter(wikiPrinter);
+    }
+
+    /**
+     * Forget the listener chain, with the state of all its listeners, and the printers previously set so that nothing
+     * is kept from the previous rendering. A new listener chain has to be set before using this renderer again.
+     *
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected void clearListenerChain()
+    {
+        setListenerChain(null);
+        this.printers.clear();
+    }
+
     /**
      * Removes the current {@link WikiPrinter} and instead sets the previous printer as active.
      */
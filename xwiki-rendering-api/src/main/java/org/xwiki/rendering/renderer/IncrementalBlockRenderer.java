@@ -0,0 +1,120 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.renderer;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Renders the same document several times (for example to refresh a live preview while the document is being
+ * edited) by reusing the result of the previous rendering of the top level blocks which were not modified since then
+ * (see {@link Block#getRevision()}). Only the modified top level blocks are rendered again with the wrapped
+ * {@link BlockRenderer}.
+ * <p>
+ * Each top level block is rendered independently, and the events of the document itself are not sent to the
+ * renderer. This is only suited to the syntaxes in which the rendering of a block does not depend on its siblings,
+ * like XHTML or HTML 5.
+ * <p>
+ * This class is not thread safe: an instance should be dedicated to the rendering of one document.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class IncrementalBlockRenderer
+{
+    /**
+     * The result of the rendering of a block.
+     *
+     * @param revision the revision of the block when it was rendered
+     * @param content the result of the rendering
+     */
+    private record Fragment(long revision, String content)
+    {
+    }
+
+    private final BlockRenderer renderer;
+
+    /**
+     * The results of the previous rendering, by top level block.
+     */
+    private Map<Block, Fragment> fragments = new IdentityHashMap<>();
+
+    private int renderedBlockCount;
+
+    /**
+     * @param renderer the renderer used to render the modified blocks
+     */
+    public IncrementalBlockRenderer(BlockRenderer renderer)
+    {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Render the children of the passed block, reusing the result of the previous rendering of the children which
+     * were not modified since then.
+     *
+     * @param block the block to render (usually the {@link org.xwiki.rendering.block.XDOM} of the document)
+     * @param printer the object where to output the result of the rendering
+     */
+    public void render(Block block, WikiPrinter printer)
+    {
+        Map<Block, Fragment> newFragments = new IdentityHashMap<>(block.getChildren().size());
+        this.renderedBlockCount = 0;
+        for (Block child : block.getChildren()) {
+            long revision = child.getRevision();
+            Fragment fragment = this.fragments.get(child);
+            if (fragment == null || revision < 0 || fragment.revision() != revision) {
+                WikiPrinter childPrinter = new DefaultWikiPrinter();
+                this.renderer.render(child, childPrinter);
+                fragment = new Fragment(revision, childPrinter.toString());
+                this.renderedBlockCount++;
+            }
+
+            newFragments.put(child, fragment);
+            printer.print(fragment.content());
+        }
+
+        // Forget the blocks which are not part of the document anymore
+        this.fragments = newFragments;
+    }
+
+    /**
+     * @return the number of top level blocks which were actually rendered (i.e. not reused) during the last call to
+     *         {@link #render(Block, WikiPrinter)}
+     */
+    public int getRenderedBlockCount()
+    {
+        return this.renderedBlockCount;
+    }
+
+    /**
+     * Forget the results of the previous renderings.
+     */
+    public void reset()
+    {
+        this.fragments = new IdentityHashMap<>();
+    }
+}
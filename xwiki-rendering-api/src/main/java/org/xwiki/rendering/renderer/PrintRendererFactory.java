@@ -22,6 +22,7 @@
 import org.xwiki.component.annotation.Role;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.stability.Unstable;
 
 /**
  * Allows creating {@link Renderer}s of a given type (one factory implementation per Renderer type).
@@ -47,4 +48,18 @@
      * @since 2.0M3
      */
     PrintRenderer createRenderer(WikiPrinter printer);
+
+    /**
+     * Indicate that the passed renderer, previously returned by {@link #createRenderer(WikiPrinter)}, won't be used
+     * anymore so that the factory can reuse it for a future rendering. The renderer must not be used after calling this
+     * method.
+     *
+     * @param renderer the renderer which is not needed anymore
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default void release(PrintRenderer renderer)
+    {
+        // By default renderers are not reused
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.renderer;
+
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.stability.Unstable;
+
+/**
+ * A {@link PrintRenderer} which can be reused for another rendering, instead of looking up a new instance for each
+ * rendering.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public interface ResettablePrintRenderer extends PrintRenderer
+{
+    /**
+     * Forget the state of the previous rendering, including the printer, so that the renderer doesn't keep a
+     * reference to the rendered content while it's waiting to be reused. The renderer cannot be used before
+     * {@link #reset(WikiPrinter)} is called.
+     */
+    void recycle();
+
+    /**
+     * Initialize the renderer again, as if it was just created in the current context, and start outputting to the
+     * passed printer. In particular, the listeners contributed by {@link org.xwiki.rendering.listener.ListenerProvider}
+     * components are resolved again.
+     *
+     * @param printer the wiki printer to use when the Renderer needs to output rendered content
+     */
+    void reset(WikiPrinter printer);
+}
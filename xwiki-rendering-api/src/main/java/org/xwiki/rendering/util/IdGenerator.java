@@ -20,6 +20,9 @@
 package org.xwiki.rendering.util;
 
 import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -29,6 +32,11 @@
 /**
  * Stateful generator of id attributes. It's stateful since it remembers the generated ids. Thus a new instance of it
  * should be used for each document.
+ * <p>
+ * For each generated id prefix the generator remembers the next occurrence suffix which might be free, so that
+ * generating many times the same id does not require trying all the previous suffixes again. Copying a generator does
+ * not copy the generated ids: the generated ids known at the time of the copy become a read-only layer shared by the
+ * original generator and the copy.
  *
  * @version $Id$
  * @since 1.6M1
@@ -67,16 +75,27 @@
         { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
 
     /**
-     * Contains the already generated ids.
+     * The maximum number of layers after which a copy merges all the layers into a single one.
      */
-    private final Set<String> generatedIds;
+    private static final int MAX_LAYER_DEPTH = 16;
+
+    /**
+     * The separator between an id prefix and the occurrence suffix.
+     */
+    private static final char OCCURRENCE_SEPARATOR = '-';
+
+    /**
+     * The layer in which the ids generated by this generator are saved, on top of the layers shared with the
+     * generators it was copied from or copied to.
+     */
+    private volatile Layer currentLayer;
 
     /**
      * Create an empty id generator.
      */
     public IdGenerator()
     {
-        this.generatedIds = ConcurrentHashMap.newKeySet();
+        this.currentLayer = new Layer(null);
     }
 
     /**
@@ -88,8 +107,36 @@ public IdGenerator()
      */
     public IdGenerator(IdGenerator idGenerator)
     {
-        this.generatedIds = ConcurrentHashMap.newKeySet();
-        this.generatedIds.addAll(idGenerator.generatedIds);
+        this.currentLayer = new Layer(idGenerator.freeze());
+    }
+
+    /**
+     * Make the current state of this generator read-only so that it can be shared with a copy.
+     *
+     * @return the read-only layer to use as parent
+     */
+    private synchronized Layer freeze()
+    {
+        Layer frozenLayer = this.currentLayer;
+        if (frozenLayer.isEmpty()) {
+            // Nothing changed since the last copy, share the same read-only layer.
+            return frozenLayer.parent;
+        }
+        if (frozenLayer.depth >= MAX_LAYER_DEPTH) {
+            frozenLayer = frozenLayer.flatten();
+        }
+
+        this.currentLayer = new Layer(frozenLayer);
+
+        return frozenLayer;
+    }
+
+    /**
+     * @return the number of read-only layers below the layer in which the generated ids are saved
+     */
+    int getLayerDepth()
+    {
+        return this.currentLayer.depth;
     }
 
     /**
@@ -128,16 +175,29 @@ public String generateUniqueId(String prefix, String text)
 
         String idPrefix = prefix + normalizeId(text);
 
-        int occurence = 0;
-        String id = idPrefix;
-        // Try saving the generated id so that the next call to this method will not generate the same id until the
-        // saving succeeds.
-        while (!this.generatedIds.add(id)) {
-            occurence++;
-            id = idPrefix + "-" + occurence;
-        }
+        Layer layer = this.currentLayer;
+        String[] id = new String[1];
+        // Computing the next occurrence atomically makes sure that concurrent calls with the same prefix don't skip a
+        // free occurrence.
+        layer.nextOccurrences.compute(idPrefix, (key, nextOccurrence) -> {
+            int occurrence = nextOccurrence != null ? nextOccurrence : layer.getParentNextOccurrence(key);
+            id[0] = toId(key, occurrence);
+            // Try saving the generated id so that the next call to this method will not generate the same id until
+            // the saving succeeds.
+            while (!layer.add(id[0])) {
+                occurrence++;
+                id[0] = toId(key, occurrence);
+            }
 
-        return id;
+            return occurrence + 1;
+        });
+
+        return id[0];
+    }
+
+    private static String toId(String idPrefix, int occurrence)
+    {
+        return occurrence == 0 ? idPrefix : idPrefix + OCCURRENCE_SEPARATOR + occurrence;
     }
 
     /**
@@ -232,14 +292,184 @@ private char toHex(int nibble)
      */
     public void remove(String id)
     {
-        this.generatedIds.remove(id);
+        Layer layer = this.currentLayer;
+        layer.remove(id);
+
+        // Make sure the removed id can be generated again, either from the same text or as the occurrence of a
+        // shorter id.
+        layer.lowerNextOccurrence(id, 0);
+        int separatorIndex = id.lastIndexOf(OCCURRENCE_SEPARATOR);
+        if (separatorIndex > 0) {
+            int occurrence = parseOccurrence(id, separatorIndex + 1);
+            if (occurrence > 0) {
+                layer.lowerNextOccurrence(id.substring(0, separatorIndex), occurrence);
+            }
+        }
+    }
+
+    /**
+     * @param id the id
+     * @param start the index of the first character of the occurrence in the id
+     * @return the occurrence, or -1 if the end of the id is not an occurrence suffix as generated by this class
+     */
+    private static int parseOccurrence(String id, int start)
+    {
+        int length = id.length() - start;
+        // Occurrences don't start with a 0 and the bound keeps the value in an int
+        if (length == 0 || length > 9 || id.charAt(start) == '0') {
+            return -1;
+        }
+
+        int occurrence = 0;
+        for (int i = start; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            occurrence = occurrence * 10 + (c - '0');
+        }
+
+        return occurrence;
     }
 
     /**
      * Reset the known generated ids.
      */
-    public void reset()
+    public synchronized void reset()
+    {
+        this.currentLayer = new Layer(null);
+    }
+
+    /**
+     * A set of generated ids, and of the next occurrence to try for each id prefix, on top of an optional read-only
+     * parent layer.
+     */
+    private static final class Layer
     {
-        this.generatedIds.clear();
+        /**
+         * The read-only layer below this one.
+         */
+        private final Layer parent;
+
+        /**
+         * The number of layers below this one.
+         */
+        private final int depth;
+
+        /**
+         * The ids generated in this layer.
+         */
+        private final Set<String> ids;
+
+        /**
+         * The ids of the parent layers which were removed in this layer.
+         */
+        private final Set<String> removedIds;
+
+        /**
+         * The next occurrence to try for each id prefix. All the ids using a lower occurrence are already taken.
+         */
+        private final Map<String, Integer> nextOccurrences;
+
+        Layer(Layer parent)
+        {
+            this(parent, ConcurrentHashMap.newKeySet(), new ConcurrentHashMap<>());
+        }
+
+        private Layer(Layer parent, Set<String> ids, Map<String, Integer> nextOccurrences)
+        {
+            this.parent = parent;
+            this.depth = parent != null ? parent.depth + 1 : 0;
+            this.ids = ids;
+            this.removedIds = ConcurrentHashMap.newKeySet();
+            this.nextOccurrences = nextOccurrences;
+        }
+
+        /**
+         * @return true if nothing was saved in this layer
+         */
+        boolean isEmpty()
+        {
+            return this.ids.isEmpty() && this.removedIds.isEmpty() && this.nextOccurrences.isEmpty();
+        }
+
+        boolean contains(String id)
+        {
+            for (Layer layer = this; layer != null; layer = layer.parent) {
+                if (layer.ids.contains(id)) {
+                    return true;
+                }
+                if (layer.removedIds.contains(id)) {
+                    return false;
+                }
+            }
+
+            return false;
+        }
+
+        boolean add(String id)
+        {
+            if (this.parent != null && !this.removedIds.contains(id) && this.parent.contains(id)) {
+                return false;
+            }
+
+            return this.ids.add(id);
+        }
+
+        void remove(String id)
+        {
+            this.ids.remove(id);
+
+            if (this.parent != null && this.parent.contains(id)) {
+                this.removedIds.add(id);
+            }
+        }
+
+        int getParentNextOccurrence(String idPrefix)
+        {
+            for (Layer layer = this.parent; layer != null; layer = layer.parent) {
+                Integer nextOccurrence = layer.nextOccurrences.get(idPrefix);
+                if (nextOccurrence != null) {
+                    return nextOccurrence;
+                }
+            }
+
+            return 0;
+        }
+
+        void lowerNextOccurrence(String idPrefix, int occurrence)
+        {
+            this.nextOccurrences.compute(idPrefix, (key, nextOccurrence) -> {
+                int current = nextOccurrence != null ? nextOccurrence : getParentNextOccurrence(key);
+
+                return current > occurrence ? Integer.valueOf(occurrence) : nextOccurrence;
+            });
+        }
+
+        /**
+         * @return a layer without parent containing the same ids as this layer and its parents
+         */
+        Layer flatten()
+        {
+            Set<String> flatIds = new HashSet<>();
+            Map<String, Integer> flatNextOccurrences = new HashMap<>();
+            flatten(flatIds, flatNextOccurrences);
+
+            Set<String> concurrentIds = ConcurrentHashMap.newKeySet(flatIds.size());
+            concurrentIds.addAll(flatIds);
+
+            return new Layer(null, concurrentIds, new ConcurrentHashMap<>(flatNextOccurrences));
+        }
+
+        private void flatten(Set<String> flatIds, Map<String, Integer> flatNextOccurrences)
+        {
+            if (this.parent != null) {
+                this.parent.flatten(flatIds, flatNextOccurrences);
+            }
+
+            flatIds.removeAll(this.removedIds);
+            flatIds.addAll(this.ids);
+            flatNextOccurrences.putAll(this.nextOccurrences);
+        }
     }
 }
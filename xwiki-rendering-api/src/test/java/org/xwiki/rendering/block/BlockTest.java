@@ -72,6 +72,86 @@ void insertChildAfter()
         assertNull(wb.getNextSibling());
     }
 
+    @Test
+    void revision()
+    {
+        WordBlock wb1 = new WordBlock("block1");
+        WordBlock wb2 = new WordBlock("block2");
+        ParagraphBlock pb1 = new ParagraphBlock(List.of(wb1));
+        ParagraphBlock pb2 = new ParagraphBlock(List.of(wb2));
+        XDOM xdom = new XDOM(List.of(pb1, pb2));
+
+        long xdomRevision = xdom.getRevision();
+        long pb1Revision = pb1.getRevision();
+        long pb2Revision = pb2.getRevision();
+        long wb2Revision = wb2.getRevision();
+
+        // Modifying a block modifies its ancestors but not its siblings
+        wb1.setParameter("name", "value");
+        assertNotEquals(xdomRevision, xdom.getRevision());
+        assertNotEquals(pb1Revision, pb1.getRevision());
+        assertEquals(pb2Revision, pb2.getRevision());
+        assertEquals(wb2Revision, wb2.getRevision());
+
+        xdomRevision = xdom.getRevision();
+        pb1Revision = pb1.getRevision();
+        pb2.replaceChild(new WordBlock("other"), wb2);
+        assertNotEquals(xdomRevision, xdom.getRevision());
+        assertEquals(pb1Revision, pb1.getRevision());
+        assertNotEquals(pb2Revision, pb2.getRevision());
+
+        xdomRevision = xdom.getRevision();
+        pb1.insertChildBefore(new SpaceBlock(), wb1);
+        assertNotEquals(xdomRevision, xdom.getRevision());
+
+        xdomRevision = xdom.getRevision();
+        pb1.removeBlock(wb1);
+        assertNotEquals(xdomRevision, xdom.getRevision());
+
+        xdomRevision = xdom.getRevision();
+        pb1.setAttribute("name", "value");
+        assertNotEquals(xdomRevision, xdom.getRevision());
+    }
+
+    @Test
+    void cloneDoesNotModifySource()
+    {
+        WordBlock wb1 = new WordBlock("block1");
+        WordBlock wb2 = new WordBlock("block2");
+        ParagraphBlock pb = new ParagraphBlock(List.of(wb1, wb2));
+        pb.setAttribute("name", "value");
+        XDOM xdom = new XDOM(List.of(pb));
+
+        long xdomRevision = xdom.getRevision();
+        long pbRevision = pb.getRevision();
+        long wb1Revision = wb1.getRevision();
+
+        Block clonedXDOM = xdom.clone();
+        // The clone of a block which is not the root of its tree shares its parent.
+        Block clonedParagraph = pb.clone();
+        pb.clone(block -> block instanceof WordBlock ? List.of() : List.of(block));
+
+        assertEquals(xdomRevision, xdom.getRevision());
+        assertEquals(pbRevision, pb.getRevision());
+        assertEquals(wb1Revision, wb1.getRevision());
+        assertEquals(Map.of("name", "value"), pb.getAttributes());
+
+        assertEquals(xdom, clonedXDOM);
+        assertEquals("value", clonedParagraph.getAttribute("name"));
+        Block clonedWord1 = clonedParagraph.getChildren().get(0);
+        Block clonedWord2 = clonedParagraph.getChildren().get(1);
+        assertSame(clonedParagraph, clonedWord1.getParent());
+        assertSame(clonedWord2, clonedWord1.getNextSibling());
+        assertSame(clonedWord1, clonedWord2.getPreviousSibling());
+        assertNull(clonedWord1.getPreviousSibling());
+        assertNull(clonedWord2.getNextSibling());
+
+        // Modifying the clone doesn't modify the source either.
+        clonedParagraph.setAttribute("other", "value");
+        assertEquals(pbRevision, pb.getRevision());
+        assertNull(pb.getAttribute("other"));
+    }
+
     @Test
     void insertChildBefore()
     {
@@ -427,4 +507,46 @@ void getSyntaxMetadata()
         assertEquals(Syntax.XWIKI_2_1, metadata1.getSyntaxMetadata().get());
         assertEquals(Syntax.PLAIN_1_0, metadata2.getSyntaxMetadata().get());
     }
+
+    @Test
+    void replaceAndInsertManySiblings()
+    {
+        ParagraphBlock paragraph = new ParagraphBlock(List.of());
+        for (int i = 0; i < 1000; i++) {
+            paragraph.addChild(new WordBlock("word" + i));
+        }
+
+        // Replace every other child with two blocks and remove the others, going through the children in document
+        // order like the macro transformation does.
+        Block child = paragraph.getChildren().get(0);
+        int index = 0;
+        while (child != null) {
+            Block next = child.getNextSibling();
+            if (index % 2 == 0) {
+                paragraph.replaceChild(List.of(new WordBlock("a" + index), new WordBlock("b" + index)), child);
+            } else {
+                paragraph.removeBlock(child);
+            }
+            child = next;
+            index++;
+        }
+        paragraph.insertChildBefore(new WordBlock("first"), paragraph.getChildren().get(0));
+
+        List<Block> children = paragraph.getChildren();
+        assertEquals(1001, children.size());
+        assertEquals(new WordBlock("first"), children.get(0));
+        assertEquals(new WordBlock("a998"), children.get(999));
+        assertEquals(new WordBlock("b998"), children.get(1000));
+
+        Block previous = null;
+        for (Block block : children) {
+            assertSame(paragraph, block.getParent());
+            assertSame(previous, block.getPreviousSibling());
+            if (previous != null) {
+                assertSame(block, previous.getNextSibling());
+            }
+            previous = block;
+        }
+        assertNull(previous.getNextSibling());
+    }
 }
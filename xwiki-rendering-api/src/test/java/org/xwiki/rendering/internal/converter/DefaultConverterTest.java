@@ -0,0 +1,273 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.converter;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.converter.ConversionException;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultConverter}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultConverterTest
+{
+    @InjectMockComponents
+    private DefaultConverter converter;
+
+    @MockComponent
+    private TransformationManager transformationManager;
+
+    @MockComponent
+    private RenderingConfiguration configuration;
+
+    @MockComponent
+    private RenderingInstrumentation instrumentation;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    private Parser parser;
+
+    private StreamParser streamParser;
+
+    private PrintRendererFactory rendererFactory;
+
+    private BlockRenderer blockRenderer;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.componentManagerProvider.get()).thenReturn(this.componentManager);
+
+        this.parser = this.componentManager.registerMockComponent(Parser.class, Syntax.XWIKI_2_1.toIdString());
+        this.streamParser =
+            this.componentManager.registerMockComponent(StreamParser.class, Syntax.XWIKI_2_1.toIdString());
+        this.rendererFactory =
+            this.componentManager.registerMockComponent(PrintRendererFactory.class, Syntax.PLAIN_1_0.toIdString());
+        this.blockRenderer =
+            this.componentManager.registerMockComponent(BlockRenderer.class, Syntax.PLAIN_1_0.toIdString());
+    }
+
+    @Test
+    void convertWithoutTransformationStreamsEvents() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        when(this.rendererFactory.createRenderer(any())).thenReturn(renderer);
+        Reader source = new StringReader("content");
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false);
+
+        verify(this.streamParser).parse(source, renderer);
+        verify(this.rendererFactory).release(renderer);
+        verifyNoInteractions(this.parser, this.blockRenderer, this.transformationManager);
+    }
+
+    @Test
+    void convertWithoutTransformationPrintsRenderedContent() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        Reader source = new StringReader("content");
+        AtomicReference<WikiPrinter> rendererPrinter = new AtomicReference<>();
+        when(this.rendererFactory.createRenderer(any())).thenAnswer(invocation -> {
+            rendererPrinter.set(invocation.getArgument(0));
+            return renderer;
+        });
+        doAnswer(invocation -> {
+            rendererPrinter.get().print("rendered");
+            return null;
+        }).when(this.streamParser).parse(source, renderer);
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false);
+
+        assertEquals("rendered", printer.toString());
+    }
+
+    @Test
+    void convertWithoutTransformationDiscardsPartialOutputOnError() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        Reader source = new StringReader("content");
+        AtomicReference<WikiPrinter> rendererPrinter = new AtomicReference<>();
+        when(this.rendererFactory.createRenderer(any())).thenAnswer(invocation -> {
+            rendererPrinter.set(invocation.getArgument(0));
+            return renderer;
+        });
+        doAnswer(invocation -> {
+            rendererPrinter.get().print("partial");
+            throw new ParseException("error");
+        }).when(this.streamParser).parse(source, renderer);
+
+        assertThrows(ConversionException.class,
+            () -> this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false));
+
+        assertEquals("", printer.toString());
+        verify(this.rendererFactory).release(renderer);
+    }
+
+    @Test
+    void convertWithTransformationUsesXDOM() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        Reader source = new StringReader("content");
+        XDOM xdom = new XDOM(List.of());
+        when(this.parser.parse(source)).thenReturn(xdom);
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, true);
+
+        verify(this.transformationManager).performTransformations(same(xdom), any(TransformationContext.class));
+        verify(this.blockRenderer).render((Block) xdom, printer);
+        verify(this.streamParser, never()).parse(any(Reader.class), any(Listener.class));
+    }
+
+    @Test
+    void convertWhenNoConfiguredTransformationStreamsEvents() throws Exception
+    {
+        when(this.configuration.getTransformationNames()).thenReturn(List.of());
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        when(this.rendererFactory.createRenderer(any())).thenReturn(renderer);
+        Reader source = new StringReader("content");
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer);
+
+        verify(this.streamParser).parse(source, renderer);
+        verifyNoInteractions(this.parser, this.transformationManager);
+    }
+
+    @Test
+    void convertWithoutTransformationWhenNoStreamParser() throws Exception
+    {
+        this.componentManager.unregisterComponent(StreamParser.class, Syntax.XWIKI_2_1.toIdString());
+        WikiPrinter printer = new DefaultWikiPrinter();
+        Reader source = new StringReader("content");
+        XDOM xdom = new XDOM(List.of());
+        when(this.parser.parse(source)).thenReturn(xdom);
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false);
+
+        verify(this.blockRenderer).render((Block) xdom, printer);
+        verifyNoInteractions(this.transformationManager);
+    }
+
+    @Test
+    void convertWithoutTransformationReportsStreamingConversion() throws Exception
+    {
+        when(this.instrumentation.isEnabled()).thenReturn(true);
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        when(this.rendererFactory.createRenderer(any())).thenReturn(renderer);
+        Reader source = new StringReader("content");
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false);
+
+        verify(this.instrumentation).onStreamingConversion(eq(Syntax.XWIKI_2_1), eq(Syntax.PLAIN_1_0), anyLong(),
+            eq(false));
+        verify(this.instrumentation, never()).onParse(any(), anyLong(), anyBoolean());
+        verify(this.instrumentation, never()).onRender(any(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void convertWithoutTransformationReportsFailedStreamingConversion() throws Exception
+    {
+        when(this.instrumentation.isEnabled()).thenReturn(true);
+        WikiPrinter printer = new DefaultWikiPrinter();
+        PrintRenderer renderer = mock(PrintRenderer.class);
+        when(this.rendererFactory.createRenderer(any())).thenReturn(renderer);
+        Reader source = new StringReader("content");
+        doThrow(new ParseException("error")).when(this.streamParser).parse(source, renderer);
+
+        assertThrows(ConversionException.class,
+            () -> this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, false));
+
+        verify(this.instrumentation).onStreamingConversion(eq(Syntax.XWIKI_2_1), eq(Syntax.PLAIN_1_0), anyLong(),
+            eq(true));
+        verify(this.instrumentation, never()).onParse(any(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void convertWithTransformationReportsParseAndRender() throws Exception
+    {
+        when(this.instrumentation.isEnabled()).thenReturn(true);
+        WikiPrinter printer = new DefaultWikiPrinter();
+        Reader source = new StringReader("content");
+        when(this.parser.parse(source)).thenReturn(new XDOM(List.of()));
+
+        this.converter.convert(source, Syntax.XWIKI_2_1, Syntax.PLAIN_1_0, printer, true);
+
+        verify(this.instrumentation).onParse(eq(Syntax.XWIKI_2_1), anyLong(), eq(false));
+        verify(this.instrumentation).onRender(eq(Syntax.PLAIN_1_0), anyLong(), eq(false));
+        verify(this.instrumentation, never()).onStreamingConversion(any(), any(), anyLong(), anyBoolean());
+    }
+}
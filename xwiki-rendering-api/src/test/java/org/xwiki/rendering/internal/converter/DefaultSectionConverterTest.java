@@ -0,0 +1,205 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.converter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.SectionBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.converter.ConversionException;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultSectionConverter}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultSectionConverterTest
+{
+    @InjectMockComponents
+    private DefaultSectionConverter converter;
+
+    @MockComponent
+    private TransformationManager transformationManager;
+
+    @MockComponent
+    private RenderingInstrumentation instrumentation;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    private BlockRenderer blockRenderer;
+
+    private XDOM xdom;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.componentManagerProvider.get()).thenReturn(this.componentManager);
+        this.blockRenderer =
+            this.componentManager.registerMockComponent(BlockRenderer.class, Syntax.PLAIN_1_0.toIdString());
+
+        // = one = {{before/}} == two == {{inside/}} = three = {{after/}}
+        this.xdom = new XDOM(List.of(
+            section("one", new MacroBlock("before", Map.of(), false),
+                section("two", new MacroBlock("inside", Map.of(), false))),
+            section("three", new MacroBlock("after", Map.of(), false))));
+    }
+
+    private static SectionBlock section(String id, Block... content)
+    {
+        HeaderBlock header = new HeaderBlock(List.of(new WordBlock(id)), HeaderLevel.LEVEL1, id);
+        SectionBlock section = new SectionBlock(List.of(header));
+        for (Block block : content) {
+            section.addChild(block);
+        }
+        return section;
+    }
+
+    @Test
+    void convertBySectionNumber() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        TransformationContext context = new TransformationContext(this.xdom, Syntax.XWIKI_2_1);
+        Block generatedBlock = new WordBlock("generated");
+        doAnswer(invocation -> {
+            XDOM workingXDOM = invocation.getArgument(0);
+            TransformationContext workingContext = invocation.getArgument(1);
+            assertNotSame(this.xdom, workingXDOM);
+            assertSame(workingXDOM, workingContext.getXDOM());
+            // The macros located after the section are removed, but all the headers are kept.
+            List<MacroBlock> macros =
+                workingXDOM.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
+            assertEquals(List.of("before", "inside"), macros.stream().map(MacroBlock::getId).toList());
+            assertEquals(3,
+                workingXDOM.getBlocks(new ClassBlockMatcher(HeaderBlock.class), Block.Axes.DESCENDANT).size());
+            // Simulate a transformation adding content at the end of the document (e.g. the list of footnotes).
+            workingXDOM.addChild(generatedBlock);
+            return null;
+        }).when(this.transformationManager).performTransformations(any(), any());
+
+        List<Block> blocks = new ArrayList<>();
+        doAnswer(invocation -> blocks.addAll(invocation.getArgument(0))).when(this.blockRenderer)
+            .render(anyCollection(), same(printer));
+
+        this.converter.convert(this.xdom, 2, context, Syntax.PLAIN_1_0, printer);
+
+        assertEquals(2, blocks.size());
+        assertEquals("two", ((SectionBlock) blocks.get(0)).getHeaderBlock().getId());
+        assertSame(generatedBlock, blocks.get(1));
+        // The passed document is left untouched.
+        assertEquals(3,
+            this.xdom.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT).size());
+        assertSame(this.xdom, context.getXDOM());
+    }
+
+    @Test
+    void convertByHeaderId() throws Exception
+    {
+        WikiPrinter printer = new DefaultWikiPrinter();
+        doAnswer(invocation -> {
+            Collection<Block> blocks = invocation.getArgument(0);
+            assertEquals(1, blocks.size());
+            assertEquals("three", ((SectionBlock) blocks.iterator().next()).getHeaderBlock().getId());
+            return null;
+        }).when(this.blockRenderer).render(anyCollection(), same(printer));
+
+        this.converter.convert(this.xdom, "three", new TransformationContext(this.xdom, Syntax.XWIKI_2_1),
+            Syntax.PLAIN_1_0, printer);
+
+        verify(this.blockRenderer).render(anyCollection(), same(printer));
+    }
+
+    @Test
+    void convertWhenSectionDoesNotExist()
+    {
+        TransformationContext context = new TransformationContext(this.xdom, Syntax.XWIKI_2_1);
+        WikiPrinter printer = new DefaultWikiPrinter();
+
+        ConversionException exception = assertThrows(ConversionException.class,
+            () -> this.converter.convert(this.xdom, 4, context, Syntax.PLAIN_1_0, printer));
+        assertEquals("Failed to find section [4], the document has [3] sections", exception.getMessage());
+
+        exception = assertThrows(ConversionException.class,
+            () -> this.converter.convert(this.xdom, "four", context, Syntax.PLAIN_1_0, printer));
+        assertEquals("Failed to find a section with header id [four]", exception.getMessage());
+    }
+
+    @Test
+    void convertWhenRenderingFails()
+    {
+        when(this.instrumentation.isEnabled()).thenReturn(true);
+        WikiPrinter printer = new DefaultWikiPrinter();
+        RuntimeException error = new RuntimeException("error");
+        doThrow(error).when(this.blockRenderer).render(anyCollection(), same(printer));
+        TransformationContext context = new TransformationContext(this.xdom, Syntax.XWIKI_2_1);
+
+        assertSame(error,
+            assertThrows(RuntimeException.class,
+                () -> this.converter.convert(this.xdom, 1, context, Syntax.PLAIN_1_0, printer)));
+
+        verify(this.instrumentation).onRender(eq(Syntax.PLAIN_1_0), anyLong(), eq(true));
+    }
+}
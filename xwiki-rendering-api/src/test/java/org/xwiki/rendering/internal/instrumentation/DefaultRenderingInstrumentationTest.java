@@ -0,0 +1,149 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.instrumentation;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.instrumentation.MacroExecutionStatistics;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DefaultRenderingInstrumentation}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultRenderingInstrumentationTest
+{
+    @InjectMockComponents
+    private DefaultRenderingInstrumentation instrumentation;
+
+    @MockComponent
+    private RenderingConfiguration configuration;
+
+    @Test
+    void macroExecutionStatistics()
+    {
+        assertFalse(this.instrumentation.isEnabled());
+
+        when(this.configuration.isMacroStatisticsEnabled()).thenReturn(true);
+
+        assertTrue(this.instrumentation.isEnabled());
+
+        this.instrumentation.onMacroExecution("macro", false, 500_000L, 2, false);
+        this.instrumentation.onMacroExecution("macro", true, 50_000_000L, 1, false);
+        this.instrumentation.onMacroExecution("macro", false, 2_000_000_000L, 0, true);
+        this.instrumentation.onMacroExecution("other", false, 1_000_000L, 3, false);
+
+        Map<String, MacroExecutionStatistics> statistics = this.instrumentation.getMacroExecutionStatistics();
+
+        assertEquals(List.of("macro", "other"), List.copyOf(statistics.keySet()));
+        MacroExecutionStatistics macroStatistics = statistics.get("macro");
+        assertEquals(3, macroStatistics.getCount());
+        assertEquals(1, macroStatistics.getErrorCount());
+        assertEquals(2_050_500_000L, macroStatistics.getTotalDuration());
+        assertEquals(683_500_000L, macroStatistics.getAverageDuration());
+        assertEquals(2_000_000_000L, macroStatistics.getMaxDuration());
+        assertEquals(3, macroStatistics.getBlockCount());
+        assertArrayEquals(new long[] { 1, 0, 1, 0, 1 }, macroStatistics.getHistogram());
+        assertArrayEquals(new long[] { 0, 1, 0, 0, 0 }, statistics.get("other").getHistogram());
+
+        this.instrumentation.resetMacroExecutionStatistics();
+
+        assertTrue(this.instrumentation.getMacroExecutionStatistics().isEmpty());
+    }
+
+    @Test
+    void macroExecutionStatisticsWhenDisabled()
+    {
+        this.instrumentation.onMacroExecution("macro", false, 500_000L, 2, false);
+
+        assertTrue(this.instrumentation.getMacroExecutionStatistics().isEmpty());
+    }
+
+    @Test
+    void flightRecorderEvents(@TempDir Path tmpDir) throws Exception
+    {
+        Path file = tmpDir.resolve("rendering.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.xwiki.rendering.MacroExecution").withThreshold(Duration.ZERO);
+            recording.enable("org.xwiki.rendering.Parse").withThreshold(Duration.ZERO);
+            recording.disable("org.xwiki.rendering.Render");
+            recording.enable("org.xwiki.rendering.StreamingConversion").withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertTrue(this.instrumentation.isEnabled());
+
+            this.instrumentation.onMacroExecution("macro", true, 42L, 2, false);
+            this.instrumentation.onParse(Syntax.XWIKI_2_1, 12L, true);
+            // Disabled in the recording
+            this.instrumentation.onRender(Syntax.XHTML_1_0, 10L, false);
+            this.instrumentation.onStreamingConversion(Syntax.XWIKI_2_1, Syntax.XHTML_1_0, 20L, false);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(3, events.size());
+
+        RecordedEvent macroEvent = events.stream()
+            .filter(event -> event.getEventType().getName().equals("org.xwiki.rendering.MacroExecution")).findFirst()
+            .orElseThrow();
+        assertEquals("macro", macroEvent.getString("macroId"));
+        assertTrue(macroEvent.getBoolean("inline"));
+        assertEquals(Duration.ofNanos(42), macroEvent.getDuration("executionTime"));
+        assertEquals(2, macroEvent.getInt("blockCount"));
+        assertFalse(macroEvent.getBoolean("failed"));
+
+        RecordedEvent parseEvent = events.stream()
+            .filter(event -> event.getEventType().getName().equals("org.xwiki.rendering.Parse")).findFirst()
+            .orElseThrow();
+        assertEquals("xwiki/2.1", parseEvent.getString("syntax"));
+        assertTrue(parseEvent.getBoolean("failed"));
+
+        RecordedEvent conversionEvent = events.stream()
+            .filter(event -> event.getEventType().getName().equals("org.xwiki.rendering.StreamingConversion"))
+            .findFirst().orElseThrow();
+        assertEquals("xwiki/2.1", conversionEvent.getString("sourceSyntax"));
+        assertEquals("xhtml/1.0", conversionEvent.getString("targetSyntax"));
+        assertEquals(Duration.ofNanos(20), conversionEvent.getDuration("executionTime"));
+        assertFalse(conversionEvent.getBoolean("failed"));
+    }
+}
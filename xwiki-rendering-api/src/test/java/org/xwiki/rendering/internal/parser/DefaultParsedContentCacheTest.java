@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.parser.ParsedContentCacheStatistics;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultParsedContentCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultParsedContentCacheTest
+{
+    @InjectMockComponents
+    private DefaultParsedContentCache cache;
+
+    @MockComponent
+    private RenderingConfiguration configuration;
+
+    private Parser parser;
+
+    private XDOM parsedXDOM;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.configuration.getParsedContentCacheSize()).thenReturn(2);
+
+        this.parser = mock(Parser.class);
+        when(this.parser.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(this.parser.parse(any(CharSequence.class)))
+            .thenAnswer(invocation -> {
+                this.parsedXDOM = new XDOM(List.of(new WordBlock("word")));
+                return this.parsedXDOM;
+            });
+    }
+
+    @Test
+    void parseReturnsCopies() throws Exception
+    {
+        XDOM xdom1 = this.cache.parse("content", this.parser);
+        XDOM xdom2 = this.cache.parse("content", this.parser);
+
+        verify(this.parser).parse(any(CharSequence.class));
+        assertNotSame(xdom1, xdom2);
+        assertNotSame(xdom1.getChildren().get(0), xdom2.getChildren().get(0));
+
+        // Modifying a returned XDOM does not affect the cached one
+        xdom1.getChildren().get(0).getParent().replaceChild(new WordBlock("other"), xdom1.getChildren().get(0));
+        assertEquals("word", ((WordBlock) this.cache.parse("content", this.parser).getChildren().get(0)).getWord());
+
+        ParsedContentCacheStatistics statistics = this.cache.getStatistics();
+        assertEquals(2, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0, statistics.getEvictions());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    void parseHitLeavesCachedXDOMUntouched() throws Exception
+    {
+        this.cache.parse("content", this.parser);
+        XDOM cachedXDOM = this.parsedXDOM;
+        Block cachedWord = cachedXDOM.getChildren().get(0);
+        long revision = cachedXDOM.getRevision();
+        long wordRevision = cachedWord.getRevision();
+
+        XDOM xdom = this.cache.parse("content", this.parser);
+        xdom.addChild(new WordBlock("other"));
+        xdom.getIdGenerator().generateUniqueId("word");
+
+        verify(this.parser).parse(any(CharSequence.class));
+        assertEquals(revision, cachedXDOM.getRevision());
+        assertEquals(wordRevision, cachedWord.getRevision());
+        assertEquals(List.of(cachedWord), cachedXDOM.getChildren());
+        assertSame(cachedXDOM, cachedWord.getParent());
+        // The ids generated for the copy are not known by the cached XDOM.
+        assertEquals("Iword", cachedXDOM.getIdGenerator().generateUniqueId("word"));
+    }
+
+    @Test
+    void parseWithDifferentParserInstances() throws Exception
+    {
+        Parser otherParser = mock(Parser.class);
+        when(otherParser.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(otherParser.parse(any(CharSequence.class))).thenReturn(new XDOM(List.of(new WordBlock("other"))));
+
+        this.cache.parse("content", this.parser);
+
+        // The parsers might be configured differently even if they have the same class.
+        assertEquals("other", ((WordBlock) this.cache.parse("content", otherParser).getChildren().get(0)).getWord());
+        assertEquals("word", ((WordBlock) this.cache.parse("content", this.parser).getChildren().get(0)).getWord());
+        verify(this.parser).parse(any(CharSequence.class));
+        verify(otherParser).parse(any(CharSequence.class));
+    }
+
+    @Test
+    void parseEvictsLeastRecentlyUsed() throws Exception
+    {
+        this.cache.parse("content1", this.parser);
+        this.cache.parse("content2", this.parser);
+        this.cache.parse("content1", this.parser);
+        this.cache.parse("content3", this.parser);
+
+        // content2 was the least recently used
+        this.cache.parse("content1", this.parser);
+        this.cache.parse("content2", this.parser);
+
+        verify(this.parser, times(4)).parse(any(CharSequence.class));
+
+        ParsedContentCacheStatistics statistics = this.cache.getStatistics();
+        assertEquals(2, statistics.getHits());
+        assertEquals(4, statistics.getMisses());
+        assertEquals(2, statistics.getEvictions());
+        assertEquals(2, statistics.getSize());
+    }
+
+    @Test
+    void parseWhenCacheDisabled() throws Exception
+    {
+        when(this.configuration.getParsedContentCacheSize()).thenReturn(0);
+
+        this.cache.parse("content", this.parser);
+        this.cache.parse("content", this.parser);
+
+        verify(this.parser, times(2)).parse(any(CharSequence.class));
+        assertEquals(0, this.cache.getStatistics().getSize());
+    }
+
+    @Test
+    void clear() throws Exception
+    {
+        this.cache.parse("content", this.parser);
+        this.cache.clear();
+        this.cache.parse("content", this.parser);
+
+        verify(this.parser, times(2)).parse(any(CharSequence.class));
+    }
+}
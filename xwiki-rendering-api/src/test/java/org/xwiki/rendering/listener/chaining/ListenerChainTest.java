@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.listener.chaining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link ListenerChain}.
+ *
+ * @version $Id$
+ */
+class ListenerChainTest
+{
+    private ListenerChain chain;
+
+    private BlockStateChainingListener first;
+
+    private ConsecutiveNewLineStateChainingListener second;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.chain = new ListenerChain();
+        this.first = new BlockStateChainingListener(this.chain);
+        this.chain.addListener(this.first);
+        this.second = new ConsecutiveNewLineStateChainingListener(this.chain);
+        this.chain.addListener(this.second);
+    }
+
+    @Test
+    void getNextListener()
+    {
+        assertSame(this.second, this.chain.getNextListener(BlockStateChainingListener.class));
+        assertNull(this.chain.getNextListener(ConsecutiveNewLineStateChainingListener.class));
+        assertNull(this.chain.getNextListener(GroupStateChainingListener.class));
+    }
+
+    @Test
+    void getNextListenerAfterInsertAndRemove()
+    {
+        GroupStateChainingListener group = new GroupStateChainingListener(this.chain);
+        this.chain.addListener(group, 1);
+
+        assertEquals(1, this.chain.indexOf(GroupStateChainingListener.class));
+        assertSame(group, this.chain.getNextListener(BlockStateChainingListener.class));
+        assertSame(this.second, this.chain.getNextListener(GroupStateChainingListener.class));
+
+        this.chain.removeListener(GroupStateChainingListener.class);
+
+        assertSame(this.second, this.chain.getNextListener(BlockStateChainingListener.class));
+        assertNull(this.chain.getNextListener(GroupStateChainingListener.class));
+    }
+
+    @Test
+    void getNextListenerWhenStacking()
+    {
+        this.chain.pushAllStackableListeners();
+
+        ChainingListener stackedSecond = this.chain.getNextListener(BlockStateChainingListener.class);
+        assertNotSame(this.second, stackedSecond);
+        assertSame(stackedSecond, this.chain.getListener(ConsecutiveNewLineStateChainingListener.class));
+
+        this.chain.popAllStackableListeners();
+
+        assertSame(this.second, this.chain.getNextListener(BlockStateChainingListener.class));
+    }
+
+    @Test
+    void forwardEventsAfterChainModification()
+    {
+        ChainingListener last = mock(ChainingListener.class);
+        this.chain.addListener(last);
+
+        // Forward an event so that the listener remembers its position in the chain.
+        this.second.onNewLine();
+        verify(last).onNewLine();
+
+        // Insert a listener between the second and the last listeners.
+        // Use a different type so that the mock doesn't have the same class as the last listener.
+        ChainingListener inserted = mock(StackableChainingListener.class);
+        this.chain.addListener(inserted, 2);
+
+        this.second.onSpace();
+        verify(inserted).onSpace();
+
+        // Remove the second listener from the chain and add it back at the end.
+        this.chain.removeListener(ConsecutiveNewLineStateChainingListener.class);
+        this.chain.addListener(this.second);
+
+        this.second.onWord("word");
+        assertNull(this.chain.getNextListener(ConsecutiveNewLineStateChainingListener.class));
+        verify(last, never()).onWord("word");
+        verify(inserted, never()).onWord("word");
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.renderer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Validate {@link IncrementalBlockRenderer}.
+ *
+ * @version $Id$
+ */
+class IncrementalBlockRendererTest
+{
+    private final List<Block> renderedBlocks = new ArrayList<>();
+
+    private IncrementalBlockRenderer incrementalRenderer;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        BlockRenderer renderer = new BlockRenderer()
+        {
+            @Override
+            public void render(Block block, WikiPrinter printer)
+            {
+                renderedBlocks.add(block);
+                printer.print("[");
+                block.getBlocks(WordBlock.class::isInstance, Block.Axes.DESCENDANT)
+                    .forEach(word -> printer.print(((WordBlock) word).getWord()));
+                printer.print("]");
+            }
+
+            @Override
+            public void render(Collection<Block> blocks, WikiPrinter printer)
+            {
+                blocks.forEach(block -> render(block, printer));
+            }
+        };
+
+        this.incrementalRenderer = new IncrementalBlockRenderer(renderer);
+    }
+
+    private String render(XDOM xdom)
+    {
+        this.renderedBlocks.clear();
+        WikiPrinter printer = new DefaultWikiPrinter();
+        this.incrementalRenderer.render(xdom, printer);
+        return printer.toString();
+    }
+
+    @Test
+    void render()
+    {
+        WordBlock word2 = new WordBlock("2");
+        ParagraphBlock paragraph1 = new ParagraphBlock(List.of(new WordBlock("1")));
+        ParagraphBlock paragraph2 = new ParagraphBlock(List.of(word2));
+        ParagraphBlock paragraph3 = new ParagraphBlock(List.of(new WordBlock("3")));
+        XDOM xdom = new XDOM(List.of(paragraph1, paragraph2, paragraph3));
+
+        assertEquals("[1][2][3]", render(xdom));
+        assertEquals(List.of(paragraph1, paragraph2, paragraph3), this.renderedBlocks);
+
+        // Nothing changed
+        assertEquals("[1][2][3]", render(xdom));
+        assertEquals(0, this.incrementalRenderer.getRenderedBlockCount());
+
+        // Modify a descendant of the second paragraph
+        paragraph2.replaceChild(new WordBlock("two"), word2);
+        assertEquals("[1][two][3]", render(xdom));
+        assertEquals(List.of(paragraph2), this.renderedBlocks);
+        assertEquals(1, this.incrementalRenderer.getRenderedBlockCount());
+
+        // Add and remove top level blocks
+        ParagraphBlock paragraph4 = new ParagraphBlock(List.of(new WordBlock("4")));
+        xdom.addChild(paragraph4);
+        xdom.removeBlock(paragraph1);
+        assertEquals("[two][3][4]", render(xdom));
+        assertEquals(List.of(paragraph4), this.renderedBlocks);
+
+        this.incrementalRenderer.reset();
+        assertEquals("[two][3][4]", render(xdom));
+        assertEquals(3, this.incrementalRenderer.getRenderedBlockCount());
+    }
+}
@@ -104,4 +104,78 @@ void adaptId()
         assertEquals("test-2", this.idGenerator.adaptId("test"));
         assertEquals("t-1", this.idGenerator.adaptId("t"));
     }
+
+    @Test
+    void generateUniqueIdWhenOccurrenceAlreadyUsed()
+    {
+        assertEquals("Itext-1", this.idGenerator.generateUniqueId("text-1"));
+        assertEquals("Itext", this.idGenerator.generateUniqueId("text"));
+        assertEquals("Itext-2", this.idGenerator.generateUniqueId("text"));
+        assertEquals("Itext-3", this.idGenerator.generateUniqueId("text"));
+    }
+
+    @Test
+    void remove()
+    {
+        for (int i = 0; i < 5; i++) {
+            this.idGenerator.generateUniqueId("text");
+        }
+
+        this.idGenerator.remove("Itext-2");
+        this.idGenerator.remove("Itext");
+
+        assertEquals("Itext", this.idGenerator.generateUniqueId("text"));
+        assertEquals("Itext-2", this.idGenerator.generateUniqueId("text"));
+        assertEquals("Itext-5", this.idGenerator.generateUniqueId("text"));
+    }
+
+    @Test
+    void copy()
+    {
+        assertEquals("Itext", this.idGenerator.generateUniqueId("text"));
+
+        IdGenerator copy = new IdGenerator(this.idGenerator);
+        assertEquals("Itext-1", copy.generateUniqueId("text"));
+        assertEquals("Itext-1", this.idGenerator.generateUniqueId("text"));
+
+        copy.remove("Itext");
+        assertEquals("Itext", copy.generateUniqueId("text"));
+        assertEquals("Itext-2", this.idGenerator.generateUniqueId("text"));
+
+        this.idGenerator.reset();
+        assertEquals("Itext-2", copy.generateUniqueId("text"));
+        assertEquals("Itext", this.idGenerator.generateUniqueId("text"));
+    }
+
+    @Test
+    void copyMany()
+    {
+        IdGenerator copy = this.idGenerator;
+        for (int i = 0; i < 100; i++) {
+            copy.generateUniqueId("text");
+            copy = new IdGenerator(copy);
+        }
+
+        assertEquals("Itext-100", copy.generateUniqueId("text"));
+        assertEquals("Itext-1", this.idGenerator.generateUniqueId("text"));
+    }
+
+    @Test
+    void copyWithoutChanges()
+    {
+        this.idGenerator.generateUniqueId("text");
+
+        // Copies made while nothing changed share the same read-only layer.
+        IdGenerator copy = this.idGenerator;
+        for (int i = 0; i < 100; i++) {
+            new IdGenerator(this.idGenerator);
+            copy = new IdGenerator(copy);
+        }
+        assertEquals(1, this.idGenerator.getLayerDepth());
+        assertEquals(1, copy.getLayerDepth());
+
+        assertEquals("Itext-1", copy.generateUniqueId("text"));
+        assertEquals("Itext-1", this.idGenerator.generateUniqueId("text"));
+        assertEquals(0, new IdGenerator(new IdGenerator()).getLayerDepth());
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Optional;
+
+import org.xwiki.component.embed.EmbeddableComponentManager;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+/**
+ * Holds the component manager shared by the benchmarks of a trial and provides the corpus documents in each syntax.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class BenchmarkEnvironment
+{
+    /**
+     * The transformations executed by the {@code all} transformation benchmark, in the order they are configured by
+     * default in XWiki.
+     */
+    public static final List<String> ALL_TRANSFORMATIONS = List.of("macro", "icon", "wikiword");
+
+    private final EmbeddableComponentManager componentManager;
+
+    /**
+     * Initialize the components found in the classpath.
+     */
+    public BenchmarkEnvironment()
+    {
+        this.componentManager = new EmbeddableComponentManager();
+        this.componentManager.initialize(getClass().getClassLoader());
+    }
+
+    /**
+     * @return the component manager holding all the Rendering components
+     */
+    public EmbeddableComponentManager getComponentManager()
+    {
+        return this.componentManager;
+    }
+
+    /**
+     * @param syntaxId the id of the syntax to parse (e.g. {@code xwiki/2.1})
+     * @return the parser for the given syntax
+     * @throws Exception when the parser cannot be found
+     */
+    public Parser getParser(String syntaxId) throws Exception
+    {
+        return this.componentManager.getInstance(Parser.class, syntaxId);
+    }
+
+    /**
+     * @param syntaxId the id of the syntax to render (e.g. {@code xhtml/1.0})
+     * @return the block renderer for the given syntax
+     * @throws Exception when the renderer cannot be found
+     */
+    public BlockRenderer getBlockRenderer(String syntaxId) throws Exception
+    {
+        return this.componentManager.getInstance(BlockRenderer.class, syntaxId);
+    }
+
+    /**
+     * Generate a corpus document in the given syntax. Syntaxes that are usually produced by a tool rather than
+     * written by hand (XHTML, HTML 5, BlockNote) get the output of the corresponding renderer for the transformed
+     * XWiki 2.1 document, which is what their parsers typically receive (e.g. the WYSIWYG editor output).
+     *
+     * @param syntaxId the id of the syntax of the document
+     * @param kind the kind of document to generate
+     * @return the document source
+     * @throws Exception when the document cannot be generated
+     */
+    public String getSource(String syntaxId, DocumentKind kind) throws Exception
+    {
+        switch (syntaxId) {
+            case "xwiki/2.0":
+            case "xwiki/2.1":
+                return kind.generate(MarkupDialect.XWIKI);
+            case "creole/1.0":
+                return kind.generate(MarkupDialect.CREOLE);
+            case "jspwiki/1.0":
+                return kind.generate(MarkupDialect.JSPWIKI);
+            case "plain/1.0":
+                return kind.generate(MarkupDialect.PLAIN);
+            default:
+                XDOM xdom = getTransformedXDOM(kind, ALL_TRANSFORMATIONS);
+                DefaultWikiPrinter printer = new DefaultWikiPrinter();
+                getBlockRenderer(syntaxId).render(xdom, printer);
+                return printer.toString();
+        }
+    }
+
+    /**
+     * @param kind the kind of document to parse
+     * @return the XWiki 2.1 corpus document, parsed but not transformed
+     * @throws Exception when the document cannot be parsed
+     */
+    public XDOM getXDOM(DocumentKind kind) throws Exception
+    {
+        return getParser(Syntax.XWIKI_2_1.toIdString()).parse(new StringReader(kind.generate(MarkupDialect.XWIKI)));
+    }
+
+    /**
+     * @param kind the kind of document to parse
+     * @param transformations the names of the transformations to execute
+     * @return the XWiki 2.1 corpus document, parsed and transformed
+     * @throws Exception when the document cannot be parsed or transformed
+     */
+    public XDOM getTransformedXDOM(DocumentKind kind, List<String> transformations) throws Exception
+    {
+        XDOM xdom = getXDOM(kind);
+        this.componentManager.<TransformationManager>getInstance(TransformationManager.class)
+            .performTransformations(xdom, createTransformationContext(xdom, transformations));
+        return xdom;
+    }
+
+    /**
+     * @param xdom the document to transform
+     * @param transformations the names of the transformations to execute
+     * @return the transformation context to use for transforming the given XWiki 2.1 document
+     */
+    public TransformationContext createTransformationContext(XDOM xdom, List<String> transformations)
+    {
+        TransformationContext context = new TransformationContext(xdom, Syntax.XWIKI_2_1);
+        context.setTargetSyntax(Syntax.XHTML_1_0);
+        context.setTransformationNames(Optional.of(transformations));
+        return context;
+    }
+
+    /**
+     * Release the components.
+     */
+    public void dispose()
+    {
+        this.componentManager.dispose();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+
+/**
+ * Measures the sibling modifications of {@link org.xwiki.rendering.block.AbstractBlock}, replacing each child of a
+ * block with many children in document order like the macro transformation does.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BlockBenchmark
+{
+    /**
+     * The number of children of the modified block.
+     */
+    @Param({ "100", "10000", "50000" })
+    public int children;
+
+    /**
+     * @return the modified block, to prevent dead code elimination
+     */
+    @Benchmark
+    public Block replaceAllChildren()
+    {
+        ParagraphBlock paragraph = new ParagraphBlock(List.of());
+        for (int i = 0; i < this.children; i++) {
+            paragraph.addChild(new WordBlock("word"));
+        }
+
+        Block child = paragraph.getChildren().get(0);
+        while (child != null) {
+            Block next = child.getNextSibling();
+            paragraph.replaceChild(List.of(new WordBlock("a"), new WordBlock("b")), child);
+            child = next;
+        }
+
+        return paragraph;
+    }
+}
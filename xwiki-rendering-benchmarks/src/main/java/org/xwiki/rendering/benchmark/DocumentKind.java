@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+/**
+ * The kinds of documents the benchmarks are run against. Each kind stresses a different part of the rendering
+ * pipeline: the small documents expose the fixed per-call setup costs, the medium and large ones the per-event costs,
+ * and the last two the costs that grow with the nesting depth and the number of siblings.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public enum DocumentKind
+{
+    /**
+     * A few paragraphs, like a link label, a TOC entry or a comment.
+     */
+    SMALL
+    {
+        @Override
+        void generate(MarkupDialect dialect, StringBuilder builder)
+        {
+            dialect.appendHeader(builder, 1, "Small document");
+            dialect.appendParagraph(builder, 0);
+            dialect.appendList(builder, 3, 1);
+        }
+    },
+
+    /**
+     * A typical wiki page with a few sections, lists, a table and some macros.
+     */
+    MEDIUM
+    {
+        @Override
+        void generate(MarkupDialect dialect, StringBuilder builder)
+        {
+            generateSections(dialect, builder, 20);
+        }
+    },
+
+    /**
+     * A very large document made of many sections.
+     */
+    LARGE
+    {
+        @Override
+        void generate(MarkupDialect dialect, StringBuilder builder)
+        {
+            generateSections(dialect, builder, 1000);
+        }
+    },
+
+    /**
+     * Many deeply nested macros.
+     */
+    NESTED_MACROS
+    {
+        @Override
+        void generate(MarkupDialect dialect, StringBuilder builder)
+        {
+            dialect.appendHeader(builder, 1, "Nested macros");
+            for (int i = 0; i < 50; i++) {
+                dialect.appendNestedMacros(builder, 10, i);
+                dialect.appendParagraph(builder, i);
+            }
+        }
+    },
+
+    /**
+     * A single huge table.
+     */
+    HUGE_TABLE
+    {
+        @Override
+        void generate(MarkupDialect dialect, StringBuilder builder)
+        {
+            dialect.appendHeader(builder, 1, "Huge table");
+            dialect.appendTable(builder, 5000, 10);
+        }
+    };
+
+    /**
+     * Generate the document using the given markup.
+     *
+     * @param dialect the markup to use
+     * @return the generated document
+     */
+    public String generate(MarkupDialect dialect)
+    {
+        StringBuilder builder = new StringBuilder();
+        generate(dialect, builder);
+        return builder.toString();
+    }
+
+    abstract void generate(MarkupDialect dialect, StringBuilder builder);
+
+    private static void generateSections(MarkupDialect dialect, StringBuilder builder, int sections)
+    {
+        if (dialect.supportsMacros()) {
+            builder.append("{{toc/}}\n\n");
+        }
+        for (int i = 0; i < sections; i++) {
+            dialect.appendHeader(builder, 1 + i % 3, "Section " + i);
+            dialect.appendParagraph(builder, i);
+            if (i % 2 == 0) {
+                dialect.appendList(builder, 5, 3);
+            }
+            if (i % 5 == 0) {
+                dialect.appendTable(builder, 10, 5);
+            }
+            if (i % 4 == 0) {
+                dialect.appendNestedMacros(builder, 2, i);
+            }
+        }
+    }
+}
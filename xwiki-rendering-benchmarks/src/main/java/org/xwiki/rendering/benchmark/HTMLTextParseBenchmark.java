@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+
+/**
+ * Measures the parsing of large, text heavy, HTML documents such as the ones saved by the WYSIWYG editor. Most of the
+ * time is spent classifying the text characters into words, spaces and special symbols.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HTMLTextParseBenchmark
+{
+    private static final String PARAGRAPH = "<p>Lorem ipsum dolor sit amet, <strong>consectetur</strong> adipiscing "
+        + "elit (sed do) eiusmod&nbsp;tempor &nbsp;incididunt ut labore &amp; dolore magna-aliqua: 1+1=2, "
+        + "\"quoted\" text; <em>50%</em> of the time!</p>\n";
+
+    /**
+     * The syntax of the parsed document.
+     */
+    @Param({ "xhtml/1.0", "html/5.0" })
+    public String syntax;
+
+    /**
+     * The approximate size of the parsed document, in kilobytes.
+     */
+    @Param({ "1024", "5120" })
+    public int size;
+
+    private BenchmarkEnvironment environment;
+
+    private Parser parser;
+
+    private String source;
+
+    /**
+     * Prepare the parser and the source document.
+     *
+     * @throws Exception when the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.parser = this.environment.getParser(this.syntax);
+
+        StringBuilder builder = new StringBuilder("<html><body>\n");
+        while (builder.length() < this.size * 1024) {
+            builder.append(PARAGRAPH);
+        }
+        builder.append("</body></html>");
+        this.source = builder.toString();
+    }
+
+    /**
+     * Release the components.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.environment.dispose();
+    }
+
+    /**
+     * @return the parsed XDOM, to prevent dead code elimination
+     * @throws ParseException when the parsing fails
+     */
+    @Benchmark
+    public XDOM parse() throws ParseException
+    {
+        return this.parser.parse(new StringReader(this.source));
+    }
+}
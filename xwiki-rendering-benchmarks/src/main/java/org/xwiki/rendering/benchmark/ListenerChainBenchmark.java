@@ -0,0 +1,96 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.listener.chaining.BlockStateChainingListener;
+import org.xwiki.rendering.listener.chaining.ConsecutiveNewLineStateChainingListener;
+import org.xwiki.rendering.listener.chaining.GroupStateChainingListener;
+import org.xwiki.rendering.listener.chaining.ListenerChain;
+
+/**
+ * Measures the {@link ListenerChain} operations that happen for each event or each nested block during rendering,
+ * independently of any renderer: forwarding an event to the next listener and stacking the listeners. The stacking benchmark is what a table or group heavy document costs in listener
+ * instantiations, run it with {@code -prof gc} to see the allocation rate.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListenerChainBenchmark
+{
+    private ListenerChain chain;
+
+    private BlockStateChainingListener firstListener;
+
+    /**
+     * Prepare a chain similar to the one used by the XWiki Syntax renderer.
+     */
+    @Setup
+    public void setUp()
+    {
+        this.chain = new ListenerChain();
+        this.firstListener = new BlockStateChainingListener(this.chain);
+        this.chain.addListener(this.firstListener);
+        this.chain.addListener(new ConsecutiveNewLineStateChainingListener(this.chain));
+        this.chain.addListener(new GroupStateChainingListener(this.chain));
+    }
+
+    /**
+     * Push and pop the stackable listeners, like the renderers do for each table cell or group.
+     *
+     * @return the chain, to prevent dead code elimination
+     */
+    @Benchmark
+    public ListenerChain pushAndPopStackableListeners()
+    {
+        this.chain.pushAllStackableListeners();
+        this.chain.popAllStackableListeners();
+        return this.chain;
+    }
+
+    /**
+     * Send an event through the whole chain.
+     *
+     * @return the first listener, to prevent dead code elimination
+     */
+    @Benchmark
+    public BlockStateChainingListener forwardEvent()
+    {
+        this.firstListener.onWord("word");
+        return this.firstListener;
+    }
+}
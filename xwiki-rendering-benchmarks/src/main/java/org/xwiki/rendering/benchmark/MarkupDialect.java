@@ -0,0 +1,214 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+/**
+ * The wiki markup used to generate the benchmark corpus for the syntaxes that are parsed from hand written text
+ * (i.e. for which the corpus is not obtained by rendering an XDOM).
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public enum MarkupDialect
+{
+    /**
+     * XWiki Syntax 2.0 and 2.1 (they share the markup used by the corpus).
+     */
+    XWIKI("**", "//", "|=", "|", "{{"),
+
+    /**
+     * Creole 1.0.
+     */
+    CREOLE("**", "//", "|=", "|", null),
+
+    /**
+     * JSPWiki 1.0.
+     */
+    JSPWIKI("__", "''", "||", "|", null),
+
+    /**
+     * Plain text, for which all the markup is ignored.
+     */
+    PLAIN("", "", "", " ", null);
+
+    private final String bold;
+
+    private final String italic;
+
+    private final String headerCell;
+
+    private final String cell;
+
+    private final String macroStart;
+
+    MarkupDialect(String bold, String italic, String headerCell, String cell, String macroStart)
+    {
+        this.bold = bold;
+        this.italic = italic;
+        this.headerCell = headerCell;
+        this.cell = cell;
+        this.macroStart = macroStart;
+    }
+
+    /**
+     * @return {@code true} if the dialect supports the XWiki macro syntax
+     */
+    public boolean supportsMacros()
+    {
+        return this.macroStart != null;
+    }
+
+    /**
+     * Append a section header.
+     *
+     * @param builder the builder to append to
+     * @param level the header level, between 1 and 6
+     * @param text the header text
+     */
+    public void appendHeader(StringBuilder builder, int level, String text)
+    {
+        switch (this) {
+            case JSPWIKI:
+                // JSPWiki only supports 3 levels, "!!!" being the biggest.
+                builder.append("!".repeat(Math.max(1, 4 - Math.min(level, 3)))).append(' ').append(text);
+                break;
+            case PLAIN:
+                builder.append(text);
+                break;
+            default:
+                String marker = "=".repeat(level);
+                builder.append(marker).append(' ').append(text).append(' ').append(marker);
+                break;
+        }
+        builder.append("\n\n");
+    }
+
+    /**
+     * Append a paragraph made of formatted words and a link.
+     *
+     * @param builder the builder to append to
+     * @param index the index of the paragraph, used to vary the generated content
+     */
+    public void appendParagraph(StringBuilder builder, int index)
+    {
+        builder.append("Lorem ipsum dolor sit amet, ").append(this.bold).append("consectetur adipiscing")
+            .append(this.bold).append(" elit, sed do ").append(this.italic).append("eiusmod tempor")
+            .append(this.italic).append(" incididunt ut labore et dolore magna aliqua ");
+        appendLink(builder, "Space" + (index % 10) + ".Page" + index, "page " + index);
+        builder.append(". Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris (c) WikiWord :)");
+        builder.append("\n\n");
+    }
+
+    /**
+     * Append a link.
+     *
+     * @param builder the builder to append to
+     * @param reference the link target
+     * @param label the link label
+     */
+    public void appendLink(StringBuilder builder, String reference, String label)
+    {
+        switch (this) {
+            case XWIKI:
+                builder.append("[[").append(label).append(">>").append(reference).append("]]");
+                break;
+            case CREOLE:
+                builder.append("[[").append(reference).append('|').append(label).append("]]");
+                break;
+            case JSPWIKI:
+                builder.append('[').append(label).append('|').append(reference).append(']');
+                break;
+            default:
+                builder.append(label);
+                break;
+        }
+    }
+
+    /**
+     * Append a (possibly nested) bulleted list.
+     *
+     * @param builder the builder to append to
+     * @param items the number of items per level
+     * @param depth the number of nested levels
+     */
+    public void appendList(StringBuilder builder, int items, int depth)
+    {
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < items; i++) {
+                if (this != PLAIN) {
+                    builder.append("*".repeat(level)).append(' ');
+                }
+                builder.append("item ").append(level).append('.').append(i).append(' ').append(this.bold)
+                    .append("bold").append(this.bold).append('\n');
+            }
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * Append a table.
+     *
+     * @param builder the builder to append to
+     * @param rows the number of rows, not counting the header row
+     * @param columns the number of columns
+     */
+    public void appendTable(StringBuilder builder, int rows, int columns)
+    {
+        for (int column = 0; column < columns; column++) {
+            builder.append(this.headerCell).append("Header ").append(column);
+        }
+        builder.append('\n');
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                builder.append(this.cell).append("cell ").append(this.italic).append(row).append(this.italic)
+                    .append(' ').append(column);
+            }
+            builder.append('\n');
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * Append nested macros. Nothing is appended if the dialect doesn't support macros.
+     *
+     * @param builder the builder to append to
+     * @param depth the number of nested macros
+     * @param index the index of the macro, used to vary the generated content
+     */
+    public void appendNestedMacros(StringBuilder builder, int depth, int index)
+    {
+        if (!supportsMacros()) {
+            return;
+        }
+        for (int level = 0; level < depth; level++) {
+            // Alternate between box and info macros so that both the macro transformation and the content parser
+            // are exercised.
+            String macro = level % 2 == 0 ? "box" : "info";
+            builder.append(this.macroStart).append(macro).append(" title=\"level ").append(level).append("\"}}\n");
+        }
+        builder.append("Content ").append(this.bold).append(index).append(this.bold).append(" {{id name=\"anchor")
+            .append(index).append("\"/}}\n");
+        for (int level = depth - 1; level >= 0; level--) {
+            String macro = level % 2 == 0 ? "box" : "info";
+            builder.append(this.macroStart).append('/').append(macro).append("}}\n");
+        }
+        builder.append('\n');
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.VoidListener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.parser.StreamParser;
+
+/**
+ * Measures the parse stage. The {@link #parse()} benchmark builds the XDOM while the {@link #streamParse()} one sends
+ * the events to a {@link VoidListener}, so that the cost of the XDOM generation shows up as the difference between
+ * the two.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParseBenchmark
+{
+    /**
+     * The syntax of the parsed document.
+     */
+    @Param({ "xwiki/2.0", "xwiki/2.1", "xhtml/1.0", "html/5.0", "creole/1.0", "jspwiki/1.0", "plain/1.0",
+        "blocknote/1.0" })
+    public String syntax;
+
+    /**
+     * The kind of parsed document.
+     */
+    @Param
+    public DocumentKind kind;
+
+    private BenchmarkEnvironment environment;
+
+    private Parser parser;
+
+    private StreamParser streamParser;
+
+    private String source;
+
+    /**
+     * Prepare the parsers and the source document.
+     *
+     * @throws Exception when the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.parser = this.environment.getParser(this.syntax);
+        this.streamParser = this.environment.getComponentManager().getInstance(StreamParser.class, this.syntax);
+        this.source = this.environment.getSource(this.syntax, this.kind);
+    }
+
+    /**
+     * Release the components.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.environment.dispose();
+    }
+
+    /**
+     * @return the parsed XDOM, to prevent dead code elimination
+     * @throws ParseException when the parsing fails
+     */
+    @Benchmark
+    public XDOM parse() throws ParseException
+    {
+        return this.parser.parse(new StringReader(this.source));
+    }
+
+    /**
+     * Parse without building the XDOM.
+     *
+     * @throws ParseException when the parsing fails
+     */
+    @Benchmark
+    public void streamParse() throws ParseException
+    {
+        this.streamParser.parse(new StringReader(this.source), new VoidListener());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.VoidWikiPrinter;
+
+/**
+ * Measures the render stage, for each renderer, on the transformed XWiki 2.1 corpus. The {@link #renderToVoid()}
+ * benchmark discards the output so that the cost of the printers shows up as the difference with {@link #render()}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RenderBenchmark
+{
+    /**
+     * The syntax to render.
+     */
+    @Param({ "xwiki/2.0", "xwiki/2.1", "xhtml/1.0", "html/5.0", "annotatedxhtml/1.0", "plain/1.0", "event/1.0",
+        "blocknote/1.0" })
+    public String syntax;
+
+    /**
+     * The kind of rendered document.
+     */
+    @Param
+    public DocumentKind kind;
+
+    private BenchmarkEnvironment environment;
+
+    private BlockRenderer renderer;
+
+    private XDOM xdom;
+
+    /**
+     * Prepare the renderer and the document to render.
+     *
+     * @throws Exception when the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.renderer = this.environment.getBlockRenderer(this.syntax);
+        this.xdom = this.environment.getTransformedXDOM(this.kind, BenchmarkEnvironment.ALL_TRANSFORMATIONS);
+    }
+
+    /**
+     * Release the components.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.environment.dispose();
+    }
+
+    /**
+     * @return the rendered content, to prevent dead code elimination
+     */
+    @Benchmark
+    public String render()
+    {
+        DefaultWikiPrinter printer = new DefaultWikiPrinter();
+        this.renderer.render(this.xdom, printer);
+        return printer.toString();
+    }
+
+    /**
+     * Render without keeping the output.
+     */
+    @Benchmark
+    public void renderToVoid()
+    {
+        this.renderer.render(this.xdom, VoidWikiPrinter.VOIDWIKIPRINTER);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.TransformationManager;
+
+/**
+ * Measures the transformation stage, using the {@link TransformationManager} like the rendering pipeline does.
+ * <p>
+ * Transformations modify the XDOM in place so each invocation works on a fresh clone of the parsed document. The
+ * clone is made in an invocation level setup so that it isn't measured, which is reliable here because even the
+ * smallest document takes much longer to transform than the JMH timestamping overhead.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransformationBenchmark
+{
+    /**
+     * The comma separated names of the transformations to execute.
+     */
+    @Param({ "macro", "icon", "wikiword", "macro,icon,wikiword" })
+    public String transformations;
+
+    /**
+     * The kind of transformed document.
+     */
+    @Param
+    public DocumentKind kind;
+
+    private BenchmarkEnvironment environment;
+
+    private TransformationManager transformationManager;
+
+    private XDOM parsedXDOM;
+
+    private XDOM xdom;
+
+    private TransformationContext context;
+
+    /**
+     * Parse the source document.
+     *
+     * @throws Exception when the setup fails
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.transformationManager =
+            this.environment.getComponentManager().getInstance(TransformationManager.class);
+        this.parsedXDOM = this.environment.getXDOM(this.kind);
+    }
+
+    /**
+     * Prepare a fresh copy of the document to transform.
+     */
+    @Setup(Level.Invocation)
+    public void prepareInvocation()
+    {
+        List<String> names = Arrays.asList(this.transformations.split(","));
+        this.xdom = this.parsedXDOM.clone();
+        this.context = this.environment.createTransformationContext(this.xdom, names);
+    }
+
+    /**
+     * Release the components.
+     */
+    @TearDown
+    public void tearDown()
+    {
+        this.environment.dispose();
+    }
+
+    /**
+     * @return the transformed XDOM, to prevent dead code elimination
+     * @throws TransformationException when the transformation fails
+     */
+    @Benchmark
+    public XDOM transform() throws TransformationException
+    {
+        this.transformationManager.performTransformations(this.xdom, this.context);
+        return this.xdom;
+    }
+}
@@ -67,6 +67,7 @@ public DefaultBoxMacro()
         super("Box", DESCRIPTION, new DefaultContentDescriptor(CONTENT_DESCRIPTION, false,
             Block.LIST_BLOCK_TYPE), BoxMacroParameters.class);
         setDefaultCategories(Set.of(DEFAULT_CATEGORY_FORMATTING));
+        setCacheable(true);
     }
 
     @Override
@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.macro.footnote;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.converter.SectionConverter;
+import org.xwiki.rendering.parser.Parser;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.TransformationContext;
+import org.xwiki.rendering.transformation.TransformationManager;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verify that the footnotes of a section rendered with the {@link SectionConverter} match the rendering of the whole
+ * document.
+ *
+ * @version $Id$
+ */
+@AllComponents
+@ComponentTest
+class FootnoteSectionConverterTest
+{
+    private static final String INPUT = "= One =\n\nFirst{{footnote}}First footnote{{/footnote}} section.\n\n"
+        + "= Two =\n\nSecond{{footnote}}Footnote content{{/footnote}} section.\n\n"
+        + "= Three =\n\nThird section.";
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @Test
+    void convertSectionMatchesDocumentRendering() throws Exception
+    {
+        String documentRendering = renderDocument();
+        int secondSection = documentRendering.indexOf("<h1 id=\"HTwo\"");
+        int thirdSection = documentRendering.indexOf("<h1 id=\"HThree\"");
+        int footnotes = documentRendering.indexOf("<ol class=\"footnotes\"");
+        assertTrue(0 < secondSection && secondSection < thirdSection && thirdSection < footnotes);
+
+        // The section is followed by the list of the footnotes up to the end of the section, numbered as in the
+        // whole document.
+        assertEquals(documentRendering.substring(secondSection, thirdSection) + documentRendering.substring(footnotes),
+            renderSection(2));
+        String firstSectionRendering = renderSection(1);
+        assertTrue(firstSectionRendering.startsWith(documentRendering.substring(0, secondSection)),
+            firstSectionRendering);
+        assertFalse(firstSectionRendering.contains("Footnote content"), firstSectionRendering);
+    }
+
+    private XDOM parse() throws Exception
+    {
+        Parser parser = this.componentManager.getInstance(Parser.class, Syntax.XWIKI_2_1.toIdString());
+        return parser.parse(new StringReader(INPUT));
+    }
+
+    private String renderDocument() throws Exception
+    {
+        XDOM xdom = parse();
+        TransformationManager transformationManager = this.componentManager.getInstance(TransformationManager.class);
+        transformationManager.performTransformations(xdom, new TransformationContext(xdom, Syntax.XWIKI_2_1));
+
+        WikiPrinter printer = new DefaultWikiPrinter();
+        BlockRenderer renderer = this.componentManager.getInstance(BlockRenderer.class, Syntax.XHTML_1_0.toIdString());
+        renderer.render(xdom, printer);
+        return printer.toString();
+    }
+
+    private String renderSection(int sectionNumber) throws Exception
+    {
+        XDOM xdom = parse();
+        WikiPrinter printer = new DefaultWikiPrinter();
+        SectionConverter sectionConverter = this.componentManager.getInstance(SectionConverter.class);
+        sectionConverter.convert(xdom, sectionNumber, new TransformationContext(xdom, Syntax.XWIKI_2_1),
+            Syntax.XHTML_1_0, printer);
+        return printer.toString();
+    }
+}
@@ -25,6 +25,8 @@
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.listener.chaining.MetaDataStateChainingListener;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 
 /**
  * Define a generic HTMLMacroRenderer with the right {@link ListenerChain}.
@@ -32,7 +34,8 @@
  * @version $Id$
  * @since 11.4RC1
  */
-public abstract class AbstractHTMLMacroRenderer extends AbstractChainingPrintRenderer implements Initializable
+public abstract class AbstractHTMLMacroRenderer extends AbstractChainingPrintRenderer
+    implements ResettablePrintRenderer, Initializable
 {
     /**
      * @return the specific syntax {@link AbstractChainingPrintRenderer} that is required for the concrete HTMLMacro
@@ -47,6 +50,25 @@ public abstract class AbstractHTMLMacroRenderer extends AbstractChainingPrintRen
      */
     @Override
     public void initialize() throws InitializationException
+    {
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new ListenerChain();
         setListenerChain(chain);
@@ -221,11 +221,12 @@ private String renderWikiSyntax(String content, Transformation transformation, M
 
             // Render the whole parsed content as a XHTML string
             WikiPrinter printer = new DefaultWikiPrinter();
-            PrintRenderer renderer =
-                this.getRendererFactory(this.renderingContext.getTargetSyntax()).createRenderer(printer);
+            PrintRendererFactory rendererFactory = this.getRendererFactory(this.renderingContext.getTargetSyntax());
+            PrintRenderer renderer = rendererFactory.createRenderer(printer);
             for (Block block : htmlMacroMarker.getChildren()) {
                 block.traverse(renderer);
             }
+            rendererFactory.release(renderer);
 
             xhtml = printer.toString();
         } catch (Exception e) {
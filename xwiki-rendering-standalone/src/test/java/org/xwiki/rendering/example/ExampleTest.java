@@ -70,6 +70,32 @@ void renderXWiki20SyntaxAsXHTML() throws Exception
         assertEquals("<p>This is <strong>bold</strong></p>", printer.toString());
     }
 
+    @Test
+    void convertWithoutTransformationsMatchesXDOMRendering() throws Exception
+    {
+        // Initialize Rendering components and allow getting instances
+        EmbeddableComponentManager cm = new EmbeddableComponentManager();
+        cm.initialize(this.getClass().getClassLoader());
+
+        String input = "= Title =\n\nThis is **bold** and //italic// with a [[link>>https://xwiki.org]]\n\n"
+            + "* item 1\n** nested item\n* item 2\n\n|=Header|=Other\n|cell|**bold cell**\n\n== Sub title ==\n\n"
+            + "1. first\n1. second";
+
+        // Convert without transformations: the input is streamed from the parser to the renderer.
+        Converter converter = cm.getInstance(Converter.class);
+        WikiPrinter streamedPrinter = new DefaultWikiPrinter();
+        converter.convert(new StringReader(input), Syntax.XWIKI_2_1, Syntax.XHTML_1_0, streamedPrinter, false);
+
+        // Parse into an XDOM and render it.
+        Parser parser = cm.getInstance(Parser.class, Syntax.XWIKI_2_1.toIdString());
+        XDOM xdom = parser.parse(new StringReader(input));
+        WikiPrinter printer = new DefaultWikiPrinter();
+        BlockRenderer renderer = cm.getInstance(BlockRenderer.class, Syntax.XHTML_1_0.toIdString());
+        renderer.render(xdom, printer);
+
+        assertEquals(printer.toString(), streamedPrinter.toString());
+    }
+
     @Test
     void makeAllLinksItalic() throws Exception
     {
@@ -35,6 +35,8 @@
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.listener.chaining.MetaDataStateChainingListener;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.xml.html.HTMLElementSanitizer;
 
 /**
@@ -49,7 +51,8 @@
 @Component
 @Named("annotatedhtml/5.0")
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
-public class AnnotatedHTML5Renderer extends AbstractChainingPrintRenderer implements Initializable
+public class AnnotatedHTML5Renderer extends AbstractChainingPrintRenderer
+    implements ResettablePrintRenderer, Initializable
 {
     /**
      * To render link events into annotated XHTML. This is done so that it's pluggable because link rendering depends
@@ -77,6 +80,25 @@ public class AnnotatedHTML5Renderer extends AbstractChainingPrintRenderer implem
 
     @Override
     public void initialize() throws InitializationException
+    {
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new ListenerChain();
         setListenerChain(chain);
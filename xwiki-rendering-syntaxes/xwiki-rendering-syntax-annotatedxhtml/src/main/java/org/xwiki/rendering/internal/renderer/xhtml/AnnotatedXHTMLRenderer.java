@@ -34,6 +34,8 @@
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.listener.chaining.MetaDataStateChainingListener;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.xml.html.HTMLElementSanitizer;
 
 /**
@@ -48,7 +50,8 @@
 @Component
 @Named("annotatedxhtml/1.0")
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
-public class AnnotatedXHTMLRenderer extends AbstractChainingPrintRenderer implements Initializable
+public class AnnotatedXHTMLRenderer extends AbstractChainingPrintRenderer
+    implements ResettablePrintRenderer, Initializable
 {
     /**
      * To render link events into annotated XHTML. This is done so that it's pluggable because link rendering depends
@@ -76,6 +79,25 @@ public class AnnotatedXHTMLRenderer extends AbstractChainingPrintRenderer implem
 
     @Override
     public void initialize() throws InitializationException
+    {
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new ListenerChain();
         setListenerChain(chain);
@@ -29,8 +29,10 @@
 import jakarta.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.internal.blocknote.BlockNoteObjectMapper;
 import org.xwiki.rendering.internal.parser.blocknote.blocks.AbstractBlockParser;
 import org.xwiki.rendering.internal.parser.blocknote.blocks.BlockParser;
+import org.xwiki.rendering.internal.parser.blocknote.blocks.RootBlockParser;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.StreamParser;
@@ -58,6 +60,8 @@ public class BlockNoteStreamParser implements StreamParser
     @Named("root")
     private BlockParser rootBlockParser;
 
+    private final ObjectMapper objectMapper = BlockNoteObjectMapper.create();
+
     @Override
     public Syntax getSyntax()
     {
@@ -73,10 +77,18 @@ public void parse(Reader source, Listener listener) throws ParseException
     @Override
     public void parse(Reader source, Listener listener, IdGenerator idGenerator) throws ParseException
     {
-        ObjectMapper objectMapper = new ObjectMapper();
+        Deque<Context> contextStack = new LinkedList<>();
+        contextStack.push(new Context(listener, idGenerator, false, null, this.objectMapper.createArrayNode(), null));
+
+        if (this.rootBlockParser instanceof RootBlockParser streamingRootBlockParser) {
+            // Read the top level blocks one by one instead of loading the whole JSON tree.
+            streamingRootBlockParser.parse(source, contextStack);
+            return;
+        }
+
         JsonNode blocks = null;
         try {
-            blocks = objectMapper.readTree(source);
+            blocks = this.objectMapper.readTree(source);
         } catch (IOException e) {
             throw new ParseException("Failed to parse the BlockNote JSON source.", e);
         }
@@ -85,11 +97,9 @@ public void parse(Reader source, Listener listener, IdGenerator idGenerator) thr
             throw new ParseException("The BlockNote root element must be a JSON array.");
         }
 
-        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode root = this.objectMapper.createObjectNode();
         root.set(AbstractBlockParser.CHILDREN, blocks);
 
-        Deque<Context> contextStack = new LinkedList<>();
-        contextStack.push(new Context(listener, idGenerator, false, null, objectMapper.createArrayNode(), null));
         this.rootBlockParser.parse(root, contextStack);
     }
 }
@@ -19,15 +19,18 @@
  */
 package org.xwiki.rendering.internal.parser.blocknote.blocks;
 
+import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import jakarta.inject.Inject;
@@ -46,6 +49,8 @@
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.StreamParser;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -165,6 +170,87 @@ private void visitChildBlocks(ObjectNode parentBlock, String childBlocksKey, Deq
         contextStack.pop();
     }
 
+    /**
+     * Visits the child blocks read from the given JSON parser, which must be positioned on the start of the child
+     * blocks array. The child blocks are read and visited one by one, so only the block being visited and the next
+     * siblings it needs to look at (see {@link BlockParser#needsNextSibling(ObjectNode, JsonNode)}) are kept in memory.
+     *
+     * @param parentBlock the parent block
+     * @param childBlocks the JSON parser to read the child blocks from
+     * @param contextStack the stack of contexts to use during parsing
+     * @throws ParseException if the child blocks are not valid BlockNote blocks or if any error occurs during parsing
+     * @throws IOException if reading the child blocks fails
+     * @since 18.7.0RC1
+     */
+    protected void visitChildBlocks(ObjectNode parentBlock, JsonParser childBlocks, Deque<Context> contextStack)
+        throws ParseException, IOException
+    {
+        // The sibling blocks that are currently in memory. The first position is kept even after the first child block
+        // is visited (using a placeholder) so that the next blocks are not seen as the first child.
+        ArrayNode siblings = createArrayBlock();
+        contextStack.push(contextStack.peek().withParentAndSiblings(parentBlock, siblings));
+        // The block parsers are singletons so we call their parent block end hook only once, in the order they were
+        // first used, instead of keeping a callback for each child block.
+        Set<BlockParser> visitedBlockParsers = new LinkedHashSet<>();
+        ObjectNode firstChildBlock = readChildBlock(childBlocks);
+        if (firstChildBlock != null) {
+            siblings.add(firstChildBlock);
+        }
+        int index = 0;
+        while (index < siblings.size()) {
+            readNextSiblings(siblings, index, childBlocks);
+            ObjectNode childBlock = (ObjectNode) siblings.get(index);
+            if (!childBlock.path(SKIP).asBoolean()) {
+                BlockParser blockParser = getBlockParser(getBlockType(childBlock));
+                blockParser.parse(childBlock, contextStack);
+                visitedBlockParsers.add(blockParser);
+            }
+            if (index == 0) {
+                siblings.set(0, getObjectMapper().createObjectNode());
+                index++;
+            } else {
+                siblings.remove(index);
+            }
+        }
+        visitedBlockParsers.forEach(blockParser -> blockParser.onParentBlockEnd(contextStack));
+        contextStack.pop();
+    }
+
+    private void readNextSiblings(ArrayNode siblings, int index, JsonParser childBlocks)
+        throws ParseException, IOException
+    {
+        // Make sure the next sibling is available (so that the last child block is detected as such) and read ahead as
+        // long as the block parsers need to look at the following siblings.
+        int lastIndex = index;
+        while (true) {
+            if (lastIndex + 1 == siblings.size()) {
+                ObjectNode nextSibling = readChildBlock(childBlocks);
+                if (nextSibling == null) {
+                    return;
+                }
+                siblings.add(nextSibling);
+            }
+            ObjectNode block = (ObjectNode) siblings.get(lastIndex);
+            if (!getBlockParser(getBlockType(block)).needsNextSibling(block, siblings.get(lastIndex + 1))) {
+                return;
+            }
+            lastIndex++;
+        }
+    }
+
+    private ObjectNode readChildBlock(JsonParser childBlocks) throws ParseException, IOException
+    {
+        JsonToken token = childBlocks.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        JsonNode childBlock = getObjectMapper().readTree(childBlocks);
+        if (!childBlock.isObject()) {
+            throw new ParseException("Each BlockNote block must be a JSON object.");
+        }
+        return (ObjectNode) childBlock;
+    }
+
     protected ArrayNode getChildBlocks(ObjectNode parentBlock, String childBlocksKey) throws ParseException
     {
         JsonNode childBlocks = parentBlock.path(childBlocksKey);
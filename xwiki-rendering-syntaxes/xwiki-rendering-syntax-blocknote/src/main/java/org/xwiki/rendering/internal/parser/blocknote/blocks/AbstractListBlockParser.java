@@ -82,6 +82,12 @@ protected List<ObjectNode> getListItems(ObjectNode listItemBlock, Deque<Context>
         return listItems;
     }
 
+    @Override
+    public boolean needsNextSibling(ObjectNode block, JsonNode nextSibling)
+    {
+        return inSameList(block, nextSibling);
+    }
+
     protected boolean inSameList(JsonNode alice, JsonNode bob)
     {
         return Objects.equals(alice.get(TYPE), bob.get(TYPE));
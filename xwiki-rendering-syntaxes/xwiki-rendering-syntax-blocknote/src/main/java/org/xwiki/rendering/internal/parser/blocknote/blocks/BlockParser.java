@@ -26,6 +26,7 @@
 import org.xwiki.rendering.internal.parser.blocknote.Context;
 import org.xwiki.rendering.parser.ParseException;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -46,6 +47,21 @@
      */
     void parse(ObjectNode block, Deque<Context> contextStack) throws ParseException;
 
+    /**
+     * Indicates whether parsing the given block needs to look at its next sibling, e.g. to group the consecutive items
+     * of a list. This is used when the blocks are read one by one, to know which following blocks to read in advance.
+     *
+     * @param block the block to parse
+     * @param nextSibling the block following the given block
+     * @return {@code true} if the next sibling has to be available when parsing the given block, {@code false}
+     *         otherwise
+     * @since 18.7.0RC1
+     */
+    default boolean needsNextSibling(ObjectNode block, JsonNode nextSibling)
+    {
+        return false;
+    }
+
     /**
      * Hook method called at the end of the parent block parsing.
      * 
@@ -67,14 +67,24 @@ public void parse(ObjectNode paragraphBlock, Deque<Context> contextStack) throws
         }
     }
 
+    @Override
+    public boolean needsNextSibling(ObjectNode block, JsonNode nextSibling)
+    {
+        // Consecutive empty lines are grouped.
+        return isEmptyParagraph(block) && isEmptyParagraph(nextSibling);
+    }
+
     private boolean isEmptyLine(JsonNode block, Deque<Context> contextStack)
     {
-        JsonNode content = block.path(CONTENT);
-        Map<String, String> parameters = getBlockParameters(block);
         // BlockNote doesn't support the concept of empty lines so we map empty lines to empty paragraphs. Empty lines
         // are used to separate blocks of content so normally they are not the first or the last child.
-        return PARAGRAPH.equals(block.path(TYPE).asText()) && parameters.isEmpty()
-            && !contextStack.peek().isFirstOrLastChild(block) && isEmptyContent(content);
+        return isEmptyParagraph(block) && !contextStack.peek().isFirstOrLastChild(block);
+    }
+
+    private boolean isEmptyParagraph(JsonNode block)
+    {
+        return PARAGRAPH.equals(block.path(TYPE).asText()) && getBlockParameters(block).isEmpty()
+            && isEmptyContent(block.path(CONTENT));
     }
 
     private boolean isEmptyContent(JsonNode content)
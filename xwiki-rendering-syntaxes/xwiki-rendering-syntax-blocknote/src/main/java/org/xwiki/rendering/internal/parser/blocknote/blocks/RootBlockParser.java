@@ -19,6 +19,8 @@
  */
 package org.xwiki.rendering.internal.parser.blocknote.blocks;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.Deque;
 
 import jakarta.inject.Named;
@@ -30,6 +32,8 @@
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.parser.ParseException;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -51,13 +55,44 @@ public class RootBlockParser extends AbstractBlockParser
     @Override
     public void parse(ObjectNode rootBlock, Deque<Context> contextStack) throws ParseException
     {
-        MetaData metadata = new MetaData();
-        metadata.addMetaData(MetaData.SYNTAX, BlockNote10SyntaxProvider.BLOCKNOTE_1_0);
-        Context context = contextStack.peek();
-        context.listener().beginDocument(metadata);
+        MetaData metadata = beginDocument(contextStack);
 
         visitChildBlocks(rootBlock, CHILDREN, contextStack);
 
-        context.listener().endDocument(metadata);
+        contextStack.peek().listener().endDocument(metadata);
+    }
+
+    /**
+     * Parses the given BlockNote JSON source, reading the top level blocks one by one instead of loading the whole
+     * JSON tree in memory.
+     *
+     * @param source the BlockNote JSON source, which must be an array of blocks
+     * @param contextStack the stack of contexts to use during parsing
+     * @throws ParseException if the source is not valid BlockNote JSON or if any error occurs during parsing
+     * @since 18.7.0RC1
+     */
+    public void parse(Reader source, Deque<Context> contextStack) throws ParseException
+    {
+        try (JsonParser blocks = getObjectMapper().createParser(source)) {
+            if (blocks.nextToken() != JsonToken.START_ARRAY) {
+                throw new ParseException("The BlockNote root element must be a JSON array.");
+            }
+
+            MetaData metadata = beginDocument(contextStack);
+
+            visitChildBlocks(getObjectMapper().createObjectNode(), blocks, contextStack);
+
+            contextStack.peek().listener().endDocument(metadata);
+        } catch (IOException e) {
+            throw new ParseException("Failed to parse the BlockNote JSON source.", e);
+        }
+    }
+
+    private MetaData beginDocument(Deque<Context> contextStack)
+    {
+        MetaData metadata = new MetaData();
+        metadata.addMetaData(MetaData.SYNTAX, BlockNote10SyntaxProvider.BLOCKNOTE_1_0);
+        contextStack.peek().listener().beginDocument(metadata);
+        return metadata;
     }
 }
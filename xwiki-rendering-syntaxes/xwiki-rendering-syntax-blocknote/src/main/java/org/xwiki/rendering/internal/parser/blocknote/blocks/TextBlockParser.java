@@ -129,6 +129,12 @@ public void parse(ObjectNode textBlock, Deque<Context> contextStack) throws Pars
         }
     }
 
+    @Override
+    public boolean needsNextSibling(ObjectNode block, JsonNode nextSibling)
+    {
+        return TEXT.equals(nextSibling.path(TYPE).asText());
+    }
+
     @Override
     public void traverse(ObjectNode textBlock, Consumer<ObjectNode> blockConsumer)
     {
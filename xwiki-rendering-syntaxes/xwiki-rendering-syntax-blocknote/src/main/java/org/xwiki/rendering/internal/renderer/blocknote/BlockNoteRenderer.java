@@ -36,6 +36,8 @@
 import org.xwiki.rendering.listener.chaining.EmptyBlockChainingListener;
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.wiki.WikiModel;
 
 /**
@@ -47,7 +49,7 @@
 @Component
 @Named("blocknote/1.0")
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
-public class BlockNoteRenderer extends AbstractChainingPrintRenderer implements Initializable
+public class BlockNoteRenderer extends AbstractChainingPrintRenderer implements ResettablePrintRenderer, Initializable
 {
     @Inject
     @Named("context")
@@ -61,10 +63,30 @@ public class BlockNoteRenderer extends AbstractChainingPrintRenderer implements
 
     @Override
     public void initialize() throws InitializationException
+    {
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new ListenerChain();
         setListenerChain(chain);
 
+        // Resolved for each rendering since the wiki model can be different for the current wiki or user.
         ComponentManager componentManager = this.componentManagerProvider.get();
         WikiModel wikiModel = getWikiModel(componentManager);
 
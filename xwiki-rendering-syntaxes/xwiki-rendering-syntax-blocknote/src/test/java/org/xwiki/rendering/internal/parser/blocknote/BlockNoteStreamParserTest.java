@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser.blocknote;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
+import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link BlockNoteStreamParser}, focusing on the top level blocks which are read one by one, only the
+ * following siblings needed by the block parsers being read ahead.
+ *
+ * @version $Id$
+ */
+@AllComponents
+@ComponentTest
+class BlockNoteStreamParserTest
+{
+    private static final String BEGIN_DOCUMENT = "beginDocument [[syntax]=[BlockNote 1.0]]";
+
+    private static final String END_DOCUMENT = "endDocument [[syntax]=[BlockNote 1.0]]";
+
+    private static final String EMPTY_PARAGRAPH = "{\"type\":\"paragraph\",\"props\":{},\"content\":[]}";
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    private StreamParser parser;
+
+    private PrintRenderer renderer;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        this.parser = this.componentManager.getInstance(StreamParser.class, "blocknote/1.0");
+        this.renderer = this.componentManager.<PrintRendererFactory>getInstance(PrintRendererFactory.class, "event/1.0")
+            .createRenderer(new DefaultWikiPrinter());
+    }
+
+    @Test
+    void listItemsGroupedAcrossReadAheadWindow() throws Exception
+    {
+        List<String> blocks = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        expected.add(BEGIN_DOCUMENT);
+        // A list long enough to require reading many blocks ahead, followed by a list at the end of the document.
+        addList(blocks, expected, "bulletListItem", "BULLETED", 50);
+        blocks.add(paragraph("middle"));
+        expected.addAll(List.of("beginParagraph", "onWord [middle]", "endParagraph"));
+        addList(blocks, expected, "numberedListItem", "NUMBERED", 50);
+        expected.add(END_DOCUMENT);
+
+        assertEquals(String.join("\n", expected), parse(blocks));
+    }
+
+    @Test
+    void emptyParagraphsAtDocumentStartAndEnd() throws Exception
+    {
+        List<String> blocks = List.of(EMPTY_PARAGRAPH, EMPTY_PARAGRAPH, paragraph("first"), EMPTY_PARAGRAPH,
+            EMPTY_PARAGRAPH, EMPTY_PARAGRAPH, paragraph("second"), EMPTY_PARAGRAPH, EMPTY_PARAGRAPH);
+
+        // The first and the last empty paragraphs are kept as paragraphs, the others are grouped as empty lines.
+        assertEquals(String.join("\n", BEGIN_DOCUMENT,
+            "beginParagraph",
+            "endParagraph",
+            "onEmptyLines [1]",
+            "beginParagraph",
+            "onWord [first]",
+            "endParagraph",
+            "onEmptyLines [3]",
+            "beginParagraph",
+            "onWord [second]",
+            "endParagraph",
+            "onEmptyLines [1]",
+            "beginParagraph",
+            "endParagraph",
+            END_DOCUMENT), parse(blocks));
+    }
+
+    @Test
+    void consecutiveTextBlocksMerged() throws Exception
+    {
+        List<String> blocks = List.of(paragraph("before"), text("one", "{\"bold\":true}"),
+            text("two", "{\"bold\":true,\"italic\":true}"), text("three", "{\"bold\":true}"));
+
+        // The bold format is shared by the three text blocks.
+        assertEquals(String.join("\n", BEGIN_DOCUMENT,
+            "beginParagraph",
+            "onWord [before]",
+            "endParagraph",
+            "beginFormat [BOLD]",
+            "onWord [one]",
+            "beginFormat [ITALIC]",
+            "onWord [two]",
+            "endFormat [ITALIC]",
+            "onWord [three]",
+            "endFormat [BOLD]",
+            END_DOCUMENT), parse(blocks));
+    }
+
+    @Test
+    void invalidJSONAfterValidBlocks()
+    {
+        String source = "[" + paragraph("first") + "," + paragraph("second") + ",{\"type\":";
+
+        ParseException exception = assertThrows(ParseException.class,
+            () -> this.parser.parse(new StringReader(source), this.renderer));
+        assertEquals("Failed to parse the BlockNote JSON source.", exception.getMessage());
+        // The blocks read before the error are already sent, except the one waiting for its next sibling.
+        assertEquals(String.join("\n", BEGIN_DOCUMENT, "beginParagraph", "onWord [first]", "endParagraph", ""),
+            this.renderer.getPrinter().toString());
+    }
+
+    @Test
+    void topLevelBlockMustBeAnObject()
+    {
+        String source = "[" + paragraph("first") + ",\"text\"]";
+
+        ParseException exception = assertThrows(ParseException.class,
+            () -> this.parser.parse(new StringReader(source), this.renderer));
+        assertEquals("Each BlockNote block must be a JSON object.", exception.getMessage());
+    }
+
+    private String parse(List<String> blocks) throws ParseException
+    {
+        this.parser.parse(new StringReader("[" + String.join(",", blocks) + "]"), this.renderer);
+        return this.renderer.getPrinter().toString();
+    }
+
+    private static void addList(List<String> blocks, List<String> expected, String itemType, String listType,
+        int size)
+    {
+        expected.add("beginList [" + listType + "]");
+        for (int i = 0; i < size; i++) {
+            blocks.add("{\"type\":\"" + itemType + "\",\"props\":{},\"content\":\"item" + i + "\",\"children\":[]}");
+            expected.addAll(List.of("beginListItem", "onWord [item" + i + "]", "endListItem"));
+        }
+        expected.add("endList [" + listType + "]");
+    }
+
+    private static String paragraph(String text)
+    {
+        return "{\"type\":\"paragraph\",\"props\":{},\"content\":\"" + text + "\"}";
+    }
+
+    private static String text(String text, String styles)
+    {
+        return "{\"type\":\"text\",\"text\":\"" + text + "\",\"styles\":" + styles + "}";
+    }
+}
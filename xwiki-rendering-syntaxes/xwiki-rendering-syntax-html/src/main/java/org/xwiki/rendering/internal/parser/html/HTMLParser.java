@@ -20,7 +20,6 @@
 package org.xwiki.rendering.internal.parser.html;
 
 import java.io.Reader;
-import java.io.StringReader;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -34,7 +33,6 @@
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.util.IdGenerator;
 import org.xwiki.xml.html.HTMLCleaner;
-import org.xwiki.xml.html.HTMLUtils;
 
 import static org.xwiki.rendering.internal.html.HTML401SyntaxProvider.HTML_4_01;
 
@@ -61,27 +59,29 @@ public Syntax getSyntax()
         return HTML_4_01;
     }
 
+    // The cleaned document is parsed as is instead of being serialized and parsed again.
+
     @Override
     public XDOM parse(Reader source) throws ParseException
     {
-        return super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source))));
+        return parse(source, new IdGenerator());
     }
 
     @Override
     public XDOM parse(Reader source, IdGenerator idGenerator) throws ParseException
     {
-        return super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source))), idGenerator);
+        return parse(this.htmlCleaner.clean(source), idGenerator);
     }
 
     @Override
     public void parse(Reader source, Listener listener) throws ParseException
     {
-        super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source))), listener);
+        parse(source, listener, new IdGenerator());
     }
 
     @Override
     public void parse(Reader source, Listener listener, IdGenerator idGenerator) throws ParseException
     {
-        super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source))), listener, idGenerator);
+        parse(this.htmlCleaner.clean(source), listener, idGenerator);
     }
 }
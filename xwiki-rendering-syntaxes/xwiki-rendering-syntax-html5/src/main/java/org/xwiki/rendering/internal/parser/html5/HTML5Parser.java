@@ -20,7 +20,6 @@
 package org.xwiki.rendering.internal.parser.html5;
 
 import java.io.Reader;
-import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,7 +35,6 @@
 import org.xwiki.rendering.util.IdGenerator;
 import org.xwiki.xml.html.HTMLCleaner;
 import org.xwiki.xml.html.HTMLCleanerConfiguration;
-import org.xwiki.xml.html.HTMLUtils;
 
 import static org.xwiki.rendering.internal.html5.HTML5SyntaxProvider.HTML_5_0;
 
@@ -56,33 +54,30 @@ public class HTML5Parser extends XHTML5Parser
     @Inject
     private HTMLCleaner htmlCleaner;
 
+    // The cleaned document is parsed as is instead of being serialized and parsed again.
+
     @Override
     public XDOM parse(Reader source) throws ParseException
     {
-        return super.parse(
-            new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()))));
+        return parse(source, new IdGenerator());
     }
 
     @Override
     public XDOM parse(Reader source, IdGenerator idGenerator) throws ParseException
     {
-        return super.parse(
-            new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()))),
-            idGenerator);
+        return parse(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()), idGenerator);
     }
 
     @Override
     public void parse(Reader source, Listener listener) throws ParseException
     {
-        super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()))),
-            listener);
+        parse(source, listener, new IdGenerator());
     }
 
     @Override
     public void parse(Reader source, Listener listener, IdGenerator idGenerator) throws ParseException
     {
-        super.parse(new StringReader(HTMLUtils.toString(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()))),
-            listener, idGenerator);
+        parse(this.htmlCleaner.clean(source, getHTMLCleanerConfiguration()), listener, idGenerator);
     }
 
     @Override
@@ -31,6 +31,8 @@
 import org.xwiki.rendering.listener.chaining.EmptyBlockChainingListener;
 import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.renderer.reference.link.LinkLabelGenerator;
 
 /**
@@ -44,7 +46,7 @@
 @Component
 @Named("plain/1.0")
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
-public class PlainTextRenderer extends AbstractChainingPrintRenderer implements Initializable
+public class PlainTextRenderer extends AbstractChainingPrintRenderer implements ResettablePrintRenderer, Initializable
 {
     /**
      * Used to generate link label when not explicitely provided.
@@ -54,6 +56,25 @@ public class PlainTextRenderer extends AbstractChainingPrintRenderer implements
 
     @Override
     public void initialize() throws InitializationException
+    {
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new ListenerChain();
         setListenerChain(chain);
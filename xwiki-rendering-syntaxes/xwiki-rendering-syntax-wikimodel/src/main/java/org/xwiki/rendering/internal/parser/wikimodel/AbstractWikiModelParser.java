@@ -27,6 +27,7 @@
 import org.xwiki.component.descriptor.ComponentDescriptor;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.listener.InlineFilterListener;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.Parser;
@@ -34,6 +35,7 @@
 import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.renderer.PrintRendererFactory;
 import org.xwiki.rendering.util.IdGenerator;
+import org.xwiki.rendering.wikimodel.IWikiInlineParser;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 
 /**
@@ -138,13 +140,80 @@ public void parse(Reader source, Listener listener, IdGenerator idGenerator) thr
     {
         IWikiParser parser = createWikiModelParser();
         try {
-            parser.parse(source, createXWikiGeneratorListener(
-                this.wikiModelParserListenerBuilder.buildListener(this.descriptor.getRoleHint(), listener),
-                idGenerator));
+            parser.parse(source, createParseListener(listener, idGenerator));
         } catch (Exception | StackOverflowError e) {
             // Stack overflow errors are caught in addition to exceptions because they can be thrown by javacc based
             // implementations in case of too deeply nested contents (e.g., too many nested groups).   
             throw new ParseException("Failed to parse input source", e);
         }
     }
+
+    @Override
+    public XDOM parse(CharSequence source) throws ParseException
+    {
+        IdGenerator idGenerator = new IdGenerator();
+        return parse(source, idGenerator);
+    }
+
+    @Override
+    public XDOM parse(CharSequence source, IdGenerator idGenerator) throws ParseException
+    {
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        parse(source, listener, idGenerator);
+
+        XDOM xdom = listener.getXDOM();
+        xdom.setIdGenerator(idGenerator);
+
+        return xdom;
+    }
+
+    @Override
+    public void parse(CharSequence source, Listener listener) throws ParseException
+    {
+        IdGenerator idGenerator = new IdGenerator();
+
+        parse(source, listener, idGenerator);
+    }
+
+    @Override
+    public void parse(CharSequence source, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        // The content is passed as is to the WikiModel parser, which can read it without copying it.
+        IWikiParser parser = createWikiModelParser();
+        try {
+            parser.parse(source, createParseListener(listener, idGenerator));
+        } catch (Exception | StackOverflowError e) {
+            throw new ParseException("Failed to parse input source", e);
+        }
+    }
+
+    /**
+     * @param listener the listener receiving the parsed content
+     * @param idGenerator the generator to use for the header ids
+     * @return the WikiModel listener to pass to the WikiModel parser to parse a whole document
+     * @since 18.7.0RC1
+     */
+    protected XWikiGeneratorListener createParseListener(Listener listener, IdGenerator idGenerator)
+    {
+        return createXWikiGeneratorListener(
+            this.wikiModelParserListenerBuilder.buildListener(this.descriptor.getRoleHint(), listener), idGenerator);
+    }
+
+    @Override
+    public boolean parseInline(String content, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        if (!(createWikiModelParser() instanceof IWikiInlineParser parser)) {
+            return false;
+        }
+
+        InlineFilterListener inlineFilterListener = new InlineFilterListener();
+        inlineFilterListener.setWrappedListener(listener);
+        try {
+            parser.parseInline(content, createXWikiGeneratorListener(inlineFilterListener, idGenerator));
+        } catch (Exception | StackOverflowError e) {
+            throw new ParseException("Failed to parse inline content", e);
+        }
+
+        return true;
+    }
 }
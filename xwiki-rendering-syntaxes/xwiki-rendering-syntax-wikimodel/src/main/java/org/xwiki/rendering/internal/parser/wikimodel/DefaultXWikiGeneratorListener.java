@@ -894,9 +894,7 @@ protected void onReference(ResourceReference reference, String label, boolean fr
         getListener().beginLink(reference, freestanding, parameters);
         if (label != null) {
             try {
-                // TODO: Use an inline parser. See https://jira.xwiki.org/browse/XWIKI-2748
-                WikiModelParserUtils parserUtils = new WikiModelParserUtils();
-                parserUtils.parseInline(this.parser, label, getListener(), this.idGenerator, prefix);
+                parseLabel(label, prefix);
             } catch (ParseException e) {
                 // TODO what should we do here ?
             }
@@ -904,6 +902,18 @@ protected void onReference(ResourceReference reference, String label, boolean fr
         getListener().endLink(reference, freestanding, parameters);
     }
 
+    private void parseLabel(String label, boolean prefix) throws ParseException
+    {
+        // Parse the label directly as inline content when supported, the events are sent to the current listener.
+        if (prefix && this.parser instanceof WikiModelStreamParser wikiModelParser
+            && wikiModelParser.parseInline(label, getListener(), this.idGenerator)) {
+            return;
+        }
+
+        WikiModelParserUtils parserUtils = new WikiModelParserUtils();
+        parserUtils.parseInline(this.parser, label, getListener(), this.idGenerator, prefix);
+    }
+
     @Override
     public void onImage(String reference)
     {
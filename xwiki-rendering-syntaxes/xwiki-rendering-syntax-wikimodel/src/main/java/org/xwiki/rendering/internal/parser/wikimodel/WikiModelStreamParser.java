@@ -20,6 +20,7 @@
 package org.xwiki.rendering.internal.parser.wikimodel;
 
 import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.parser.StreamParser;
 import org.xwiki.rendering.util.IdGenerator;
 
@@ -37,4 +38,20 @@ public interface WikiModelStreamParser extends StreamParser
      * @return the XWiki Generator Listener instance corresponding to the parser (they need to be in sync)
      */
     XWikiGeneratorListener createXWikiGeneratorListener(Listener listener, IdGenerator idGenerator);
+
+    /**
+     * Parse inline content (e.g. a link label) without building a new listener chain: the passed listener is expected
+     * to be the one of an ongoing parsing. Only the inline events are sent to the listener.
+     *
+     * @param content the inline content to parse
+     * @param listener the XWiki listener to which to forward the inline events
+     * @param idGenerator unique id tool generator
+     * @return {@code true} if the content was parsed, {@code false} if the parser doesn't support inline parsing
+     * @throws ParseException if the content cannot be parsed
+     * @since 18.7.0RC1
+     */
+    default boolean parseInline(String content, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        return false;
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Serialize blocks in the compact {@code xdom+binary/1.0} format and parse them back, without going through the
+ * Base64 text form used by the {@code xdom+binary/1.0} parser and renderer.
+ * <p>
+ * This is mainly meant for caching parsed content (in memory or on disk): the format is much smaller and much faster
+ * to parse than the text syntaxes and the parsing can be done directly on a memory mapped file.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+@Role
+public interface XDOMBinarySerializer
+{
+    /**
+     * @param block the block to serialize
+     * @param stream the stream where to write the serialized block
+     * @throws IOException when failing to write in the stream
+     */
+    void serialize(Block block, OutputStream stream) throws IOException;
+
+    /**
+     * @param block the block to serialize
+     * @return the serialized block
+     */
+    byte[] serialize(Block block);
+
+    /**
+     * Send the events serialized in the passed buffer to the listener.
+     *
+     * @param buffer the serialized events, read from the current position of the buffer
+     * @param listener the listener receiving the events
+     * @throws ParseException when the buffer does not contain valid {@code xdom+binary/1.0} content
+     */
+    void parse(ByteBuffer buffer, Listener listener) throws ParseException;
+
+    /**
+     * @param buffer the serialized events, read from the current position of the buffer
+     * @return the parsed {@link XDOM}
+     * @throws ParseException when the buffer does not contain valid {@code xdom+binary/1.0} content
+     */
+    XDOM parse(ByteBuffer buffer) throws ParseException;
+}
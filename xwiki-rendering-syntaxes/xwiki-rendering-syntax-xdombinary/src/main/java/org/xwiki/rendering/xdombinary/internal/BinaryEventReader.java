@@ -0,0 +1,426 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.reference.AttachmentResourceReference;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.InterWikiResourceReference;
+import org.xwiki.rendering.listener.reference.PageAttachmentResourceReference;
+import org.xwiki.rendering.listener.reference.PageResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.listener.reference.SpaceResourceReference;
+import org.xwiki.rendering.listener.reference.UserResourceReference;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.syntax.SyntaxType;
+
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_DESCRIPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_TERM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FIGURE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FIGURE_CAPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FORMAT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_GROUP;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_HEADER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LINK;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LIST_ITEM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_MACRO_MARKER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_METADATA;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_PARAGRAPH;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_QUOTATION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_QUOTATION_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_SECTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_HEAD_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_ROW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_DESCRIPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_TERM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FIGURE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FIGURE_CAPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FORMAT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_GROUP;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_HEADER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LINK;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LIST_ITEM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_MACRO_MARKER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_METADATA;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_PARAGRAPH;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_QUOTATION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_QUOTATION_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_SECTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_HEAD_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_ROW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.MAGIC;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_EMPTY_LINES;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_HORIZONTAL_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_ID;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_IMAGE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_MACRO;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_NEW_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_RAW_TEXT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_SPACE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_SPECIAL_SYMBOL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_VERBATIM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_WORD;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_ATTACHMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_INTERWIKI;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_PAGE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_PAGE_ATTACHMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_SPACE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_USER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_LITERAL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_NEW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_NULL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_BOOLEAN;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_INTEGER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_LONG;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_NULL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_STRING;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_SYNTAX;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VERSION;
+
+/**
+ * Decode events in the {@code xdom+binary/1.0} format and send them to a {@link Listener}.
+ * <p>
+ * The events are read directly from the passed {@link ByteBuffer} (which can be a memory mapped file), starting at
+ * its current position.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class BinaryEventReader
+{
+    private final ByteBuffer buffer;
+
+    /**
+     * The strings already read, in the order they were added to the table.
+     */
+    private final List<String> stringTable = new ArrayList<>();
+
+    /**
+     * @param buffer the buffer to read
+     */
+    public BinaryEventReader(ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Read all the events of the buffer.
+     *
+     * @param listener the listener to send the events to
+     * @throws ParseException when the content of the buffer is not valid
+     */
+    public void read(Listener listener) throws ParseException
+    {
+        try {
+            readHeader();
+
+            while (this.buffer.hasRemaining()) {
+                readEvent(readVarInt(), listener);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new ParseException("Invalid xdom+binary content", e);
+        }
+    }
+
+    private void readHeader() throws ParseException
+    {
+        for (byte b : MAGIC) {
+            if (this.buffer.get() != b) {
+                throw new ParseException("The content does not start with the xdom+binary header");
+            }
+        }
+
+        int version = readVarInt();
+        if (version != VERSION) {
+            throw new ParseException("Unsupported xdom+binary version [" + version + "]");
+        }
+    }
+
+    // Primitives
+
+    private int readVarInt()
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = this.buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private long readVarLong()
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = this.buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    private boolean readBoolean()
+    {
+        return this.buffer.get() != 0;
+    }
+
+    private String readString()
+    {
+        int code = readVarInt();
+
+        String value;
+        if (code == STRING_NULL) {
+            value = null;
+        } else if (code == STRING_NEW || code == STRING_LITERAL) {
+            int length = readVarInt();
+            if (this.buffer.hasArray()) {
+                int position = this.buffer.position();
+                value = new String(this.buffer.array(), this.buffer.arrayOffset() + position, length,
+                    StandardCharsets.UTF_8);
+                this.buffer.position(position + length);
+            } else {
+                byte[] bytes = new byte[length];
+                this.buffer.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (code == STRING_NEW) {
+                this.stringTable.add(value);
+            }
+        } else {
+            value = this.stringTable.get(code - STRING_TABLE);
+        }
+
+        return value;
+    }
+
+    private List<String> readStrings()
+    {
+        int size = readVarInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString());
+        }
+
+        return values;
+    }
+
+    // Typed values
+
+    private Map<String, String> readParameters()
+    {
+        int size = readVarInt();
+        if (size == 0) {
+            return Listener.EMPTY_PARAMETERS;
+        }
+
+        Map<String, String> parameters = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            parameters.put(readString(), readString());
+        }
+
+        return parameters;
+    }
+
+    private MetaData readMetaData()
+    {
+        int size = readVarInt();
+        if (size == 0) {
+            return MetaData.EMPTY;
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            values.put(readString(), readValue());
+        }
+
+        return new MetaData(values);
+    }
+
+    private Object readValue()
+    {
+        int type = readVarInt();
+
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> readString();
+            case VALUE_SYNTAX -> readSyntax();
+            case VALUE_BOOLEAN -> readBoolean();
+            case VALUE_INTEGER -> (int) unZigZag(readVarLong());
+            case VALUE_LONG -> unZigZag(readVarLong());
+            default -> throw new IllegalArgumentException("Unknown metadata value type [" + type + "]");
+        };
+    }
+
+    private static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private Syntax readSyntax()
+    {
+        String typeId = readString();
+        String typeName = readString();
+        List<String> variants = readStrings();
+        String version = readString();
+        String qualifier = readString();
+
+        return new Syntax(new SyntaxType(typeId, variants, typeName), version, qualifier);
+    }
+
+    private ResourceReference readReference()
+    {
+        int referenceClass = readVarInt();
+        String type = readString();
+        String value = readString();
+
+        ResourceReference reference = switch (referenceClass) {
+            case REFERENCE_DOCUMENT -> new DocumentResourceReference(value);
+            case REFERENCE_PAGE -> new PageResourceReference(value);
+            case REFERENCE_SPACE -> new SpaceResourceReference(value);
+            case REFERENCE_USER -> new UserResourceReference(value);
+            case REFERENCE_ATTACHMENT -> new AttachmentResourceReference(value);
+            case REFERENCE_PAGE_ATTACHMENT -> new PageAttachmentResourceReference(value);
+            case REFERENCE_INTERWIKI -> new InterWikiResourceReference(value);
+            default -> new ResourceReference(value, new ResourceType(type));
+        };
+        reference.setTyped(readBoolean());
+        List<String> baseReferences = readStrings();
+        if (!baseReferences.isEmpty()) {
+            reference.addBaseReferences(baseReferences);
+        }
+        reference.setParameters(readParameters());
+
+        return reference;
+    }
+
+    // Events
+
+    private void readEvent(int event, Listener listener)
+    {
+        switch (event) {
+            case BEGIN_DOCUMENT -> listener.beginDocument(readMetaData());
+            case END_DOCUMENT -> listener.endDocument(readMetaData());
+            case BEGIN_METADATA -> listener.beginMetaData(readMetaData());
+            case END_METADATA -> listener.endMetaData(readMetaData());
+            case BEGIN_GROUP -> listener.beginGroup(readParameters());
+            case END_GROUP -> listener.endGroup(readParameters());
+            case BEGIN_FORMAT -> listener.beginFormat(Format.valueOf(readString()), readParameters());
+            case END_FORMAT -> listener.endFormat(Format.valueOf(readString()), readParameters());
+            case BEGIN_PARAGRAPH -> listener.beginParagraph(readParameters());
+            case END_PARAGRAPH -> listener.endParagraph(readParameters());
+            case BEGIN_LIST -> listener.beginList(ListType.valueOf(readString()), readParameters());
+            case END_LIST -> listener.endList(ListType.valueOf(readString()), readParameters());
+            case BEGIN_DEFINITION_LIST -> listener.beginDefinitionList(readParameters());
+            case END_DEFINITION_LIST -> listener.endDefinitionList(readParameters());
+            case BEGIN_LIST_ITEM -> listener.beginListItem(readParameters());
+            case END_LIST_ITEM -> listener.endListItem(readParameters());
+            case BEGIN_DEFINITION_TERM -> listener.beginDefinitionTerm();
+            case END_DEFINITION_TERM -> listener.endDefinitionTerm();
+            case BEGIN_DEFINITION_DESCRIPTION -> listener.beginDefinitionDescription();
+            case END_DEFINITION_DESCRIPTION -> listener.endDefinitionDescription();
+            case BEGIN_TABLE -> listener.beginTable(readParameters());
+            case END_TABLE -> listener.endTable(readParameters());
+            case BEGIN_TABLE_ROW -> listener.beginTableRow(readParameters());
+            case END_TABLE_ROW -> listener.endTableRow(readParameters());
+            case BEGIN_TABLE_CELL -> listener.beginTableCell(readParameters());
+            case END_TABLE_CELL -> listener.endTableCell(readParameters());
+            case BEGIN_TABLE_HEAD_CELL -> listener.beginTableHeadCell(readParameters());
+            case END_TABLE_HEAD_CELL -> listener.endTableHeadCell(readParameters());
+            case BEGIN_SECTION -> listener.beginSection(readParameters());
+            case END_SECTION -> listener.endSection(readParameters());
+            case BEGIN_HEADER -> listener.beginHeader(HeaderLevel.parseInt(readVarInt()), readString(),
+                readParameters());
+            case END_HEADER -> listener.endHeader(HeaderLevel.parseInt(readVarInt()), readString(), readParameters());
+            case BEGIN_MACRO_MARKER -> listener.beginMacroMarker(readString(), readParameters(), readString(),
+                readBoolean());
+            case END_MACRO_MARKER -> listener.endMacroMarker(readString(), readParameters(), readString(),
+                readBoolean());
+            case BEGIN_QUOTATION -> listener.beginQuotation(readParameters());
+            case END_QUOTATION -> listener.endQuotation(readParameters());
+            case BEGIN_QUOTATION_LINE -> listener.beginQuotationLine();
+            case END_QUOTATION_LINE -> listener.endQuotationLine();
+            case BEGIN_FIGURE -> listener.beginFigure(readParameters());
+            case END_FIGURE -> listener.endFigure(readParameters());
+            case BEGIN_FIGURE_CAPTION -> listener.beginFigureCaption(readParameters());
+            case END_FIGURE_CAPTION -> listener.endFigureCaption(readParameters());
+            case BEGIN_LINK -> listener.beginLink(readReference(), readBoolean(), readParameters());
+            case END_LINK -> listener.endLink(readReference(), readBoolean(), readParameters());
+            case ON_NEW_LINE -> listener.onNewLine();
+            case ON_MACRO -> listener.onMacro(readString(), readParameters(), readString(), readBoolean());
+            case ON_WORD -> listener.onWord(readString());
+            case ON_SPACE -> listener.onSpace();
+            case ON_SPECIAL_SYMBOL -> listener.onSpecialSymbol((char) readVarInt());
+            case ON_ID -> listener.onId(readString());
+            case ON_HORIZONTAL_LINE -> listener.onHorizontalLine(readParameters());
+            case ON_EMPTY_LINES -> listener.onEmptyLines(readVarInt());
+            case ON_VERBATIM -> listener.onVerbatim(readString(), readBoolean(), readParameters());
+            case ON_RAW_TEXT -> listener.onRawText(readString(), readSyntax());
+            case ON_IMAGE -> readImage(listener);
+            default -> throw new IllegalArgumentException("Unknown event [" + event + "]");
+        }
+    }
+
+    private void readImage(Listener listener)
+    {
+        ResourceReference reference = readReference();
+        boolean freestanding = readBoolean();
+        String id = readString();
+        Map<String, String> parameters = readParameters();
+
+        if (id == null) {
+            listener.onImage(reference, freestanding, parameters);
+        } else {
+            listener.onImage(reference, freestanding, id, parameters);
+        }
+    }
+}
@@ -0,0 +1,775 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListType;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.reference.AttachmentResourceReference;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.InterWikiResourceReference;
+import org.xwiki.rendering.listener.reference.PageAttachmentResourceReference;
+import org.xwiki.rendering.listener.reference.PageResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.SpaceResourceReference;
+import org.xwiki.rendering.listener.reference.UserResourceReference;
+import org.xwiki.rendering.syntax.Syntax;
+
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_DESCRIPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DEFINITION_TERM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FIGURE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FIGURE_CAPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_FORMAT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_GROUP;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_HEADER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LINK;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_LIST_ITEM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_MACRO_MARKER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_METADATA;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_PARAGRAPH;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_QUOTATION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_QUOTATION_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_SECTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_HEAD_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.BEGIN_TABLE_ROW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_DESCRIPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DEFINITION_TERM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FIGURE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FIGURE_CAPTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_FORMAT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_GROUP;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_HEADER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LINK;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LIST;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_LIST_ITEM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_MACRO_MARKER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_METADATA;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_PARAGRAPH;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_QUOTATION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_QUOTATION_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_SECTION;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_HEAD_CELL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.END_TABLE_ROW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.MAGIC;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.MAX_TABLE_STRING_LENGTH;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_EMPTY_LINES;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_HORIZONTAL_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_ID;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_IMAGE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_MACRO;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_NEW_LINE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_RAW_TEXT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_SPACE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_SPECIAL_SYMBOL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_VERBATIM;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.ON_WORD;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_ATTACHMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_DOCUMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_GENERIC;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_INTERWIKI;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_PAGE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_PAGE_ATTACHMENT;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_SPACE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.REFERENCE_USER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_LITERAL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_NEW;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_NULL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.STRING_TABLE;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_BOOLEAN;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_INTEGER;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_LONG;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_NULL;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_STRING;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VALUE_SYNTAX;
+import static org.xwiki.rendering.xdombinary.internal.BinaryFormat.VERSION;
+
+/**
+ * Encode the received events in the {@code xdom+binary/1.0} format.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class BinaryEventWriter implements Listener
+{
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * The index of the strings already written.
+     */
+    private final Map<String, Integer> stringTable = new HashMap<>();
+
+    /**
+     * Create a writer and write the header of the format.
+     */
+    public BinaryEventWriter()
+    {
+        writeHeader();
+    }
+
+    private void writeHeader()
+    {
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeVarInt(VERSION);
+    }
+
+    /**
+     * @return true if no event was written since the creation or the last {@link #reset()}
+     */
+    public boolean isEmpty()
+    {
+        return this.size == MAGIC.length + 1;
+    }
+
+    /**
+     * @return the encoded events
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    /**
+     * @param stream the stream where to write the encoded events
+     * @throws IOException when failing to write in the stream
+     */
+    public void writeTo(OutputStream stream) throws IOException
+    {
+        stream.write(this.buffer, 0, this.size);
+    }
+
+    /**
+     * Forget the written events and start a new content.
+     */
+    public void reset()
+    {
+        this.size = 0;
+        this.stringTable.clear();
+        writeHeader();
+    }
+
+    // Primitives
+
+    private void ensureCapacity(int additional)
+    {
+        int required = this.size + additional;
+        if (required > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length * 2));
+        }
+    }
+
+    private void writeByte(int value)
+    {
+        ensureCapacity(1);
+        this.buffer[this.size++] = (byte) value;
+    }
+
+    private void writeVarInt(int value)
+    {
+        ensureCapacity(5);
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            this.buffer[this.size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        this.buffer[this.size++] = (byte) remaining;
+    }
+
+    private void writeVarLong(long value)
+    {
+        ensureCapacity(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            this.buffer[this.size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        this.buffer[this.size++] = (byte) remaining;
+    }
+
+    private void writeBoolean(boolean value)
+    {
+        writeByte(value ? 1 : 0);
+    }
+
+    private void writeString(String value)
+    {
+        if (value == null) {
+            writeVarInt(STRING_NULL);
+        } else {
+            Integer index = this.stringTable.get(value);
+            if (index != null) {
+                writeVarInt(index + STRING_TABLE);
+            } else {
+                if (value.length() <= MAX_TABLE_STRING_LENGTH) {
+                    this.stringTable.put(value, this.stringTable.size());
+                    writeVarInt(STRING_NEW);
+                } else {
+                    writeVarInt(STRING_LITERAL);
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+                this.size += bytes.length;
+            }
+        }
+    }
+
+    private void writeStrings(List<String> values)
+    {
+        writeVarInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    // Typed values
+
+    private void writeParameters(Map<String, String> parameters)
+    {
+        if (parameters == null) {
+            writeVarInt(0);
+        } else {
+            writeVarInt(parameters.size());
+            for (Map.Entry<String, String> entry : parameters.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+    }
+
+    private void writeMetaData(MetaData metadata)
+    {
+        Map<String, Object> values = metadata != null ? metadata.getMetaData() : Map.of();
+        writeVarInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writeString(entry.getKey());
+            writeValue(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void writeValue(String key, Object value)
+    {
+        if (value == null) {
+            writeVarInt(VALUE_NULL);
+        } else if (value instanceof String string) {
+            writeVarInt(VALUE_STRING);
+            writeString(string);
+        } else if (value instanceof Syntax syntax) {
+            writeVarInt(VALUE_SYNTAX);
+            writeSyntax(syntax);
+        } else if (value instanceof Boolean bool) {
+            writeVarInt(VALUE_BOOLEAN);
+            writeBoolean(bool);
+        } else if (value instanceof Integer integer) {
+            writeVarInt(VALUE_INTEGER);
+            writeVarLong(zigZag(integer));
+        } else if (value instanceof Long longValue) {
+            writeVarInt(VALUE_LONG);
+            writeVarLong(zigZag(longValue));
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unsupported type [%s] for metadata [%s]", value.getClass().getName(), key));
+        }
+    }
+
+    private static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeSyntax(Syntax syntax)
+    {
+        writeString(syntax.getType().getId());
+        writeString(syntax.getType().getName());
+        writeStrings(syntax.getType().getVariants());
+        writeString(syntax.getVersion());
+        writeString(syntax.getQualifier());
+    }
+
+    private void writeReference(ResourceReference reference)
+    {
+        writeVarInt(getReferenceClass(reference));
+        writeString(reference.getType().getScheme());
+        writeString(reference.getReference());
+        writeBoolean(reference.isTyped());
+        writeStrings(reference.getBaseReferences());
+        writeParameters(reference.getParameters());
+    }
+
+    private static int getReferenceClass(ResourceReference reference)
+    {
+        Class<?> referenceClass = reference.getClass();
+
+        int result;
+        if (referenceClass == DocumentResourceReference.class) {
+            result = REFERENCE_DOCUMENT;
+        } else if (referenceClass == PageResourceReference.class) {
+            result = REFERENCE_PAGE;
+        } else if (referenceClass == SpaceResourceReference.class) {
+            result = REFERENCE_SPACE;
+        } else if (referenceClass == UserResourceReference.class) {
+            result = REFERENCE_USER;
+        } else if (referenceClass == AttachmentResourceReference.class) {
+            result = REFERENCE_ATTACHMENT;
+        } else if (referenceClass == PageAttachmentResourceReference.class) {
+            result = REFERENCE_PAGE_ATTACHMENT;
+        } else if (referenceClass == InterWikiResourceReference.class) {
+            result = REFERENCE_INTERWIKI;
+        } else {
+            result = REFERENCE_GENERIC;
+        }
+
+        return result;
+    }
+
+    private void writeEvent(int event)
+    {
+        writeVarInt(event);
+    }
+
+    private void writeEvent(int event, Map<String, String> parameters)
+    {
+        writeVarInt(event);
+        writeParameters(parameters);
+    }
+
+    // Events
+
+    @Override
+    public void beginDocument(MetaData metadata)
+    {
+        writeEvent(BEGIN_DOCUMENT);
+        writeMetaData(metadata);
+    }
+
+    @Override
+    public void endDocument(MetaData metadata)
+    {
+        writeEvent(END_DOCUMENT);
+        writeMetaData(metadata);
+    }
+
+    @Override
+    public void beginMetaData(MetaData metadata)
+    {
+        writeEvent(BEGIN_METADATA);
+        writeMetaData(metadata);
+    }
+
+    @Override
+    public void endMetaData(MetaData metadata)
+    {
+        writeEvent(END_METADATA);
+        writeMetaData(metadata);
+    }
+
+    @Override
+    public void beginGroup(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_GROUP, parameters);
+    }
+
+    @Override
+    public void endGroup(Map<String, String> parameters)
+    {
+        writeEvent(END_GROUP, parameters);
+    }
+
+    @Override
+    public void beginFormat(Format format, Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_FORMAT);
+        writeString(format.name());
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void endFormat(Format format, Map<String, String> parameters)
+    {
+        writeEvent(END_FORMAT);
+        writeString(format.name());
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void beginParagraph(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_PARAGRAPH, parameters);
+    }
+
+    @Override
+    public void endParagraph(Map<String, String> parameters)
+    {
+        writeEvent(END_PARAGRAPH, parameters);
+    }
+
+    @Override
+    public void beginList(ListType type, Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_LIST);
+        writeString(type.name());
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void endList(ListType type, Map<String, String> parameters)
+    {
+        writeEvent(END_LIST);
+        writeString(type.name());
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void beginDefinitionList(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_DEFINITION_LIST, parameters);
+    }
+
+    @Override
+    public void endDefinitionList(Map<String, String> parameters)
+    {
+        writeEvent(END_DEFINITION_LIST, parameters);
+    }
+
+    @Override
+    public void beginListItem()
+    {
+        writeEvent(BEGIN_LIST_ITEM, EMPTY_PARAMETERS);
+    }
+
+    @Override
+    public void beginListItem(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_LIST_ITEM, parameters);
+    }
+
+    @Override
+    public void endListItem()
+    {
+        writeEvent(END_LIST_ITEM, EMPTY_PARAMETERS);
+    }
+
+    @Override
+    public void endListItem(Map<String, String> parameters)
+    {
+        writeEvent(END_LIST_ITEM, parameters);
+    }
+
+    @Override
+    public void beginDefinitionTerm()
+    {
+        writeEvent(BEGIN_DEFINITION_TERM);
+    }
+
+    @Override
+    public void endDefinitionTerm()
+    {
+        writeEvent(END_DEFINITION_TERM);
+    }
+
+    @Override
+    public void beginDefinitionDescription()
+    {
+        writeEvent(BEGIN_DEFINITION_DESCRIPTION);
+    }
+
+    @Override
+    public void endDefinitionDescription()
+    {
+        writeEvent(END_DEFINITION_DESCRIPTION);
+    }
+
+    @Override
+    public void beginTable(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_TABLE, parameters);
+    }
+
+    @Override
+    public void endTable(Map<String, String> parameters)
+    {
+        writeEvent(END_TABLE, parameters);
+    }
+
+    @Override
+    public void beginTableRow(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_TABLE_ROW, parameters);
+    }
+
+    @Override
+    public void endTableRow(Map<String, String> parameters)
+    {
+        writeEvent(END_TABLE_ROW, parameters);
+    }
+
+    @Override
+    public void beginTableCell(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_TABLE_CELL, parameters);
+    }
+
+    @Override
+    public void endTableCell(Map<String, String> parameters)
+    {
+        writeEvent(END_TABLE_CELL, parameters);
+    }
+
+    @Override
+    public void beginTableHeadCell(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_TABLE_HEAD_CELL, parameters);
+    }
+
+    @Override
+    public void endTableHeadCell(Map<String, String> parameters)
+    {
+        writeEvent(END_TABLE_HEAD_CELL, parameters);
+    }
+
+    @Override
+    public void beginSection(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_SECTION, parameters);
+    }
+
+    @Override
+    public void endSection(Map<String, String> parameters)
+    {
+        writeEvent(END_SECTION, parameters);
+    }
+
+    @Override
+    public void beginHeader(HeaderLevel level, String id, Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_HEADER);
+        writeVarInt(level.getAsInt());
+        writeString(id);
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void endHeader(HeaderLevel level, String id, Map<String, String> parameters)
+    {
+        writeEvent(END_HEADER);
+        writeVarInt(level.getAsInt());
+        writeString(id);
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void beginMacroMarker(String name, Map<String, String> parameters, String content, boolean inline)
+    {
+        writeEvent(BEGIN_MACRO_MARKER);
+        writeMacro(name, parameters, content, inline);
+    }
+
+    @Override
+    public void endMacroMarker(String name, Map<String, String> parameters, String content, boolean inline)
+    {
+        writeEvent(END_MACRO_MARKER);
+        writeMacro(name, parameters, content, inline);
+    }
+
+    private void writeMacro(String name, Map<String, String> parameters, String content, boolean inline)
+    {
+        writeString(name);
+        writeParameters(parameters);
+        writeString(content);
+        writeBoolean(inline);
+    }
+
+    @Override
+    public void beginQuotation(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_QUOTATION, parameters);
+    }
+
+    @Override
+    public void endQuotation(Map<String, String> parameters)
+    {
+        writeEvent(END_QUOTATION, parameters);
+    }
+
+    @Override
+    public void beginQuotationLine()
+    {
+        writeEvent(BEGIN_QUOTATION_LINE);
+    }
+
+    @Override
+    public void endQuotationLine()
+    {
+        writeEvent(END_QUOTATION_LINE);
+    }
+
+    @Override
+    public void beginFigure(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_FIGURE, parameters);
+    }
+
+    @Override
+    public void endFigure(Map<String, String> parameters)
+    {
+        writeEvent(END_FIGURE, parameters);
+    }
+
+    @Override
+    public void beginFigureCaption(Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_FIGURE_CAPTION, parameters);
+    }
+
+    @Override
+    public void endFigureCaption(Map<String, String> parameters)
+    {
+        writeEvent(END_FIGURE_CAPTION, parameters);
+    }
+
+    @Override
+    public void beginLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        writeEvent(BEGIN_LINK);
+        writeReference(reference);
+        writeBoolean(freestanding);
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void endLink(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        writeEvent(END_LINK);
+        writeReference(reference);
+        writeBoolean(freestanding);
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void onNewLine()
+    {
+        writeEvent(ON_NEW_LINE);
+    }
+
+    @Override
+    public void onMacro(String id, Map<String, String> parameters, String content, boolean inline)
+    {
+        writeEvent(ON_MACRO);
+        writeMacro(id, parameters, content, inline);
+    }
+
+    @Override
+    public void onWord(String word)
+    {
+        writeEvent(ON_WORD);
+        writeString(word);
+    }
+
+    @Override
+    public void onSpace()
+    {
+        writeEvent(ON_SPACE);
+    }
+
+    @Override
+    public void onSpecialSymbol(char symbol)
+    {
+        writeEvent(ON_SPECIAL_SYMBOL);
+        writeVarInt(symbol);
+    }
+
+    @Override
+    public void onId(String name)
+    {
+        writeEvent(ON_ID);
+        writeString(name);
+    }
+
+    @Override
+    public void onHorizontalLine(Map<String, String> parameters)
+    {
+        writeEvent(ON_HORIZONTAL_LINE, parameters);
+    }
+
+    @Override
+    public void onEmptyLines(int count)
+    {
+        writeEvent(ON_EMPTY_LINES);
+        writeVarInt(count);
+    }
+
+    @Override
+    public void onVerbatim(String content, boolean inline, Map<String, String> parameters)
+    {
+        writeEvent(ON_VERBATIM);
+        writeString(content);
+        writeBoolean(inline);
+        writeParameters(parameters);
+    }
+
+    @Override
+    public void onRawText(String content, Syntax syntax)
+    {
+        writeEvent(ON_RAW_TEXT);
+        writeString(content);
+        writeSyntax(syntax);
+    }
+
+    @Override
+    public void onImage(ResourceReference reference, boolean freestanding, Map<String, String> parameters)
+    {
+        onImage(reference, freestanding, null, parameters);
+    }
+
+    @Override
+    public void onImage(ResourceReference reference, boolean freestanding, String id, Map<String, String> parameters)
+    {
+        writeEvent(ON_IMAGE);
+        writeReference(reference);
+        writeBoolean(freestanding);
+        writeString(id);
+        writeParameters(parameters);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+/**
+ * The constants of the {@code xdom+binary/1.0} format.
+ * <p>
+ * The content starts with {@link #MAGIC} and {@link #VERSION}, followed by the events. Each event is a varint tag
+ * followed by its arguments. Integers are encoded as unsigned varints and strings as a varint reference to a string
+ * table built while reading: {@link #STRING_NULL}, {@link #STRING_NEW} or {@link #STRING_LITERAL} followed by the
+ * length and the UTF-8 bytes of the string, or the index of an already read string plus {@link #STRING_TABLE}.
+ * <p>
+ * The values of the constants are part of the format: existing values must never change, new events and types must
+ * use new values.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+final class BinaryFormat
+{
+    /**
+     * The bytes at the beginning of any content in this format.
+     */
+    static final byte[] MAGIC = { 'X', 'D', 'B' };
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Strings longer than this are not added to the string table since they are unlikely to be repeated.
+     */
+    static final int MAX_TABLE_STRING_LENGTH = 64;
+
+    // Strings
+
+    /**
+     * A null string.
+     */
+    static final int STRING_NULL = 0;
+
+    /**
+     * A string to add to the string table.
+     */
+    static final int STRING_NEW = 1;
+
+    /**
+     * A string which is not added to the string table.
+     */
+    static final int STRING_LITERAL = 2;
+
+    /**
+     * The offset of the string table indexes.
+     */
+    static final int STRING_TABLE = 3;
+
+    // Metadata values
+
+    /**
+     * A null value.
+     */
+    static final int VALUE_NULL = 0;
+
+    /**
+     * A {@link String} value.
+     */
+    static final int VALUE_STRING = 1;
+
+    /**
+     * A {@link org.xwiki.rendering.syntax.Syntax} value.
+     */
+    static final int VALUE_SYNTAX = 2;
+
+    /**
+     * A {@link Boolean} value.
+     */
+    static final int VALUE_BOOLEAN = 3;
+
+    /**
+     * An {@link Integer} value.
+     */
+    static final int VALUE_INTEGER = 4;
+
+    /**
+     * A {@link Long} value.
+     */
+    static final int VALUE_LONG = 5;
+
+    // Resource references
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.ResourceReference} which is not one of the known subclasses.
+     */
+    static final int REFERENCE_GENERIC = 0;
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.DocumentResourceReference}.
+     */
+    static final int REFERENCE_DOCUMENT = 1;
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.PageResourceReference}.
+     */
+    static final int REFERENCE_PAGE = 2;
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.SpaceResourceReference}.
+     */
+    static final int REFERENCE_SPACE = 3;
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.UserResourceReference}.
+     */
+    static final int REFERENCE_USER = 4;
+
+    /**
+     * An {@link org.xwiki.rendering.listener.reference.AttachmentResourceReference}.
+     */
+    static final int REFERENCE_ATTACHMENT = 5;
+
+    /**
+     * A {@link org.xwiki.rendering.listener.reference.PageAttachmentResourceReference}.
+     */
+    static final int REFERENCE_PAGE_ATTACHMENT = 6;
+
+    /**
+     * An {@link org.xwiki.rendering.listener.reference.InterWikiResourceReference}.
+     */
+    static final int REFERENCE_INTERWIKI = 7;
+
+    // Events
+
+    static final int BEGIN_DOCUMENT = 1;
+
+    static final int END_DOCUMENT = 2;
+
+    static final int BEGIN_METADATA = 3;
+
+    static final int END_METADATA = 4;
+
+    static final int BEGIN_GROUP = 5;
+
+    static final int END_GROUP = 6;
+
+    static final int BEGIN_FORMAT = 7;
+
+    static final int END_FORMAT = 8;
+
+    static final int BEGIN_PARAGRAPH = 9;
+
+    static final int END_PARAGRAPH = 10;
+
+    static final int BEGIN_LIST = 11;
+
+    static final int END_LIST = 12;
+
+    static final int BEGIN_DEFINITION_LIST = 13;
+
+    static final int END_DEFINITION_LIST = 14;
+
+    static final int BEGIN_LIST_ITEM = 15;
+
+    static final int END_LIST_ITEM = 16;
+
+    static final int BEGIN_DEFINITION_TERM = 17;
+
+    static final int END_DEFINITION_TERM = 18;
+
+    static final int BEGIN_DEFINITION_DESCRIPTION = 19;
+
+    static final int END_DEFINITION_DESCRIPTION = 20;
+
+    static final int BEGIN_TABLE = 21;
+
+    static final int END_TABLE = 22;
+
+    static final int BEGIN_TABLE_ROW = 23;
+
+    static final int END_TABLE_ROW = 24;
+
+    static final int BEGIN_TABLE_CELL = 25;
+
+    static final int END_TABLE_CELL = 26;
+
+    static final int BEGIN_TABLE_HEAD_CELL = 27;
+
+    static final int END_TABLE_HEAD_CELL = 28;
+
+    static final int BEGIN_SECTION = 29;
+
+    static final int END_SECTION = 30;
+
+    static final int BEGIN_HEADER = 31;
+
+    static final int END_HEADER = 32;
+
+    static final int BEGIN_MACRO_MARKER = 33;
+
+    static final int END_MACRO_MARKER = 34;
+
+    static final int BEGIN_QUOTATION = 35;
+
+    static final int END_QUOTATION = 36;
+
+    static final int BEGIN_QUOTATION_LINE = 37;
+
+    static final int END_QUOTATION_LINE = 38;
+
+    static final int BEGIN_FIGURE = 39;
+
+    static final int END_FIGURE = 40;
+
+    static final int BEGIN_FIGURE_CAPTION = 41;
+
+    static final int END_FIGURE_CAPTION = 42;
+
+    static final int BEGIN_LINK = 43;
+
+    static final int END_LINK = 44;
+
+    static final int ON_NEW_LINE = 45;
+
+    static final int ON_MACRO = 46;
+
+    static final int ON_WORD = 47;
+
+    static final int ON_SPACE = 48;
+
+    static final int ON_SPECIAL_SYMBOL = 49;
+
+    static final int ON_ID = 50;
+
+    static final int ON_HORIZONTAL_LINE = 51;
+
+    static final int ON_EMPTY_LINES = 52;
+
+    static final int ON_VERBATIM = 53;
+
+    static final int ON_RAW_TEXT = 54;
+
+    static final int ON_IMAGE = 55;
+
+    private BinaryFormat()
+    {
+        // Utility class
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.xdombinary.XDOMBinarySerializer;
+
+/**
+ * Default implementation of {@link XDOMBinarySerializer}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Singleton
+public class DefaultXDOMBinarySerializer implements XDOMBinarySerializer
+{
+    @Override
+    public void serialize(Block block, OutputStream stream) throws IOException
+    {
+        write(block).writeTo(stream);
+    }
+
+    @Override
+    public byte[] serialize(Block block)
+    {
+        return write(block).toByteArray();
+    }
+
+    private BinaryEventWriter write(Block block)
+    {
+        BinaryEventWriter writer = new BinaryEventWriter();
+        block.traverse(writer);
+
+        return writer;
+    }
+
+    @Override
+    public void parse(ByteBuffer buffer, Listener listener) throws ParseException
+    {
+        new BinaryEventReader(buffer).read(listener);
+    }
+
+    @Override
+    public XDOM parse(ByteBuffer buffer) throws ParseException
+    {
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+
+        parse(buffer, listener);
+
+        return listener.getXDOM();
+    }
+}
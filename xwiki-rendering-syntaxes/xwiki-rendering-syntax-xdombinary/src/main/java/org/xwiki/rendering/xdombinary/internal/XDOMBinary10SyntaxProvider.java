@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.syntax.SyntaxType;
+
+/**
+ * Register the {@code xdom+binary/1.0} Syntax supported by this module.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Named("xdom+binary/1.0")
+@Singleton
+public class XDOMBinary10SyntaxProvider implements Provider<List<Syntax>>
+{
+    /**
+     * XDOM+Binary syntax type.
+     */
+    public static final SyntaxType XDOMBINARY = new SyntaxType("xdom", List.of("binary"), "XDOM (Binary)");
+
+    /**
+     * XDOM+Binary 1.0 syntax.
+     */
+    public static final Syntax XDOMBINARY_1_0 = new Syntax(XDOMBINARY, "1.0");
+
+    @Override
+    public List<Syntax> get()
+    {
+        return Collections.singletonList(XDOMBINARY_1_0);
+    }
+}
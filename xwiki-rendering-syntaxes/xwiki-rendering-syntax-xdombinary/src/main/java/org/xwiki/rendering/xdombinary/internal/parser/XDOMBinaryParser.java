@@ -0,0 +1,47 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal.parser;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.internal.parser.AbstractBlockParser;
+import org.xwiki.rendering.syntax.Syntax;
+
+import static org.xwiki.rendering.xdombinary.internal.XDOMBinary10SyntaxProvider.XDOMBINARY_1_0;
+
+/**
+ * XDOM+Binary 1.0 parser producing a {@link org.xwiki.rendering.block.XDOM}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Named("xdom+binary/1.0")
+@Singleton
+public class XDOMBinaryParser extends AbstractBlockParser
+{
+    @Override
+    public Syntax getSyntax()
+    {
+        return XDOMBINARY_1_0;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.xdombinary.internal.BinaryEventReader;
+
+import static org.xwiki.rendering.xdombinary.internal.XDOMBinary10SyntaxProvider.XDOMBINARY_1_0;
+
+/**
+ * Parses the Base64 text form of the XDOM+Binary 1.0 format and forwards the corresponding events to a
+ * {@link Listener}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Named("xdom+binary/1.0")
+@Singleton
+public class XDOMBinaryStreamParser implements StreamParser
+{
+    @Override
+    public Syntax getSyntax()
+    {
+        return XDOMBINARY_1_0;
+    }
+
+    @Override
+    public void parse(Reader source, Listener listener) throws ParseException
+    {
+        StringWriter content = new StringWriter();
+        try {
+            source.transferTo(content);
+        } catch (IOException e) {
+            throw new ParseException("Failed to read source", e);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(content.toString());
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("The source is not valid Base64", e);
+        }
+
+        new BinaryEventReader(ByteBuffer.wrap(bytes)).read(listener);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal.renderer;
+
+import java.io.Flushable;
+import java.util.Base64;
+
+import javax.inject.Named;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
+import org.xwiki.rendering.xdombinary.internal.BinaryEventWriter;
+
+/**
+ * Output the received events in the Base64 text form of the XDOM+Binary 1.0 format.
+ * <p>
+ * The encoded content is printed when the outermost document ends or when the renderer is flushed.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Named("xdom+binary/1.0")
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+public class XDOMBinaryRenderer extends BinaryEventWriter implements PrintRenderer, Flushable
+{
+    private WikiPrinter printer;
+
+    private int documentDepth;
+
+    @Override
+    public WikiPrinter getPrinter()
+    {
+        return this.printer;
+    }
+
+    @Override
+    public void setPrinter(WikiPrinter printer)
+    {
+        this.printer = printer;
+    }
+
+    @Override
+    public void flush()
+    {
+        if (!isEmpty()) {
+            this.printer.print(Base64.getEncoder().encodeToString(toByteArray()));
+            reset();
+        }
+    }
+
+    @Override
+    public void beginDocument(MetaData metadata)
+    {
+        ++this.documentDepth;
+
+        super.beginDocument(metadata);
+    }
+
+    @Override
+    public void endDocument(MetaData metadata)
+    {
+        super.endDocument(metadata);
+
+        if (--this.documentDepth == 0) {
+            flush();
+        }
+    }
+}
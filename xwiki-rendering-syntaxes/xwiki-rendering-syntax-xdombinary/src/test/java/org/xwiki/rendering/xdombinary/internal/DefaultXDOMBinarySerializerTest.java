@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.xdombinary.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.FormatBlock;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.ImageBlock;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.RawBlock;
+import org.xwiki.rendering.block.SpaceBlock;
+import org.xwiki.rendering.block.SpecialSymbolBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.MetaData;
+import org.xwiki.rendering.listener.reference.AttachmentResourceReference;
+import org.xwiki.rendering.listener.reference.DocumentResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.syntax.Syntax;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link DefaultXDOMBinarySerializer}.
+ *
+ * @version $Id$
+ */
+class DefaultXDOMBinarySerializerTest
+{
+    private final DefaultXDOMBinarySerializer serializer = new DefaultXDOMBinarySerializer();
+
+    private XDOM createXDOM()
+    {
+        DocumentResourceReference documentReference = new DocumentResourceReference("Space.Page");
+        documentReference.setAnchor("anchor");
+        ResourceReference urlReference = new ResourceReference("https://www.xwiki.org", ResourceType.URL);
+        urlReference.setTyped(true);
+        AttachmentResourceReference attachmentReference = new AttachmentResourceReference("image.png");
+        attachmentReference.addBaseReference("Space.Other");
+
+        List<Block> paragraph = List.of(new WordBlock("Hello"), new SpaceBlock(),
+            new FormatBlock(List.of(new WordBlock("world")), Format.BOLD), new SpecialSymbolBlock('!'),
+            new LinkBlock(List.of(new WordBlock("Hello")), documentReference, false),
+            new LinkBlock(List.of(), urlReference, true),
+            new ImageBlock(attachmentReference, false, "imageid", Map.of("width", "100")),
+            new ImageBlock(attachmentReference, true));
+
+        MetaData metaData = new MetaData(Map.of(MetaData.SYNTAX, Syntax.XWIKI_2_1));
+
+        return new XDOM(List.of(new HeaderBlock(List.of(new WordBlock("Title")), HeaderLevel.LEVEL2, "Htitle"),
+            new ParagraphBlock(paragraph), new MacroBlock("info", Map.of("title", "Note"), "content", false),
+            new RawBlock("<p>raw</p>", Syntax.HTML_5_0)), metaData);
+    }
+
+    @Test
+    void roundTrip() throws ParseException
+    {
+        XDOM xdom = createXDOM();
+
+        byte[] bytes = this.serializer.serialize(xdom);
+        XDOM parsed = this.serializer.parse(ByteBuffer.wrap(bytes));
+
+        assertArrayEquals(bytes, this.serializer.serialize(parsed));
+
+        assertEquals(Syntax.XWIKI_2_1, parsed.getMetaData().getMetaData(MetaData.SYNTAX));
+
+        HeaderBlock header = (HeaderBlock) parsed.getChildren().get(0);
+        assertEquals(HeaderLevel.LEVEL2, header.getLevel());
+        assertEquals("Htitle", header.getId());
+
+        List<Block> paragraph = parsed.getChildren().get(1).getChildren();
+        assertEquals("Hello", ((WordBlock) paragraph.get(0)).getWord());
+        assertEquals(Format.BOLD, ((FormatBlock) paragraph.get(2)).getFormat());
+        assertEquals('!', ((SpecialSymbolBlock) paragraph.get(3)).getSymbol());
+
+        LinkBlock documentLink = (LinkBlock) paragraph.get(4);
+        assertEquals(DocumentResourceReference.class, documentLink.getReference().getClass());
+        assertEquals("anchor", ((DocumentResourceReference) documentLink.getReference()).getAnchor());
+
+        LinkBlock urlLink = (LinkBlock) paragraph.get(5);
+        assertEquals(ResourceType.URL, urlLink.getReference().getType());
+        assertTrue(urlLink.getReference().isTyped());
+        assertTrue(urlLink.isFreeStandingURI());
+
+        ImageBlock image = (ImageBlock) paragraph.get(6);
+        assertEquals("imageid", image.getId());
+        assertEquals(List.of("Space.Other"), image.getReference().getBaseReferences());
+        assertEquals("100", image.getParameter("width"));
+        assertNull(((ImageBlock) paragraph.get(7)).getId());
+
+        MacroBlock macro = (MacroBlock) parsed.getChildren().get(2);
+        assertEquals("info", macro.getId());
+        assertEquals("content", macro.getContent());
+        assertEquals("Note", macro.getParameter("title"));
+
+        RawBlock raw = (RawBlock) parsed.getChildren().get(3);
+        assertEquals(Syntax.HTML_5_0, raw.getSyntax());
+    }
+
+    @Test
+    void serializeToStream() throws IOException
+    {
+        XDOM xdom = createXDOM();
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        this.serializer.serialize(xdom, stream);
+
+        assertArrayEquals(this.serializer.serialize(xdom), stream.toByteArray());
+    }
+
+    @Test
+    void parseFromDirectBuffer() throws ParseException
+    {
+        XDOM xdom = createXDOM();
+
+        byte[] bytes = this.serializer.serialize(xdom);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+
+        assertArrayEquals(bytes, this.serializer.serialize(this.serializer.parse(buffer)));
+    }
+
+    @Test
+    void repeatedStringsAreWrittenOnce()
+    {
+        XDOM one = new XDOM(List.of(new ParagraphBlock(List.of(new WordBlock("repeated")))));
+        XDOM many = new XDOM(List.of(new ParagraphBlock(List.of(new WordBlock("repeated"), new WordBlock("repeated"),
+            new WordBlock("repeated")))));
+
+        // Each additional occurrence costs only the event tag and the string table index.
+        assertEquals(this.serializer.serialize(one).length + 4, this.serializer.serialize(many).length);
+    }
+
+    @Test
+    void parseInvalidContent()
+    {
+        assertThrows(ParseException.class, () -> this.serializer.parse(ByteBuffer.wrap(new byte[] { 'X', 'M', 'L' })));
+
+        byte[] truncated = this.serializer.serialize(createXDOM());
+        ByteBuffer buffer = ByteBuffer.wrap(truncated, 0, truncated.length - 3);
+        assertThrows(ParseException.class, () -> this.serializer.parse(buffer));
+    }
+}
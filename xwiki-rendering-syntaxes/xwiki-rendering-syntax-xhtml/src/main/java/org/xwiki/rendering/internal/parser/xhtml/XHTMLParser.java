@@ -22,6 +22,7 @@
 import java.io.IOException;
 import java.io.PushbackReader;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,9 +31,11 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.w3c.dom.Document;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.internal.parser.XDOMGeneratorListener;
 import org.xwiki.rendering.internal.parser.wikimodel.AbstractWikiModelParser;
 import org.xwiki.rendering.internal.parser.wikimodel.XWikiGeneratorListener;
 import org.xwiki.rendering.internal.parser.xhtml.wikimodel.XHTMLXWikiGeneratorListener;
@@ -53,7 +56,9 @@
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.xhtml.XhtmlParser;
 import org.xwiki.rendering.wikimodel.xhtml.handler.TagHandler;
+import org.xwiki.stability.Unstable;
 import org.xwiki.xml.XMLReaderFactory;
+import org.xwiki.xml.html.HTMLUtils;
 
 import static org.xwiki.rendering.internal.xhtml.XHTML10SyntaxProvider.XHTML_1_0;
 import static org.xwiki.xml.html.HTMLConstants.TAG_HEAD;
@@ -220,6 +225,79 @@ public void parse(Reader source, Listener listener, IdGenerator idGenerator) thr
         }
     }
 
+    // The XML based parsers need a Reader, they are also extended to modify the Reader before the parsing.
+
+    @Override
+    public XDOM parse(CharSequence source) throws ParseException
+    {
+        return parse(new StringReader(source.toString()));
+    }
+
+    @Override
+    public XDOM parse(CharSequence source, IdGenerator idGenerator) throws ParseException
+    {
+        return parse(new StringReader(source.toString()), idGenerator);
+    }
+
+    @Override
+    public void parse(CharSequence source, Listener listener) throws ParseException
+    {
+        parse(new StringReader(source.toString()), listener);
+    }
+
+    @Override
+    public void parse(CharSequence source, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        parse(new StringReader(source.toString()), listener, idGenerator);
+    }
+
+    /**
+     * Parses an already parsed XHTML document. The document is reported to the XML filters directly, without being
+     * serialized and parsed again.
+     *
+     * @param document the XHTML document to parse
+     * @param idGenerator the generator to use for the header ids
+     * @return the XDOM corresponding to the document
+     * @throws ParseException when the document cannot be parsed
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected XDOM parse(Document document, IdGenerator idGenerator) throws ParseException
+    {
+        XDOMGeneratorListener listener = new XDOMGeneratorListener();
+        parse(document, listener, idGenerator);
+
+        XDOM xdom = listener.getXDOM();
+        xdom.setIdGenerator(idGenerator);
+
+        return xdom;
+    }
+
+    /**
+     * Parses an already parsed XHTML document. The document is reported to the XML filters directly, without being
+     * serialized and parsed again.
+     *
+     * @param document the XHTML document to parse
+     * @param listener the listener receiving the parsed content
+     * @param idGenerator the generator to use for the header ids
+     * @throws ParseException when the document cannot be parsed
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected void parse(Document document, Listener listener, IdGenerator idGenerator) throws ParseException
+    {
+        IWikiParser parser = createWikiModelParser();
+        if (parser instanceof XhtmlParser xhtmlParser) {
+            try {
+                xhtmlParser.parse(document, createParseListener(listener, idGenerator));
+            } catch (Exception | StackOverflowError e) {
+                throw new ParseException("Failed to parse input source", e);
+            }
+        } else {
+            parse(new StringReader(HTMLUtils.toString(document)), listener, idGenerator);
+        }
+    }
+
     /**
      * In order to handle empty content we use a {@link PushbackReader} to try to read one character from the stream
      * and if we get -1 it means that the stream is empty and in this case we return an empty XDOM.
@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser.xhtml.wikimodel;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * An XML reader which takes an {@link XMLReaderPipeline} from the {@link XWikiXMLReaderFactory} pool only for the
+ * duration of a parse. The features, properties and handlers set on this reader are applied to the pipeline when
+ * parsing, and the pipeline configuration is restored afterward.
+ * <p>
+ * When a parent is set, it replaces the XML parser of the pipeline as the source of the events to filter.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class PooledXMLReader extends XMLFilterImpl
+{
+    private final XWikiXMLReaderFactory factory;
+
+    private final Map<String, Boolean> features = new LinkedHashMap<>();
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    /**
+     * @param factory the factory providing the pipelines
+     */
+    public PooledXMLReader(XWikiXMLReaderFactory factory)
+    {
+        this.factory = factory;
+    }
+
+    @Override
+    public void setFeature(String name, boolean value)
+    {
+        this.features.put(name, value);
+    }
+
+    @Override
+    public boolean getFeature(String name) throws SAXNotRecognizedException, SAXNotSupportedException
+    {
+        Boolean value = this.features.get(name);
+        if (value != null) {
+            return value;
+        }
+
+        XMLReaderPipeline pipeline = acquirePipeline();
+        try {
+            return pipeline.getXMLReader(getParent()).getFeature(name);
+        } finally {
+            this.factory.releasePipeline(pipeline);
+        }
+    }
+
+    @Override
+    public void setProperty(String name, Object value)
+    {
+        this.properties.put(name, value);
+    }
+
+    @Override
+    public Object getProperty(String name) throws SAXNotRecognizedException, SAXNotSupportedException
+    {
+        if (this.properties.containsKey(name)) {
+            return this.properties.get(name);
+        }
+
+        XMLReaderPipeline pipeline = acquirePipeline();
+        try {
+            return pipeline.getXMLReader(getParent()).getProperty(name);
+        } finally {
+            this.factory.releasePipeline(pipeline);
+        }
+    }
+
+    @Override
+    public void parse(InputSource input) throws SAXException, IOException
+    {
+        XMLReaderPipeline pipeline = this.factory.acquirePipeline();
+        XMLReader reader = pipeline.getXMLReader(getParent());
+
+        Map<String, Boolean> previousFeatures = new HashMap<>();
+        Map<String, Object> previousProperties = new HashMap<>();
+        try {
+            reader.setContentHandler(getContentHandler());
+            reader.setDTDHandler(getDTDHandler());
+            reader.setEntityResolver(getEntityResolver());
+            reader.setErrorHandler(getErrorHandler());
+            for (Map.Entry<String, Boolean> feature : this.features.entrySet()) {
+                previousFeatures.put(feature.getKey(), reader.getFeature(feature.getKey()));
+                reader.setFeature(feature.getKey(), feature.getValue());
+            }
+            for (Map.Entry<String, Object> property : this.properties.entrySet()) {
+                previousProperties.put(property.getKey(), reader.getProperty(property.getKey()));
+                reader.setProperty(property.getKey(), property.getValue());
+            }
+
+            reader.parse(input);
+        } finally {
+            if (restore(reader, previousFeatures, previousProperties)) {
+                this.factory.releasePipeline(pipeline);
+            }
+        }
+    }
+
+    private XMLReaderPipeline acquirePipeline() throws SAXNotSupportedException
+    {
+        try {
+            return this.factory.acquirePipeline();
+        } catch (SAXException e) {
+            throw new SAXNotSupportedException(e.getMessage());
+        }
+    }
+
+    /**
+     * @return {@code true} if the pipeline got back its previous configuration and can be reused
+     */
+    private boolean restore(XMLReader reader, Map<String, Boolean> previousFeatures,
+        Map<String, Object> previousProperties)
+    {
+        try {
+            for (Map.Entry<String, Boolean> feature : previousFeatures.entrySet()) {
+                reader.setFeature(feature.getKey(), feature.getValue());
+            }
+            for (Map.Entry<String, Object> property : previousProperties.entrySet()) {
+                reader.setProperty(property.getKey(), property.getValue());
+            }
+        } catch (SAXException e) {
+            // Don't reuse a pipeline with an unknown configuration.
+            return false;
+        }
+
+        return true;
+    }
+}
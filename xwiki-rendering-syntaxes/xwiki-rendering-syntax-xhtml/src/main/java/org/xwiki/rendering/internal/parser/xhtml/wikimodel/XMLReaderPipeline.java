@@ -0,0 +1,77 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser.xhtml.wikimodel;
+
+import org.xml.sax.XMLReader;
+import org.xwiki.rendering.wikimodel.xhtml.filter.DefaultXMLFilter;
+
+/**
+ * An XML parser and the chain of XML filters reading from it, kept together so that they can be reused for several
+ * parses.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class XMLReaderPipeline
+{
+    private final XMLReader parser;
+
+    private final DefaultXMLFilter firstFilter;
+
+    private final DefaultXMLFilter lastFilter;
+
+    /**
+     * @param parser the XML parser
+     * @param firstFilter the filter reading from the parser
+     * @param lastFilter the filter at the end of the chain, to which the handlers are registered
+     */
+    public XMLReaderPipeline(XMLReader parser, DefaultXMLFilter firstFilter, DefaultXMLFilter lastFilter)
+    {
+        this.parser = parser;
+        this.firstFilter = firstFilter;
+        this.lastFilter = lastFilter;
+    }
+
+    /**
+     * @param source the reader generating the events to filter, {@code null} to use the XML parser of the pipeline
+     * @return the reader to configure and to use for parsing
+     */
+    public XMLReader getXMLReader(XMLReader source)
+    {
+        this.firstFilter.setParent(source != null ? source : this.parser);
+
+        return this.lastFilter;
+    }
+
+    /**
+     * Makes the pipeline ready for another parse: cleans the state of the filters and forgets the handlers of the
+     * previous parse so that they are not retained while the pipeline is not used.
+     */
+    public void reset()
+    {
+        this.lastFilter.reset();
+        this.firstFilter.setParent(this.parser);
+
+        this.lastFilter.setContentHandler(null);
+        this.lastFilter.setDTDHandler(null);
+        this.lastFilter.setEntityResolver(null);
+        this.lastFilter.setErrorHandler(null);
+    }
+}
@@ -73,6 +73,16 @@ public void setProperty(String name, Object value) throws SAXNotRecognizedExcept
         }
     }
 
+    @Override
+    public Object getProperty(String name) throws SAXNotRecognizedException, SAXNotSupportedException
+    {
+        if (SAX_CONTAINS_WIKI_SYNTAX_PROPERTY.equalsIgnoreCase(name)) {
+            return this.containsWikiSyntax;
+        } else {
+            return super.getProperty(name);
+        }
+    }
+
     @Override
     public void endCDATA() throws SAXException
     {
@@ -19,6 +19,9 @@
  */
 package org.xwiki.rendering.internal.parser.xhtml.wikimodel;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -41,6 +44,7 @@
  * <li>Remove non-semantic white spaces where needed</li>
  * <li>Resolve DTDs locally to speed DTD loading/validation</li>
  * </ul>
+ * The XML parsers and filters behind the created readers are pooled and reused from one parse to another.
  *
  * @version $Id$
  * @since 2.1RC1
@@ -50,6 +54,11 @@
 @Singleton
 public class XWikiXMLReaderFactory implements XMLReaderFactory
 {
+    /**
+     * The maximum number of idle pipelines kept for reuse.
+     */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
     /**
      * In order to speed up DTD loading/validation we use an entity resolver that can resolve DTDs locally.
      */
@@ -63,11 +72,47 @@ public class XWikiXMLReaderFactory implements XMLReaderFactory
     @Inject
     private XMLReaderFactory xmlReaderFactory;
 
+    /**
+     * The idle pipelines, kept to avoid creating a new XML parser and new filters for each parse.
+     */
+    private final BlockingQueue<XMLReaderPipeline> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
     @Override
     public XMLReader createXMLReader() throws SAXException, ParserConfigurationException
     {
-        XMLReader xmlReader;
+        // The XML parser and the filters are taken from the pool only while parsing. This makes the returned reader
+        // cheap to create and allows parsing from a handler of another parse.
+        XMLReader xmlReader = new PooledXMLReader(this);
+
+        xmlReader.setEntityResolver(this.entityResolver);
+
+        return xmlReader;
+    }
+
+    /**
+     * @return an idle pipeline, or a new one if none is available
+     * @throws SAXException if a new pipeline cannot be created
+     * @since 18.7.0RC1
+     */
+    public XMLReaderPipeline acquirePipeline() throws SAXException
+    {
+        XMLReaderPipeline pipeline = this.pool.poll();
+
+        return pipeline != null ? pipeline : createPipeline();
+    }
 
+    /**
+     * @param pipeline a pipeline which is not used anymore, it's kept for reuse if the pool is not full
+     * @since 18.7.0RC1
+     */
+    public void releasePipeline(XMLReaderPipeline pipeline)
+    {
+        pipeline.reset();
+        this.pool.offer(pipeline);
+    }
+
+    private XMLReaderPipeline createPipeline() throws SAXException
+    {
         try {
             // Use a performant XML Reader (which does DTD caching for Xerces)
             XMLReader xr = this.xmlReaderFactory.createXMLReader();
@@ -83,13 +128,9 @@ public XMLReader createXMLReader() throws SAXException, ParserConfigurationExcep
             // events contain only semantic information.
             XWikiXHTMLWhitespaceXMLFilter whitespaceFilter = new XWikiXHTMLWhitespaceXMLFilter(accumulationFilter);
 
-            whitespaceFilter.setEntityResolver(this.entityResolver);
-
-            xmlReader = whitespaceFilter;
+            return new XMLReaderPipeline(xr, dtdFilter, whitespaceFilter);
         } catch (Exception e) {
             throw new SAXException("Failed to create XML reader", e);
         }
-
-        return xmlReader;
     }
 }
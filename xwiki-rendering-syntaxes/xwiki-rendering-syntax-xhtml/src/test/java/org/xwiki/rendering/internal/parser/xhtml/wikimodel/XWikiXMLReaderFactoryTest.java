@@ -0,0 +1,145 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.parser.xhtml.wikimodel;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.xml.EntityResolver;
+import org.xwiki.xml.XMLReaderFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XWikiXMLReaderFactory}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class XWikiXMLReaderFactoryTest
+{
+    @InjectMockComponents
+    private XWikiXMLReaderFactory factory;
+
+    @MockComponent
+    private XMLReaderFactory xmlReaderFactory;
+
+    @MockComponent
+    private EntityResolver entityResolver;
+
+    private static class TextHandler extends DefaultHandler
+    {
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException
+        {
+            this.text.append('<').append(qName).append('>');
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length)
+        {
+            this.text.append(ch, start, length);
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.text.toString();
+        }
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.xmlReaderFactory.createXMLReader())
+            .thenAnswer(invocation -> SAXParserFactory.newInstance().newSAXParser().getXMLReader());
+    }
+
+    private String parse(XMLReader xmlReader, String content) throws Exception
+    {
+        TextHandler handler = new TextHandler();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(new StringReader(content)));
+
+        return handler.toString();
+    }
+
+    @Test
+    void parsersAreReused() throws Exception
+    {
+        assertEquals("<p>first paragraph", parse(this.factory.createXMLReader(), "<p>first   paragraph  </p>"));
+        assertEquals("<p>second", parse(this.factory.createXMLReader(), "<p>  second</p>"));
+
+        verify(this.xmlReaderFactory).createXMLReader();
+    }
+
+    @Test
+    void nestedParsing() throws Exception
+    {
+        StringBuilder nested = new StringBuilder();
+        XMLReader xmlReader = this.factory.createXMLReader();
+        xmlReader.setContentHandler(new DefaultHandler()
+        {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException
+            {
+                try {
+                    nested.append(parse(factory.createXMLReader(), "<div>nested</div>"));
+                } catch (Exception e) {
+                    throw new SAXException(e);
+                }
+            }
+        });
+        xmlReader.parse(new InputSource(new StringReader("<p>outer</p>")));
+
+        assertEquals("<div>nested", nested.toString());
+        verify(this.xmlReaderFactory, times(2)).createXMLReader();
+    }
+
+    @Test
+    void propertiesAreNotKeptAfterParsing() throws Exception
+    {
+        XMLReader xmlReader = this.factory.createXMLReader();
+        xmlReader.setProperty(XWikiXHTMLWhitespaceXMLFilter.SAX_CONTAINS_WIKI_SYNTAX_PROPERTY, true);
+        assertEquals("<p>a  b", parse(xmlReader, "<p>a  b</p>"));
+
+        assertEquals("<p>a b", parse(this.factory.createXMLReader(), "<p>a  b</p>"));
+        assertTrue((Boolean) xmlReader.getProperty(XWikiXHTMLWhitespaceXMLFilter.SAX_CONTAINS_WIKI_SYNTAX_PROPERTY));
+    }
+}
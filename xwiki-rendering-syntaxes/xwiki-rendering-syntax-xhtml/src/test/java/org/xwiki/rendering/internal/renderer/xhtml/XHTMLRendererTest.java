@@ -30,12 +30,14 @@
 import org.xwiki.rendering.block.ImageBlock;
 import org.xwiki.rendering.block.LinkBlock;
 import org.xwiki.rendering.block.MetaDataBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.listener.reference.ResourceReference;
 import org.xwiki.rendering.listener.reference.ResourceType;
 import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.PrintRendererFactory;
 import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
 import org.xwiki.rendering.wiki.WikiModel;
 import org.xwiki.test.annotation.AllComponents;
@@ -44,6 +46,8 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 import org.xwiki.test.mockito.MockitoComponentManager;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -65,6 +69,10 @@
     @Named("xhtml/1.0")
     private PrintRenderer renderer;
 
+    @Inject
+    @Named("xhtml/1.0")
+    private PrintRendererFactory rendererFactory;
+
     /**
      * Verify that when an XDOM contains a MetaDataBlock with a "source" metaData specified, then this "source" is
      * set in the ResourceReference passed to the WikiModel call when getting a document link URL.
@@ -178,4 +186,22 @@ void onImageDoesntUseSourceMetaDataIfBaseReferenceSpecified()
 
         verify(this.mockWikiModel).getImageURL(reference, Map.of());
     }
+
+    @Test
+    void releasedRendererIsReused()
+    {
+        DefaultWikiPrinter printer1 = new DefaultWikiPrinter();
+        PrintRenderer renderer1 = this.rendererFactory.createRenderer(printer1);
+        new ParagraphBlock(List.of(new WordBlock("first"))).traverse(renderer1);
+        this.rendererFactory.release(renderer1);
+
+        DefaultWikiPrinter printer2 = new DefaultWikiPrinter();
+        PrintRenderer renderer2 = this.rendererFactory.createRenderer(printer2);
+        new ParagraphBlock(List.of(new WordBlock("second"))).traverse(renderer2);
+
+        assertSame(renderer1, renderer2);
+        assertSame(printer2, renderer2.getPrinter());
+        assertEquals("<p>first</p>", printer1.toString());
+        assertEquals("<p>second</p>", printer2.toString());
+    }
 }
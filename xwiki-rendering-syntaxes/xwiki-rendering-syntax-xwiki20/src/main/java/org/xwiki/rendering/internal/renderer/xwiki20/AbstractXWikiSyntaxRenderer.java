@@ -39,6 +39,8 @@
 import org.xwiki.rendering.parser.ParseException;
 import org.xwiki.rendering.renderer.AbstractChainingPrintRenderer;
 import org.xwiki.rendering.renderer.PrintRenderer;
+import org.xwiki.rendering.renderer.ResettablePrintRenderer;
+import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.syntax.SyntaxRegistry;
 
@@ -52,8 +54,8 @@
  * @version $Id$
  * @since 2.5M2
  */
-public abstract class AbstractXWikiSyntaxRenderer extends AbstractChainingPrintRenderer implements Initializable,
-    Flushable
+public abstract class AbstractXWikiSyntaxRenderer extends AbstractChainingPrintRenderer
+    implements ResettablePrintRenderer, Initializable, Flushable
 {
     @Inject
     private ListenerRegistry listenerRegistry;
@@ -67,6 +69,11 @@ public abstract class AbstractXWikiSyntaxRenderer extends AbstractChainingPrintR
     @Inject
     private Logger logger;
 
+    /**
+     * The syntax of this renderer, resolved once from its role hint.
+     */
+    private Syntax syntax;
+
     /**
      * Allows extending classes to choose which implementation to use.
      *
@@ -77,6 +84,33 @@ public abstract class AbstractXWikiSyntaxRenderer extends AbstractChainingPrintR
 
     @Override
     public void initialize() throws InitializationException
+    {
+        String roleHint = this.descriptor.getRoleHint();
+        try {
+            this.syntax = this.syntaxRegistry.resolveSyntax(roleHint);
+        } catch (ParseException e) {
+            this.logger.warn("Failed to find syntax [{}] in the registry during renderer initialization. Cause: [{}]",
+                roleHint, getRootCauseMessage(e));
+        }
+
+        initializeListenerChain();
+    }
+
+    @Override
+    public void recycle()
+    {
+        // The listeners are created again, with a clean state, when the renderer is reused.
+        clearListenerChain();
+    }
+
+    @Override
+    public void reset(WikiPrinter printer)
+    {
+        initializeListenerChain();
+        resetPrinter(printer);
+    }
+
+    private void initializeListenerChain()
     {
         ListenerChain chain = new XWikiSyntaxListenerChain();
         setListenerChain(chain);
@@ -86,16 +120,7 @@ public void initialize() throws InitializationException
         // to write the XWiki Syntax chaining listener, for example for saving states (are we in a list, in a
         // paragraph, are we starting a new line, etc).
         chain.addListener(this);
-        String roleHint = this.descriptor.getRoleHint();
-        Syntax syntax = null;
-        try {
-            syntax = this.syntaxRegistry.resolveSyntax(roleHint);
-        } catch (ParseException e) {
-            this.logger.warn("Failed to find syntax [{}] in the registry during renderer initialization. Cause: [{}]",
-                roleHint, getRootCauseMessage(e));
-        }
-        
-        this.listenerRegistry.getListeners(chain, RENDER_ACTION, syntax).forEach(chain::addListener);
+        this.listenerRegistry.getListeners(chain, RENDER_ACTION, this.syntax).forEach(chain::addListener);
         chain.addListener(new LookaheadChainingListener(chain, 2));
         chain.addListener(new GroupStateChainingListener(chain));
         chain.addListener(new BlockStateChainingListener(chain));
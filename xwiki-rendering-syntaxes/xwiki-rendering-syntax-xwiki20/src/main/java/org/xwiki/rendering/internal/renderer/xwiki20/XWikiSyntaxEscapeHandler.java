@@ -26,6 +26,11 @@
 
 /**
  * Escape characters that would be confused for XWiki wiki syntax if they were not escaped.
+ * <p>
+ * All the escaping rules only add escape characters in front of some characters of the text, so they are applied in a
+ * single scan of the text which computes, for each character, the number of escape characters to add in front of it.
+ * The rules used to be applied one after the other, each of them seeing the escape characters added by the previous
+ * ones, and the scan reproduces the way they interact in order to produce the same output.
  *
  * @version $Id$
  * @since 2.0M3
@@ -47,13 +52,30 @@
     private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\(%(?:~.|[^%~]|%[^)~]|%~.)*+%\\)");
 
     /**
-     * Note that we take care to not match if the first character is preceded by an escape (i.e. '~).
+     * The characters that are reserved when doubled (e.g. "**" or "//"). Note that we take care to not escape them if
+     * the first character is preceded by an escape (i.e. '~).
      */
-    private static final Pattern DOUBLE_CHARS_PATTERN = Pattern.compile(
-        "(?<!~)\\/\\/|(?<!~)\\*\\*|(?<!~)__|(?<!~)--|(?<!~)\\^\\^|(?<!~),,|(?<!~)##|(?<!~)\\\\\\\\");
+    private static final String DOUBLE_CHARS = "/*_-^,#\\";
+
+    /**
+     * The characters that can start a list, a header, a table or a quote, after some optional blanks.
+     */
+    private static final String LINE_START_CHARACTERS = "*1:;=|!>";
+
+    /**
+     * The characters that can start a table cell, after some optional blanks.
+     */
+    private static final String TABLE_START_CHARACTERS = "|!";
+
+    /**
+     * The URI schemes for which the ":" is escaped (e.g. "image:something"), only for their first occurrence.
+     */
+    private static final String[] URI_SCHEMES = {"image", "attach", "mailto"};
 
     public static final String ESCAPE_CHAR = "~";
 
+    private static final char ESCAPE = '~';
+
     private boolean onNewLine = true;
 
     public void setOnNewLine(boolean onNewLine)
@@ -71,113 +93,421 @@ public void escape(StringBuffer accumulatedBuffer, XWikiSyntaxListenerChain list
     {
         BlockStateChainingListener blockStateListener = listenerChain.getBlockStateChainingListener();
 
-        // Escape tilde symbol (i.e. the escape character).
-        // Note: This needs to be the first replacement since other replacements below also use the tilde symbol
-        replaceAll(accumulatedBuffer, ESCAPE_CHAR, ESCAPE_CHAR + ESCAPE_CHAR);
-
-        // Escape anything that looks like starting of custom parameters
-        replaceAll(accumulatedBuffer, "(%", ESCAPE_CHAR + "(%");
+        Escaping escaping = new Escaping(accumulatedBuffer, blockStateListener, escapeLastChar);
 
         // When in a paragraph we need to escape symbols that are at beginning of lines and that could be confused
         // with list items, headers or tables.
-        if (blockStateListener.isInLine() && isOnNewLine()) {
+        escaping.lineStartEscape = getLineStartEscape(accumulatedBuffer, blockStateListener, lastPrinted);
 
-            // Look for list pattern at beginning of line and escape the first character only (it's enough)
-            escapeFirstMatchedCharacter(LIST_PATTERN, accumulatedBuffer);
+        if (escapeFirstIfMatching != null) {
+            // The pattern used to be matched after the escaping of the tilde, the parameters, the line start and the
+            // table characters, so it only sees the text up to the first of these escapes.
+            escaping.firstMatchEscape =
+                getFirstMatchedCharacter(escapeFirstIfMatching, accumulatedBuffer, escaping.getFirstEarlyEscape());
+        }
 
-            // Look for header pattern at beginning of line and escape the first character only (it's enough)
-            escapeFirstMatchedCharacter(HEADER_PATTERN, accumulatedBuffer);
+        StringBuilder result = escaping.escape();
+        if (result != null) {
+            accumulatedBuffer.setLength(0);
+            accumulatedBuffer.append(result);
+        }
+    }
 
-            // Look for table character patterns at beginning of line and escape the first character only (it's enough)
-            escapeFirstMatchedCharacter(TABLE_PATTERN, accumulatedBuffer);
+    /**
+     * @return the position of the character to escape because it could be confused with the start of a list item, a
+     *         header, a table cell or a quote, or -1 if there is none
+     */
+    private int getLineStartEscape(CharSequence text, BlockStateChainingListener blockStateListener,
+        String lastPrinted)
+    {
+        int position = -1;
 
-            // Look for quote pattern at beginning of line and escape the first character only (it's enough)
-            escapeFirstMatchedCharacter(QUOTE_PATTERN, accumulatedBuffer);
+        if (blockStateListener.isInLine() && isOnNewLine()) {
+            if (startsWithAny(text, LINE_START_CHARACTERS)) {
+                // Look for list, header, table and quote patterns at beginning of line and escape the first character
+                // only (it's enough). They can't match the same text since they start with different characters.
+                position = getFirstMatchedCharacter(LIST_PATTERN, text, text.length());
+                if (position == -1) {
+                    position = getFirstMatchedCharacter(HEADER_PATTERN, text, text.length());
+                }
+                if (position == -1) {
+                    position = getFirstMatchedCharacter(TABLE_PATTERN, text, text.length());
+                }
+                if (position == -1) {
+                    position = getFirstMatchedCharacter(QUOTE_PATTERN, text, text.length());
+                }
+            }
         } else if (blockStateListener.isInLine() && lastPrinted != null
+            && startsWithAny(text, TABLE_START_CHARACTERS)
             && PARAMETER_PATTERN.matcher(lastPrinted).matches())
         {
             // TODO: this might be escaping too much, we would only need to add the escaping when the parameters are at
             //  the start of the line.
-            escapeFirstMatchedCharacter(TABLE_PATTERN, accumulatedBuffer);
+            position = getFirstMatchedCharacter(TABLE_PATTERN, text, text.length());
         }
 
-        // Escape table characters
-        if (blockStateListener.isInTable()) {
-            replaceAll(accumulatedBuffer, "|", ESCAPE_CHAR + "|");
-            replaceAll(accumulatedBuffer, "!!", ESCAPE_CHAR + "!!");
-            replaceAll(accumulatedBuffer, "!=", ESCAPE_CHAR + "!=");
+        return position;
+    }
+
+    /**
+     * @return {@code true} if the first non blank character of the text is one of the passed characters
+     */
+    private static boolean startsWithAny(CharSequence text, String characters)
+    {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && c != '\t') {
+                return characters.indexOf(c) > -1;
+            }
         }
 
-        if (escapeFirstIfMatching != null) {
-            escapeFirstMatchedCharacter(escapeFirstIfMatching, accumulatedBuffer);
+        return false;
+    }
+
+    private static int getFirstMatchedCharacter(Pattern pattern, CharSequence text, int end)
+    {
+        Matcher matcher = pattern.matcher(text).region(0, end);
+        if (matcher.lookingAt()) {
+            return matcher.start(1);
         }
 
-        // When in a header we need to escape "=" symbols since otherwise they would be confused for end of section
-        // characters.
-        if (blockStateListener.isInHeader()) {
-            replaceAll(accumulatedBuffer, "=", ESCAPE_CHAR + "=");
+        return -1;
+    }
+
+    /**
+     * The state of the escaping of a text. The escape characters are inserted in the result while scanning the text,
+     * the result being created only when the first escape character is needed.
+     */
+    private static final class Escaping
+    {
+        private final CharSequence text;
+
+        private final int length;
+
+        private final boolean inTable;
+
+        private final boolean inHeader;
+
+        private final boolean escapeLastChar;
+
+        private int lineStartEscape = -1;
+
+        private int firstMatchEscape = -1;
+
+        /**
+         * The position of the second character of the last "!!" escaped in a table, since they don't overlap.
+         */
+        private int lastDoubleExclamationMarkEnd = -1;
+
+        private final boolean[] escapedURISchemes = new boolean[URI_SCHEMES.length];
+
+        private StringBuilder result;
+
+        private int copied;
+
+        Escaping(CharSequence text, BlockStateChainingListener blockStateListener, boolean escapeLastChar)
+        {
+            this.text = text;
+            this.length = text.length();
+            this.inTable = blockStateListener.isInTable();
+            this.inHeader = blockStateListener.isInHeader();
+            this.escapeLastChar = escapeLastChar && this.length > 0;
         }
 
-        // Escape verbatim "{{{"
-        replaceAll(accumulatedBuffer, "{{{", ESCAPE_CHAR + "{" + ESCAPE_CHAR + "{" + ESCAPE_CHAR + "{");
+        /**
+         * @return the escaped text or {@code null} if the text doesn't need to be escaped
+         */
+        StringBuilder escape()
+        {
+            int i = 0;
+            while (i < this.length) {
+                char c = this.text.charAt(i);
+                switch (c) {
+                    case '{':
+                        i = escapeBraces(i);
+                        break;
+                    case '(':
+                        // Escape groups, "(((".
+                        i = escapeSequences(i, 3);
+                        break;
+                    case ')':
+                        i = escapeSequences(i, 3);
+                        break;
+                    case '[':
+                        // Escape begin link, "[[".
+                        i = escapeSequences(i, 2);
+                        break;
+                    default:
+                        if (DOUBLE_CHARS.indexOf(c) > -1) {
+                            i = escapeDoubleCharacter(i);
+                        } else {
+                            insertEscapes(i, getEscapes(i, c));
+                            i++;
+                        }
+                }
+            }
+
+            if (this.result != null) {
+                this.result.append(this.text, this.copied, this.length);
+            }
+
+            return this.result;
+        }
 
-        // Escape "{{"
-        replaceAll(accumulatedBuffer, "{{", ESCAPE_CHAR + "{" + ESCAPE_CHAR + "{");
+        /**
+         * @return the position of the first character escaped before matching the pattern passed to
+         *         {@link XWikiSyntaxEscapeHandler#escape}, or the length of the text if there is none
+         */
+        int getFirstEarlyEscape()
+        {
+            int end = this.lineStartEscape > -1 ? this.lineStartEscape : this.length;
+            for (int i = 0; i < end; i++) {
+                char c = this.text.charAt(i);
+                if (c == ESCAPE || c == '(' && isFollowedBy(i, '%') || this.inTable && isTableSequence(i, c)) {
+                    return i;
+                }
+            }
+
+            return end;
+        }
 
-        // Escape groups
-        replaceAll(accumulatedBuffer, "(((", ESCAPE_CHAR + "(" + ESCAPE_CHAR + "(" + ESCAPE_CHAR + "(");
-        replaceAll(accumulatedBuffer, ")))", ESCAPE_CHAR + ")" + ESCAPE_CHAR + ")" + ESCAPE_CHAR + ")");
+        private boolean isTableSequence(int i, char c)
+        {
+            return c == '|' || c == '!' && (isFollowedBy(i, '!') || isFollowedBy(i, '='));
+        }
 
-        // Escape reserved keywords
-        Matcher matcher = DOUBLE_CHARS_PATTERN.matcher(accumulatedBuffer.toString());
-        for (int i = 0; matcher.find(); i = i + 2) {
-            accumulatedBuffer.replace(matcher.start() + i, matcher.end() + i, ESCAPE_CHAR + matcher.group().charAt(0)
-                + ESCAPE_CHAR + matcher.group().charAt(1));
+        private int getEscapes(int i, char c)
+        {
+            int escapes = getLineStartEscapes(i) + getLastCharEscapes(i);
+            switch (c) {
+                case ESCAPE:
+                    // Escape tilde symbol (i.e. the escape character).
+                    escapes++;
+                    break;
+                case '|':
+                    // Escape table characters.
+                    if (this.inTable) {
+                        escapes++;
+                    }
+                    break;
+                case '!':
+                    if (this.inTable && isTableExclamationMark(i)) {
+                        escapes++;
+                    }
+                    break;
+                case '=':
+                    // When in a header we need to escape "=" symbols since otherwise they would be confused for end of
+                    // section characters.
+                    if (this.inHeader) {
+                        escapes++;
+                    }
+                    break;
+                case ':':
+                    // Escape ":" in "image:something", "attach:something" and "mailto:something"
+                    // Note: even though there are some restriction in the URI specification as to what character is
+                    // valid after the ":" character following the scheme we only check for characters greater than the
+                    // space symbol for simplicity.
+                    if (isFirstURISchemeEnd(i)) {
+                        escapes++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            return escapes;
         }
 
-        // Escape ":" in "image:something", "attach:something" and "mailto:something"
-        // Note: even though there are some restriction in the URI specification as to what character is valid after
-        // the ":" character following the scheme we only check for characters greater than the space symbol for
-        // simplicity.
-        escapeURI(accumulatedBuffer, "image:");
-        escapeURI(accumulatedBuffer, "attach:");
-        escapeURI(accumulatedBuffer, "mailto:");
+        /**
+         * @return {@code true} if the exclamation mark starts a "!!", the "!!" not overlapping, or a "!="
+         */
+        private boolean isTableExclamationMark(int i)
+        {
+            if (i != this.lastDoubleExclamationMarkEnd && isFollowedBy(i, '!')) {
+                this.lastDoubleExclamationMarkEnd = i + 1;
+                return true;
+            }
 
-        // Escape last character if we're told to do so. This is to handle cases such as:
-        // - onWord("hello:") followed by onFormat(ITALIC) which would lead to "hello://" if the ":" wasn't escaped
-        // - onWord("{") followed by onMacro() which would lead to "{{{" if the "{" wasn't escaped
-        if (escapeLastChar) {
-            accumulatedBuffer.insert(accumulatedBuffer.length() - 1, '~');
+            return isFollowedBy(i, '=');
         }
 
-        // Escape begin link
-        replaceAll(accumulatedBuffer, "[[", ESCAPE_CHAR + "[" + ESCAPE_CHAR + "[");
-    }
+        private boolean isFirstURISchemeEnd(int i)
+        {
+            for (int j = 0; j < URI_SCHEMES.length; j++) {
+                String scheme = URI_SCHEMES[j];
+                if (!this.escapedURISchemes[j] && i >= scheme.length() && isPrecededBy(i, scheme)) {
+                    this.escapedURISchemes[j] = true;
+                    return true;
+                }
+            }
+
+            return false;
+        }
 
-    private void escapeURI(StringBuffer accumulatedBuffer, String match)
-    {
-        int pos = accumulatedBuffer.indexOf(match);
-        if (pos > -1) {
-            // Escape the ":" symbol
-            accumulatedBuffer.insert(pos + match.length() - 1, '~');
+        /**
+         * Escape the reserved double characters (e.g. "**" or "//") that are not already preceded by an escape, the
+         * doubled characters being matched from left to right without overlapping.
+         *
+         * @return the position of the next character to escape
+         */
+        private int escapeDoubleCharacter(int i)
+        {
+            char c = this.text.charAt(i);
+            int escapes = getLineStartEscapes(i);
+            boolean afterEscape = escapes > 0 || i > 0 && this.text.charAt(i - 1) == ESCAPE;
+            if (!afterEscape && isFollowedBy(i, c) && getLineStartEscapes(i + 1) == 0) {
+                insertEscapes(i, 1 + getLastCharEscapes(i));
+                insertEscapes(i + 1, 1 + getLastCharEscapes(i + 1));
+                return i + 2;
+            }
+
+            insertEscapes(i, escapes + getLastCharEscapes(i));
+            return i + 1;
         }
-    }
 
-    private void replaceAll(StringBuffer accumulatedBuffer, String match, String replacement)
-    {
-        int pos = -replacement.length();
-        while ((pos + replacement.length() < accumulatedBuffer.length())
-            && ((pos = accumulatedBuffer.indexOf(match, pos + replacement.length())) != -1)) {
-            accumulatedBuffer.replace(pos, pos + match.length(), replacement);
+        /**
+         * Escape verbatim "{{{" and then "{{", the later being matched after the former have been escaped: the last
+         * brace of the last escaped "{{{" forms a "{{" with the brace following it.
+         *
+         * @return the position of the character following the braces
+         */
+        private int escapeBraces(int start)
+        {
+            int end = getRunEnd(start);
+            int triples = (end - start) / 3;
+            int remaining = (end - start) % 3;
+            int triplesEnd = start + triples * 3;
+
+            for (int i = start; i < end; i++) {
+                int escapes = getLineStartEscapes(i) + getLastCharEscapes(i);
+                if (triples == 0) {
+                    if (remaining == 2) {
+                        escapes++;
+                    }
+                } else {
+                    if (i < triplesEnd) {
+                        escapes++;
+                    }
+                    if (remaining > 0 && (i == triplesEnd - 1 || i == triplesEnd)) {
+                        escapes++;
+                    }
+                }
+                insertEscapes(i, escapes);
+            }
+
+            return end;
         }
-    }
 
-    private void escapeFirstMatchedCharacter(Pattern pattern, StringBuffer accumulatedBuffer)
-    {
-        Matcher matcher = pattern.matcher(accumulatedBuffer);
-        if (matcher.lookingAt()) {
-            // Escape the first character
-            accumulatedBuffer.replace(matcher.start(1), matcher.start(1) + 1, ESCAPE_CHAR + matcher.group(1).charAt(0));
+        /**
+         * Escape, from left to right, the sequences of the passed size in a run of the same character. An escape
+         * added in the run by a rule applied before this one splits it, a sequence not containing an escape.
+         *
+         * @return the position of the character following the run
+         */
+        private int escapeSequences(int start, int size)
+        {
+            char c = this.text.charAt(start);
+            int end = getRunEnd(start);
+
+            int i = start;
+            while (i < end) {
+                int segmentEnd = i + 1;
+                while (segmentEnd < end && getEscapesBeforeSequence(segmentEnd, c) == 0) {
+                    segmentEnd++;
+                }
+
+                int sequencesEnd = i + (segmentEnd - i) / size * size;
+                for (; i < segmentEnd; i++) {
+                    int escapes = getEscapesBeforeSequence(i, c) + (i < sequencesEnd ? 1 : 0);
+                    if (c != '[') {
+                        escapes += getLastCharEscapes(i);
+                    }
+                    insertEscapes(i, escapes);
+                }
+            }
+
+            return end;
+        }
+
+        /**
+         * @return the number of escapes added in front of the character by the rules applied before escaping the
+         *         sequences of this character
+         */
+        private int getEscapesBeforeSequence(int i, char c)
+        {
+            int escapes = getLineStartEscapes(i);
+            if (c == '(' && isFollowedBy(i, '%')) {
+                // Escape anything that looks like starting of custom parameters
+                escapes++;
+            } else if (c == '[') {
+                // The begin link was escaped last.
+                escapes += getLastCharEscapes(i);
+            }
+
+            return escapes;
+        }
+
+        /**
+         * @return the number of escapes added in front of the character because it starts the text
+         */
+        private int getLineStartEscapes(int i)
+        {
+            return (i == this.lineStartEscape ? 1 : 0) + (i == this.firstMatchEscape ? 1 : 0);
+        }
+
+        /**
+         * Escape last character if we're told to do so. This is to handle cases such as:
+         * <ul>
+         * <li>onWord("hello:") followed by onFormat(ITALIC) which would lead to "hello://" if the ":" wasn't
+         * escaped</li>
+         * <li>onWord("{") followed by onMacro() which would lead to "{{{" if the "{" wasn't escaped</li>
+         * </ul>
+         */
+        private int getLastCharEscapes(int i)
+        {
+            return this.escapeLastChar && i == this.length - 1 ? 1 : 0;
+        }
+
+        private int getRunEnd(int start)
+        {
+            char c = this.text.charAt(start);
+            int end = start + 1;
+            while (end < this.length && this.text.charAt(end) == c) {
+                end++;
+            }
+
+            return end;
+        }
+
+        private boolean isFollowedBy(int i, char c)
+        {
+            return i + 1 < this.length && this.text.charAt(i + 1) == c;
+        }
+
+        private boolean isPrecededBy(int i, String prefix)
+        {
+            int start = i - prefix.length();
+            for (int j = 0; j < prefix.length(); j++) {
+                if (this.text.charAt(start + j) != prefix.charAt(j)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void insertEscapes(int i, int count)
+        {
+            if (count > 0) {
+                if (this.result == null) {
+                    this.result = new StringBuilder(this.length + 16);
+                }
+                this.result.append(this.text, this.copied, i);
+                for (int j = 0; j < count; j++) {
+                    this.result.append(ESCAPE);
+                }
+                this.copied = i;
+            }
         }
     }
 }
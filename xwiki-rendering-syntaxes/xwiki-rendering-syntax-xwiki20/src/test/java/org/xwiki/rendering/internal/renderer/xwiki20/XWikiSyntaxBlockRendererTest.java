@@ -41,18 +41,47 @@
 import org.xwiki.rendering.block.TableRowBlock;
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.listener.ListenerProvider;
+import org.xwiki.rendering.listener.chaining.AbstractChainingListener;
+import org.xwiki.rendering.listener.chaining.ListenerChain;
 import org.xwiki.rendering.renderer.BlockRenderer;
 import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.test.annotation.AllComponents;
 import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.mockito.MockitoComponentManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.xwiki.rendering.listener.ListenerProvider.RENDER_ACTION;
 
 @ComponentTest
 @AllComponents
 class XWikiSyntaxBlockRendererTest
 {
+    /**
+     * Contributed by a {@link ListenerProvider} to print the words in upper case.
+     */
+    private static final class UpperCaseChainingListener extends AbstractChainingListener
+    {
+        UpperCaseChainingListener(ListenerChain listenerChain)
+        {
+            setListenerChain(listenerChain);
+        }
+
+        @Override
+        public void onWord(String word)
+        {
+            super.onWord(word.toUpperCase());
+        }
+    }
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
     private BlockRenderer renderer;
 
     @BeforeEach
@@ -233,4 +262,22 @@ void listItemWithStandaloneContent()
                     Arrays.asList(new WordBlock("word")))))));
         assertEquals("* (((\nword\n)))", render(block));
     }
-}
\ No newline at end of file
+
+    @Test
+    void reusedRendererResolvesListenerProvidersAgain() throws Exception
+    {
+        assertEquals("word", render(new WordBlock("word")));
+
+        // Registered after the renderer used above was released for reuse.
+        ListenerProvider listenerProvider = this.componentManager.registerMockComponent(ListenerProvider.class);
+        when(listenerProvider.accept(eq(RENDER_ACTION), any())).thenReturn(true);
+        when(listenerProvider.getListener(any()))
+            .then(invocation -> new UpperCaseChainingListener(invocation.getArgument(0)));
+
+        assertEquals("WORD", render(new WordBlock("word")));
+
+        this.componentManager.unregisterComponent(ListenerProvider.class, "default");
+
+        assertEquals("word", render(new WordBlock("word")));
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.renderer.xwiki20;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.xwiki.rendering.listener.chaining.BlockStateChainingListener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XWikiSyntaxEscapeHandler}. The expected values are the ones produced by the former
+ * implementation, which applied the escaping rules one after the other, and which is kept in this test to compare
+ * with it.
+ *
+ * @version $Id$
+ */
+class XWikiSyntaxEscapeHandlerTest
+{
+    private static final String PARAMETERS = "(%a=b%)";
+
+    private final XWikiSyntaxEscapeHandler escapeHandler = new XWikiSyntaxEscapeHandler();
+
+    private XWikiSyntaxListenerChain listenerChain;
+
+    private BlockStateChainingListener blockState;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.blockState = mock(BlockStateChainingListener.class);
+        this.listenerChain = mock(XWikiSyntaxListenerChain.class);
+        when(this.listenerChain.getBlockStateChainingListener()).thenReturn(this.blockState);
+        when(this.blockState.isInLine()).thenReturn(true);
+    }
+
+    static Stream<Arguments> escapeInline()
+    {
+        return Stream.of(
+            Arguments.of("word", "word"),
+            Arguments.of("a~b", "a~~b"),
+            Arguments.of("~~", "~~~~"),
+            Arguments.of("(%a=b%)", "~(%a=b%)"),
+            Arguments.of("((%", "(~(%"),
+            Arguments.of("{{", "~{~{"),
+            Arguments.of("{{{", "~{~{~{"),
+            Arguments.of("{{{{", "~{~{~~{~{"),
+            Arguments.of("{{{{{", "~{~{~~{~{{"),
+            Arguments.of("{{{{{{{", "~{~{~{~{~{~~{~{"),
+            Arguments.of("((( )))", "~(~(~( ~)~)~)"),
+            Arguments.of("((((", "~(~(~(("),
+            Arguments.of("[[a]]", "~[~[a]]"),
+            Arguments.of("[[[", "~[~[["),
+            Arguments.of("//", "~/~/"),
+            Arguments.of("**", "~*~*"),
+            Arguments.of("__", "~_~_"),
+            Arguments.of("--", "~-~-"),
+            Arguments.of("^^", "~^~^"),
+            Arguments.of(",,", "~,~,"),
+            Arguments.of("##", "~#~#"),
+            Arguments.of("\\\\", "~\\~\\"),
+            Arguments.of("~--", "~~--"),
+            Arguments.of("~//", "~~//"),
+            Arguments.of("////", "~/~/~/~/"),
+            Arguments.of("a///", "a~/~//"),
+            Arguments.of("image:a image:b attach:c mailto:d", "image~:a image:b attach~:c mailto~:d"),
+            Arguments.of("a: b", "a: b")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void escapeInline(String text, String expected)
+    {
+        assertEquals(expected, escape(text, false, false, null, null));
+    }
+
+    static Stream<Arguments> escapeAtLineStart()
+    {
+        return Stream.of(
+            Arguments.of("* item", "~* item"),
+            Arguments.of("** item", "~** item"),
+            Arguments.of("1. item", "~1. item"),
+            Arguments.of("*. item", "~*. item"),
+            Arguments.of("  ; term", "  ~; term"),
+            Arguments.of(": definition", "~: definition"),
+            Arguments.of("= title", "~= title"),
+            Arguments.of("|cell", "~|cell"),
+            Arguments.of("!!cell", "~!!cell"),
+            Arguments.of("!=cell", "~!=cell"),
+            Arguments.of("> quote", "~> quote"),
+            Arguments.of(">> quote", "~>> quote"),
+            Arguments.of("  > quote", "  > quote"),
+            Arguments.of("*bold", "*bold")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void escapeAtLineStart(String text, String expected)
+    {
+        assertEquals(expected, escape(text, true, false, null, null));
+    }
+
+    @Test
+    void escapeTableCharacters()
+    {
+        when(this.blockState.isInTable()).thenReturn(true);
+
+        assertEquals("a~|b", escape("a|b", false, false, null, null));
+        assertEquals("~!!!", escape("!!!", false, false, null, null));
+        assertEquals("~!~!=", escape("!!=", false, false, null, null));
+        assertEquals("a~!=b", escape("a!=b", false, false, null, null));
+        assertEquals("~~|a", escape("|a", true, false, null, null));
+    }
+
+    @Test
+    void escapeHeaderCharacters()
+    {
+        when(this.blockState.isInHeader()).thenReturn(true);
+
+        assertEquals("a~=b", escape("a=b", false, false, null, null));
+        assertEquals("~~= a", escape("= a", true, false, null, null));
+    }
+
+    @Test
+    void escapeLastChar()
+    {
+        assertEquals("hello~:", escape("hello:", false, true, null, null));
+        assertEquals("~{", escape("{", false, true, null, null));
+        assertEquals("~{~~{", escape("{{", false, true, null, null));
+        assertEquals("a[~[", escape("a[[", false, true, null, null));
+        assertEquals("~~~", escape("~", false, true, null, null));
+    }
+
+    @Test
+    void escapeFirstIfMatching()
+    {
+        Pattern pattern = XWikiSyntaxEscapeHandler.STARLISTEND_PATTERN;
+
+        assertEquals("~ a", escape(" a", false, false, pattern, null));
+        assertEquals("~* a", escape("* a", false, false, pattern, null));
+        assertEquals("~** a", escape("** a", false, false, pattern, null));
+        assertEquals("~1. a", escape("1. a", false, false, pattern, null));
+        assertEquals("a", escape("a", false, false, pattern, null));
+    }
+
+    @Test
+    void escapeAfterParameters()
+    {
+        assertEquals("~|a", escape("|a", false, false, null, PARAMETERS));
+        assertEquals("~!!a", escape("!!a", false, false, null, PARAMETERS));
+        assertEquals("|a", escape("|a", false, false, null, "text"));
+    }
+
+    @Test
+    void escapeSameAsSequentialEscaping()
+    {
+        String alphabet = "~(%){[]|!=*1.:;> \t/_-^,#\\aimgetchlo\n";
+        String[] sequences = {"image:", "attach:", "mailto:", "(%", "{{{", "[[", "**", "(((", ")))", "!!", "!="};
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                if (random.nextInt(6) == 0) {
+                    text.append(sequences[random.nextInt(sequences.length)]);
+                } else {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            boolean inLine = random.nextBoolean();
+            boolean inTable = random.nextBoolean();
+            boolean inHeader = random.nextBoolean();
+            boolean onNewLine = random.nextBoolean();
+            boolean escapeLastChar = random.nextBoolean();
+            Pattern escapeFirstIfMatching = random.nextBoolean() ? XWikiSyntaxEscapeHandler.STARLISTEND_PATTERN : null;
+            String lastPrinted = random.nextBoolean() ? PARAMETERS : null;
+
+            when(this.blockState.isInLine()).thenReturn(inLine);
+            when(this.blockState.isInTable()).thenReturn(inTable);
+            when(this.blockState.isInHeader()).thenReturn(inHeader);
+
+            StringBuffer expected = new StringBuffer(text);
+            SequentialEscaping.escape(expected, this.blockState, onNewLine, escapeLastChar, escapeFirstIfMatching,
+                lastPrinted);
+
+            assertEquals(expected.toString(),
+                escape(text.toString(), onNewLine, escapeLastChar, escapeFirstIfMatching, lastPrinted),
+                () -> String.format("Wrong escaping of [%s] (in line: %s, in table: %s, in header: %s, on new line: %s,"
+                    + " escape last char: %s, escape first if matching: %s, last printed: %s)", text, inLine, inTable,
+                    inHeader, onNewLine, escapeLastChar, escapeFirstIfMatching != null, lastPrinted));
+        }
+    }
+
+    private String escape(String text, boolean onNewLine, boolean escapeLastChar, Pattern escapeFirstIfMatching,
+        String lastPrinted)
+    {
+        StringBuffer buffer = new StringBuffer(text);
+        this.escapeHandler.setOnNewLine(onNewLine);
+        this.escapeHandler.escape(buffer, this.listenerChain, escapeLastChar, escapeFirstIfMatching, lastPrinted);
+        return buffer.toString();
+    }
+
+    /**
+     * The former implementation of the escaping, applying the rules one after the other.
+     */
+    private static final class SequentialEscaping
+    {
+        private static final Pattern LIST_PATTERN =
+            Pattern.compile("\\p{Blank}*((\\*+[:;]*)|([1*]+\\.[:;]*)|([:;]+))\\p{Blank}+");
+
+        private static final Pattern QUOTE_PATTERN = Pattern.compile("(\\>+)");
+
+        private static final Pattern HEADER_PATTERN = Pattern.compile("\\p{Blank}*(=+)");
+
+        private static final Pattern TABLE_PATTERN = Pattern.compile("\\p{Blank}*(\\||!!|!=)");
+
+        private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\(%(?:~.|[^%~]|%[^)~]|%~.)*+%\\)");
+
+        private static final Pattern DOUBLE_CHARS_PATTERN = Pattern.compile(
+            "(?<!~)\\/\\/|(?<!~)\\*\\*|(?<!~)__|(?<!~)--|(?<!~)\\^\\^|(?<!~),,|(?<!~)##|(?<!~)\\\\\\\\");
+
+        private SequentialEscaping()
+        {
+        }
+
+        static void escape(StringBuffer buffer, BlockStateChainingListener blockState, boolean onNewLine,
+            boolean escapeLastChar, Pattern escapeFirstIfMatching, String lastPrinted)
+        {
+            replaceAll(buffer, "~", "~~");
+            replaceAll(buffer, "(%", "~(%");
+
+            if (blockState.isInLine() && onNewLine) {
+                escapeFirstMatchedCharacter(LIST_PATTERN, buffer);
+                escapeFirstMatchedCharacter(HEADER_PATTERN, buffer);
+                escapeFirstMatchedCharacter(TABLE_PATTERN, buffer);
+                escapeFirstMatchedCharacter(QUOTE_PATTERN, buffer);
+            } else if (blockState.isInLine() && lastPrinted != null
+                && PARAMETER_PATTERN.matcher(lastPrinted).matches())
+            {
+                escapeFirstMatchedCharacter(TABLE_PATTERN, buffer);
+            }
+
+            if (blockState.isInTable()) {
+                replaceAll(buffer, "|", "~|");
+                replaceAll(buffer, "!!", "~!!");
+                replaceAll(buffer, "!=", "~!=");
+            }
+
+            if (escapeFirstIfMatching != null) {
+                escapeFirstMatchedCharacter(escapeFirstIfMatching, buffer);
+            }
+
+            if (blockState.isInHeader()) {
+                replaceAll(buffer, "=", "~=");
+            }
+
+            replaceAll(buffer, "{{{", "~{~{~{");
+            replaceAll(buffer, "{{", "~{~{");
+            replaceAll(buffer, "(((", "~(~(~(");
+            replaceAll(buffer, ")))", "~)~)~)");
+
+            Matcher matcher = DOUBLE_CHARS_PATTERN.matcher(buffer.toString());
+            for (int i = 0; matcher.find(); i = i + 2) {
+                buffer.replace(matcher.start() + i, matcher.end() + i,
+                    "~" + matcher.group().charAt(0) + "~" + matcher.group().charAt(1));
+            }
+
+            escapeURI(buffer, "image:");
+            escapeURI(buffer, "attach:");
+            escapeURI(buffer, "mailto:");
+
+            if (escapeLastChar) {
+                buffer.insert(buffer.length() - 1, '~');
+            }
+
+            replaceAll(buffer, "[[", "~[~[");
+        }
+
+        private static void escapeURI(StringBuffer buffer, String match)
+        {
+            int pos = buffer.indexOf(match);
+            if (pos > -1) {
+                buffer.insert(pos + match.length() - 1, '~');
+            }
+        }
+
+        private static void replaceAll(StringBuffer buffer, String match, String replacement)
+        {
+            int pos = -replacement.length();
+            while ((pos + replacement.length() < buffer.length())
+                && ((pos = buffer.indexOf(match, pos + replacement.length())) != -1)) {
+                buffer.replace(pos, pos + match.length(), replacement);
+            }
+        }
+
+        private static void escapeFirstMatchedCharacter(Pattern pattern, StringBuffer buffer)
+        {
+            Matcher matcher = pattern.matcher(buffer);
+            if (matcher.lookingAt()) {
+                buffer.replace(matcher.start(1), matcher.start(1) + 1, "~" + matcher.group(1).charAt(0));
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
@@ -33,6 +35,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
+import org.xwiki.rendering.transformation.linkchecker.LinkCheckerTransformationConfiguration;
 
 /**
  * Default implementation using Apache Http Client.
@@ -50,6 +53,9 @@ public class DefaultHTTPChecker implements HTTPChecker, Initializable
     @Inject
     private Logger logger;
 
+    @Inject
+    private LinkCheckerTransformationConfiguration configuration;
+
     /**
      * The client to connect to the remote site using HTTP.
      * <p>
@@ -65,6 +71,11 @@ public void initialize() throws InitializationException
 
         // Make the Http Client reusable by several threads
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        // Allow as many connections as links checked at the same time
+        connectionManager.setMaxTotal(
+            Math.max(connectionManager.getMaxTotal(), this.configuration.getMaxConcurrentChecks()));
+        connectionManager.setDefaultMaxPerRoute(
+            Math.max(connectionManager.getDefaultMaxPerRoute(), this.configuration.getMaxConcurrentChecksPerHost()));
         httpClientBuilder.setConnectionManager(connectionManager);
 
         // Pre-configure with everything configured at JVM level (e.g. proxy setup).
@@ -84,15 +95,26 @@ public void initialize() throws InitializationException
 
     @Override
     public int check(String url)
+    {
+        // Start with a HEAD request since we only need the status and not the content. Some servers don't support
+        // HEAD or answer it incorrectly so check again with a GET when the HEAD request doesn't succeed.
+        int responseCode = check(url, new HttpHead(url));
+        if (responseCode >= 400) {
+            responseCode = check(url, new HttpGet(url));
+        }
+
+        return responseCode;
+    }
+
+    private int check(String url, HttpUriRequest request)
     {
         int responseCode;
 
         CloseableHttpResponse httpResponse = null;
         try {
-            HttpGet httpGet = new HttpGet(url);
-            httpResponse = this.httpClient.execute(httpGet);
+            httpResponse = this.httpClient.execute(request);
             responseCode = httpResponse.getStatusLine().getStatusCode();
-            this.logger.debug("Result of pinging [{}]: code = [{}]", url, responseCode);
+            this.logger.debug("Result of pinging [{}] with [{}]: code = [{}]", url, request.getMethod(), responseCode);
         } catch (Exception e) {
             // Some error in the transport or in the passed URL, use a special response code (0) which isn't in the
             // list of allowed response codes, see http://en.wikipedia.org/wiki/List_of_HTTP_status_codes
@@ -19,11 +19,15 @@
  */
 package org.xwiki.rendering.internal.transformation.linkchecker;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,9 +47,10 @@
 import org.xwiki.rendering.transformation.linkchecker.LinkStateManager;
 
 /**
- * Thread that regularly check for Links to be checked on a Queue, and for each link tries to connect to it and save the
- * result in the {@link LinkStateManager}. In order to have good performance we only recheck a link if it's not been
- * checked for a certain time.
+ * Thread that waits for Links to be checked on a Queue, and for each link tries to connect to it and save the result
+ * in the {@link LinkStateManager}. In order to have good performance we only recheck a link if it's not been checked
+ * for a certain time, and links are checked in parallel by workers (one virtual thread per check), within the limits
+ * defined in the {@link LinkCheckerTransformationConfiguration}.
  *
  * @version $Id$
  * @since 5.3RC1
@@ -60,6 +65,11 @@ public class DefaultLinkCheckerThread extends java.lang.Thread implements LinkCh
     private static final String EVENT_DATA_STATE = "state";
     private static final String EVENT_DATA_CONTEXTDATA = "contextData";
 
+    /**
+     * How long to wait for a link to be queued before checking again if this thread should stop.
+     */
+    private static final long POLL_TIMEOUT = 1000L;
+
     @Inject
     private Logger logger;
 
@@ -87,7 +97,7 @@ public class DefaultLinkCheckerThread extends java.lang.Thread implements LinkCh
     /**
      * The queue containing links to check.
      */
-    private Queue<LinkQueueItem> linkQueue;
+    private LinkCheckQueue linkQueue;
 
     /**
      * Allows to stop this thread, used in {@link #stopProcessing()}.
@@ -95,14 +105,14 @@ public class DefaultLinkCheckerThread extends java.lang.Thread implements LinkCh
     private volatile boolean shouldStop;
 
     @Override
-    public void startProcessing(Queue<LinkQueueItem> linkQueue)
+    public void startProcessing(LinkCheckQueue linkQueue)
     {
         this.linkQueue = linkQueue;
         start();
     }
 
     @Override
-    public void run(Queue<LinkQueueItem> linkQueue)
+    public void run(LinkCheckQueue linkQueue)
     {
         this.linkQueue = linkQueue;
         run();
@@ -113,19 +123,36 @@ public void run()
     {
         // Allow external code to perform initialization of this thread.
         // This is useful for example if external code needs to initialize the Execution Context.
-        for (LinkCheckerThreadInitializer initializer : this.linkCheckerThreadInitializersProvider.get()) {
-            initializer.initialize();
-        }
+        initializeThread();
+
+        // Bound the number of links being checked at the same time, which also prevents from unpiling the queue
+        // faster than links can be checked. A worker waiting for a busy host gives its permit back (see
+        // HostConcurrencyLimiter) so that the links to the other hosts can still be checked.
+        Semaphore workerPermits = new Semaphore(Math.max(1, this.configuration.getMaxConcurrentChecks()));
+        HostConcurrencyLimiter hostLimiter =
+            new HostConcurrencyLimiter(this.configuration.getMaxConcurrentChecksPerHost());
 
-        while (!this.shouldStop) {
-            try {
-                processLinkQueue();
-                Thread.sleep(300L);
-            } catch (Exception e) {
-                // There was an unexpected problem, we stop this checker thread and log the problem.
-                this.logger.error("Link checker Thread was stopped due to some problem", e);
-                break;
+        ExecutorService workers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Link Checker Worker-", 0).factory());
+        try {
+            while (!this.shouldStop) {
+                List<LinkQueueItem> queueItems = this.linkQueue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (queueItems != null) {
+                    List<LinkQueueItem> itemsToCheck = getItemsToCheck(queueItems);
+                    if (!itemsToCheck.isEmpty()) {
+                        workerPermits.acquire();
+                        submit(itemsToCheck, workers, workerPermits, hostLimiter);
+                    }
+                }
             }
+        } catch (InterruptedException e) {
+            // We've been asked to stop, see #stopProcessing()
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // There was an unexpected problem, we stop this checker thread and log the problem.
+            this.logger.error("Link checker Thread was stopped due to some problem", e);
+        } finally {
+            workers.shutdownNow();
         }
     }
 
@@ -136,46 +163,97 @@ public void run()
     public void stopProcessing()
     {
         this.shouldStop = true;
-        // Make sure the Thread goes out of sleep if it's sleeping so that it stops immediately.
+        // Make sure the Thread stops waiting for links if it's waiting so that it stops immediately.
         interrupt();
     }
 
     /**
-     * Read the queue and find links to process, removing links that have already been checked out recently.
+     * Read the queue till we find a link to process, skipping the content references that have already been checked
+     * out recently, and check it in the current thread.
      */
     protected void processLinkQueue()
     {
-        long timeout = this.configuration.getCheckTimeout();
-        List<Pattern> excludedReferencePatterns = this.configuration.getExcludedReferencePatterns();
-
-        // Unqueue till we find an item that needs to be processed. We process an item if:
-        // - it isn't present in the state map
-        // - it is present but not enough time has elapsed since its last check time
-        LinkQueueItem queueItem = null;
-        boolean shouldBeChecked = false;
-
-        while (!this.linkQueue.isEmpty() && !shouldBeChecked) {
-            queueItem = this.linkQueue.poll();
-
-            // Don't check excluded references
-            shouldBeChecked = isExcluded(queueItem.getContentReference(), excludedReferencePatterns);
-            if (!shouldBeChecked) {
-                break;
+        List<LinkQueueItem> itemsToCheck = List.of();
+        while (itemsToCheck.isEmpty() && !this.linkQueue.isEmpty()) {
+            List<LinkQueueItem> queueItems = this.linkQueue.poll();
+            if (queueItems != null) {
+                itemsToCheck = getItemsToCheck(queueItems);
             }
+        }
+
+        if (!itemsToCheck.isEmpty()) {
+            checkLink(itemsToCheck);
+        }
+    }
+
+    private void initializeThread()
+    {
+        for (LinkCheckerThreadInitializer initializer : this.linkCheckerThreadInitializersProvider.get()) {
+            initializer.initialize();
+        }
+    }
 
+    private void submit(List<LinkQueueItem> queueItems, ExecutorService workers, Semaphore workerPermits,
+        HostConcurrencyLimiter hostLimiter)
+    {
+        String linkReference = queueItems.get(0).getLinkReference();
+        try {
+            workers.execute(() -> {
+                try {
+                    // Each worker runs in a new thread which needs to be initialized too.
+                    initializeThread();
+                    hostLimiter.run(linkReference, workerPermits, () -> checkLink(queueItems));
+                } catch (InterruptedException e) {
+                    // The thread is being stopped
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    this.logger.error("Failed to check link [{}]", linkReference, e);
+                } finally {
+                    workerPermits.release();
+                }
+            });
+        } catch (Exception e) {
+            workerPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @param queueItems the queued items for the same link
+     * @return the items that need to be checked, i.e. the ones which are not excluded and for which not enough time
+     *         has elapsed since their last check time
+     */
+    private List<LinkQueueItem> getItemsToCheck(List<LinkQueueItem> queueItems)
+    {
+        List<LinkQueueItem> itemsToCheck = new ArrayList<>(queueItems.size());
+
+        if (!queueItems.isEmpty()) {
+            long timeout = this.configuration.getCheckTimeout();
+            List<Pattern> excludedReferencePatterns = this.configuration.getExcludedReferencePatterns();
             Map<String, LinkState> contentReferences =
-                this.linkStateManager.getLinkStates().get(queueItem.getLinkReference());
-            if (contentReferences != null) {
-                LinkState state = contentReferences.get(queueItem.getContentReference());
-                if (state != null && (System.currentTimeMillis() - state.getLastCheckedTime() <= timeout)) {
-                    shouldBeChecked = false;
+                this.linkStateManager.getLinkStates().get(queueItems.get(0).getLinkReference());
+
+            for (LinkQueueItem queueItem : queueItems) {
+                // Don't check excluded references
+                if (!isExcluded(queueItem.getContentReference(), excludedReferencePatterns)
+                    && !isRecentlyChecked(queueItem, contentReferences, timeout))
+                {
+                    itemsToCheck.add(queueItem);
                 }
             }
         }
 
-        if (shouldBeChecked && queueItem != null) {
-            checkLink(queueItem);
+        return itemsToCheck;
+    }
+
+    private boolean isRecentlyChecked(LinkQueueItem queueItem, Map<String, LinkState> contentReferences, long timeout)
+    {
+        if (contentReferences != null) {
+            LinkState state = contentReferences.get(queueItem.getContentReference());
+            return state != null && (System.currentTimeMillis() - state.getLastCheckedTime() <= timeout);
         }
+
+        return false;
     }
 
     private boolean isExcluded(String contentReference, List<Pattern> excludedReferencePatterns)
@@ -183,39 +261,51 @@ private boolean isExcluded(String contentReference, List<Pattern> excludedRefere
         for (Pattern pattern : excludedReferencePatterns) {
             Matcher matcher = pattern.matcher(contentReference);
             if (matcher.matches()) {
-                return false;
+                return true;
             }
         }
 
-        return true;
+        return false;
     }
 
     /**
-     * Perform the HTTP connection and save the result in the {@link LinkStateManager}.
+     * Perform the HTTP connection once and save the result in the {@link LinkStateManager} for all the content
+     * references.
      *
-     * @param queueItem the link to check
+     * @param queueItems the items to check, all for the same link
      */
-    private void checkLink(LinkQueueItem queueItem)
+    private void checkLink(List<LinkQueueItem> queueItems)
     {
-        int responseCode = this.httpChecker.check(queueItem.getLinkReference());
+        String linkReference = queueItems.get(0).getLinkReference();
+        int responseCode = this.httpChecker.check(linkReference);
+        long checkedTime = System.currentTimeMillis();
 
-        Map<String, LinkState> contentReferences =
-            this.linkStateManager.getLinkStates().get(queueItem.getLinkReference());
-        if (contentReferences == null) {
-            contentReferences = new ConcurrentHashMap<>();
+        List<LinkState> states = new ArrayList<>(queueItems.size());
+        for (LinkQueueItem queueItem : queueItems) {
+            states.add(new LinkState(responseCode, checkedTime, queueItem.getContextData()));
         }
-        LinkState state = new LinkState(responseCode, System.currentTimeMillis(), queueItem.getContextData());
-        contentReferences.put(queueItem.getContentReference(), state);
-        this.linkStateManager.getLinkStates().put(queueItem.getLinkReference(), contentReferences);
+
+        // Update the states atomically so that concurrent checks of the same link don't lose each other's results
+        this.linkStateManager.getLinkStates().compute(linkReference, (key, currentContentReferences) -> {
+            Map<String, LinkState> contentReferences =
+                currentContentReferences != null ? currentContentReferences : new ConcurrentHashMap<>();
+            for (int i = 0; i < queueItems.size(); i++) {
+                contentReferences.put(queueItems.get(i).getContentReference(), states.get(i));
+            }
+            return contentReferences;
+        });
 
         // If there's an error, then send an Observation Event so that anyone interested can listen to it.
         if (responseCode < 200 || responseCode > 299) {
-            Map<String, Object> eventData = new HashMap<>();
-            eventData.put(EVENT_DATA_URL, queueItem.getLinkReference());
-            eventData.put(EVENT_DATA_SOURCE, queueItem.getContentReference());
-            eventData.put(EVENT_DATA_STATE, state);
-            eventData.put(EVENT_DATA_CONTEXTDATA, queueItem.getContextData());
-            sendEvent(queueItem.getLinkReference(), eventData);
+            for (int i = 0; i < queueItems.size(); i++) {
+                LinkQueueItem queueItem = queueItems.get(i);
+                Map<String, Object> eventData = new HashMap<>();
+                eventData.put(EVENT_DATA_URL, linkReference);
+                eventData.put(EVENT_DATA_SOURCE, queueItem.getContentReference());
+                eventData.put(EVENT_DATA_STATE, states.get(i));
+                eventData.put(EVENT_DATA_CONTEXTDATA, queueItem.getContextData());
+                sendEvent(linkReference, eventData);
+            }
         }
     }
 
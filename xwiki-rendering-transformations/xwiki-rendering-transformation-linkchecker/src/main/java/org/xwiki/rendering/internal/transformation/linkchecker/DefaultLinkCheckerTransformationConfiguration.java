@@ -19,6 +19,7 @@
  */
 package org.xwiki.rendering.internal.transformation.linkchecker;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -104,6 +105,49 @@ public void setCheckTimeout(long checkTimeout)
         this.checkTimeout = checkTimeout;
     }
 
+    @Override
+    public int getMaxConcurrentChecks()
+    {
+        return this.configurationSource.getProperty(PREFIX + "maxConcurrentChecks",
+            LinkCheckerTransformationConfiguration.super.getMaxConcurrentChecks());
+    }
+
+    @Override
+    public int getMaxConcurrentChecksPerHost()
+    {
+        return this.configurationSource.getProperty(PREFIX + "maxConcurrentChecksPerHost",
+            LinkCheckerTransformationConfiguration.super.getMaxConcurrentChecksPerHost());
+    }
+
+    @Override
+    public int getMaxQueueSize()
+    {
+        return this.configurationSource.getProperty(PREFIX + "maxQueueSize",
+            LinkCheckerTransformationConfiguration.super.getMaxQueueSize());
+    }
+
+    @Override
+    public int getMaxLinkStates()
+    {
+        return this.configurationSource.getProperty(PREFIX + "maxLinkStates",
+            LinkCheckerTransformationConfiguration.super.getMaxLinkStates());
+    }
+
+    @Override
+    public long getLinkStateTimeToLive()
+    {
+        return this.configurationSource.getProperty(PREFIX + "linkStateTimeToLive",
+            LinkCheckerTransformationConfiguration.super.getLinkStateTimeToLive());
+    }
+
+    @Override
+    public File getLinkStatesFile()
+    {
+        String path = this.configurationSource.getProperty(PREFIX + "linkStatesFile", String.class);
+
+        return path != null ? new File(path) : null;
+    }
+
     /**
      * Allows extending classes to override it.
      *
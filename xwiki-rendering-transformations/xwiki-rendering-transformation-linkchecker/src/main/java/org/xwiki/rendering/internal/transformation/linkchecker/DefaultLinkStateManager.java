@@ -19,33 +19,94 @@
  */
 package org.xwiki.rendering.internal.transformation.linkchecker;
 
+import java.io.File;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.rendering.transformation.linkchecker.LinkCheckerTransformationConfiguration;
 import org.xwiki.rendering.transformation.linkchecker.LinkState;
 import org.xwiki.rendering.transformation.linkchecker.LinkStateManager;
+import org.xwiki.rendering.transformation.linkchecker.LinkStateStatistics;
 
 /**
  * Default implementation of {@link LinkStateManager} which supports multithreaded access to the link states.
+ * <p>
+ * The number of links for which states are kept is bounded and the links which have not been checked for a while are
+ * forgotten, see {@link LinkCheckerTransformationConfiguration#getMaxLinkStates()} and
+ * {@link LinkCheckerTransformationConfiguration#getLinkStateTimeToLive()}. The states are also saved when the
+ * component is disposed and loaded back when it's initialized if a file is configured, see
+ * {@link LinkCheckerTransformationConfiguration#getLinkStatesFile()}.
  *
  * @version $Id$
  * @since 3.3M1
  */
 @Component
 @Singleton
-public class DefaultLinkStateManager implements LinkStateManager
+public class DefaultLinkStateManager implements LinkStateManager, Initializable, Disposable
 {
+    @Inject
+    private LinkCheckerTransformationConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
     /**
      * @see #getLinkStates() to understand the map structure
      */
-    private Map<String, Map<String, LinkState>> linkStates = new ConcurrentHashMap<String, Map<String, LinkState>>();
+    private EvictingLinkStateMap linkStates;
+
+    private File linkStatesFile;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.linkStates = new EvictingLinkStateMap(this.configuration.getMaxLinkStates(),
+            this.configuration.getLinkStateTimeToLive());
+
+        this.linkStatesFile = this.configuration.getLinkStatesFile();
+        if (this.linkStatesFile != null && this.linkStatesFile.exists()) {
+            try {
+                LinkStatesFile.read(this.linkStatesFile, this.linkStates);
+                this.linkStates.removeExpired();
+            } catch (Exception e) {
+                // The link states will be computed again.
+                this.logger.warn("Failed to load the link states from [{}]. Root cause is [{}]", this.linkStatesFile,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.linkStatesFile != null) {
+            try {
+                LinkStatesFile.write(this.linkStates, this.linkStatesFile);
+            } catch (Exception e) {
+                this.logger.warn("Failed to save the link states to [{}]. Root cause is [{}]", this.linkStatesFile,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
 
     @Override
     public Map<String, Map<String, LinkState>> getLinkStates()
     {
         return this.linkStates;
     }
+
+    @Override
+    public LinkStateStatistics getStatistics()
+    {
+        return this.linkStates.getStatistics();
+    }
 }
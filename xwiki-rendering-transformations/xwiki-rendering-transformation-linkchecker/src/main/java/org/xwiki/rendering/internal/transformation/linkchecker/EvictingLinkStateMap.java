@@ -0,0 +1,230 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.xwiki.rendering.transformation.linkchecker.LinkState;
+import org.xwiki.rendering.transformation.linkchecker.LinkStateStatistics;
+
+/**
+ * Thread safe map of link states which forgets the least recently used links when there are too many of them and
+ * the links which have not been checked for too long.
+ * <p>
+ * Iterating over this map iterates over a snapshot of its entries.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+class EvictingLinkStateMap extends AbstractMap<String, Map<String, LinkState>>
+{
+    /**
+     * The number of modifications after which all the expired links are removed, on top of removing them when they
+     * are accessed.
+     */
+    private static final int EXPIRATION_SWEEP_INTERVAL = 1000;
+
+    private final int maxSize;
+
+    private final long timeToLive;
+
+    /**
+     * The link states, in access order.
+     */
+    private final LinkedHashMap<String, Map<String, LinkState>> states;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private int modificationsSinceSweep;
+
+    /**
+     * @param maxSize the maximum number of links to keep
+     * @param timeToLive the amount of time (in ms) after which a link which hasn't been checked again is forgotten
+     */
+    EvictingLinkStateMap(int maxSize, long timeToLive)
+    {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.states = new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, LinkState>> eldest)
+            {
+                boolean remove = size() > EvictingLinkStateMap.this.maxSize;
+                if (remove) {
+                    EvictingLinkStateMap.this.evictions.increment();
+                }
+                return remove;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Map<String, LinkState> get(Object key)
+    {
+        Map<String, LinkState> contentReferences = getValid(key);
+
+        if (contentReferences != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+        }
+
+        return contentReferences;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key)
+    {
+        // Expired links are handled as missing ones, as in get()
+        return getValid(key) != null;
+    }
+
+    @Override
+    public synchronized Map<String, LinkState> put(String key, Map<String, LinkState> value)
+    {
+        Map<String, LinkState> previous = this.states.put(key, value);
+
+        if (++this.modificationsSinceSweep >= EXPIRATION_SWEEP_INTERVAL) {
+            removeExpired();
+        }
+
+        return previous;
+    }
+
+    @Override
+    public synchronized Map<String, LinkState> computeIfAbsent(String key,
+        Function<? super String, ? extends Map<String, LinkState>> mappingFunction)
+    {
+        Map<String, LinkState> contentReferences = getValid(key);
+        if (contentReferences == null) {
+            contentReferences = mappingFunction.apply(key);
+            if (contentReferences != null) {
+                put(key, contentReferences);
+            }
+        }
+
+        return contentReferences;
+    }
+
+    @Override
+    public synchronized Map<String, LinkState> compute(String key,
+        BiFunction<? super String, ? super Map<String, LinkState>, ? extends Map<String, LinkState>> remappingFunction)
+    {
+        // Expired links are handled as missing ones, as in get(), but updating a link is not counted as a lookup
+        Map<String, LinkState> previous = getValid(key);
+        Map<String, LinkState> contentReferences = remappingFunction.apply(key, previous);
+        if (contentReferences != null) {
+            put(key, contentReferences);
+        } else if (previous != null) {
+            this.states.remove(key);
+        }
+
+        return contentReferences;
+    }
+
+    @Override
+    public synchronized Map<String, LinkState> remove(Object key)
+    {
+        return this.states.remove(key);
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        this.states.clear();
+    }
+
+    @Override
+    public synchronized int size()
+    {
+        return this.states.size();
+    }
+
+    @Override
+    public synchronized Set<Entry<String, Map<String, LinkState>>> entrySet()
+    {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.states)).entrySet();
+    }
+
+    /**
+     * @param key the link reference
+     * @return the states of the link, or {@code null} if the link is unknown or expired, in which case it's removed
+     */
+    private Map<String, LinkState> getValid(Object key)
+    {
+        Map<String, LinkState> contentReferences = this.states.get(key);
+        if (contentReferences != null && isExpired(contentReferences, System.currentTimeMillis())) {
+            this.states.remove(key);
+            this.evictions.increment();
+            contentReferences = null;
+        }
+
+        return contentReferences;
+    }
+
+    /**
+     * Remove all the links which have not been checked for too long.
+     */
+    synchronized void removeExpired()
+    {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map<String, LinkState>> it = this.states.values().iterator(); it.hasNext();) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                this.evictions.increment();
+            }
+        }
+
+        this.modificationsSinceSweep = 0;
+    }
+
+    /**
+     * @return the statistics about this map
+     */
+    LinkStateStatistics getStatistics()
+    {
+        return new LinkStateStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), size());
+    }
+
+    private boolean isExpired(Map<String, LinkState> contentReferences, long now)
+    {
+        // A link expires when none of the content references containing it was checked recently
+        for (LinkState state : contentReferences.values()) {
+            if (now - state.getLastCheckedTime() <= this.timeToLive) {
+                return false;
+            }
+        }
+
+        return !contentReferences.isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of links checked at the same time for each host, in order to not flood remote sites. Only the
+ * hosts with running or waiting tasks are remembered.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+class HostConcurrencyLimiter
+{
+    /**
+     * The permits of a host, along with the number of tasks using them.
+     */
+    private static final class HostPermits
+    {
+        private final Semaphore semaphore;
+
+        /**
+         * The number of tasks running or waiting for the host, only modified while computing the entry of the map.
+         */
+        private int users;
+
+        HostPermits(int permits)
+        {
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+
+    private final int maxPerHost;
+
+    private final Map<String, HostPermits> permits = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxPerHost the maximum number of tasks that can run at the same time for the same host
+     */
+    HostConcurrencyLimiter(int maxPerHost)
+    {
+        this.maxPerHost = Math.max(1, maxPerHost);
+    }
+
+    /**
+     * Run the passed task once there's less than the maximum number of tasks running for the host of the link.
+     * <p>
+     * The caller is expected to hold one of the passed shared permits, which bound the number of tasks running for
+     * all the hosts. It is released while waiting for the host, so that the tasks for the other hosts are not blocked,
+     * and acquired again before running the task.
+     *
+     * @param linkReference the link to check
+     * @param sharedPermits the permits shared by all the hosts, one of which is held by the caller
+     * @param task the task checking the link
+     * @throws InterruptedException if interrupted while waiting for the other tasks for the same host to finish
+     */
+    void run(String linkReference, Semaphore sharedPermits, Runnable task) throws InterruptedException
+    {
+        String host = getHost(linkReference);
+        HostPermits hostPermits = this.permits.compute(host, (key, current) -> {
+            HostPermits result = current != null ? current : new HostPermits(this.maxPerHost);
+            result.users++;
+            return result;
+        });
+        try {
+            if (!hostPermits.semaphore.tryAcquire()) {
+                sharedPermits.release();
+                try {
+                    hostPermits.semaphore.acquire();
+                } finally {
+                    // Give back the permit expected by the caller
+                    sharedPermits.acquireUninterruptibly();
+                }
+            }
+            try {
+                task.run();
+            } finally {
+                hostPermits.semaphore.release();
+            }
+        } finally {
+            // Forget the host when no task is using it anymore.
+            this.permits.computeIfPresent(host, (key, current) -> --current.users > 0 ? current : null);
+        }
+    }
+
+    /**
+     * @return the number of hosts with running or waiting tasks
+     */
+    int getHostCount()
+    {
+        return this.permits.size();
+    }
+
+    private String getHost(String linkReference)
+    {
+        String host;
+        try {
+            host = new URI(linkReference).getHost();
+        } catch (URISyntaxException e) {
+            host = null;
+        }
+
+        // Links without any host (e.g. invalid ones) share the same limit.
+        return host != null ? host.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Queue of links waiting to be checked, deduplicated by link reference. All the content references pointing to the
+ * same link are grouped together so that the link is checked only once for all of them.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+public class LinkCheckQueue
+{
+    /**
+     * The pending link references, in the order in which they were first queued.
+     */
+    private final BlockingQueue<String> linkReferences = new LinkedBlockingQueue<>();
+
+    /**
+     * The pending items for each queued link reference, indexed by content reference.
+     */
+    private final Map<String, Map<String, LinkQueueItem>> items = new ConcurrentHashMap<>();
+
+    /**
+     * Queue a link to check. If the same link is already waiting to be checked then the item is grouped with the
+     * existing ones (replacing the item having the same content reference, if any).
+     *
+     * @param item the link to check
+     * @param maxSize the maximum number of distinct links that can be waiting to be checked
+     * @return {@code false} if the link was not already queued and the queue is full, {@code true} otherwise
+     */
+    public boolean offer(LinkQueueItem item, int maxSize)
+    {
+        return enqueue(item.getLinkReference(), item.getContentReference(), () -> item, true, maxSize);
+    }
+
+    /**
+     * Queue a link to check, creating its context data only when needed. If the same link is already waiting to be
+     * checked for the same content reference then nothing is done, otherwise the new item is grouped with the
+     * existing ones. The context data is not created when the queue is full either.
+     *
+     * @param linkReference the reference to the link to check (usually a URL)
+     * @param contentReference the reference to the content containing the link to check
+     * @param contextDataSupplier creates the context data of the link, called only if a new item is queued
+     * @param maxSize the maximum number of distinct links that can be waiting to be checked
+     * @return {@code false} if the link was not already queued and the queue is full, {@code true} otherwise
+     */
+    public boolean offer(String linkReference, String contentReference,
+        Supplier<Map<String, Object>> contextDataSupplier, int maxSize)
+    {
+        return enqueue(linkReference, contentReference,
+            () -> new LinkQueueItem(linkReference, contentReference, contextDataSupplier.get()), false, maxSize);
+    }
+
+    /**
+     * Queue a link to check, without any size limit.
+     *
+     * @param item the link to check
+     * @see #offer(LinkQueueItem, int)
+     */
+    public void add(LinkQueueItem item)
+    {
+        offer(item, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return all the items waiting for the oldest queued link or {@code null} if the queue is empty
+     */
+    public List<LinkQueueItem> poll()
+    {
+        return remove(this.linkReferences.poll());
+    }
+
+    /**
+     * @param timeout how long to wait for a link to be queued before giving up
+     * @param unit the unit of the timeout
+     * @return all the items waiting for the oldest queued link or {@code null} if none was queued before the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<LinkQueueItem> poll(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return remove(this.linkReferences.poll(timeout, unit));
+    }
+
+    /**
+     * @return the number of distinct links waiting to be checked
+     */
+    public int size()
+    {
+        return this.linkReferences.size();
+    }
+
+    /**
+     * @return {@code true} if no link is waiting to be checked
+     */
+    public boolean isEmpty()
+    {
+        return this.linkReferences.isEmpty();
+    }
+
+    private boolean enqueue(String linkReference, String contentReference, Supplier<LinkQueueItem> itemSupplier,
+        boolean replace, int maxSize)
+    {
+        boolean[] added = new boolean[1];
+        this.items.compute(linkReference, (key, linkItems) -> {
+            Map<String, LinkQueueItem> result = linkItems;
+            if (result == null) {
+                if (this.linkReferences.size() >= maxSize) {
+                    return null;
+                }
+                result = new LinkedHashMap<>();
+                this.linkReferences.add(key);
+            }
+            if (replace || !result.containsKey(contentReference)) {
+                result.put(contentReference, itemSupplier.get());
+            }
+            added[0] = true;
+            return result;
+        });
+
+        return added[0];
+    }
+
+    private List<LinkQueueItem> remove(String linkReference)
+    {
+        if (linkReference == null) {
+            return null;
+        }
+
+        Map<String, LinkQueueItem> linkItems = this.items.remove(linkReference);
+
+        return linkItems != null ? new ArrayList<>(linkItems.values()) : List.of();
+    }
+}
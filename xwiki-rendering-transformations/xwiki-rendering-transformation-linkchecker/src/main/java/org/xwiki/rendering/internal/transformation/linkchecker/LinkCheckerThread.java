@@ -19,8 +19,6 @@
  */
 package org.xwiki.rendering.internal.transformation.linkchecker;
 
-import java.util.Queue;
-
 import org.xwiki.component.annotation.Role;
 
 /**
@@ -51,7 +49,7 @@ public interface LinkCheckerThread extends Runnable
      *
      * @param linkQueue the queue where pending links to check are located
      */
-    void startProcessing(Queue<LinkQueueItem> linkQueue);
+    void startProcessing(LinkCheckQueue linkQueue);
 
     /**
      * Stops checking links from the queue.
@@ -63,5 +61,5 @@ public interface LinkCheckerThread extends Runnable
      *
      * @param linkQueue the queue where pending links to check are located
      */
-    void run(Queue<LinkQueueItem> linkQueue);
+    void run(LinkCheckQueue linkQueue);
 }
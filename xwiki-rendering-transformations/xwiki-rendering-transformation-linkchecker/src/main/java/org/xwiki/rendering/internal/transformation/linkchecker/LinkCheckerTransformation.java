@@ -22,8 +22,6 @@
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -43,6 +41,7 @@
 import org.xwiki.rendering.transformation.AbstractTransformation;
 import org.xwiki.rendering.transformation.TransformationContext;
 import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.linkchecker.LinkCheckerTransformationConfiguration;
 import org.xwiki.rendering.transformation.linkchecker.LinkContextDataProvider;
 
 /**
@@ -57,28 +56,21 @@
 @Singleton
 public class LinkCheckerTransformation extends AbstractTransformation implements Initializable
 {
-    /**
-     * Anti-flood mechanism. We only allow adding links to check in the queue if it currently has less than
-     * MAX_LINKS_IN_QUEUE already. This is a safeguard for the following:
-     * - if the checker thread has some issues and thus the queue isn't getting unpiled then this ensures that it won't
-     *   grow more which would slowly use up all the memory...
-     * - we don't swamp the system with links to check (for ex if lots of users go to pages with links the queue can
-     *   quickly grow large)
-     * In any case, the links will be checked again later when the pages are rendered again.
-     */
-    static final int MAX_LINKS_IN_QUEUE = 10;
-
     @Inject
     private LinkCheckerThread checkerThread;
 
     @Inject
     private Provider<List<LinkContextDataProvider>> linkContextDataProvidersProvider;
 
+    @Inject
+    private LinkCheckerTransformationConfiguration configuration;
+
     /**
      * The link queue that the checker thread will use to check links. We use a separate checker thread and a queue
      * in order to have good performance so that this transformation doesn't slow down the rendering of content.
+     * The queue is deduplicated so that a link found in several contents is checked only once.
      */
-    private Queue<LinkQueueItem> linkQueue = new ConcurrentLinkedQueue<>();
+    private LinkCheckQueue linkQueue = new LinkCheckQueue();
 
     /**
      * Start a Thread in charge of reading links to check from the Checking queue and checking them.
@@ -99,25 +91,25 @@ public void transform(Block source, TransformationContext context) throws Transf
         // thread and is executed for each page view and thus needs to be as fast as possible. The exclusion handling
         // is thus done in the Link Checker Thread.
 
-        // Anti-flood mechanism, only add items in the queue if there are less than MAX_LINKS_IN_QUEUE. This means that
-        // if the queue has MAX_LINKS_IN_QUEUE or more elements already the links from the current page being rendered
-        // will not be verified. They'll get their chance the next time the page is visited again...
-        if (getLinkQueue().size() < MAX_LINKS_IN_QUEUE) {
-            for (LinkBlock linkBlock : source.<LinkBlock>getBlocks(
-                new ClassBlockMatcher(LinkBlock.class), Block.Axes.DESCENDANT))
-            {
-                if (linkBlock.getReference().getType().equals(ResourceType.URL)) {
-                    // This is a link pointing to an external URL, add it to the queue for processing (i.e. checking).
-                    String linkReference = linkBlock.getReference().getReference();
-                    String contentReference = extractSourceContentReference(linkBlock);
-                    // If there's no content reference then use a default name of "default"
-                    if (contentReference == null) {
-                        contentReference = "default";
-                    }
-                    // Add Link Context Data
-                    Map<String, Object> linkContextData = createLinkContextData(linkReference, contentReference);
-                    this.linkQueue.add(new LinkQueueItem(linkReference, contentReference, linkContextData));
-                }
+        // Anti-flood mechanism, only add new links in the queue if there are less than the configured maximum queue
+        // size. This is a safeguard for the following:
+        // - if the checker thread has some issues and thus the queue isn't getting unpiled then this ensures that it
+        //   won't grow more which would slowly use up all the memory...
+        // - we don't swamp the system with links to check
+        // Links that are not added will get their chance the next time the content is rendered again...
+        int maxQueueSize = this.configuration.getMaxQueueSize();
+        for (LinkBlock linkBlock : source.<LinkBlock>getBlocks(
+            new ClassBlockMatcher(LinkBlock.class), Block.Axes.DESCENDANT))
+        {
+            if (linkBlock.getReference().getType().equals(ResourceType.URL)) {
+                // This is a link pointing to an external URL, add it to the queue for processing (i.e. checking).
+                String linkReference = linkBlock.getReference().getReference();
+                String sourceContentReference = extractSourceContentReference(linkBlock);
+                // If there's no content reference then use a default name of "default"
+                String contentReference = sourceContentReference != null ? sourceContentReference : "default";
+                // Add Link Context Data, only when the link is actually queued
+                this.linkQueue.offer(linkReference, contentReference,
+                    () -> createLinkContextData(linkReference, contentReference), maxQueueSize);
             }
         }
     }
@@ -137,7 +129,7 @@ public void stopLinkCheckerThread() throws InterruptedException
     /**
      * @return the checker queue containing all pending links to check
      */
-    public Queue<LinkQueueItem> getLinkQueue()
+    public LinkCheckQueue getLinkQueue()
     {
         return this.linkQueue;
     }
@@ -0,0 +1,154 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xwiki.rendering.transformation.linkchecker.LinkState;
+
+/**
+ * Saves and loads link states in a compact binary file. Only the response codes and the last checked times are saved
+ * since the context data can contain any kind of objects.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+final class LinkStatesFile
+{
+    private static final int FORMAT_VERSION = 1;
+
+    private LinkStatesFile()
+    {
+        // Utility class
+    }
+
+    /**
+     * Save the passed link states, replacing the file atomically.
+     *
+     * @param linkStates the link states to save, the outer map key is the link reference and the inner map key is the
+     *            content reference
+     * @param file the file where to save the states
+     * @throws IOException when failing to write the file
+     */
+    static void write(Map<String, Map<String, LinkState>> linkStates, File file) throws IOException
+    {
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        File temporaryFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream output =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath()))))
+            {
+                // Write a single snapshot of the states so that the saved count always matches the saved links, even
+                // if they are modified meanwhile (the entry set of the link state map is already a snapshot)
+                List<Map.Entry<String, Map<String, LinkState>>> links = new ArrayList<>(linkStates.entrySet());
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(links.size());
+                for (Map.Entry<String, Map<String, LinkState>> link : links) {
+                    writeString(output, link.getKey());
+                    Map<String, LinkState> contentReferences = Map.copyOf(link.getValue());
+                    output.writeInt(contentReferences.size());
+                    for (Map.Entry<String, LinkState> contentReference : contentReferences.entrySet()) {
+                        writeString(output, contentReference.getKey());
+                        output.writeInt(contentReference.getValue().getResponseCode());
+                        output.writeLong(contentReference.getValue().getLastCheckedTime());
+                    }
+                }
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Load the link states from the passed file.
+     *
+     * @param file the file to read
+     * @param linkStates where to put the loaded link states, in the order in which they were saved
+     * @throws IOException when failing to read the file or if its format is not supported
+     */
+    static void read(File file, Map<String, Map<String, LinkState>> linkStates) throws IOException
+    {
+        // A string can't be longer than the file, which protects against allocating huge arrays for corrupted files
+        long maxLength = Files.size(file.toPath());
+        try (DataInputStream input =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))
+        {
+            int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException(String.format("Unsupported link states file format version [%s]", version));
+            }
+            int linkCount = readCount(input);
+            for (int i = 0; i < linkCount; i++) {
+                String linkReference = readString(input, maxLength);
+                int contentReferenceCount = readCount(input);
+                Map<String, LinkState> contentReferences = new ConcurrentHashMap<>();
+                for (int j = 0; j < contentReferenceCount; j++) {
+                    String contentReference = readString(input, maxLength);
+                    contentReferences.put(contentReference, new LinkState(input.readInt(), input.readLong()));
+                }
+                linkStates.put(linkReference, contentReferences);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static int readCount(DataInputStream input) throws IOException
+    {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException(String.format("Invalid count [%s] in link states file", count));
+        }
+
+        return count;
+    }
+
+    private static String readString(DataInputStream input, long maxLength) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException(String.format("Invalid string length [%s] in link states file", length));
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -19,10 +19,12 @@
  */
 package org.xwiki.rendering.transformation.linkchecker;
 
+import java.io.File;
 import java.util.List;
 import java.util.regex.Pattern;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration options for the Link Checker Transformation.
@@ -48,4 +50,69 @@
      *         ensure that the page listing all link statuses is itself excluded ;))
      */
     List<Pattern> getExcludedReferencePatterns();
+
+    /**
+     * @return the maximum number of links that can be checked at the same time
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getMaxConcurrentChecks()
+    {
+        return 10;
+    }
+
+    /**
+     * @return the maximum number of links pointing to the same host that can be checked at the same time, in order
+     *         to not flood remote sites
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getMaxConcurrentChecksPerHost()
+    {
+        return 2;
+    }
+
+    /**
+     * @return the maximum number of distinct links waiting to be checked, links found in rendered content when the
+     *         limit is reached are ignored until the content is rendered again
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getMaxQueueSize()
+    {
+        return 10000;
+    }
+
+    /**
+     * @return the maximum number of links for which the states are kept, the least recently used links being
+     *         forgotten first
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getMaxLinkStates()
+    {
+        return 100000;
+    }
+
+    /**
+     * @return the amount of time (in ms) after which the states of a link which hasn't been checked again are
+     *         forgotten, by default a multiple of the {@link #getCheckTimeout() check timeout}
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default long getLinkStateTimeToLive()
+    {
+        return 24 * getCheckTimeout();
+    }
+
+    /**
+     * @return the file where the link states are saved when the application is stopped and loaded from when it's
+     *         started, or {@code null} if the link states should not be saved
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default File getLinkStatesFile()
+    {
+        return null;
+    }
 }
@@ -22,6 +22,7 @@
 import java.util.Map;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provides the states of all checked links (ie all links that have been visited in the wiki).
@@ -37,4 +38,14 @@
      *         key is the content reference
      */
     Map<String, Map<String, LinkState>> getLinkStates();
+
+    /**
+     * @return statistics about the link states
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default LinkStateStatistics getStatistics()
+    {
+        return new LinkStateStatistics(0, 0, 0, getLinkStates().size());
+    }
 }
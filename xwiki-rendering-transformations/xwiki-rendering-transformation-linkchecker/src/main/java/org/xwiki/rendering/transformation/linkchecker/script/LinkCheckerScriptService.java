@@ -29,7 +29,9 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rendering.transformation.linkchecker.LinkState;
 import org.xwiki.rendering.transformation.linkchecker.LinkStateManager;
+import org.xwiki.rendering.transformation.linkchecker.LinkStateStatistics;
 import org.xwiki.script.service.ScriptService;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provides access to the {@link LinkStateManager} for scripts.
@@ -55,4 +57,14 @@ public Map<String, Map<String, LinkState>> getLinkStates()
     {
         return Collections.unmodifiableMap(this.linkStateManager.getLinkStates());
     }
+
+    /**
+     * @return statistics about the checked link states (hits, misses, evictions and size)
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public LinkStateStatistics getStatistics()
+    {
+        return this.linkStateManager.getStatistics();
+    }
 }
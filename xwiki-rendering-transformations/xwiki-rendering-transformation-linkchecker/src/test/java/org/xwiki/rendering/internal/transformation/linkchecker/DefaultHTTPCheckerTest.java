@@ -27,9 +27,15 @@
 
 import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.headRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.notFound;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.status;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.allRequests;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -66,4 +72,27 @@ void proxy()
         assertEquals(404, this.checker.check("http://unknownhostforxwikitest"));
         assertFalse(findAll(allRequests()).isEmpty(), "The HTTP server was called by the link checker");
     }
+
+    @Test
+    void checkWithHead()
+    {
+        stubFor(head(urlEqualTo("/head")).willReturn(ok()));
+
+        assertEquals(200, this.checker.check("http://localhost:8888/head"));
+
+        verify(1, headRequestedFor(urlEqualTo("/head")));
+        verify(0, getRequestedFor(urlEqualTo("/head")));
+    }
+
+    @Test
+    void checkFallbacksToGetWhenHeadIsNotAllowed()
+    {
+        stubFor(head(urlEqualTo("/get")).willReturn(status(405)));
+        stubFor(get(urlEqualTo("/get")).willReturn(ok()));
+
+        assertEquals(200, this.checker.check("http://localhost:8888/get"));
+
+        verify(1, headRequestedFor(urlEqualTo("/get")));
+        verify(1, getRequestedFor(urlEqualTo("/get")));
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.rendering.transformation.linkchecker.LinkCheckerTransformationConfiguration;
+import org.xwiki.rendering.transformation.linkchecker.LinkState;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultLinkStateManager}.
+ *
+ * @version $Id$
+ */
+class DefaultLinkStateManagerTest
+{
+    @TempDir
+    private File temporaryDirectory;
+
+    @Test
+    void saveAndLoadLinkStates() throws Exception
+    {
+        File file = new File(this.temporaryDirectory, "linkstates.bin");
+        long now = System.currentTimeMillis();
+
+        DefaultLinkStateManager manager = createManager(file);
+        Map<String, LinkState> contentReferences = new ConcurrentHashMap<>();
+        contentReferences.put("page1", new LinkState(200, now, Map.of("key", "value")));
+        contentReferences.put("page2", new LinkState(404, now - 1000L));
+        manager.getLinkStates().put("http://link1", contentReferences);
+        manager.getLinkStates().put("http://expired", Map.of("page1", new LinkState(200, now - 7200000L)));
+        manager.dispose();
+
+        assertTrue(file.exists());
+
+        DefaultLinkStateManager loadedManager = createManager(file);
+        Map<String, Map<String, LinkState>> states = loadedManager.getLinkStates();
+        assertEquals(1, states.size());
+        assertNull(states.get("http://expired"));
+        // Context data is not saved
+        assertEquals(new LinkState(200, now), states.get("http://link1").get("page1"));
+        assertEquals(new LinkState(404, now - 1000L), states.get("http://link1").get("page2"));
+    }
+
+    private DefaultLinkStateManager createManager(File file) throws Exception
+    {
+        LinkCheckerTransformationConfiguration configuration = mock(LinkCheckerTransformationConfiguration.class);
+        when(configuration.getMaxLinkStates()).thenReturn(100);
+        when(configuration.getLinkStateTimeToLive()).thenReturn(3600000L);
+        when(configuration.getLinkStatesFile()).thenReturn(file);
+
+        DefaultLinkStateManager manager = new DefaultLinkStateManager();
+        ReflectionUtils.setFieldValue(manager, "configuration", configuration);
+        manager.initialize();
+
+        return manager;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.transformation.linkchecker.LinkState;
+import org.xwiki.rendering.transformation.linkchecker.LinkStateStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link EvictingLinkStateMap}.
+ *
+ * @version $Id$
+ */
+class EvictingLinkStateMapTest
+{
+    @Test
+    void evictLeastRecentlyUsedLinks()
+    {
+        long now = System.currentTimeMillis();
+        EvictingLinkStateMap states = new EvictingLinkStateMap(2, 3600000L);
+
+        states.put("link1", Map.of("page", new LinkState(200, now)));
+        states.put("link2", Map.of("page", new LinkState(200, now)));
+        // Use link1 so that link2 becomes the least recently used link
+        assertNotNull(states.get("link1"));
+        states.put("link3", Map.of("page", new LinkState(200, now)));
+
+        assertEquals(2, states.size());
+        assertNotNull(states.get("link1"));
+        assertNull(states.get("link2"));
+        assertNotNull(states.get("link3"));
+
+        LinkStateStatistics statistics = states.getStatistics();
+        assertEquals(3, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(2, statistics.getSize());
+    }
+
+    @Test
+    void evictExpiredLinks()
+    {
+        long now = System.currentTimeMillis();
+        EvictingLinkStateMap states = new EvictingLinkStateMap(10, 1000L);
+
+        states.put("expired", Map.of("page", new LinkState(200, now - 2000L)));
+        states.put("partially", Map.of("page1", new LinkState(200, now - 2000L), "page2", new LinkState(200, now)));
+        states.put("recent", Map.of("page", new LinkState(200, now)));
+
+        assertNull(states.get("expired"));
+        assertNotNull(states.get("partially"));
+
+        states.removeExpired();
+
+        assertEquals(2, states.size());
+        assertEquals(1, states.getStatistics().getEvictions());
+    }
+
+    @Test
+    void computeHandlesExpiredLinksAsMissing()
+    {
+        long now = System.currentTimeMillis();
+        EvictingLinkStateMap states = new EvictingLinkStateMap(10, 1000L);
+
+        states.put("expired", Map.of("page1", new LinkState(200, now - 2000L)));
+        states.put("recent", new HashMap<>(Map.of("page1", new LinkState(200, now))));
+
+        Map<String, LinkState> contentReferences = states.compute("expired", (link, current) -> {
+            assertNull(current);
+            return new HashMap<>(Map.of("page2", new LinkState(404, now)));
+        });
+        assertEquals(Set.of("page2"), contentReferences.keySet());
+        assertSame(contentReferences, states.get("expired"));
+
+        states.compute("recent", (link, current) -> {
+            current.put("page2", new LinkState(404, now));
+            return current;
+        });
+        assertEquals(Set.of("page1", "page2"), states.get("recent").keySet());
+
+        assertNull(states.compute("recent", (link, current) -> null));
+        assertFalse(states.containsKey("recent"));
+    }
+
+    @Test
+    void containsKeyAndComputeDontCountLookups()
+    {
+        long now = System.currentTimeMillis();
+        EvictingLinkStateMap states = new EvictingLinkStateMap(10, 1000L);
+
+        states.put("expired", Map.of("page1", new LinkState(200, now - 2000L)));
+        states.put("recent", Map.of("page1", new LinkState(200, now)));
+
+        // Expired links are missing, as with get()
+        assertFalse(states.containsKey("expired"));
+        assertTrue(states.containsKey("recent"));
+        states.compute("recent", (link, current) -> current);
+        states.compute("new", (link, current) -> Map.of("page1", new LinkState(200, now)));
+
+        LinkStateStatistics statistics = states.getStatistics();
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getMisses());
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(2, statistics.getSize());
+    }
+
+    @Test
+    void computeIsAtomic() throws Exception
+    {
+        EvictingLinkStateMap states = new EvictingLinkStateMap(10, 3600000L);
+        int threads = 8;
+        int updatesPerThread = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String page = "page" + i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        String contentReference = page + '-' + j;
+                        states.compute("link", (link, current) -> {
+                            Map<String, LinkState> result = current != null ? current : new ConcurrentHashMap<>();
+                            result.put(contentReference, new LinkState(200, System.currentTimeMillis()));
+                            return result;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * updatesPerThread, states.get("link").size());
+    }
+}
+
@@ -0,0 +1,263 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link HostConcurrencyLimiter}.
+ *
+ * @version $Id$
+ */
+class HostConcurrencyLimiterTest
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ExecutorService executor;
+
+    private final Semaphore sharedPermits = new Semaphore(100);
+
+    @BeforeEach
+    void setUp()
+    {
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void limitTasksForSameHost() throws Exception
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            // The host is case insensitive
+            String linkReference = (i % 2 == 0 ? "http://Example.org/page" : "http://example.org/page") + i;
+            futures.add(this.executor.submit(() -> {
+                run(limiter, linkReference, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    awaitQuietly(release);
+                    running.decrementAndGet();
+                });
+                return null;
+            }));
+        }
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            while (running.get() < 2) {
+                Thread.sleep(10);
+            }
+        });
+        // Give the other tasks a chance to (wrongly) start
+        Thread.sleep(100);
+        assertEquals(2, running.get());
+
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    void doNotLimitTasksForOtherHosts() throws Exception
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch otherHostChecked = new CountDownLatch(1);
+
+        Future<Boolean> future = this.executor.submit(() -> {
+            AtomicBoolean result = new AtomicBoolean();
+            run(limiter, "http://host1/page", () -> {
+                started.countDown();
+                try {
+                    result.set(otherHostChecked.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return result.get();
+        });
+
+        assertTrue(started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        // Would wait for the first task to time out if the hosts were sharing the same limit
+        run(limiter, "http://host2/page", otherHostChecked::countDown);
+
+        assertTrue(future.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+    }
+
+    @Test
+    void releaseWhenTaskFails()
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+
+        assertThrows(RuntimeException.class, () -> run(limiter, "http://host/page", () -> {
+            throw new RuntimeException("error");
+        }));
+
+        AtomicBoolean checked = new AtomicBoolean();
+        assertTimeoutPreemptively(TIMEOUT, () -> run(limiter, "http://host/page", () -> checked.set(true)));
+        assertTrue(checked.get());
+    }
+
+    @Test
+    void invalidLinksShareSameLimit() throws Exception
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        Future<?> first = this.executor.submit(() -> {
+            run(limiter, "invalid link", () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            return null;
+        });
+        assertTrue(started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+
+        Future<?> second = this.executor.submit(() -> {
+            run(limiter, "other invalid link", () -> secondStarted.set(true));
+            return null;
+        });
+        Thread.sleep(100);
+        assertFalse(secondStarted.get());
+
+        release.countDown();
+        first.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        second.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        assertTrue(secondStarted.get());
+    }
+
+    @Test
+    void doNotHoldSharedPermitWhileWaitingForHost() throws Exception
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Semaphore permits = new Semaphore(2)
+        {
+            @Override
+            public void release()
+            {
+                super.release();
+                waiting.countDown();
+            }
+        };
+
+        Future<?> first = this.executor.submit(() -> {
+            run(limiter, permits, "http://host1/page1", () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            return null;
+        });
+        assertTrue(started.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        // Waits for the first task, without keeping the second shared permit.
+        Future<?> second = this.executor.submit(() -> {
+            run(limiter, permits, "http://host1/page2", () -> { });
+            return null;
+        });
+        assertTrue(waiting.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+
+        // Would wait for the first task if the second one was keeping its shared permit.
+        AtomicBoolean checked = new AtomicBoolean();
+        assertTimeoutPreemptively(TIMEOUT,
+            () -> run(limiter, permits, "http://host2/page", () -> checked.set(true)));
+        assertTrue(checked.get());
+
+        release.countDown();
+        first.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        second.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        assertEquals(2, permits.availablePermits());
+    }
+
+    @Test
+    void forgetIdleHosts() throws Exception
+    {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        AtomicInteger hostCount = new AtomicInteger();
+
+        run(limiter, "http://host1/page", () -> hostCount.set(limiter.getHostCount()));
+        run(limiter, "http://host2/page", () -> { });
+        assertThrows(RuntimeException.class, () -> run(limiter, "http://host3/page", () -> {
+            throw new RuntimeException("error");
+        }));
+
+        assertEquals(1, hostCount.get());
+        assertEquals(0, limiter.getHostCount());
+    }
+
+    private void run(HostConcurrencyLimiter limiter, String linkReference, Runnable task) throws InterruptedException
+    {
+        run(limiter, this.sharedPermits, linkReference, task);
+    }
+
+    private static void run(HostConcurrencyLimiter limiter, Semaphore permits, String linkReference, Runnable task)
+        throws InterruptedException
+    {
+        permits.acquire();
+        try {
+            limiter.run(linkReference, permits, task);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch)
+    {
+        try {
+            latch.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
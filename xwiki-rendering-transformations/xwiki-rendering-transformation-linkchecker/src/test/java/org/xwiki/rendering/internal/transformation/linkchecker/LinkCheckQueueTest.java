@@ -0,0 +1,147 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link LinkCheckQueue}.
+ *
+ * @version $Id$
+ */
+class LinkCheckQueueTest
+{
+    @Test
+    void offerGroupsContentReferencesByLink()
+    {
+        LinkCheckQueue queue = new LinkCheckQueue();
+
+        assertTrue(queue.isEmpty());
+
+        queue.add(new LinkQueueItem("link1", "page1", null));
+        queue.add(new LinkQueueItem("link2", "page1", null));
+        queue.add(new LinkQueueItem("link1", "page2", null));
+        queue.add(new LinkQueueItem("link1", "page1", null));
+
+        assertEquals(2, queue.size());
+
+        List<LinkQueueItem> items = queue.poll();
+        assertEquals(2, items.size());
+        assertEquals("link1", items.get(0).getLinkReference());
+        assertEquals("page1", items.get(0).getContentReference());
+        assertEquals("page2", items.get(1).getContentReference());
+
+        items = queue.poll();
+        assertEquals(1, items.size());
+        assertEquals("link2", items.get(0).getLinkReference());
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+
+        // A link can be queued again once it's been polled
+        queue.add(new LinkQueueItem("link1", "page1", null));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void offerWhenFull()
+    {
+        LinkCheckQueue queue = new LinkCheckQueue();
+
+        assertTrue(queue.offer(new LinkQueueItem("link1", "page1", null), 1));
+        assertFalse(queue.offer(new LinkQueueItem("link2", "page1", null), 1));
+        // Links already queued can still be grouped
+        assertTrue(queue.offer(new LinkQueueItem("link1", "page2", null), 1));
+
+        assertEquals(1, queue.size());
+        assertEquals(2, queue.poll().size());
+    }
+
+    @Test
+    void offerCreatesContextDataOnlyForNewItems()
+    {
+        LinkCheckQueue queue = new LinkCheckQueue();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertTrue(queue.offer("link1", "page1", () -> contextData(calls, "first"), 10));
+        // Same link and content reference: the item is already queued
+        assertTrue(queue.offer("link1", "page1", () -> contextData(calls, "second"), 10));
+        assertEquals(1, calls.get());
+        // Same link but other content reference: the item is grouped with the existing one
+        assertTrue(queue.offer("link1", "page2", () -> contextData(calls, "third"), 10));
+        assertEquals(2, calls.get());
+
+        assertEquals(1, queue.size());
+        List<LinkQueueItem> items = queue.poll();
+        assertEquals(2, items.size());
+        assertEquals("first", items.get(0).getContextData().get("key"));
+        assertEquals("third", items.get(1).getContextData().get("key"));
+    }
+
+    @Test
+    void offerDoesNotCreateContextDataWhenFull()
+    {
+        LinkCheckQueue queue = new LinkCheckQueue();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertTrue(queue.offer("link1", "page1", () -> contextData(calls, "value"), 1));
+        assertFalse(queue.offer("link2", "page1", () -> contextData(calls, "value"), 1));
+        assertEquals(1, calls.get());
+
+        // Links already queued can still be grouped
+        assertTrue(queue.offer("link1", "page2", () -> contextData(calls, "value"), 1));
+        assertEquals(2, calls.get());
+        assertEquals(1, queue.size());
+
+        // There's room again once the queued link has been polled
+        assertEquals(2, queue.poll().size());
+        assertTrue(queue.offer("link2", "page1", () -> contextData(calls, "value"), 1));
+        assertEquals(3, calls.get());
+        assertEquals("link2", queue.poll().get(0).getLinkReference());
+    }
+
+    @Test
+    void offerItemReplacesSameContentReference()
+    {
+        LinkCheckQueue queue = new LinkCheckQueue();
+
+        queue.add(new LinkQueueItem("link1", "page1", Map.of("key", "first")));
+        queue.add(new LinkQueueItem("link1", "page1", Map.of("key", "second")));
+
+        List<LinkQueueItem> items = queue.poll();
+        assertEquals(1, items.size());
+        assertEquals("second", items.get(0).getContextData().get("key"));
+    }
+
+    private Map<String, Object> contextData(AtomicInteger calls, String value)
+    {
+        calls.incrementAndGet();
+        return Map.of("key", value);
+    }
+}
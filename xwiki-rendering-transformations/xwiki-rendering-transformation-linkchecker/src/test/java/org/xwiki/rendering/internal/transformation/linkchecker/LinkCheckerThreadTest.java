@@ -22,14 +22,14 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
 import javax.inject.Provider;
@@ -95,7 +95,7 @@ void setUpComponents()
     @Test
     void runWithInitializer()
     {
-        Queue<LinkQueueItem> queue = new ConcurrentLinkedQueue<>();
+        LinkCheckQueue queue = new LinkCheckQueue();
 
         // Make sure the thread is stopped quickly
         ReflectionUtils.setFieldValue(this.thread, "shouldStop", true);
@@ -119,7 +119,7 @@ void runWithExclusion()
         Map<String, Map<String, LinkState>> states = new HashMap<>();
         when(this.linkStateManager.getLinkStates()).thenReturn(states);
 
-        Queue<LinkQueueItem> queue = new ConcurrentLinkedQueue<>();
+        LinkCheckQueue queue = new LinkCheckQueue();
         queue.add(new LinkQueueItem("linkreference1", "excludedwiki:excludedspace.excludedpage",
             Collections.emptyMap()));
         queue.add(new LinkQueueItem("linkreference2", "someotherpage", Collections.emptyMap()));
@@ -142,7 +142,7 @@ void sendEventWhenNoObservationManager()
     {
         when(this.httpChecker.check("linkreference")).thenReturn(404);
 
-        Queue<LinkQueueItem> queue = new ConcurrentLinkedQueue<>();
+        LinkCheckQueue queue = new LinkCheckQueue();
         queue.add(new LinkQueueItem("linkreference", "someref", Collections.emptyMap()));
 
         ReflectionUtils.setFieldValue(this.thread, "linkQueue", queue);
@@ -154,4 +154,32 @@ void sendEventWhenNoObservationManager()
         assertEquals("The Invalid URL Event for URL [linkreference] (source [someref]) wasn't sent as no Observation "
             + "Manager Component was found. Root cause is [RuntimeException: error]", logCapture.getMessage(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkLinkOnceForAllContentReferences()
+    {
+        when(this.configuration.getCheckTimeout()).thenReturn(3600000L);
+        when(this.configuration.getExcludedReferencePatterns()).thenReturn(Collections.emptyList());
+
+        when(this.httpChecker.check("linkreference")).thenReturn(200);
+
+        Map<String, Map<String, LinkState>> states = new HashMap<>();
+        when(this.linkStateManager.getLinkStates()).thenReturn(states);
+
+        LinkCheckQueue queue = new LinkCheckQueue();
+        queue.add(new LinkQueueItem("linkreference", "page1", Collections.emptyMap()));
+        queue.add(new LinkQueueItem("linkreference", "page2", Collections.emptyMap()));
+        queue.add(new LinkQueueItem("linkreference", "page1", Collections.emptyMap()));
+        assertEquals(1, queue.size());
+
+        ReflectionUtils.setFieldValue(this.thread, "linkQueue", queue);
+
+        this.thread.processLinkQueue();
+
+        verify(this.httpChecker, times(1)).check("linkreference");
+        assertEquals(2, states.get("linkreference").size());
+        assertEquals(200, states.get("linkreference").get("page1").getResponseCode());
+        assertEquals(200, states.get("linkreference").get("page2").getResponseCode());
+        assertTrue(queue.isEmpty());
+    }
+}
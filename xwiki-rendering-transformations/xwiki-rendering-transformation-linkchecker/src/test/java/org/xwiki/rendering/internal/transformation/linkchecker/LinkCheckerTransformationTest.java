@@ -293,24 +293,50 @@ void transformWithAntiFloodKickingIn() throws Exception
         // Thread.
         this.componentManager.registerMockComponent(LinkCheckerThread.class);
 
+        // Limit the size of the queue
+        int maxQueueSize = 10;
+        this.componentManager.registerMemoryConfigurationSource()
+            .setProperty("rendering.transformation.linkchecker.maxQueueSize", maxQueueSize);
+
         LinkCheckerTransformation transformation =
             this.componentManager.getInstance(Transformation.class, "linkchecker");
 
         StringBuilder input = new StringBuilder();
-        for (int i = 0; i < LinkCheckerTransformation.MAX_LINKS_IN_QUEUE + 1; i++) {
+        for (int i = 0; i < maxQueueSize + 1; i++) {
             String url = "url" + i;
             input.append("[[url:").append(url).append("]]");
         }
 
-        // Render a first page with MAX_LINKS_IN_QUEUE + 1 links in it so that they're all added to the Check Queue
+        // Render a first page with maxQueueSize + 1 links in it and verify that only maxQueueSize links are added to
+        // the Check Queue
         Parser xwiki20Parser = this.componentManager.getInstance(Parser.class, "xwiki/2.0");
         XDOM xdom = xwiki20Parser.parse(new StringReader(input.toString()));
         transformation.transform(xdom, new TransformationContext());
-        assertEquals(LinkCheckerTransformation.MAX_LINKS_IN_QUEUE + 1, transformation.getLinkQueue().size());
+        assertEquals(maxQueueSize, transformation.getLinkQueue().size());
 
         // Now render a second page and verify no new links are added to the queue since it's already full!
         transformation.transform(xdom, new TransformationContext());
-        assertEquals(LinkCheckerTransformation.MAX_LINKS_IN_QUEUE + 1, transformation.getLinkQueue().size());
+        assertEquals(maxQueueSize, transformation.getLinkQueue().size());
+    }
+
+    /**
+     * Verify that the same link found in several contents is queued only once.
+     */
+    @Test
+    void transformWithDuplicateLinks() throws Exception
+    {
+        this.componentManager.registerMockComponent(LinkCheckerThread.class);
+
+        LinkCheckerTransformation transformation =
+            this.componentManager.getInstance(Transformation.class, "linkchecker");
+
+        transform("[[http://ok]] [[http://ok]]", "source1");
+        transform("[[http://ok]] [[http://other]]", "source2");
+
+        LinkCheckQueue queue = transformation.getLinkQueue();
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.poll().size());
+        assertEquals(1, queue.poll().size());
     }
 
     private void transformAndWait(String input, LinkStateManager linkStateManager, int numberOfItemsToWaitFor)
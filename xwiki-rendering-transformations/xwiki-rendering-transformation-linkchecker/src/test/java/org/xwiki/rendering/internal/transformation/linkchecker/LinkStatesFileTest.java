@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.linkchecker;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.rendering.transformation.linkchecker.LinkState;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link LinkStatesFile}.
+ *
+ * @version $Id$
+ */
+class LinkStatesFileTest
+{
+    @TempDir
+    private File temporaryDirectory;
+
+    @Test
+    void writeAndRead() throws Exception
+    {
+        File file = new File(this.temporaryDirectory, "linkstates.bin");
+        long now = System.currentTimeMillis();
+
+        EvictingLinkStateMap linkStates = new EvictingLinkStateMap(100, 3600000L);
+        linkStates.put("http://link1", Map.of("page1", new LinkState(200, now), "page2", new LinkState(404, now)));
+        linkStates.put("http://link2", Map.of("page1", new LinkState(500, now)));
+        LinkStatesFile.write(linkStates, file);
+
+        Map<String, Map<String, LinkState>> loadedLinkStates = new LinkedHashMap<>();
+        LinkStatesFile.read(file, loadedLinkStates);
+        assertEquals(linkStates, loadedLinkStates);
+    }
+
+    @Test
+    void readWithInvalidStringLength() throws Exception
+    {
+        File file = new File(this.temporaryDirectory, "linkstates.bin");
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            // Format version
+            output.writeInt(1);
+            // Link count
+            output.writeInt(1);
+            // Link reference length
+            output.writeInt(Integer.MAX_VALUE);
+        }
+
+        Map<String, Map<String, LinkState>> linkStates = new LinkedHashMap<>();
+        IOException exception = assertThrows(IOException.class, () -> LinkStatesFile.read(file, linkStates));
+        assertEquals("Invalid string length [2147483647] in link states file", exception.getMessage());
+        assertTrue(linkStates.isEmpty());
+    }
+
+    @Test
+    void readWithNegativeCount() throws Exception
+    {
+        File file = new File(this.temporaryDirectory, "linkstates.bin");
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            output.writeInt(1);
+            output.writeInt(-1);
+        }
+
+        IOException exception =
+            assertThrows(IOException.class, () -> LinkStatesFile.read(file, new LinkedHashMap<>()));
+        assertEquals("Invalid count [-1] in link states file", exception.getMessage());
+    }
+}
@@ -19,7 +19,6 @@
  */
 package org.xwiki.rendering.internal.macro;
 
-import java.io.StringReader;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -141,10 +140,7 @@ private XDOM createXDOM(String content, MacroTransformationContext macroContext,
     {
         XDOM result = getPreparedXDOM(content, macroContext, syntax);
 
-        IdGenerator idGenerator = null;
-        if (macroContext.getXDOM() != null) {
-            idGenerator = macroContext.getXDOM().getIdGenerator();
-        }
+        IdGenerator idGenerator = macroContext.getIdGenerator();
 
         // Parse the content if not already prepared.
         if (result == null) {
@@ -183,9 +179,9 @@ private XDOM parse(String content, Syntax syntax, boolean inline, IdGenerator id
 
             Parser parser = getSyntaxParser(syntax);
             if (idGenerator != null) {
-                result = parser.parse(new StringReader(content), idGenerator);
+                result = parser.parse(content, idGenerator);
             } else {
-                result = parser.parse(new StringReader(content));
+                result = parser.parse(content);
             }
 
             // Try to convert the content to inline content
@@ -31,6 +31,8 @@
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.rendering.macro.Macro;
@@ -67,6 +69,12 @@ public class DefaultMacroManager implements MacroManager
     @Named("context")
     private Provider<ComponentManager> componentManager;
 
+    /**
+     * The macros and macro ids already resolved.
+     */
+    @Inject
+    private MacroCache macroCache;
+
     /**
      * The logger to log.
      */
@@ -93,10 +101,26 @@ public Set<MacroId> getMacroIds(Syntax syntax) throws MacroLookupException
         Set<MacroId> result = new HashSet<>();
 
         // Loop through all the macros and filter those macros that will work with the given syntax.
-        for (Map.Entry<String, Macro> entry : allMacros.entrySet()) {
-            MacroId macroId;
+        for (String hint : allMacros.keySet()) {
+            MacroId macroId = getMacroId(hint);
+            if (macroId == null) {
+                continue;
+            }
+            if (syntax == null || macroId.getSyntax() == null || syntax.equals(macroId.getSyntax())) {
+                result.add(macroId);
+            }
+        }
+
+        return result;
+    }
+
+    private MacroId getMacroId(String hint)
+    {
+        MacroId macroId = this.macroCache.getMacroId(hint);
+        if (macroId == null) {
             try {
-                macroId = this.macroIdFactory.createMacroId(entry.getKey());
+                macroId = this.macroIdFactory.createMacroId(hint);
+                this.macroCache.setMacroId(hint, macroId);
             } catch (ParseException e) {
                 // One of the macros is registered against the component manager with an invalid macro id, ignore it
                 // but log a warning.
@@ -106,37 +130,42 @@ public Set<MacroId> getMacroIds(Syntax syntax) throws MacroLookupException
                         + "is valid. In that case the macro name should be followed by a \"/\" followed by the "
                         + "syntax name followed by another \"/\" followed by the syntax version. For example "
                         + "\"html/xwiki/2.0\". Root cause is [{}]",
-                    entry.getKey(), ExceptionUtils.getRootCauseMessage(e));
-                continue;
-            }
-            if (syntax == null || macroId.getSyntax() == null || syntax.equals(macroId.getSyntax())) {
-                result.add(macroId);
+                    hint, ExceptionUtils.getRootCauseMessage(e));
             }
         }
 
-        return result;
+        return macroId;
     }
 
     @Override
     public Macro<?> getMacro(MacroId macroId) throws MacroLookupException
     {
-        // First search for a macro registered for the passed macro id.
-        String macroHint = macroId.toString();
         ComponentManager cm = this.componentManager.get();
-        try {
-            if (cm.hasComponent(Macro.class, macroHint)) {
-                return cm.getInstance(Macro.class, macroHint);
-            } else {
-                // Now search explicitly for a macro registered for all syntaxes.
-                if (cm.hasComponent(Macro.class, macroId.getId())) {
-                    return cm.getInstance(Macro.class, macroId.getId());
-                }
-
-                throw new MacroNotFoundException(String.format("No macro [%s] could be found.", macroId));
+
+        // First search for a macro registered for the passed macro id.
+        ComponentDescriptor<Macro<?>> descriptor = cm.getComponentDescriptor(Macro.class, macroId.toString());
+        if (descriptor == null && macroId.getSyntax() != null) {
+            // Now search explicitly for a macro registered for all syntaxes.
+            descriptor = cm.getComponentDescriptor(Macro.class, macroId.getId());
+        }
+        if (descriptor == null) {
+            throw new MacroNotFoundException(String.format("No macro [%s] could be found.", macroId));
+        }
+
+        // Most macros are singletons, in which case we don't need to look up the instance again.
+        Macro<?> macro = this.macroCache.getMacro(descriptor);
+        if (macro == null) {
+            try {
+                macro = cm.getInstance(Macro.class, descriptor.getRoleHint());
+            } catch (ComponentLookupException e) {
+                throw new MacroLookupException(String.format("Macro [%s] failed to be instantiated.", macroId), e);
+            }
+            if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.SINGLETON) {
+                this.macroCache.setMacro(descriptor, macro);
             }
-        } catch (ComponentLookupException e) {
-            throw new MacroLookupException(String.format("Macro [%s] failed to be instantiated.", macroId), e);
         }
+
+        return macro;
     }
 
     @Override
@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.ImageBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.match.BlockMatcher;
+import org.xwiki.rendering.macro.MacroResultCache;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.macro.MacroTransformationConfiguration;
+
+/**
+ * Default implementation of {@link MacroResultCache}, keeping the most recently used macro results.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Singleton
+public class DefaultMacroResultCache implements MacroResultCache
+{
+    /**
+     * Match the blocks holding an identifier generated for the current document, which cannot be reused in another
+     * context without producing duplicated identifiers.
+     */
+    private static final BlockMatcher GENERATED_ID_MATCHER = block -> (block instanceof HeaderBlock header
+        && header.getId() != null) || (block instanceof ImageBlock image && image.getId() != null);
+
+    @Inject
+    private MacroTransformationConfiguration configuration;
+
+    /**
+     * The macro results, from the least recently used to the most recently used.
+     */
+    private final Map<Key, List<Block>> cache = new LinkedHashMap<>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<Block>> eldest)
+        {
+            return size() > configuration.getResultCacheSize();
+        }
+    };
+
+    /**
+     * The cache key: the macro and what influences the result of its execution.
+     *
+     * @param id the identifier of the macro
+     * @param parameters the parameters of the macro
+     * @param content the content of the macro
+     * @param syntax the syntax of the macro
+     * @param targetSyntax the syntax in which the result is going to be rendered
+     * @param restricted true if the macro is executed in restricted mode
+     * @param inline true if the macro is executed inline
+     */
+    private record Key(String id, Map<String, String> parameters, String content, Syntax syntax, Syntax targetSyntax,
+        boolean restricted, boolean inline)
+    {
+    }
+
+    private Key getKey(MacroBlock macroBlock, MacroTransformationContext macroContext)
+    {
+        return new Key(macroBlock.getId(), new LinkedHashMap<>(macroBlock.getParameters()), macroBlock.getContent(),
+            macroBlock.getSyntaxMetadata().orElse(macroContext.getSyntax()),
+            macroContext.getTransformationContext().getTargetSyntax(),
+            macroContext.getTransformationContext().isRestricted(), macroContext.isInline());
+    }
+
+    private List<Block> copy(List<Block> blocks)
+    {
+        List<Block> copy = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            copy.add(block.clone());
+        }
+
+        return copy;
+    }
+
+    @Override
+    public List<Block> get(MacroBlock macroBlock, MacroTransformationContext macroContext)
+    {
+        if (this.configuration.getResultCacheSize() <= 0) {
+            return null;
+        }
+
+        List<Block> result;
+        synchronized (this.cache) {
+            result = this.cache.get(getKey(macroBlock, macroContext));
+        }
+
+        // The cached blocks are never modified, only copies of them are exposed
+        return result != null ? copy(result) : null;
+    }
+
+    @Override
+    public void put(MacroBlock macroBlock, MacroTransformationContext macroContext, List<Block> result)
+    {
+        if (this.configuration.getResultCacheSize() <= 0) {
+            return;
+        }
+
+        for (Block block : result) {
+            if (GENERATED_ID_MATCHER.match(block)
+                || block.getFirstBlock(GENERATED_ID_MATCHER, Block.Axes.DESCENDANT) != null) {
+                return;
+            }
+        }
+
+        Key key = getKey(macroBlock, macroContext);
+        List<Block> copy = copy(result);
+        synchronized (this.cache) {
+            this.cache.put(key, copy);
+        }
+    }
+
+    @Override
+    public void invalidate(String macroId)
+    {
+        synchronized (this.cache) {
+            this.cache.keySet().removeIf(key -> key.id().equals(macroId));
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+}
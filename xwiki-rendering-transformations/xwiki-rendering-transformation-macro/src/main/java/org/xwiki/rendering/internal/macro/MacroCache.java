@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+
+/**
+ * Keep the macro instances and macro ids already resolved by the {@link DefaultMacroManager} to speed up macro
+ * lookups. The cache is cleared whenever a macro component is registered or unregistered, see
+ * {@link MacroCacheListener}.
+ * <p>
+ * Macro instances are indexed by their component descriptor (and not by macro id) since the macros which are
+ * available depend on the context (e.g. macros registered for a specific wiki or user), which is resolved by the
+ * Context Component Manager when looking up the descriptor.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component(roles = MacroCache.class)
+@Singleton
+public class MacroCache
+{
+    private final Map<DescriptorKey, Macro<?>> macros = new ConcurrentHashMap<>();
+
+    private final Map<String, MacroId> macroIds = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies a component descriptor by identity, since two distinct registrations can have equal descriptors.
+     */
+    private static final class DescriptorKey
+    {
+        private final ComponentDescriptor<?> descriptor;
+
+        DescriptorKey(ComponentDescriptor<?> descriptor)
+        {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            return object instanceof DescriptorKey && ((DescriptorKey) object).descriptor == this.descriptor;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(this.descriptor);
+        }
+    }
+
+    /**
+     * @param descriptor the descriptor of the macro component
+     * @return the macro instance previously resolved for the passed descriptor or {@code null} if none
+     */
+    public Macro<?> getMacro(ComponentDescriptor<?> descriptor)
+    {
+        return this.macros.get(new DescriptorKey(descriptor));
+    }
+
+    /**
+     * @param descriptor the descriptor of the macro component
+     * @param macro the macro instance, which must be a singleton
+     */
+    public void setMacro(ComponentDescriptor<?> descriptor, Macro<?> macro)
+    {
+        this.macros.put(new DescriptorKey(descriptor), macro);
+    }
+
+    /**
+     * @param hint the hint under which a macro is registered
+     * @return the macro id previously parsed from the hint or {@code null} if none
+     */
+    public MacroId getMacroId(String hint)
+    {
+        return this.macroIds.get(hint);
+    }
+
+    /**
+     * @param hint the hint under which a macro is registered
+     * @param macroId the macro id parsed from the hint
+     */
+    public void setMacroId(String hint, MacroId macroId)
+    {
+        this.macroIds.put(hint, macroId);
+    }
+
+    /**
+     * Forget all the resolved macros.
+     */
+    public void clear()
+    {
+        this.macros.clear();
+        this.macroIds.clear();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroResultCache;
+
+/**
+ * Clear the {@link MacroCache} and forget the cached results of a macro when a macro component is registered or
+ * unregistered.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Component
+@Named(MacroCacheListener.NAME)
+@Singleton
+public class MacroCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "org.xwiki.rendering.internal.macro.MacroCacheListener";
+
+    @Inject
+    private MacroCache macroCache;
+
+    @Inject
+    private MacroResultCache macroResultCache;
+
+    /**
+     * Default constructor.
+     */
+    public MacroCacheListener()
+    {
+        super(NAME, new ComponentDescriptorAddedEvent(Macro.class), new ComponentDescriptorRemovedEvent(Macro.class));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        this.macroCache.clear();
+
+        // The role hint of a macro component is the macro id, optionally followed by the syntax
+        String macroId = StringUtils.substringBefore(((ComponentDescriptorEvent) event).getRoleHint(), '/');
+        this.macroResultCache.invalidate(macroId);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.macro;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.internal.transformation.MutableRenderingContext;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroResultCache;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.util.IdGenerator;
+
+/**
+ * Execute isolated macros concurrently and keep their results until the {@link MacroTransformation} reaches them, so
+ * that the results are still inserted in the document order.
+ * <p>
+ * Each macro is executed with its own copy of the id generator of the document, which records the generated ids.
+ * When the transformation reaches a macro, the recorded ids are generated again with the id generator of the document,
+ * in the document order. The result is only used if this produces the same ids, which means that the ids are the ones
+ * a serial execution would have produced. Otherwise, the macro has to be executed again.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+class ConcurrentMacroExecutor
+{
+    /**
+     * A macro ready to be executed.
+     *
+     * @param block the macro block
+     * @param macro the macro to execute
+     * @param parameters the populated parameters of the macro
+     */
+    record MacroTask(MacroBlock block, Macro<?> macro, Object parameters)
+    {
+    }
+
+    /**
+     * The result of a macro execution.
+     *
+     * @param parameters the parameters of the macro block when the macro was executed
+     * @param content the content of the macro block when the macro was executed
+     * @param blocks the blocks produced by the macro, {@code null} if the execution failed
+     * @param error the error thrown by the macro, {@code null} if the execution succeeded
+     * @param cached true if the blocks come from the {@link MacroResultCache}
+     * @param idGenerator the id generator used by the macro, {@code null} if the document has no id generator
+     */
+    record MacroResult(Map<String, String> parameters, String content, List<Block> blocks, Throwable error,
+        boolean cached, RecordingIdGenerator idGenerator)
+    {
+        /**
+         * @return the blocks produced by the macro
+         * @throws Exception the error thrown by the macro
+         */
+        List<Block> get() throws Exception
+        {
+            if (this.error instanceof Error e) {
+                throw e;
+            } else if (this.error instanceof Exception e) {
+                throw e;
+            }
+
+            return this.blocks;
+        }
+
+        /**
+         * @param block the macro block
+         * @return true if the macro block was not modified since the macro was executed
+         */
+        boolean isUpToDate(MacroBlock block)
+        {
+            return Objects.equals(this.content, block.getContent()) && this.parameters.equals(block.getParameters());
+        }
+    }
+
+    /**
+     * An id generated during the execution of a macro.
+     *
+     * @param prefix the prefix passed to {@link IdGenerator#generateUniqueId(String, String)}
+     * @param text the text passed to {@link IdGenerator#generateUniqueId(String, String)}
+     * @param id the generated id
+     */
+    private record GeneratedId(String prefix, String text, String id)
+    {
+    }
+
+    /**
+     * A copy of the id generator of the document which records the ids generated by a macro, so that they can be
+     * generated again with the id generator of the document once the macro is reached.
+     */
+    static final class RecordingIdGenerator extends IdGenerator
+    {
+        private final List<GeneratedId> generatedIds = new ArrayList<>();
+
+        private boolean replayable = true;
+
+        RecordingIdGenerator(IdGenerator idGenerator)
+        {
+            super(idGenerator);
+        }
+
+        @Override
+        public String generateUniqueId(String prefix, String text)
+        {
+            String id = super.generateUniqueId(prefix, text);
+
+            synchronized (this.generatedIds) {
+                this.generatedIds.add(new GeneratedId(prefix, text, id));
+            }
+
+            return id;
+        }
+
+        @Override
+        public void remove(String id)
+        {
+            super.remove(id);
+
+            // Removing an id cannot be undone in the id generator of the document.
+            this.replayable = false;
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            super.reset();
+
+            this.replayable = false;
+        }
+
+        /**
+         * Generate again the recorded ids with the passed id generator.
+         *
+         * @param idGenerator the id generator of the document
+         * @return true if the passed id generator produced the same ids, in which case they are now saved in it
+         */
+        boolean replay(IdGenerator idGenerator)
+        {
+            if (!this.replayable) {
+                return false;
+            }
+
+            synchronized (this.generatedIds) {
+                for (int i = 0; i < this.generatedIds.size(); i++) {
+                    GeneratedId generatedId = this.generatedIds.get(i);
+                    String id = idGenerator.generateUniqueId(generatedId.prefix(), generatedId.text());
+                    if (!id.equals(generatedId.id())) {
+                        // The ids are not the ones a serial execution would have produced, forget them.
+                        idGenerator.remove(id);
+                        for (int j = i - 1; j >= 0; j--) {
+                            idGenerator.remove(this.generatedIds.get(j).id());
+                        }
+
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private final MutableRenderingContext renderingContext;
+
+    private final RenderingInstrumentation instrumentation;
+
+    private final MacroResultCache macroResultCache;
+
+    private final Map<MacroBlock, MacroResult> results = new IdentityHashMap<>();
+
+    /**
+     * @param renderingContext the rendering context to propagate to the threads executing the macros
+     * @param instrumentation used to report the duration of each macro execution
+     * @param macroResultCache used to reuse the cached results of the cacheable macros instead of executing them
+     */
+    ConcurrentMacroExecutor(MutableRenderingContext renderingContext, RenderingInstrumentation instrumentation,
+        MacroResultCache macroResultCache)
+    {
+        this.renderingContext = renderingContext;
+        this.instrumentation = instrumentation;
+        this.macroResultCache = macroResultCache;
+    }
+
+    /**
+     * Execute the passed macros concurrently. Their results are kept until {@link #getResult(MacroBlock, IdGenerator)}
+     * is called.
+     *
+     * @param tasks the macros to execute, in the order in which they are going to be reached
+     * @param context the context of the current macro transformation
+     */
+    void execute(List<MacroTask> tasks, MacroTransformationContext context)
+    {
+        IdGenerator idGenerator = context.getIdGenerator();
+
+        List<RecordingIdGenerator> idGenerators = new ArrayList<>(tasks.size());
+        List<Future<MacroResult>> futures = new ArrayList<>(tasks.size());
+        // Closing the executor waits for all the macros to be executed.
+        try (ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Macro Execution Worker-", 0).factory())) {
+            for (MacroTask task : tasks) {
+                // All the macros start from the state of the id generator before the first one is executed.
+                RecordingIdGenerator taskIdGenerator =
+                    idGenerator != null ? new RecordingIdGenerator(idGenerator) : null;
+                idGenerators.add(taskIdGenerator);
+                futures.add(executor.submit(
+                    this.renderingContext.withCurrentContext(() -> execute(task, taskIdGenerator, context))));
+            }
+        }
+
+        for (int i = 0; i < tasks.size(); i++) {
+            MacroBlock block = tasks.get(i).block();
+            MacroResult result;
+            try {
+                result = futures.get(i).get();
+            } catch (ExecutionException e) {
+                result = new MacroResult(new LinkedHashMap<>(block.getParameters()), block.getContent(), null,
+                    e.getCause(), false, idGenerators.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                // Let the macros be executed again when they are reached.
+                return;
+            }
+            this.results.put(block, result);
+        }
+    }
+
+    private MacroResult execute(MacroTask task, RecordingIdGenerator idGenerator, MacroTransformationContext context)
+        throws Exception
+    {
+        MacroBlock block = task.block();
+        Map<String, String> parameters = new LinkedHashMap<>(block.getParameters());
+        String content = block.getContent();
+
+        // Each thread needs its own context since it holds the current macro block.
+        MacroTransformationContext taskContext = context.clone();
+        taskContext.setInline(block.isInline());
+        taskContext.setCurrentMacroBlock(block);
+        taskContext.setIdGenerator(idGenerator);
+        this.renderingContext.setCurrentBlock(block);
+
+        if (task.macro().getDescriptor().isCacheable()) {
+            List<Block> cachedBlocks = this.macroResultCache.get(block, taskContext);
+            if (cachedBlocks != null) {
+                return new MacroResult(parameters, content, cachedBlocks, null, true, idGenerator);
+            }
+        }
+
+        List<Block> blocks =
+            MacroTransformation.executeMacro(task.macro(), task.parameters(), block, taskContext, this.instrumentation);
+
+        return new MacroResult(parameters, content, blocks, null, false, idGenerator);
+    }
+
+    /**
+     * @param block the macro block
+     * @return true if the macro was already executed and its result was not yet retrieved
+     */
+    boolean hasResult(MacroBlock block)
+    {
+        return this.results.containsKey(block);
+    }
+
+    /**
+     * @param block the macro block
+     * @param idGenerator the id generator of the document, in which the ids generated by the macro are saved
+     * @return the result of the execution of the macro or {@code null} if the macro was not already executed, if the
+     *         macro block was modified since then or if the macro generated different ids than a serial execution
+     */
+    MacroResult getResult(MacroBlock block, IdGenerator idGenerator)
+    {
+        MacroResult result = this.results.remove(block);
+
+        if (result == null || !result.isUpToDate(block)) {
+            return null;
+        }
+
+        return result.idGenerator() == null || idGenerator == null || result.idGenerator().replay(idGenerator)
+            ? result : null;
+    }
+}
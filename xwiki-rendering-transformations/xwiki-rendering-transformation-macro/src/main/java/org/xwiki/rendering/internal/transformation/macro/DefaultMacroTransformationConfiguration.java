@@ -45,6 +45,10 @@ public class DefaultMacroTransformationConfiguration implements MacroTransformat
 
     private Set<String> hiddenCategories = Set.of();
 
+    private int maxConcurrentIsolatedExecutions = 1;
+
+    private int resultCacheSize = 100;
+
     @Override
     public Properties getCategories()
     {
@@ -57,6 +61,18 @@ public Set<String> getHiddenCategories()
         return this.hiddenCategories;
     }
 
+    @Override
+    public int getMaxConcurrentIsolatedExecutions()
+    {
+        return this.maxConcurrentIsolatedExecutions;
+    }
+
+    @Override
+    public int getResultCacheSize()
+    {
+        return this.resultCacheSize;
+    }
+
     /**
      * Set the categories of the macro.
      *
@@ -81,4 +97,26 @@ public void setHiddenCategories(Set<String> hiddenCategories)
     {
         this.hiddenCategories = hiddenCategories;
     }
+
+    /**
+     * Set the maximum number of isolated macros to execute at the same time.
+     *
+     * @param maxConcurrentIsolatedExecutions the maximum number of isolated macros to execute at the same time
+     * @since 18.7.0RC1
+     */
+    public void setMaxConcurrentIsolatedExecutions(int maxConcurrentIsolatedExecutions)
+    {
+        this.maxConcurrentIsolatedExecutions = maxConcurrentIsolatedExecutions;
+    }
+
+    /**
+     * Set the maximum number of results of cacheable macros to keep.
+     *
+     * @param resultCacheSize the maximum number of results of cacheable macros to keep
+     * @since 18.7.0RC1
+     */
+    public void setResultCacheSize(int resultCacheSize)
+    {
+        this.resultCacheSize = resultCacheSize;
+    }
 }
@@ -0,0 +1,323 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.macro;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.xwiki.properties.BeanDescriptor;
+import org.xwiki.properties.BeanManager;
+import org.xwiki.properties.ConverterManager;
+import org.xwiki.properties.PropertyDescriptor;
+import org.xwiki.properties.PropertyException;
+import org.xwiki.properties.PropertyMandatoryException;
+import org.xwiki.properties.RawProperties;
+
+/**
+ * Create and populate the parameters bean of a macro without resolving again, for each macro execution, the
+ * constructor, the properties and their setters.
+ * <p>
+ * The binding follows the same rules as {@link BeanManager#populate(Object, Map)}: the names of the parameters are
+ * case-insensitive, unknown parameters are ignored, missing mandatory parameters and conversion errors fail the
+ * binding. Beans accepting raw properties or using JSR 303 constraints are still populated by the
+ * {@link BeanManager}.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+final class MacroParametersBinder
+{
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * The maximum number of converted values to remember for each property.
+     */
+    private static final int CONVERTED_VALUES_SIZE = 32;
+
+    /**
+     * The converted values which are immutable and can thus be shared between several beans.
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class,
+        Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+    private static final Set<String> VALIDATION_PACKAGES = Set.of("javax.validation", "jakarta.validation");
+
+    /**
+     * A property of the bean with everything needed to set its value.
+     */
+    private static final class BoundProperty
+    {
+        private final String id;
+
+        private final Type type;
+
+        private final Class<?> typeClass;
+
+        private final boolean mandatory;
+
+        private final MethodHandle setter;
+
+        private final Map<String, Object> convertedValues = new ConcurrentHashMap<>();
+
+        BoundProperty(PropertyDescriptor descriptor, MethodHandle setter)
+        {
+            this.id = descriptor.getId();
+            this.type = descriptor.getPropertyType();
+            this.typeClass = TypeUtils.getRawType(this.type, null);
+            this.mandatory = descriptor.isMandatory();
+            this.setter = setter;
+        }
+    }
+
+    private final Class<?> beanClass;
+
+    private final Constructor<?> constructor;
+
+    private final BeanManager beanManager;
+
+    private final ConverterManager converterManager;
+
+    /**
+     * The properties of the bean, in the order in which they are populated, or {@code null} if the bean is populated
+     * by the {@link BeanManager}.
+     */
+    private final BoundProperty[] properties;
+
+    /**
+     * The index of each property, by lower case identifier.
+     */
+    private final Map<String, Integer> indexes;
+
+    private MacroParametersBinder(Class<?> beanClass, Constructor<?> constructor, BoundProperty[] properties,
+        BeanManager beanManager, ConverterManager converterManager)
+    {
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.properties = properties;
+        this.beanManager = beanManager;
+        this.converterManager = converterManager;
+
+        if (properties != null) {
+            this.indexes = new HashMap<>(properties.length * 2);
+            for (int i = 0; i < properties.length; i++) {
+                this.indexes.put(properties[i].id.toLowerCase(Locale.ROOT), i);
+            }
+        } else {
+            this.indexes = Map.of();
+        }
+    }
+
+    /**
+     * Resolve everything needed to create and populate the passed parameters bean class.
+     *
+     * @param beanClass the class of the parameters bean
+     * @param beanManager used to get the properties of the bean and to populate the beans which cannot be compiled
+     * @param converterManager used to convert the parameter values
+     * @return the binder for the passed class
+     */
+    static MacroParametersBinder compile(Class<?> beanClass, BeanManager beanManager,
+        ConverterManager converterManager)
+    {
+        Constructor<?> constructor;
+        try {
+            constructor = beanClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            // The error will be reported when trying to create the bean
+            constructor = null;
+        }
+
+        return new MacroParametersBinder(beanClass, constructor, compileProperties(beanClass, beanManager),
+            beanManager, converterManager);
+    }
+
+    private static BoundProperty[] compileProperties(Class<?> beanClass, BeanManager beanManager)
+    {
+        if (RawProperties.class.isAssignableFrom(beanClass) || isValidated(beanClass)) {
+            return null;
+        }
+
+        BeanDescriptor beanDescriptor = beanManager.getBeanDescriptor(beanClass);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        List<BoundProperty> boundProperties = new ArrayList<>();
+        for (PropertyDescriptor descriptor : beanDescriptor.getProperties()) {
+            MethodHandle setter;
+            try {
+                if (descriptor.getWriteMethod() != null) {
+                    setter = lookup.unreflect(descriptor.getWriteMethod());
+                } else if (descriptor.getField() != null) {
+                    setter = lookup.unreflectSetter(descriptor.getField());
+                } else {
+                    setter = null;
+                }
+            } catch (IllegalAccessException e) {
+                // Let the bean manager deal with it
+                return null;
+            }
+
+            boundProperties.add(new BoundProperty(descriptor,
+                setter != null ? setter.asType(SETTER_TYPE) : null));
+        }
+
+        return boundProperties.toArray(new BoundProperty[0]);
+    }
+
+    /**
+     * @return true if the class or its members are annotated with JSR 303 constraints
+     */
+    private static boolean isValidated(Class<?> beanClass)
+    {
+        for (Class<?> currentClass = beanClass; currentClass != null && currentClass != Object.class;
+            currentClass = currentClass.getSuperclass()) {
+            if (isValidated((AnnotatedElement) currentClass)) {
+                return true;
+            }
+            for (AnnotatedElement element : currentClass.getDeclaredFields()) {
+                if (isValidated(element)) {
+                    return true;
+                }
+            }
+            for (AnnotatedElement element : currentClass.getDeclaredMethods()) {
+                if (isValidated(element)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isValidated(AnnotatedElement element)
+    {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (isValidationAnnotation(annotation.annotationType())) {
+                return true;
+            }
+            // Custom constraints are annotated with @Constraint
+            for (Annotation metaAnnotation : annotation.annotationType().getAnnotations()) {
+                if (isValidationAnnotation(metaAnnotation.annotationType())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isValidationAnnotation(Class<? extends Annotation> annotationType)
+    {
+        String packageName = annotationType.getPackageName();
+
+        return VALIDATION_PACKAGES.stream()
+            .anyMatch(validationPackage -> packageName.equals(validationPackage)
+                || packageName.startsWith(validationPackage + '.'));
+    }
+
+    /**
+     * @return a new instance of the parameters bean
+     * @throws ReflectiveOperationException when failing to create the bean
+     */
+    Object newInstance() throws ReflectiveOperationException
+    {
+        return this.constructor != null ? this.constructor.newInstance()
+            : this.beanClass.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Set the passed parameters on the bean.
+     *
+     * @param bean the parameters bean
+     * @param parameters the parameters of the macro
+     * @throws PropertyException when a parameter is invalid or a mandatory parameter is missing
+     */
+    void populate(Object bean, Map<String, String> parameters) throws PropertyException
+    {
+        if (this.properties == null) {
+            this.beanManager.populate(bean, parameters);
+
+            return;
+        }
+
+        // Find the value of each property, the last one wins when the same parameter is specified several times with
+        // a different case
+        String[] values = new String[this.properties.length];
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            Integer index = this.indexes.get(parameter.getKey().toLowerCase(Locale.ROOT));
+            if (index != null) {
+                values[index] = parameter.getValue();
+            }
+        }
+
+        for (int i = 0; i < this.properties.length; i++) {
+            BoundProperty property = this.properties[i];
+            if (values[i] != null) {
+                setValue(bean, property, values[i]);
+            } else if (property.mandatory) {
+                throw new PropertyMandatoryException(property.id);
+            }
+        }
+    }
+
+    private void setValue(Object bean, BoundProperty property, String value) throws PropertyException
+    {
+        try {
+            Object convertedValue = convert(property, value);
+            if (property.setter != null) {
+                property.setter.invokeExact(bean, convertedValue);
+            }
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new PropertyException("Failed to populate property [" + property.id + "]", e);
+        }
+    }
+
+    private Object convert(BoundProperty property, String value)
+    {
+        if (property.typeClass == String.class || property.typeClass == Object.class) {
+            return value;
+        }
+
+        Object convertedValue = property.convertedValues.get(value);
+        if (convertedValue == null) {
+            convertedValue = this.converterManager.convert(property.type, value);
+
+            // Only remember the values which can be shared between beans
+            if (convertedValue != null && (IMMUTABLE_TYPES.contains(convertedValue.getClass())
+                || convertedValue instanceof Enum) && property.convertedValues.size() < CONVERTED_VALUES_SIZE) {
+                property.convertedValues.put(value, convertedValue);
+            }
+        }
+
+        return convertedValue;
+    }
+}
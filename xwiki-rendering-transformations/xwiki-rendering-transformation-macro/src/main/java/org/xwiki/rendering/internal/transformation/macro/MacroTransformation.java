@@ -38,24 +38,29 @@
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.properties.BeanManager;
+import org.xwiki.properties.ConverterManager;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.MacroMarkerBlock;
 import org.xwiki.rendering.block.MetaDataBlock;
 import org.xwiki.rendering.block.match.BlockMatcher;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
 import org.xwiki.rendering.internal.transformation.MutableRenderingContext;
 import org.xwiki.rendering.listener.MetaData;
 import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroExecutionException;
 import org.xwiki.rendering.macro.MacroId;
 import org.xwiki.rendering.macro.MacroLookupException;
 import org.xwiki.rendering.macro.MacroManager;
 import org.xwiki.rendering.macro.MacroNotFoundException;
+import org.xwiki.rendering.macro.MacroResultCache;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.AbstractTransformation;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 import org.xwiki.rendering.transformation.RenderingContext;
 import org.xwiki.rendering.transformation.TransformationContext;
 import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.macro.MacroTransformationConfiguration;
 import org.xwiki.rendering.util.ErrorBlockGenerator;
 import org.xwiki.text.XWikiToStringBuilder;
 
@@ -232,6 +237,29 @@ public List<MacroLookupExceptionElement> getErrors()
             return this.errors;
         }
 
+        /**
+         * @param macroItem the macro which was just returned by {@link #getNextBlock()}
+         * @param maxCount the maximum number of macros to return
+         * @return the next macros to process which have the same priority as the passed macro, in the order they will
+         *         be returned by {@link #getNextBlock()}
+         */
+        public List<MacroItem> getNextBlocksWithSamePriority(MacroItem macroItem, int maxCount)
+        {
+            List<MacroItem> items = new ArrayList<>();
+            if (this.priorityQueue != null) {
+                while (items.size() < maxCount && !this.priorityQueue.isEmpty()
+                    && this.priorityQueue.peek().macro().compareTo(macroItem.macro()) == 0)
+                {
+                    items.add(this.priorityQueue.poll());
+                }
+
+                // Put them back since they still need to be returned by getNextBlock().
+                this.priorityQueue.addAll(items);
+            }
+
+            return items;
+        }
+
         public BlockMatcher getChildrenMatcher(MacroItem parentMacro)
         {
             return new ChildrenMatcher(parentMacro);
@@ -317,6 +345,12 @@ private void matchBlock(Block block, int[] prefix)
     @Inject
     private BeanManager beanManager;
 
+    /**
+     * Used to convert the macro parameters values.
+     */
+    @Inject
+    private ConverterManager converterManager;
+
     /**
      * Used to updated the rendering context.
      */
@@ -335,11 +369,32 @@ private void matchBlock(Block block, int[] prefix)
     @Inject
     private IsolatedExecutionConfiguration isolatedExecutionConfiguration;
 
+    @Inject
+    private MacroTransformationConfiguration configuration;
+
+    @Inject
+    private MacroResultCache macroResultCache;
+
+    @Inject
+    private RenderingInstrumentation instrumentation;
+
     /**
      * Used to generate Macro error blocks when a Macro fails to execute.
      */
     private MacroErrorManager macroErrorManager;
 
+    /**
+     * The compiled binders of the macro parameters bean classes.
+     */
+    private final ClassValue<MacroParametersBinder> parametersBinders = new ClassValue<>()
+    {
+        @Override
+        protected MacroParametersBinder computeValue(Class<?> type)
+        {
+            return MacroParametersBinder.compile(type, beanManager, converterManager);
+        }
+    };
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -363,6 +418,13 @@ public void transform(Block rootBlock, TransformationContext context) throws Tra
 
         PriorityMacroBlockMatcher priorityMacroBlockMatcher = new PriorityMacroBlockMatcher(context.getSyntax());
 
+        // Isolated macros with the same priority are executed concurrently only when explicitly enabled.
+        int maxConcurrentExecutions = this.configuration.getMaxConcurrentIsolatedExecutions();
+        ConcurrentMacroExecutor concurrentExecutor = maxConcurrentExecutions > 1
+            ? new ConcurrentMacroExecutor((MutableRenderingContext) this.renderingContext, this.instrumentation,
+                this.macroResultCache)
+            : null;
+
         // Counter to prevent infinite recursion if a macro generates the same macro for example.
         for (int recursions = 0; recursions < this.maxRecursions;) {
             // 1) Get highest priority macros.
@@ -413,32 +475,57 @@ public void transform(Block rootBlock, TransformationContext context) throws Tra
                 macroContext.setCurrentMacroBlock(macroBlock);
                 ((MutableRenderingContext) this.renderingContext).setCurrentBlock(macroBlock);
 
-                // Populate and validate macro parameters.
-                Object macroParameters =
-                    macro.getDescriptor().getParametersBeanClass().getDeclaredConstructor().newInstance();
-                try {
-                    this.beanManager.populate(macroParameters, macroBlock.getParameters());
-                } catch (Throwable e) {
-                    // One macro parameter was invalid.
-                    // The macro will not be executed and we generate an error message instead of the macro
-                    // execution result.
-                    this.macroErrorManager.generateError(macroBlock, TM_INVALIDMACROPARAMETER,
-                        "Invalid macro parameters used for the [{}] macro.", null, macroBlock.getId(), e);
-
-                    continue;
-                }
+                // Use the result of the macro if it was already executed along with a previous macro. Since the macro
+                // is isolated, there is no need to rescan.
+                boolean cacheable = macro.getDescriptor().isCacheable();
+                ConcurrentMacroExecutor.MacroResult concurrentResult = concurrentExecutor != null
+                    ? concurrentExecutor.getResult(macroBlock, macroContext.getIdGenerator()) : null;
+                // Reuse the result of a previous execution of a cacheable macro with the same input. Since the macro
+                // is not executed it cannot modify the XDOM, so there is no need to rescan.
+                List<Block> cachedBlocks =
+                    concurrentResult == null && cacheable ? this.macroResultCache.get(macroBlock, macroContext) : null;
+                if (concurrentResult != null) {
+                    newBlocks = concurrentResult.get();
+
+                    if (cacheable && !concurrentResult.cached()) {
+                        cacheResult(macroBlock, macroContext, newBlocks);
+                    }
+                } else if (cachedBlocks != null) {
+                    newBlocks = cachedBlocks;
+                } else {
+                    // Populate and validate macro parameters.
+                    MacroParametersBinder parametersBinder =
+                        this.parametersBinders.get(macro.getDescriptor().getParametersBeanClass());
+                    Object macroParameters = parametersBinder.newInstance();
+                    try {
+                        parametersBinder.populate(macroParameters, macroBlock.getParameters());
+                    } catch (Throwable e) {
+                        // One macro parameter was invalid.
+                        // The macro will not be executed and we generate an error message instead of the macro
+                        // execution result.
+                        this.macroErrorManager.generateError(macroBlock, TM_INVALIDMACROPARAMETER,
+                            "Invalid macro parameters used for the [{}] macro.", null, macroBlock.getId(), e);
 
-                // Rescan if either the indexes of the macros get too long or the macro's execution isn't isolated.
-                // The value "64" was chosen because 64 ints should hardly cause any impact, but having a hierarchy of
-                // 64 nested macros seems already pretty unlikely.
-                // In the worst case, a very deep tree of macros, this could cause a re-scan every 63 macro executions.
-                if (macroItem.index().length >= 64
-                    || !this.isolatedExecutionConfiguration.isExecutionIsolated(macroBlock.getId(),
-                    ((Macro<Object>) macro).isExecutionIsolated(macroParameters, macroBlock.getContent())))
-                {
-                    priorityMacroBlockMatcher.reset();
+                        continue;
+                    }
+
+                    // Rescan if the macro's execution isn't isolated.
+                    boolean isolated = isExecutionIsolated(macroItem, macroParameters);
+                    if (!isolated) {
+                        priorityMacroBlockMatcher.reset();
+                    }
+                    if (concurrentExecutor != null) {
+                        newBlocks = executeConcurrently(macroItem, macroParameters, isolated, macroContext,
+                            priorityMacroBlockMatcher, concurrentExecutor, maxConcurrentExecutions);
+                    } else {
+                        newBlocks =
+                            executeMacro(macro, macroParameters, macroBlock, macroContext, this.instrumentation);
+                    }
+
+                    if (cacheable) {
+                        cacheResult(macroBlock, macroContext, newBlocks);
+                    }
                 }
-                newBlocks = ((Macro) macro).execute(macroParameters, macroBlock.getContent(), macroContext);
             } catch (Throwable e) {
                 // The Macro failed to execute.
                 // The macro will not be executed and we generate an error message instead of the macro
@@ -485,6 +572,117 @@ public void transform(Block rootBlock, TransformationContext context) throws Tra
         }
     }
 
+    /**
+     * Execute a macro and report the duration of its execution when the instrumentation is enabled.
+     *
+     * @param macro the macro to execute
+     * @param parameters the populated parameters of the macro
+     * @param macroBlock the macro block
+     * @param context the context of the macro execution
+     * @param instrumentation used to report the duration of the macro execution
+     * @return the blocks produced by the macro
+     * @throws MacroExecutionException when the macro fails to execute
+     */
+    static List<Block> executeMacro(Macro<?> macro, Object parameters, MacroBlock macroBlock,
+        MacroTransformationContext context, RenderingInstrumentation instrumentation) throws MacroExecutionException
+    {
+        if (!instrumentation.isEnabled()) {
+            return ((Macro) macro).execute(parameters, macroBlock.getContent(), context);
+        }
+
+        long start = System.nanoTime();
+        List<Block> blocks = null;
+        boolean failed = true;
+        try {
+            blocks = ((Macro) macro).execute(parameters, macroBlock.getContent(), context);
+            failed = false;
+
+            return blocks;
+        } finally {
+            instrumentation.onMacroExecution(macroBlock.getId(), context.isInline(), System.nanoTime() - start,
+                blocks != null ? blocks.size() : 0, failed);
+        }
+    }
+
+    private boolean isExecutionIsolated(MacroItem macroItem, Object macroParameters)
+    {
+        // Consider the execution as not isolated if the indexes of the macros get too long.
+        // The value "64" was chosen because 64 ints should hardly cause any impact, but having a hierarchy of
+        // 64 nested macros seems already pretty unlikely.
+        // In the worst case, a very deep tree of macros, this could cause a re-scan every 63 macro executions.
+        return macroItem.index().length < 64
+            && this.isolatedExecutionConfiguration.isExecutionIsolated(macroItem.block().getId(),
+            ((Macro<Object>) macroItem.macro()).isExecutionIsolated(macroParameters, macroItem.block().getContent()));
+    }
+
+    private void cacheResult(MacroBlock macroBlock, MacroTransformationContext macroContext, List<Block> newBlocks)
+    {
+        // The cache keeps its own copy of the result since the returned blocks are going to be modified.
+        if (newBlocks != null && macroBlock.getParent() != null) {
+            this.macroResultCache.put(macroBlock, macroContext, newBlocks);
+        }
+    }
+
+    private List<Block> executeConcurrently(MacroItem macroItem, Object macroParameters, boolean isolated,
+        MacroTransformationContext macroContext, PriorityMacroBlockMatcher priorityMacroBlockMatcher,
+        ConcurrentMacroExecutor concurrentExecutor, int maxConcurrentExecutions) throws Exception
+    {
+        MacroBlock macroBlock = macroItem.block();
+
+        // Execute the next isolated macros with the same priority at the same time.
+        List<ConcurrentMacroExecutor.MacroTask> nextTasks = isolated
+            ? getConcurrentTasks(macroItem, priorityMacroBlockMatcher, concurrentExecutor, maxConcurrentExecutions - 1)
+            : List.of();
+        if (!nextTasks.isEmpty()) {
+            List<ConcurrentMacroExecutor.MacroTask> tasks = new ArrayList<>(nextTasks.size() + 1);
+            tasks.add(new ConcurrentMacroExecutor.MacroTask(macroBlock, macroItem.macro(), macroParameters));
+            tasks.addAll(nextTasks);
+            concurrentExecutor.execute(tasks, macroContext);
+
+            ConcurrentMacroExecutor.MacroResult result =
+                concurrentExecutor.getResult(macroBlock, macroContext.getIdGenerator());
+            if (result != null) {
+                return result.get();
+            }
+        }
+
+        return executeMacro(macroItem.macro(), macroParameters, macroBlock, macroContext, this.instrumentation);
+    }
+
+    private List<ConcurrentMacroExecutor.MacroTask> getConcurrentTasks(MacroItem macroItem,
+        PriorityMacroBlockMatcher priorityMacroBlockMatcher, ConcurrentMacroExecutor concurrentExecutor, int maxCount)
+    {
+        List<ConcurrentMacroExecutor.MacroTask> tasks = new ArrayList<>();
+        for (MacroItem nextItem : priorityMacroBlockMatcher.getNextBlocksWithSamePriority(macroItem, maxCount)) {
+            MacroBlock nextBlock = nextItem.block();
+            Macro<?> nextMacro = nextItem.macro();
+
+            // Skip the macros already executed and the ones which are going to fail (the error is generated when
+            // they are reached).
+            if (concurrentExecutor.hasResult(nextBlock) || (nextBlock.isInline() && !nextMacro.supportsInlineMode())) {
+                continue;
+            }
+            Object nextParameters;
+            try {
+                MacroParametersBinder parametersBinder =
+                    this.parametersBinders.get(nextMacro.getDescriptor().getParametersBeanClass());
+                nextParameters = parametersBinder.newInstance();
+                parametersBinder.populate(nextParameters, nextBlock.getParameters());
+            } catch (Exception e) {
+                continue;
+            }
+
+            // The following macros might depend on the result of a macro which is not isolated.
+            if (!isExecutionIsolated(nextItem, nextParameters)) {
+                break;
+            }
+
+            tasks.add(new ConcurrentMacroExecutor.MacroTask(nextBlock, nextMacro, nextParameters));
+        }
+
+        return tasks;
+    }
+
     private void processErrors(PriorityMacroBlockMatcher priorityMacroBlockMatcher)
     {
         if (priorityMacroBlockMatcher.getErrors() != null) {
@@ -38,6 +38,7 @@
 import org.xwiki.rendering.macro.descriptor.DefaultParameterDescriptor;
 import org.xwiki.rendering.macro.descriptor.MacroDescriptor;
 import org.xwiki.rendering.macro.descriptor.ParameterDescriptor;
+import org.xwiki.stability.Unstable;
 
 /**
  * Helper to implement Macro, providing some default implementation. We recommend Macro writers to extend this class.
@@ -128,6 +129,11 @@
      */
     private Set<String> defaultCategories;
 
+    /**
+     * @see MacroDescriptor#isCacheable()
+     */
+    private boolean cacheable;
+
     /**
      * Creates a new {@link Macro} instance.
      *
@@ -204,6 +210,7 @@ public void initialize() throws InitializationException
             this.contentDescriptor, this.beanManager.getBeanDescriptor(this.parametersBeanClass));
         descriptor.setDefaultCategories(this.defaultCategories);
         descriptor.setSupportsInlineMode(this.supportsInlineMode());
+        descriptor.setCacheable(this.cacheable);
         setDescriptor(descriptor);
     }
 
@@ -263,6 +270,24 @@ protected void setDefaultCategories(Set<String> defaultCategories)
         }
     }
 
+    /**
+     * Allows sub-classes to indicate that the result of the macro execution can be cached. This method only has an
+     * effect if the internal {@link MacroDescriptor} is of type {@link AbstractMacroDescriptor}.
+     *
+     * @param cacheable {@code true} if the result of the macro execution can be cached
+     * @see MacroDescriptor#isCacheable()
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    protected void setCacheable(boolean cacheable)
+    {
+        this.cacheable = cacheable;
+
+        if (getDescriptor() instanceof AbstractMacroDescriptor abstractMacroDescriptor) {
+            abstractMacroDescriptor.setCacheable(cacheable);
+        }
+    }
+
     /**
      * Helper to get the proper metadata for non generated content (i.e. content that has not gone through a
      * Transformation). This content can be used for inline editing.
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.macro;
+
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Keeps the result of the execution of cacheable macros (see
+ * {@link org.xwiki.rendering.macro.descriptor.MacroDescriptor#isCacheable()}) so that it can be reused when the same
+ * macro is executed again with the same input.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+@Role
+public interface MacroResultCache
+{
+    /**
+     * @param macroBlock the macro to execute
+     * @param macroContext the context of the macro execution
+     * @return a copy of the cached result of the macro execution, or {@code null} if it's not cached
+     */
+    List<Block> get(MacroBlock macroBlock, MacroTransformationContext macroContext);
+
+    /**
+     * Remember the result of the execution of a macro. The passed blocks are copied and can thus be modified after.
+     *
+     * @param macroBlock the executed macro
+     * @param macroContext the context of the macro execution
+     * @param result the result of the macro execution
+     */
+    void put(MacroBlock macroBlock, MacroTransformationContext macroContext, List<Block> result);
+
+    /**
+     * Forget the cached results of the macro with the passed identifier.
+     *
+     * @param macroId the identifier of the macro (as in {@link MacroBlock#getId()})
+     */
+    void invalidate(String macroId);
+
+    /**
+     * Forget all the cached results.
+     */
+    void clear();
+}
@@ -27,6 +27,7 @@
 import org.xwiki.properties.BeanDescriptor;
 import org.xwiki.properties.PropertyDescriptor;
 import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.stability.Unstable;
 
 /**
  * Describe a macro.
@@ -71,6 +72,11 @@ public abstract class AbstractMacroDescriptor implements MacroDescriptor
      */
     private boolean supportsInlineMode;
 
+    /**
+     * @see #isCacheable()
+     */
+    private boolean cacheable;
+
     /**
      * A map containing the {@link ParameterDescriptor} for each parameters supported for this macro.
      * <p>
@@ -190,4 +196,21 @@ public void setSupportsInlineMode(boolean supportsInlineMode)
     {
         this.supportsInlineMode = supportsInlineMode;
     }
+
+    @Override
+    public boolean isCacheable()
+    {
+        return this.cacheable;
+    }
+
+    /**
+     * @param cacheable {@code true} if the result of the macro execution can be cached, {@code false} otherwise
+     * @see #isCacheable()
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public void setCacheable(boolean cacheable)
+    {
+        this.cacheable = cacheable;
+    }
 }
@@ -23,6 +23,7 @@
 import java.util.Set;
 
 import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.stability.Unstable;
 
 /**
  * Describe a Macro (macro description and macro parameters description).
@@ -96,4 +97,18 @@ default boolean supportsInlineMode()
     {
         return false;
     }
+
+    /**
+     * A cacheable macro always produces the same blocks for the same input (macro id, parameters, content, syntax,
+     * restricted mode, target syntax and inline mode), without any side effect. Its result can thus be reused instead
+     * of executing it again.
+     *
+     * @return true if the result of the macro execution can be cached
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default boolean isCacheable()
+    {
+        return false;
+    }
 }
@@ -22,6 +22,8 @@
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.util.IdGenerator;
+import org.xwiki.stability.Unstable;
 
 /**
  * The context of the macro transformation process. Contains information such as the current XWiki DOM for the parsed
@@ -51,6 +53,11 @@ public class MacroTransformationContext implements Cloneable
      */
     private Transformation transformation;
 
+    /**
+     * See {@link #getIdGenerator()}.
+     */
+    private IdGenerator idGenerator;
+
     /**
      * Constructor.
      */
@@ -111,6 +118,35 @@ public XDOM getXDOM()
         return this.transformationContext.getXDOM();
     }
 
+    /**
+     * @param idGenerator the generator of the ids of the blocks produced by the current macro, {@code null} to use the
+     *            one of the {@link XDOM}
+     * @see #getIdGenerator()
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public void setIdGenerator(IdGenerator idGenerator)
+    {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * @return the generator to use for the ids of the blocks produced by the current macro (for example the headings
+     *         of its content), by default the id generator of the {@link XDOM}
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public IdGenerator getIdGenerator()
+    {
+        if (this.idGenerator != null) {
+            return this.idGenerator;
+        }
+
+        XDOM xdom = getXDOM();
+
+        return xdom != null ? xdom.getIdGenerator() : null;
+    }
+
     /**
      * @param inline if true then the macro is called in inline mode
      */
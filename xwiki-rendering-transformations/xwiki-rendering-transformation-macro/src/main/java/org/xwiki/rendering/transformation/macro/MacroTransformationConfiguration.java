@@ -23,6 +23,7 @@
 import java.util.Set;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Configuration properties for the Macro Transformation module.
@@ -33,6 +34,12 @@
  * <p>
  * You can also override the default set of hidden macros by defining the
  * {@code rendering.transformation.macro.hiddenCategories} property.
+ * <p>
+ * Isolated macros with the same priority can be executed concurrently by setting the
+ * {@code rendering.transformation.macro.maxConcurrentIsolatedExecutions} property to a value greater than 1.
+ * <p>
+ * The number of results of cacheable macros to keep can be changed with the
+ * {@code rendering.transformation.macro.resultCacheSize} property.
  *
  * @version $Id$
  * @since 2.6RC1
@@ -55,4 +62,31 @@ default Set<String> getHiddenCategories()
     {
         return Set.of();
     }
+
+    /**
+     * Isolated macros (see {@link org.xwiki.rendering.macro.Macro#isExecutionIsolated(Object, String)}) with the same
+     * priority don't depend on each other and can thus be executed concurrently, in which case their implementations
+     * need to be thread safe. Their results are still inserted in the document order.
+     *
+     * @return the maximum number of isolated macros to execute at the same time, 1 to execute the macros one after the
+     *         other
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getMaxConcurrentIsolatedExecutions()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the maximum number of results of cacheable macros (see
+     *         {@link org.xwiki.rendering.macro.descriptor.MacroDescriptor#isCacheable()}) to keep, 0 to disable the
+     *         cache
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default int getResultCacheSize()
+    {
+        return 100;
+    }
 }
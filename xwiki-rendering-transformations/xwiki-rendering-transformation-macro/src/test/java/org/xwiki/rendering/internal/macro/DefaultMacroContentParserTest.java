@@ -19,7 +19,6 @@
  */
 package org.xwiki.rendering.internal.macro;
 
-import java.io.Reader;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -105,7 +104,7 @@ void parseInline() throws Exception
         MacroBlock macroBlock = new MacroBlock("id", Map.of(), "content", false);
         this.macroContext.setCurrentMacroBlock(macroBlock);
 
-        when(this.mockParser1.parse(any(Reader.class))).thenReturn(
+        when(this.mockParser1.parse(any(CharSequence.class))).thenReturn(
             new XDOM(Arrays.<Block>asList(new ParagraphBlock(Arrays.<Block>asList(new WordBlock("word"))))));
 
         assertEquals(new XDOM(Arrays.<Block>asList(new WordBlock("word"))),
@@ -115,7 +114,7 @@ void parseInline() throws Exception
     @Test
     void parseInlineWithStandaloneMacro() throws Exception
     {
-        when(this.mockParser1.parse(any(Reader.class)))
+        when(this.mockParser1.parse(any(CharSequence.class)))
             .thenReturn(new XDOM(Arrays.<Block>asList(new MacroBlock("macro", Collections.emptyMap(), null, false))));
 
         assertEquals(new XDOM(Arrays.<Block>asList(new MacroBlock("macro", Collections.emptyMap(), null, true))),
@@ -125,7 +124,7 @@ void parseInlineWithStandaloneMacro() throws Exception
     @Test
     void parseInlineWithStandaloneMacroWithTransformations() throws Exception
     {
-        when(this.mockParser1.parse(any(Reader.class)))
+        when(this.mockParser1.parse(any(CharSequence.class)))
             .thenReturn(new XDOM(Arrays.<Block>asList(new MacroBlock("macro", Collections.emptyMap(), null, false))));
 
         this.macroContext.setTransformation(mock(Transformation.class));
@@ -140,7 +139,7 @@ void parseInlineWithStandaloneMacroWithTransformations() throws Exception
     @Test
     void parseInlineWithStandaloneMacroWithRestrictedTransformations() throws Exception
     {
-        when(this.mockParser1.parse(any(Reader.class)))
+        when(this.mockParser1.parse(any(CharSequence.class)))
             .thenReturn(
                 new XDOM(Collections.singletonList(new MacroBlock("macro", Collections.emptyMap(), null, false))));
 
@@ -158,7 +157,7 @@ void parseInlineWithStandaloneMacroWithRestrictedTransformations() throws Except
     @Test
     void parseWithCustomSyntax() throws Exception
     {
-        when(this.mockParser2.parse(any(Reader.class))).thenReturn(
+        when(this.mockParser2.parse(any(CharSequence.class))).thenReturn(
             new XDOM(Arrays.<Block>asList(new ParagraphBlock(Arrays.<Block>asList(new WordBlock("word2"))))));
 
         assertEquals(new XDOM(Arrays.<Block>asList(new WordBlock("word2"))),
@@ -195,14 +194,14 @@ void prepareContentWikiUsesFreshIdGenerator() throws Exception
 
         XDOM parsedXDOM = new XDOM(List.of(new ParagraphBlock(List.of(new WordBlock("1")))));
         parsedXDOM.getMetaData().addMetaData(MetaData.SYNTAX, TEST_SYNTAX_1);
-        when(this.mockParser1.parse(any(Reader.class), any(IdGenerator.class))).thenReturn(parsedXDOM);
+        when(this.mockParser1.parse(any(CharSequence.class), any(IdGenerator.class))).thenReturn(parsedXDOM);
 
         this.macroContentParser.prepareContentWiki(macroBlock);
 
         // The macro content must be prepared with a fresh id generator, not the document's one, so that its
         // generated ids start clean and are made unique only when the prepared content is inserted.
         ArgumentCaptor<IdGenerator> idGeneratorCaptor = ArgumentCaptor.forClass(IdGenerator.class);
-        verify(this.mockParser1).parse(any(Reader.class), idGeneratorCaptor.capture());
+        verify(this.mockParser1).parse(any(CharSequence.class), idGeneratorCaptor.capture());
         assertNotSame(documentIdGenerator, idGeneratorCaptor.getValue());
     }
 
@@ -218,10 +217,10 @@ void parsePreparedContent() throws MacroPreparationException, ParseException, Ma
         image.setId("logo");
         XDOM parsedXDOM1 = new XDOM(List.of(new ParagraphBlock(List.of(new WordBlock("1"), image))));
         parsedXDOM1.getMetaData().addMetaData(MetaData.SYNTAX, TEST_SYNTAX_1);
-        when(this.mockParser1.parse(any(), any())).thenReturn(parsedXDOM1);
+        when(this.mockParser1.parse(any(CharSequence.class), any())).thenReturn(parsedXDOM1);
         XDOM parsedXDOM2 = new XDOM(List.of(new ParagraphBlock(List.of(new WordBlock("2")))));
         parsedXDOM2.getMetaData().addMetaData(MetaData.SYNTAX, TEST_SYNTAX_2);
-        when(this.mockParser2.parse(any(), any())).thenReturn(parsedXDOM2);
+        when(this.mockParser2.parse(any(CharSequence.class), any())).thenReturn(parsedXDOM2);
 
         // Prepare without custom syntax
         this.macroContentParser.prepareContentWiki(macroBlock);
@@ -191,6 +191,35 @@ void getMacroWhenMacroRegisteredForAGivenSyntaxOverridesMacroRegisteredForAllSyn
         assertSame(macro1, macroResult2);
     }
 
+    @Test
+    void getMacroWhenMacroIsRegisteredAgain() throws Exception
+    {
+        Macro<?> macro1 = new TestSimpleMacro();
+        DefaultComponentDescriptor<Macro> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(Macro.class);
+        descriptor.setRoleHint("macro");
+        this.componentManager.registerComponent(descriptor, macro1);
+
+        assertSame(macro1, this.macroManager.getMacro(new MacroId("macro")));
+        // The second lookup is served from the cache
+        assertSame(macro1, this.macroManager.getMacro(new MacroId("macro")));
+
+        // Register another macro with the same hint and verify the new macro is returned
+        Macro<?> macro2 = new TestSimpleMacro();
+        descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(Macro.class);
+        descriptor.setRoleHint("macro");
+        this.componentManager.registerComponent(descriptor, macro2);
+
+        assertSame(macro2, this.macroManager.getMacro(new MacroId("macro")));
+        assertSame(macro2, this.macroManager.getMacro(new MacroId("macro", new Syntax(SyntaxType.XWIKI, "2.0"))));
+
+        // Unregister the macro and verify it's not returned anymore
+        this.componentManager.unregisterComponent(Macro.class, "macro");
+
+        assertThrows(MacroNotFoundException.class, () -> this.macroManager.getMacro(new MacroId("macro")));
+    }
+
     /**
      * Verify that we get a log warning when a macro is registered with an invalid hint.
      */
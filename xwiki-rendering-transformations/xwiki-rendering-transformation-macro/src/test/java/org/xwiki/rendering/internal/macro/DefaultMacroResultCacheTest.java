@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.macro;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.listener.HeaderLevel;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.macro.MacroTransformationConfiguration;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DefaultMacroResultCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultMacroResultCacheTest
+{
+    @InjectMockComponents
+    private DefaultMacroResultCache cache;
+
+    @MockComponent
+    private MacroTransformationConfiguration configuration;
+
+    private MacroTransformationContext context;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.configuration.getResultCacheSize()).thenReturn(2);
+
+        this.context = new MacroTransformationContext();
+        this.context.setSyntax(Syntax.XWIKI_2_1);
+    }
+
+    @Test
+    void putAndGet()
+    {
+        MacroBlock macroBlock = new MacroBlock("macro", Map.of("param", "value"), "content", false);
+        List<Block> result = List.of(new ParagraphBlock(List.of(new WordBlock("word"))));
+
+        assertNull(this.cache.get(macroBlock, this.context));
+
+        this.cache.put(macroBlock, this.context, result);
+
+        List<Block> cached = this.cache.get(new MacroBlock("macro", Map.of("param", "value"), "content", false),
+            this.context);
+        assertEquals(result, cached);
+        assertNotSame(result.get(0), cached.get(0));
+
+        // The cached blocks are not affected by modifications of the returned ones
+        cached.get(0).addChild(new WordBlock("other"));
+        assertEquals(result, this.cache.get(macroBlock, this.context));
+
+        // Any difference in the input is a cache miss
+        assertNull(this.cache.get(new MacroBlock("macro", Map.of("param", "other"), "content", false), this.context));
+        assertNull(this.cache.get(new MacroBlock("macro", Map.of("param", "value"), "other", false), this.context));
+        this.context.setSyntax(Syntax.XWIKI_2_0);
+        assertNull(this.cache.get(macroBlock, this.context));
+        this.context.setSyntax(Syntax.XWIKI_2_1);
+        this.context.getTransformationContext().setRestricted(true);
+        assertNull(this.cache.get(macroBlock, this.context));
+    }
+
+    @Test
+    void eviction()
+    {
+        MacroBlock macroBlock1 = new MacroBlock("macro", Map.of(), "1", false);
+        MacroBlock macroBlock2 = new MacroBlock("macro", Map.of(), "2", false);
+        MacroBlock macroBlock3 = new MacroBlock("macro", Map.of(), "3", false);
+
+        this.cache.put(macroBlock1, this.context, List.of(new WordBlock("1")));
+        this.cache.put(macroBlock2, this.context, List.of(new WordBlock("2")));
+        // Make the first result the most recently used one
+        this.cache.get(macroBlock1, this.context);
+        this.cache.put(macroBlock3, this.context, List.of(new WordBlock("3")));
+
+        assertEquals(List.of(new WordBlock("1")), this.cache.get(macroBlock1, this.context));
+        assertNull(this.cache.get(macroBlock2, this.context));
+        assertEquals(List.of(new WordBlock("3")), this.cache.get(macroBlock3, this.context));
+    }
+
+    @Test
+    void invalidate()
+    {
+        MacroBlock macroBlock = new MacroBlock("macro", Map.of(), false);
+        MacroBlock otherMacroBlock = new MacroBlock("other", Map.of(), false);
+
+        this.cache.put(macroBlock, this.context, List.of(new WordBlock("macro")));
+        this.cache.put(otherMacroBlock, this.context, List.of(new WordBlock("other")));
+
+        this.cache.invalidate("macro");
+
+        assertNull(this.cache.get(macroBlock, this.context));
+        assertEquals(List.of(new WordBlock("other")), this.cache.get(otherMacroBlock, this.context));
+
+        this.cache.clear();
+
+        assertNull(this.cache.get(otherMacroBlock, this.context));
+    }
+
+    @Test
+    void putWithGeneratedId()
+    {
+        MacroBlock macroBlock = new MacroBlock("macro", Map.of(), false);
+
+        this.cache.put(macroBlock, this.context,
+            List.of(new HeaderBlock(List.of(new WordBlock("title")), HeaderLevel.LEVEL1, Map.of(), "Htitle")));
+
+        assertNull(this.cache.get(macroBlock, this.context));
+    }
+
+    @Test
+    void disabled()
+    {
+        when(this.configuration.getResultCacheSize()).thenReturn(0);
+
+        MacroBlock macroBlock = new MacroBlock("macro", Map.of(), false);
+        this.cache.put(macroBlock, this.context, List.of(new WordBlock("macro")));
+
+        assertNull(this.cache.get(macroBlock, this.context));
+    }
+}
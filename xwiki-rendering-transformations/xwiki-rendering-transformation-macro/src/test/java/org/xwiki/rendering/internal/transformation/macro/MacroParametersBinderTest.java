@@ -0,0 +1,253 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.internal.transformation.macro;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.properties.BeanManager;
+import org.xwiki.properties.ConverterManager;
+import org.xwiki.properties.PropertyException;
+import org.xwiki.properties.PropertyMandatoryException;
+import org.xwiki.properties.RawProperties;
+import org.xwiki.properties.annotation.PropertyMandatory;
+import org.xwiki.properties.internal.DefaultBeanManager;
+import org.xwiki.properties.internal.DefaultConverterManager;
+import org.xwiki.properties.internal.converter.ConvertUtilsConverter;
+import org.xwiki.properties.internal.converter.EnumConverter;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link MacroParametersBinder}.
+ *
+ * @version $Id$
+ */
+@ComponentList({
+    DefaultBeanManager.class,
+    DefaultConverterManager.class,
+    EnumConverter.class,
+    ConvertUtilsConverter.class
+})
+@ComponentTest
+class MacroParametersBinderTest
+{
+    public enum TestMode
+    {
+        FIRST,
+        SECOND
+    }
+
+    public static class TestParameters
+    {
+        private String id;
+
+        private String name;
+
+        private int count;
+
+        private boolean enabled;
+
+        private TestMode mode;
+
+        public String field;
+
+        public String getId()
+        {
+            return this.id;
+        }
+
+        @PropertyMandatory
+        public void setId(String id)
+        {
+            this.id = id;
+        }
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public int getCount()
+        {
+            return this.count;
+        }
+
+        public void setCount(int count)
+        {
+            this.count = count;
+        }
+
+        public boolean isEnabled()
+        {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled)
+        {
+            this.enabled = enabled;
+        }
+
+        public TestMode getMode()
+        {
+            return this.mode;
+        }
+
+        public void setMode(TestMode mode)
+        {
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof TestParameters other && Objects.equals(this.id, other.id)
+                && Objects.equals(this.name, other.name) && this.count == other.count
+                && this.enabled == other.enabled && this.mode == other.mode && Objects.equals(this.field, other.field);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.id, this.name, this.count, this.enabled, this.mode, this.field);
+        }
+    }
+
+    public static class TestRawParameters implements RawProperties
+    {
+        private final Map<String, Object> rawProperties = new HashMap<>();
+
+        private String name;
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void set(String propertyName, Object value)
+        {
+            this.rawProperties.put(propertyName, value);
+        }
+    }
+
+    @InjectComponentManager
+    private ComponentManager componentManager;
+
+    private BeanManager beanManager;
+
+    private MacroParametersBinder binder;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.beanManager = this.componentManager.getInstance(BeanManager.class);
+        this.binder = MacroParametersBinder.compile(TestParameters.class, this.beanManager,
+            this.componentManager.getInstance(ConverterManager.class));
+    }
+
+    @Test
+    void populate() throws Exception
+    {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("ID", "identifier");
+        parameters.put("Name", "value");
+        parameters.put("count", "42");
+        parameters.put("enabled", "true");
+        parameters.put("mode", "SECOND");
+        parameters.put("field", "field value");
+        parameters.put("unknown", "ignored");
+
+        TestParameters parameters1 = (TestParameters) this.binder.newInstance();
+        this.binder.populate(parameters1, parameters);
+
+        assertEquals("identifier", parameters1.getId());
+        assertEquals("value", parameters1.getName());
+        assertEquals(42, parameters1.getCount());
+        assertTrue(parameters1.isEnabled());
+        assertEquals(TestMode.SECOND, parameters1.getMode());
+        assertEquals("field value", parameters1.field);
+
+        // Populating again must give the same result (the converted values are reused)
+        TestParameters parameters2 = (TestParameters) this.binder.newInstance();
+        this.binder.populate(parameters2, parameters);
+        assertEquals(parameters1, parameters2);
+
+        // Same result as the bean manager
+        TestParameters expected = new TestParameters();
+        this.beanManager.populate(expected, parameters);
+        assertEquals(expected, parameters1);
+    }
+
+    @Test
+    void populateWithoutMandatoryParameter() throws Exception
+    {
+        Object parameters = this.binder.newInstance();
+
+        PropertyMandatoryException exception = assertThrows(PropertyMandatoryException.class,
+            () -> this.binder.populate(parameters, Map.of("name", "value")));
+        assertEquals(assertThrows(PropertyMandatoryException.class,
+            () -> this.beanManager.populate(new TestParameters(), Map.of("name", "value"))).getMessage(),
+            exception.getMessage());
+    }
+
+    @Test
+    void populateWithInvalidValue() throws Exception
+    {
+        Map<String, String> parameters = Map.of("id", "identifier", "mode", "third");
+
+        PropertyException exception = assertThrows(PropertyException.class,
+            () -> this.binder.populate(this.binder.newInstance(), parameters));
+        assertEquals("Failed to populate property [mode]", exception.getMessage());
+    }
+
+    @Test
+    void populateRawProperties() throws Exception
+    {
+        MacroParametersBinder rawBinder = MacroParametersBinder.compile(TestRawParameters.class, this.beanManager,
+            this.componentManager.getInstance(ConverterManager.class));
+
+        TestRawParameters parameters = (TestRawParameters) rawBinder.newInstance();
+        rawBinder.populate(parameters, Map.of("name", "value", "other", "raw"));
+
+        assertEquals("value", parameters.getName());
+        assertEquals("raw", parameters.rawProperties.get("other"));
+    }
+}
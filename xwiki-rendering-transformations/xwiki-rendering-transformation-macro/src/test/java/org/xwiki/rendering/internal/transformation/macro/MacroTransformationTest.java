@@ -24,10 +24,14 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,13 +40,24 @@
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.stubbing.Answer;
 import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
 import org.xwiki.properties.internal.DefaultBeanDescriptor;
 import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.HeaderBlock;
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.ClassBlockMatcher;
+import org.xwiki.rendering.configuration.RenderingConfiguration;
+import org.xwiki.rendering.instrumentation.MacroExecutionStatistics;
+import org.xwiki.rendering.instrumentation.RenderingInstrumentation;
+import org.xwiki.rendering.internal.configuration.DefaultRenderingConfiguration;
+import org.xwiki.rendering.internal.transformation.MutableRenderingContext;
+import org.xwiki.rendering.listener.HeaderLevel;
 import org.xwiki.rendering.listener.Listener;
 import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroExecutionException;
 import org.xwiki.rendering.macro.MacroId;
 import org.xwiki.rendering.macro.descriptor.DefaultMacroDescriptor;
 import org.xwiki.rendering.macro.descriptor.MacroDescriptor;
@@ -51,8 +66,10 @@
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.rendering.transformation.RenderingContext;
 import org.xwiki.rendering.transformation.TransformationContext;
 import org.xwiki.rendering.transformation.TransformationException;
+import org.xwiki.rendering.transformation.macro.MacroTransformationConfiguration;
 import org.xwiki.test.annotation.AllComponents;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectComponentManager;
@@ -61,6 +78,7 @@
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -572,6 +590,187 @@ void testNestedPriorities() throws Exception
         assertEquals(expected, transformAndRenderEvents(dom));
     }
 
+    @Test
+    void transformIsolatedMacrosConcurrently() throws Exception
+    {
+        ((DefaultMacroTransformationConfiguration) this.componentManager.getInstance(
+            MacroTransformationConfiguration.class)).setMaxConcurrentIsolatedExecutions(3);
+
+        // Each execution waits for the two others, which is only possible if they are executed at the same time.
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        RenderingContext renderingContext = this.componentManager.getInstance(RenderingContext.class);
+        createMockMacro("testConcurrent", 100, true, invocation -> {
+            MacroTransformationContext context = invocation.getArgument(2);
+            barrier.await(10, TimeUnit.SECONDS);
+            assertSame(context.getCurrentMacroBlock(), renderingContext.getCurrentBlock());
+            assertSame(context.getXDOM(), renderingContext.getXDOM());
+            return List.of(new WordBlock(invocation.getArgument(1)));
+        });
+        createMockMacro("testNotIsolated", 100, false, invocation -> List.of(new WordBlock("notIsolated")));
+
+        XDOM dom = new XDOM(List.of(
+            new MacroBlock("testConcurrent", Map.of(), "one", false),
+            new MacroBlock("testConcurrent", Map.of(), "two", false),
+            new MacroBlock("testConcurrent", Map.of(), "three", false),
+            new MacroBlock("testNotIsolated", Map.of(), false)
+        ));
+
+        String expected = """
+            beginDocument
+            beginMacroMarkerStandalone [testConcurrent] [] [one]
+            onWord [one]
+            endMacroMarkerStandalone [testConcurrent] [] [one]
+            beginMacroMarkerStandalone [testConcurrent] [] [two]
+            onWord [two]
+            endMacroMarkerStandalone [testConcurrent] [] [two]
+            beginMacroMarkerStandalone [testConcurrent] [] [three]
+            onWord [three]
+            endMacroMarkerStandalone [testConcurrent] [] [three]
+            beginMacroMarkerStandalone [testNotIsolated] []
+            onWord [notIsolated]
+            endMacroMarkerStandalone [testNotIsolated] []
+            endDocument""";
+
+        Execution execution = this.componentManager.getInstance(Execution.class);
+        execution.setContext(new ExecutionContext());
+        try {
+            ((MutableRenderingContext) renderingContext).transformInContext(this.transformation,
+                new TransformationContext(dom, Syntax.XWIKI_2_0), dom);
+        } finally {
+            execution.removeContext();
+        }
+
+        WikiPrinter printer = new DefaultWikiPrinter();
+        BlockRenderer eventBlockRenderer =
+            this.componentManager.getInstance(BlockRenderer.class, Syntax.EVENT_1_0.toIdString());
+        eventBlockRenderer.render(dom, printer);
+        assertEquals(expected, printer.toString());
+    }
+
+    @Test
+    void transformIsolatedMacrosWithHeadingsConcurrently() throws Exception
+    {
+        // Each macro produces a heading with a generated id. When executed concurrently, the macros generate their
+        // id in the reverse order of the document.
+        List<CountDownLatch> generated = List.of(new CountDownLatch(1), new CountDownLatch(1), new CountDownLatch(1),
+            new CountDownLatch(1));
+        MutableBoolean concurrent = new MutableBoolean();
+        createMockMacro("testHeading", 100, true, invocation -> {
+            MacroTransformationContext context = invocation.getArgument(2);
+            int index = Integer.parseInt(context.getCurrentMacroBlock().getParameter("index"));
+            if (concurrent.isTrue() && index + 1 < generated.size()) {
+                generated.get(index + 1).await(10, TimeUnit.SECONDS);
+            }
+            String content = invocation.getArgument(1);
+            String id = context.getIdGenerator().generateUniqueId("H", content);
+            generated.get(index).countDown();
+            return List.of(new HeaderBlock(List.of(new WordBlock(content)), HeaderLevel.LEVEL1, Map.of(), id));
+        });
+
+        XDOM serialDOM = createHeadingMacros();
+        String serialEvents = transformAndRenderEvents(serialDOM);
+
+        ((DefaultMacroTransformationConfiguration) this.componentManager.getInstance(
+            MacroTransformationConfiguration.class)).setMaxConcurrentIsolatedExecutions(4);
+        concurrent.setTrue();
+        XDOM concurrentDOM = createHeadingMacros();
+        RenderingContext renderingContext = this.componentManager.getInstance(RenderingContext.class);
+        Execution execution = this.componentManager.getInstance(Execution.class);
+        execution.setContext(new ExecutionContext());
+        try {
+            ((MutableRenderingContext) renderingContext).transformInContext(this.transformation,
+                new TransformationContext(concurrentDOM, Syntax.XWIKI_2_0), concurrentDOM);
+        } finally {
+            execution.removeContext();
+        }
+        WikiPrinter printer = new DefaultWikiPrinter();
+        this.componentManager.<BlockRenderer>getInstance(BlockRenderer.class, Syntax.EVENT_1_0.toIdString())
+            .render(concurrentDOM, printer);
+
+        List<String> expectedIds = List.of("HTitle", "HOther", "HTitle-1", "HTitle-2");
+        assertEquals(expectedIds, getHeaderIds(serialDOM));
+        assertEquals(expectedIds, getHeaderIds(concurrentDOM));
+        assertEquals(serialEvents, printer.toString());
+    }
+
+    private XDOM createHeadingMacros()
+    {
+        return new XDOM(List.of(
+            new MacroBlock("testHeading", Map.of("index", "0"), "Title", false),
+            new MacroBlock("testHeading", Map.of("index", "1"), "Other", false),
+            new MacroBlock("testHeading", Map.of("index", "2"), "Title", false),
+            new MacroBlock("testHeading", Map.of("index", "3"), "Title", false)
+        ));
+    }
+
+    private List<String> getHeaderIds(XDOM dom)
+    {
+        return dom.<HeaderBlock>getBlocks(new ClassBlockMatcher(HeaderBlock.class), Block.Axes.DESCENDANT).stream()
+            .map(HeaderBlock::getId)
+            .toList();
+    }
+
+    @Test
+    void transformCacheableMacro() throws Exception
+    {
+        MutableInt executions = new MutableInt();
+        createMockMacro("testCacheable", 100, false, invocation -> {
+            executions.increment();
+            return List.of(new WordBlock(invocation.getArgument(1)));
+        });
+        ((DefaultMacroDescriptor) this.componentManager.<Macro<?>>getInstance(Macro.class, "testCacheable")
+            .getDescriptor()).setCacheable(true);
+
+        XDOM dom = new XDOM(List.of(
+            new MacroBlock("testCacheable", Map.of(), "same", false),
+            new MacroBlock("testCacheable", Map.of(), "same", false),
+            new MacroBlock("testCacheable", Map.of(), "other", false)
+        ));
+
+        String expected = """
+            beginDocument
+            beginMacroMarkerStandalone [testCacheable] [] [same]
+            onWord [same]
+            endMacroMarkerStandalone [testCacheable] [] [same]
+            beginMacroMarkerStandalone [testCacheable] [] [same]
+            onWord [same]
+            endMacroMarkerStandalone [testCacheable] [] [same]
+            beginMacroMarkerStandalone [testCacheable] [] [other]
+            onWord [other]
+            endMacroMarkerStandalone [testCacheable] [] [other]
+            endDocument""";
+
+        assertEquals(expected, transformAndRenderEvents(dom));
+        assertEquals(2, executions.intValue());
+    }
+
+    @Test
+    void transformWithMacroStatistics() throws Exception
+    {
+        ((DefaultRenderingConfiguration) this.componentManager.getInstance(RenderingConfiguration.class))
+            .setMacroStatisticsEnabled(true);
+        createMockMacro("testFailing", 100, true, invocation -> {
+            throw new MacroExecutionException("failed");
+        });
+
+        XDOM dom = new XDOM(List.of(
+            new MacroBlock("testsimplemacro", Map.of(), false),
+            new MacroBlock("testsimplemacro", Map.of(), false),
+            new MacroBlock("testFailing", Map.of(), false)
+        ));
+
+        transformAndRenderEvents(dom);
+
+        Map<String, MacroExecutionStatistics> statistics =
+            this.componentManager.<RenderingInstrumentation>getInstance(RenderingInstrumentation.class)
+                .getMacroExecutionStatistics();
+        assertEquals(2, statistics.get("testsimplemacro").getCount());
+        assertEquals(0, statistics.get("testsimplemacro").getErrorCount());
+        assertEquals(2, statistics.get("testsimplemacro").getBlockCount());
+        assertEquals(1, statistics.get("testFailing").getCount());
+        assertEquals(1, statistics.get("testFailing").getErrorCount());
+    }
+
     private void createMockMacro(String macroId, int priority, boolean macroIsolated, Answer<List<Block>> execute)
         throws Exception
     {
@@ -20,6 +20,9 @@
 package org.xwiki.rendering.wikimodel;
 
 import java.io.Reader;
+import java.io.StringReader;
+
+import org.xwiki.stability.Unstable;
 
 /**
  * This is a common interface for all wiki syntax parsers.
@@ -35,4 +38,16 @@
      * @throws WikiParserException
      */
     void parse(Reader reader, IWemListener listener) throws WikiParserException;
+
+    /**
+     * @param content the content to parse
+     * @param listener the listener receiving the events
+     * @throws WikiParserException if the content cannot be parsed
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    default void parse(CharSequence content, IWemListener listener) throws WikiParserException
+    {
+        parse(new StringReader(content.toString()), listener);
+    }
 }
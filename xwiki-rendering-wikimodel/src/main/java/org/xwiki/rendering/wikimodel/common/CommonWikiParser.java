@@ -19,13 +19,16 @@
  */
 package org.xwiki.rendering.wikimodel.common;
 
+import java.io.IOException;
 import java.io.Reader;
 
 import org.xwiki.rendering.wikimodel.IWemListener;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.WikiParserException;
+import org.xwiki.rendering.wikimodel.impl.CharSequenceStream;
 import org.xwiki.rendering.wikimodel.impl.WikiScannerContext;
 import org.xwiki.rendering.wikimodel.internal.common.javacc.CommonWikiScanner;
+import org.xwiki.rendering.wikimodel.internal.common.javacc.ContentCharStream;
 import org.xwiki.rendering.wikimodel.internal.common.javacc.ParseException;
 
 /**
@@ -49,8 +52,21 @@ public CommonWikiParser()
     public void parse(Reader reader, IWemListener listener)
         throws WikiParserException
     {
+        String content;
         try {
-            CommonWikiScanner scanner = new CommonWikiScanner(reader);
+            content = CharSequenceStream.read(reader);
+        } catch (IOException e) {
+            throw new WikiParserException("Failed to read the content", e);
+        }
+
+        parse(content, listener);
+    }
+
+    @Override
+    public void parse(CharSequence content, IWemListener listener) throws WikiParserException
+    {
+        try {
+            CommonWikiScanner scanner = new CommonWikiScanner(new ContentCharStream(content));
             WikiScannerContext context = new WikiScannerContext(listener);
             scanner.parse(context);
         } catch (ParseException e) {
@@ -19,12 +19,15 @@
  */
 package org.xwiki.rendering.wikimodel.creole;
 
+import java.io.IOException;
 import java.io.Reader;
 
 import org.xwiki.rendering.wikimodel.IWemListener;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.WikiParserException;
+import org.xwiki.rendering.wikimodel.impl.CharSequenceStream;
 import org.xwiki.rendering.wikimodel.impl.WikiScannerContext;
+import org.xwiki.rendering.wikimodel.internal.creole.javacc.ContentCharStream;
 import org.xwiki.rendering.wikimodel.internal.creole.javacc.CreoleWikiScanner;
 import org.xwiki.rendering.wikimodel.internal.creole.javacc.ParseException;
 
@@ -49,8 +52,21 @@ public CreoleWikiParser()
     public void parse(Reader reader, IWemListener listener)
         throws WikiParserException
     {
+        String content;
         try {
-            CreoleWikiScanner scanner = new CreoleWikiScanner(reader);
+            content = CharSequenceStream.read(reader);
+        } catch (IOException e) {
+            throw new WikiParserException("Failed to read the content", e);
+        }
+
+        parse(content, listener);
+    }
+
+    @Override
+    public void parse(CharSequence content, IWemListener listener) throws WikiParserException
+    {
+        try {
+            CreoleWikiScanner scanner = new CreoleWikiScanner(new ContentCharStream(content));
             WikiScannerContext context = new WikiScannerContext(listener);
             scanner.parse(context);
         } catch (ParseException e) {
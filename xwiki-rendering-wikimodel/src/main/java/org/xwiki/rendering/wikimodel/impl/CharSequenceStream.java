@@ -0,0 +1,299 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.wikimodel.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.xwiki.stability.Unstable;
+
+/**
+ * A character stream for the JavaCC generated scanners, reading directly from a {@link CharSequence} instead of
+ * copying the input in a buffer. The images of the tokens are sub sequences of the source.
+ * <p>
+ * Each scanner declares its own {@code CharStream} interface, which is implemented by extending this class in the
+ * package of the scanner.
+ * <p>
+ * The line and column numbers are computed on demand from the offsets of the lines which have been read, tabs count as
+ * a single column.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class CharSequenceStream
+{
+    /**
+     * Thrown when reading after the end of the content, which is part of the normal scanning process. The stack trace
+     * is not filled since it's never needed.
+     */
+    private static final class EndOfContentException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace()
+        {
+            return this;
+        }
+    }
+
+    private static final EndOfContentException END_OF_CONTENT = new EndOfContentException();
+
+    private final CharSequence content;
+
+    private final int length;
+
+    /**
+     * The offset of the last read character.
+     */
+    private int position = -1;
+
+    /**
+     * The offset of the first character of the current token.
+     */
+    private int tokenBegin = -1;
+
+    /**
+     * The offset of the furthest character which has been read, the lines are known up to this offset.
+     */
+    private int maxPosition = -1;
+
+    private int[] lineOffsets = new int[16];
+
+    private int lineCount = 1;
+
+    private int tabSize = 1;
+
+    private boolean trackLineColumn = true;
+
+    /**
+     * @param content the content to read
+     */
+    public CharSequenceStream(CharSequence content)
+    {
+        this.content = content;
+        this.length = content.length();
+    }
+
+    /**
+     * @param reader the reader to read completely
+     * @return the content of the reader
+     * @throws IOException when failing to read
+     */
+    public static String read(Reader reader) throws IOException
+    {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[4096];
+        for (int count = reader.read(buffer); count != -1; count = reader.read(buffer)) {
+            builder.append(buffer, 0, count);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * @return the next character
+     * @throws IOException when the end of the content is reached
+     */
+    public char readChar() throws IOException
+    {
+        if (this.position + 1 >= this.length) {
+            if (this.tokenBegin == -1) {
+                this.tokenBegin = this.position;
+            }
+            throw END_OF_CONTENT;
+        }
+
+        char c = this.content.charAt(++this.position);
+        if (this.trackLineColumn && this.position > this.maxPosition) {
+            this.maxPosition = this.position;
+            if (c == '\n' || (c == '\r' && (this.position + 1 == this.length
+                || this.content.charAt(this.position + 1) != '\n'))) {
+                addLine(this.position + 1);
+            }
+        }
+
+        return c;
+    }
+
+    private void addLine(int offset)
+    {
+        if (this.lineCount == this.lineOffsets.length) {
+            this.lineOffsets = Arrays.copyOf(this.lineOffsets, this.lineCount * 2);
+        }
+        this.lineOffsets[this.lineCount++] = offset;
+    }
+
+    /**
+     * @return the first character of the next token
+     * @throws IOException when the end of the content is reached
+     */
+    public char BeginToken() throws IOException
+    {
+        this.tokenBegin = -1;
+        char c = readChar();
+        this.tokenBegin = this.position;
+
+        return c;
+    }
+
+    /**
+     * @param amount the number of characters to read again
+     */
+    public void backup(int amount)
+    {
+        this.position -= amount;
+    }
+
+    /**
+     * @return the image of the current token
+     */
+    public String GetImage()
+    {
+        return this.content.subSequence(this.tokenBegin, this.position + 1).toString();
+    }
+
+    /**
+     * @param len the number of characters to return
+     * @return the last characters of the current token
+     */
+    public char[] GetSuffix(int len)
+    {
+        char[] suffix = new char[len];
+        int start = this.position + 1 - len;
+        for (int i = 0; i < len; i++) {
+            suffix[i] = this.content.charAt(start + i);
+        }
+
+        return suffix;
+    }
+
+    /**
+     * Release the resources, nothing to do here.
+     */
+    public void Done()
+    {
+        // Nothing to release
+    }
+
+    /**
+     * @return the line of the first character of the current token
+     */
+    public int getBeginLine()
+    {
+        return getLine(this.tokenBegin);
+    }
+
+    /**
+     * @return the column of the first character of the current token
+     */
+    public int getBeginColumn()
+    {
+        return getColumn(this.tokenBegin);
+    }
+
+    /**
+     * @return the line of the last read character
+     */
+    public int getEndLine()
+    {
+        return getLine(this.position);
+    }
+
+    /**
+     * @return the column of the last read character
+     */
+    public int getEndColumn()
+    {
+        return getColumn(this.position);
+    }
+
+    /**
+     * @return the line of the last read character
+     * @deprecated use {@link #getEndLine()}
+     */
+    @Deprecated
+    public int getLine()
+    {
+        return getEndLine();
+    }
+
+    /**
+     * @return the column of the last read character
+     * @deprecated use {@link #getEndColumn()}
+     */
+    @Deprecated
+    public int getColumn()
+    {
+        return getEndColumn();
+    }
+
+    /**
+     * @param tabSize the size of a tab, not taken into account when computing columns
+     */
+    public void setTabSize(int tabSize)
+    {
+        this.tabSize = tabSize;
+    }
+
+    /**
+     * @return the size of a tab
+     */
+    public int getTabSize()
+    {
+        return this.tabSize;
+    }
+
+    /**
+     * @return {@code true} if the line and column numbers are tracked
+     */
+    public boolean getTrackLineColumn()
+    {
+        return this.trackLineColumn;
+    }
+
+    /**
+     * @param trackLineColumn {@code true} if the line and column numbers should be tracked
+     */
+    public void setTrackLineColumn(boolean trackLineColumn)
+    {
+        this.trackLineColumn = trackLineColumn;
+    }
+
+    private int getLine(int offset)
+    {
+        return getLineIndex(offset) + 1;
+    }
+
+    private int getColumn(int offset)
+    {
+        return offset - this.lineOffsets[getLineIndex(offset)] + 1;
+    }
+
+    private int getLineIndex(int offset)
+    {
+        // The character ending a line belongs to that line.
+        int index = Arrays.binarySearch(this.lineOffsets, 0, this.lineCount, offset);
+
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+}
@@ -19,12 +19,15 @@
  */
 package org.xwiki.rendering.wikimodel.jspwiki;
 
+import java.io.IOException;
 import java.io.Reader;
 
 import org.xwiki.rendering.wikimodel.IWemListener;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.WikiParserException;
+import org.xwiki.rendering.wikimodel.impl.CharSequenceStream;
 import org.xwiki.rendering.wikimodel.impl.WikiScannerContext;
+import org.xwiki.rendering.wikimodel.internal.jspwiki.javacc.ContentCharStream;
 import org.xwiki.rendering.wikimodel.internal.jspwiki.javacc.JspWikiScanner;
 import org.xwiki.rendering.wikimodel.internal.jspwiki.javacc.ParseException;
 
@@ -49,8 +52,21 @@ public JspWikiParser()
     public void parse(Reader reader, IWemListener listener)
         throws WikiParserException
     {
+        String content;
         try {
-            JspWikiScanner scanner = new JspWikiScanner(reader);
+            content = CharSequenceStream.read(reader);
+        } catch (IOException e) {
+            throw new WikiParserException("Failed to read the content", e);
+        }
+
+        parse(content, listener);
+    }
+
+    @Override
+    public void parse(CharSequence content, IWemListener listener) throws WikiParserException
+    {
+        try {
+            JspWikiScanner scanner = new JspWikiScanner(new ContentCharStream(content));
             WikiScannerContext context = new WikiScannerContext(listener);
             scanner.parse(context);
         } catch (ParseException e) {
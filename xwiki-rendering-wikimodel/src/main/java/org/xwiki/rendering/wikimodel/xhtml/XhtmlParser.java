@@ -26,9 +26,12 @@
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
+import org.w3c.dom.Node;
+import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLFilter;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xwiki.rendering.wikimodel.IWemListener;
@@ -40,7 +43,10 @@
 import org.xwiki.rendering.wikimodel.xhtml.filter.XHTMLWhitespaceXMLFilter;
 import org.xwiki.rendering.wikimodel.xhtml.handler.CommentHandler;
 import org.xwiki.rendering.wikimodel.xhtml.handler.TagHandler;
+import org.xwiki.rendering.wikimodel.xhtml.impl.CachingEntityResolver;
+import org.xwiki.rendering.wikimodel.xhtml.impl.DOMXMLReader;
 import org.xwiki.rendering.wikimodel.xhtml.impl.XhtmlHandler;
+import org.xwiki.stability.Unstable;
 import org.xwiki.xml.internal.LocalEntityResolver;
 
 /**
@@ -49,6 +55,11 @@
  */
 public class XhtmlParser implements IWikiParser
 {
+    /**
+     * Shared by all the parsers so that the XHTML DTD and entities are loaded only once.
+     */
+    private static final EntityResolver ENTITY_RESOLVER = new CachingEntityResolver(new LocalEntityResolver());
+
     private Map<String, TagHandler> fExtraHandlers;
 
     private CommentHandler fCommentHandler;
@@ -116,62 +127,105 @@ public void parse(Reader reader, IWemListener listener)
         throws WikiParserException
     {
         try {
-            XMLReader xmlReader = getXMLReader();
-
-            // The WikiModel-specific handler
-            DefaultHandler handler = getHandler(listener);
-
-            xmlReader
-                .setFeature("http://xml.org/sax/features/namespaces", isNamespacesEnabled());
-            xmlReader.setEntityResolver(new LocalEntityResolver());
-            xmlReader.setContentHandler(handler);
-            xmlReader.setProperty(
-                "http://xml.org/sax/properties/lexical-handler",
-                handler);
+            parse(getXMLReader(), new InputSource(reader), listener);
+        } catch (Exception e) {
+            throw new WikiParserException(e);
+        }
+    }
 
-            InputSource source = new InputSource(reader);
-            xmlReader.parse(source);
+    /**
+     * Parses an XHTML DOM without serializing it: the SAX events are generated from the DOM nodes and sent through
+     * the same XML filters as the parsed content.
+     *
+     * @param node the node to parse, usually a {@link org.w3c.dom.Document}
+     * @param listener the listener object wich will be used to report about all structural elements on the wiki
+     *     page.
+     * @throws WikiParserException if an error occurs
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public void parse(Node node, IWemListener listener) throws WikiParserException
+    {
+        try {
+            parse(getXMLReader(new DOMXMLReader(node)), new InputSource(), listener);
         } catch (Exception e) {
             throw new WikiParserException(e);
         }
     }
 
-    private XMLReader getXMLReader() throws Exception
+    private void parse(XMLReader xmlReader, InputSource source, IWemListener listener) throws Exception
     {
-        XMLReader reader;
+        // The WikiModel-specific handler
+        DefaultHandler handler = getHandler(listener);
+
+        xmlReader
+            .setFeature("http://xml.org/sax/features/namespaces", isNamespacesEnabled());
+        xmlReader.setEntityResolver(ENTITY_RESOLVER);
+        xmlReader.setContentHandler(handler);
+        xmlReader.setProperty(
+            "http://xml.org/sax/properties/lexical-handler",
+            handler);
+
+        xmlReader.parse(source);
+    }
 
+    private XMLReader getXMLReader() throws Exception
+    {
         if (fXmlReader != null) {
-            reader = fXmlReader;
-        } else {
-            SAXParserFactory parserFactory = SAXParserFactory.newInstance();
-
-            // Instructs the implementation to process XML securely.
-            try {
-                parserFactory.setFeature(javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
-                // A really old parser is being used? Ignore the problem and continue.
-            }
-
-            SAXParser parser = parserFactory.newSAXParser();
-            XMLReader xmlReader = parser.getXMLReader();
-
-            // Ignore SAX callbacks when the parser parses the DTD
-            DTDXMLFilter dtdFilter = new DTDXMLFilter(xmlReader);
-
-            // Add a XML Filter to accumulate onCharacters() calls since SAX
-            // parser may call it several times.
-            AccumulationXMLFilter accumulationFilter = new AccumulationXMLFilter(
-                dtdFilter);
-
-            // Add a XML Filter to remove non-semantic white spaces. We need to
-            // do that since all WikiModel
-            // events contain only semantic information.
-            XHTMLWhitespaceXMLFilter whitespaceFilter = new XHTMLWhitespaceXMLFilter(
-                accumulationFilter);
-
-            reader = whitespaceFilter;
+            return fXmlReader;
         }
 
-        return reader;
+        SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+
+        // Instructs the implementation to process XML securely.
+        try {
+            parserFactory.setFeature(javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
+            // A really old parser is being used? Ignore the problem and continue.
+        }
+
+        SAXParser parser = parserFactory.newSAXParser();
+
+        return createFilters(parser.getXMLReader());
+    }
+
+    /**
+     * @param source the reader generating the SAX events
+     * @return the XML filters to use, reading their events from the passed source
+     */
+    private XMLReader getXMLReader(XMLReader source)
+    {
+        if (fXmlReader == null) {
+            return createFilters(source);
+        }
+
+        // Replace the XML parser at the root of the custom filter chain.
+        XMLFilter lastFilter = null;
+        for (XMLReader reader = fXmlReader; reader instanceof XMLFilter filter; reader = filter.getParent()) {
+            lastFilter = filter;
+        }
+        if (lastFilter == null) {
+            // The custom XML reader is a parser, there's no filter to keep.
+            return source;
+        }
+        lastFilter.setParent(source);
+
+        return fXmlReader;
+    }
+
+    private XMLReader createFilters(XMLReader xmlReader)
+    {
+        // Ignore SAX callbacks when the parser parses the DTD
+        DTDXMLFilter dtdFilter = new DTDXMLFilter(xmlReader);
+
+        // Add a XML Filter to accumulate onCharacters() calls since SAX
+        // parser may call it several times.
+        AccumulationXMLFilter accumulationFilter = new AccumulationXMLFilter(
+            dtdFilter);
+
+        // Add a XML Filter to remove non-semantic white spaces. We need to
+        // do that since all WikiModel
+        // events contain only semantic information.
+        return new XHTMLWhitespaceXMLFilter(accumulationFilter);
     }
 }
@@ -47,6 +47,13 @@ public AccumulationXMLFilter(XMLReader reader)
         super(reader);
     }
 
+    @Override
+    public void reset()
+    {
+        fAccumulationBuffer.setLength(0);
+        super.reset();
+    }
+
     /**
      * @see org.xml.sax.helpers.DefaultHandler#characters(char[], int, int)
      */
@@ -46,6 +46,13 @@ public DTDXMLFilter(XMLReader reader)
         super(reader);
     }
 
+    @Override
+    public void reset()
+    {
+        fIsInDTD = false;
+        super.reset();
+    }
+
     /**
      * @see org.xml.sax.helpers.DefaultHandler#characters(char[], int, int)
      */
@@ -28,6 +28,7 @@
 import org.xml.sax.XMLReader;
 import org.xml.sax.ext.LexicalHandler;
 import org.xml.sax.helpers.XMLFilterImpl;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -49,6 +50,20 @@ public DefaultXMLFilter(XMLReader reader)
         super(reader);
     }
 
+    /**
+     * Resets the parsing state of this filter and of the filters it reads from, so that they can be reused for another
+     * parse. The handlers, the parent and the configuration are kept.
+     *
+     * @since 18.7.0RC1
+     */
+    @Unstable
+    public void reset()
+    {
+        if (getParent() instanceof DefaultXMLFilter parent) {
+            parent.reset();
+        }
+    }
+
     @Override
     public void parse(InputSource input) throws SAXException, IOException
     {
@@ -123,6 +123,18 @@ public XHTMLWhitespaceXMLFilter(XMLReader reader)
         super(reader);
     }
 
+    @Override
+    public void reset()
+    {
+        fNoCleanUpLevel = 0;
+        fContent.setLength(0);
+        fPreviousInlineText.setLength(0);
+        fPreviousContent = null;
+        fPreviousElements.clear();
+        fAttributes.clear();
+        super.reset();
+    }
+
     @Override
     public void characters(char[] ch, int start, int length)
         throws SAXException
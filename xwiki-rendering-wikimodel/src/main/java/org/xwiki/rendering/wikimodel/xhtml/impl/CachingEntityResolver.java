@@ -0,0 +1,140 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.wikimodel.xhtml.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Keeps in memory the entities (e.g. the XHTML DTD and its entity sets) resolved by another entity resolver, so that
+ * they are loaded only once and not for each parsed document. This resolver is thread safe as long as the wrapped one
+ * is.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class CachingEntityResolver implements EntityResolver
+{
+    /**
+     * The maximum number of cached entities. The entities are expected to be a few local DTD files, the limit only
+     * protects from documents referencing lots of different entities.
+     */
+    private static final int MAX_SIZE = 64;
+
+    private final EntityResolver resolver;
+
+    private final Map<String, CachedEntity> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver the entity resolver to use for the entities which are not yet cached
+     */
+    public CachingEntityResolver(EntityResolver resolver)
+    {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException
+    {
+        String key = publicId + '\n' + systemId;
+
+        CachedEntity entity = this.cache.get(key);
+        if (entity == null) {
+            InputSource source = this.resolver.resolveEntity(publicId, systemId);
+            if (source == null) {
+                // Let the parser resolve the entity itself.
+                return null;
+            }
+
+            entity = new CachedEntity(source);
+            if (this.cache.size() < MAX_SIZE) {
+                this.cache.put(key, entity);
+            }
+        }
+
+        return entity.toInputSource();
+    }
+
+    private static final class CachedEntity
+    {
+        private final String publicId;
+
+        private final String systemId;
+
+        private final String encoding;
+
+        private final byte[] bytes;
+
+        private final char[] characters;
+
+        CachedEntity(InputSource source) throws IOException
+        {
+            this.publicId = source.getPublicId();
+            this.systemId = source.getSystemId();
+            this.encoding = source.getEncoding();
+
+            Reader reader = source.getCharacterStream();
+            InputStream stream = source.getByteStream();
+            if (reader != null) {
+                StringWriter writer = new StringWriter();
+                try (reader) {
+                    reader.transferTo(writer);
+                }
+                this.characters = writer.toString().toCharArray();
+                this.bytes = null;
+            } else if (stream != null) {
+                try (stream) {
+                    this.bytes = stream.readAllBytes();
+                }
+                this.characters = null;
+            } else {
+                // Only the location is known, the parser will load it.
+                this.bytes = null;
+                this.characters = null;
+            }
+        }
+
+        InputSource toInputSource()
+        {
+            InputSource source = new InputSource(this.systemId);
+            source.setPublicId(this.publicId);
+            source.setEncoding(this.encoding);
+            if (this.characters != null) {
+                source.setCharacterStream(new CharArrayReader(this.characters));
+            } else if (this.bytes != null) {
+                source.setByteStream(new ByteArrayInputStream(this.bytes));
+            }
+
+            return source;
+        }
+    }
+}
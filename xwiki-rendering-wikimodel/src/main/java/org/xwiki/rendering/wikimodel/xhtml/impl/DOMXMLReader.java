@@ -0,0 +1,388 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.wikimodel.xhtml.impl;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.Attributes2Impl;
+import org.xml.sax.ext.DefaultHandler2;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.NamespaceSupport;
+import org.xwiki.stability.Unstable;
+
+/**
+ * A SAX {@link XMLReader} which reports the content of an existing DOM node instead of parsing a text source. This
+ * allows to send a DOM (e.g. the result of an HTML cleaning) through a chain of SAX filters without serializing it to
+ * a string and parsing it again. The {@link InputSource} passed to the {@code parse} methods is ignored.
+ * <p>
+ * The events are the ones a namespace aware SAX parser would report for the serialized node: namespace declarations
+ * are reported as prefix mappings (and not as attributes unless the namespace prefixes feature is enabled), comments
+ * and CDATA sections are reported to the lexical handler. No locator is provided.
+ *
+ * @version $Id$
+ * @since 18.7.0RC1
+ */
+@Unstable
+public class DOMXMLReader implements XMLReader
+{
+    private static final String FEATURE_NAMESPACES = "http://xml.org/sax/features/namespaces";
+
+    private static final String FEATURE_NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
+
+    private static final String PROPERTY_LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    private static final String XMLNS = "xmlns";
+
+    private static final String XMLNS_PREFIX = "xmlns:";
+
+    private static final String CDATA = "CDATA";
+
+    private static final DefaultHandler2 NOOP_HANDLER = new DefaultHandler2();
+
+    private final Node node;
+
+    private boolean namespaces = true;
+
+    private boolean namespacePrefixes;
+
+    private ContentHandler contentHandler;
+
+    private LexicalHandler lexicalHandler;
+
+    private DTDHandler dtdHandler;
+
+    private EntityResolver entityResolver;
+
+    private ErrorHandler errorHandler;
+
+    private NamespaceSupport namespaceSupport;
+
+    /**
+     * @param node the node to report, usually a {@link org.w3c.dom.Document}
+     */
+    public DOMXMLReader(Node node)
+    {
+        this.node = node;
+    }
+
+    @Override
+    public boolean getFeature(String name) throws SAXNotRecognizedException
+    {
+        if (FEATURE_NAMESPACES.equals(name)) {
+            return this.namespaces;
+        } else if (FEATURE_NAMESPACE_PREFIXES.equals(name)) {
+            return this.namespacePrefixes;
+        }
+
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setFeature(String name, boolean value) throws SAXNotRecognizedException
+    {
+        if (FEATURE_NAMESPACES.equals(name)) {
+            this.namespaces = value;
+        } else if (FEATURE_NAMESPACE_PREFIXES.equals(name)) {
+            this.namespacePrefixes = value;
+        } else {
+            throw new SAXNotRecognizedException(name);
+        }
+    }
+
+    @Override
+    public Object getProperty(String name) throws SAXNotRecognizedException
+    {
+        if (PROPERTY_LEXICAL_HANDLER.equals(name)) {
+            return this.lexicalHandler;
+        }
+
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setProperty(String name, Object value) throws SAXNotRecognizedException
+    {
+        if (PROPERTY_LEXICAL_HANDLER.equals(name)) {
+            this.lexicalHandler = (LexicalHandler) value;
+        } else {
+            throw new SAXNotRecognizedException(name);
+        }
+    }
+
+    @Override
+    public void setEntityResolver(EntityResolver resolver)
+    {
+        this.entityResolver = resolver;
+    }
+
+    @Override
+    public EntityResolver getEntityResolver()
+    {
+        return this.entityResolver;
+    }
+
+    @Override
+    public void setDTDHandler(DTDHandler handler)
+    {
+        this.dtdHandler = handler;
+    }
+
+    @Override
+    public DTDHandler getDTDHandler()
+    {
+        return this.dtdHandler;
+    }
+
+    @Override
+    public void setContentHandler(ContentHandler handler)
+    {
+        this.contentHandler = handler;
+    }
+
+    @Override
+    public ContentHandler getContentHandler()
+    {
+        return this.contentHandler;
+    }
+
+    @Override
+    public void setErrorHandler(ErrorHandler handler)
+    {
+        this.errorHandler = handler;
+    }
+
+    @Override
+    public ErrorHandler getErrorHandler()
+    {
+        return this.errorHandler;
+    }
+
+    @Override
+    public void parse(InputSource input) throws SAXException
+    {
+        parse();
+    }
+
+    @Override
+    public void parse(String systemId) throws SAXException
+    {
+        parse();
+    }
+
+    private void parse() throws SAXException
+    {
+        ContentHandler content = this.contentHandler != null ? this.contentHandler : NOOP_HANDLER;
+        LexicalHandler lexical = this.lexicalHandler != null ? this.lexicalHandler : NOOP_HANDLER;
+
+        this.namespaceSupport = new NamespaceSupport();
+
+        content.startDocument();
+
+        // Walk the tree iteratively so that deeply nested content doesn't overflow the stack.
+        Node current = this.node;
+        while (current != null) {
+            startNode(current, content, lexical);
+
+            Node child = current.getFirstChild();
+            if (child != null) {
+                current = child;
+            } else {
+                current = endNodes(current, content, lexical);
+            }
+        }
+
+        content.endDocument();
+    }
+
+    /**
+     * Ends the passed node and its ancestors until one of them has a next sibling.
+     *
+     * @return the next node to start, or {@code null} when the whole tree has been reported
+     */
+    private Node endNodes(Node leaf, ContentHandler content, LexicalHandler lexical) throws SAXException
+    {
+        Node current = leaf;
+        while (current != null) {
+            endNode(current, content, lexical);
+
+            if (current == this.node) {
+                return null;
+            }
+
+            Node next = current.getNextSibling();
+            if (next != null) {
+                return next;
+            }
+
+            current = current.getParentNode();
+        }
+
+        return null;
+    }
+
+    private void startNode(Node current, ContentHandler content, LexicalHandler lexical) throws SAXException
+    {
+        switch (current.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                startElement(current, content);
+                break;
+            case Node.TEXT_NODE:
+                characters(current.getNodeValue(), content);
+                break;
+            case Node.CDATA_SECTION_NODE:
+                lexical.startCDATA();
+                characters(current.getNodeValue(), content);
+                lexical.endCDATA();
+                break;
+            case Node.COMMENT_NODE:
+                char[] comment = current.getNodeValue().toCharArray();
+                lexical.comment(comment, 0, comment.length);
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                content.processingInstruction(current.getNodeName(), current.getNodeValue());
+                break;
+            case Node.ENTITY_REFERENCE_NODE:
+                lexical.startEntity(current.getNodeName());
+                break;
+            case Node.DOCUMENT_TYPE_NODE:
+                DocumentType documentType = (DocumentType) current;
+                lexical.startDTD(documentType.getName(), documentType.getPublicId(), documentType.getSystemId());
+                lexical.endDTD();
+                break;
+            default:
+                // Documents and document fragments only report their children.
+                break;
+        }
+    }
+
+    private void endNode(Node current, ContentHandler content, LexicalHandler lexical) throws SAXException
+    {
+        if (current.getNodeType() == Node.ELEMENT_NODE) {
+            endElement(current, content);
+        } else if (current.getNodeType() == Node.ENTITY_REFERENCE_NODE) {
+            lexical.endEntity(current.getNodeName());
+        }
+    }
+
+    private void characters(String text, ContentHandler content) throws SAXException
+    {
+        if (text != null && !text.isEmpty()) {
+            char[] characters = text.toCharArray();
+            content.characters(characters, 0, characters.length);
+        }
+    }
+
+    private void startElement(Node element, ContentHandler content) throws SAXException
+    {
+        String qName = element.getNodeName();
+        Attributes2Impl attributes = new Attributes2Impl();
+        NamedNodeMap domAttributes = element.getAttributes();
+
+        if (this.namespaces) {
+            this.namespaceSupport.pushContext();
+
+            // Declare the namespaces first since the element and its attributes may use them.
+            List<Attr> otherAttributes = new ArrayList<>(domAttributes.getLength());
+            for (int i = 0; i < domAttributes.getLength(); i++) {
+                Attr attribute = (Attr) domAttributes.item(i);
+                String name = attribute.getName();
+                if (XMLNS.equals(name) || name.startsWith(XMLNS_PREFIX)) {
+                    String prefix = XMLNS.equals(name) ? "" : name.substring(XMLNS_PREFIX.length());
+                    this.namespaceSupport.declarePrefix(prefix, attribute.getValue());
+                    content.startPrefixMapping(prefix, attribute.getValue());
+                    if (this.namespacePrefixes) {
+                        attributes.addAttribute("", "", name, CDATA, attribute.getValue());
+                    }
+                } else {
+                    otherAttributes.add(attribute);
+                }
+            }
+
+            String[] parts = new String[3];
+            for (Attr attribute : otherAttributes) {
+                String name = attribute.getName();
+                if (this.namespaceSupport.processName(name, parts, true) != null) {
+                    attributes.addAttribute(parts[0], parts[1], name, CDATA, attribute.getValue());
+                } else {
+                    attributes.addAttribute("", getLocalName(name), name, CDATA, attribute.getValue());
+                }
+            }
+
+            content.startElement(getNamespaceURI(element), getLocalName(qName), qName, attributes);
+        } else {
+            for (int i = 0; i < domAttributes.getLength(); i++) {
+                Attr attribute = (Attr) domAttributes.item(i);
+                attributes.addAttribute("", "", attribute.getName(), CDATA, attribute.getValue());
+            }
+
+            content.startElement("", "", qName, attributes);
+        }
+    }
+
+    private void endElement(Node element, ContentHandler content) throws SAXException
+    {
+        String qName = element.getNodeName();
+
+        if (this.namespaces) {
+            content.endElement(getNamespaceURI(element), getLocalName(qName), qName);
+
+            Enumeration<String> prefixes = this.namespaceSupport.getDeclaredPrefixes();
+            while (prefixes.hasMoreElements()) {
+                content.endPrefixMapping(prefixes.nextElement());
+            }
+            this.namespaceSupport.popContext();
+        } else {
+            content.endElement("", "", qName);
+        }
+    }
+
+    private String getNamespaceURI(Node element)
+    {
+        // Nodes created with a namespace aware DOM API know their namespace, the others rely on the declarations.
+        String uri = element.getNamespaceURI();
+        if (uri == null) {
+            String[] parts = this.namespaceSupport.processName(element.getNodeName(), new String[3], false);
+            uri = parts != null ? parts[0] : "";
+        }
+
+        return uri;
+    }
+
+    private String getLocalName(String qName)
+    {
+        int index = qName.indexOf(':');
+
+        return index < 0 ? qName : qName.substring(index + 1);
+    }
+}
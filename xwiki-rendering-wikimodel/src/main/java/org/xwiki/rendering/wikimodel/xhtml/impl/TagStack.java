@@ -25,13 +25,10 @@
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 
 import org.apache.commons.lang3.StringUtils;
-import org.xwiki.rendering.wikimodel.WikiPageUtil;
 import org.xwiki.rendering.wikimodel.WikiParameters;
 import org.xwiki.rendering.wikimodel.impl.WikiScannerContext;
-import org.xwiki.rendering.wikimodel.xhtml.XhtmlCharacter;
 import org.xwiki.rendering.wikimodel.xhtml.XhtmlCharacterType;
 import org.xwiki.rendering.wikimodel.xhtml.handler.AbstractFormatTagHandler;
 import org.xwiki.rendering.wikimodel.xhtml.handler.CommentHandler;
@@ -53,6 +50,19 @@
 
     private static final String DOCUMENT_PARENT = "documentParent";
 
+    private static final String SPACE = " ";
+
+    /**
+     * The string representation of the ASCII characters, to avoid creating a new string for each special symbol.
+     */
+    private static final String[] CHARACTER_STRINGS = new String[128];
+
+    static {
+        for (char c = 0; c < CHARACTER_STRINGS.length; c++) {
+            CHARACTER_STRINGS[c] = String.valueOf(c);
+        }
+    }
+
     /**
      * Represents a default {@link IgnoreElementRule} that ignore all elements and cannot be switched off.
      *
@@ -181,39 +191,51 @@ public WikiScannerContext popScannerContext()
         return fScannerContext.pop();
     }
 
-    private void flushStack(Queue<XhtmlCharacter> stack)
+    /**
+     * Send the events corresponding to a run of characters of the same type.
+     *
+     * @param content the characters being flushed
+     * @param type the type of the characters of the run
+     * @param start the index of the first character of the run
+     * @param end the index after the last character of the run
+     */
+    private void flushRun(String content, XhtmlCharacterType type, int start, int end)
     {
-        while (!stack.isEmpty()) {
-            XhtmlCharacter character = stack.poll();
-            switch (character.getType()) {
-                case ESCAPED:
-                    getScannerContext().onEscape("" + character.getCharacter());
-                    break;
-                case SPECIAL_SYMBOL:
-                    getScannerContext().onSpecialSymbol("" + character.getCharacter());
-                    break;
-                case NEW_LINE:
+        if (type == null || start == end) {
+            return;
+        }
+
+        switch (type) {
+            case ESCAPED:
+                for (int i = start; i < end; i++) {
+                    getScannerContext().onEscape(toString(content.charAt(i)));
+                }
+                break;
+            case SPECIAL_SYMBOL:
+                for (int i = start; i < end; i++) {
+                    getScannerContext().onSpecialSymbol(toString(content.charAt(i)));
+                }
+                break;
+            case NEW_LINE:
+                for (int i = start; i < end; i++) {
                     getScannerContext().onLineBreak();
-                    break;
-                case SPACE:
-                    StringBuilder spaceBuffer = new StringBuilder(" ");
-                    while (!stack.isEmpty() && (stack.element().getType() == XhtmlCharacterType.SPACE)) {
-                        stack.poll();
-                        spaceBuffer.append(' ');
-                    }
-                    getScannerContext().onSpace(spaceBuffer.toString());
-                    break;
-                default:
-                    StringBuilder charBuffer = new StringBuilder();
-                    charBuffer.append(character.getCharacter());
-                    while (!stack.isEmpty() && (stack.element().getType() == XhtmlCharacterType.CHARACTER)) {
-                        charBuffer.append(stack.poll().getCharacter());
-                    }
-                    getScannerContext().onWord(WikiPageUtil.escapeXmlString(charBuffer.toString()));
-            }
+                }
+                break;
+            case SPACE:
+                // Non breaking spaces are sent as regular spaces.
+                getScannerContext().onSpace(end - start == 1 ? SPACE : SPACE.repeat(end - start));
+                break;
+            default:
+                // There's nothing to escape since '<', '>' and '&' are special symbols and thus never part of a word.
+                getScannerContext().onWord(content.substring(start, end));
         }
     }
 
+    private static String toString(char c)
+    {
+        return c < CHARACTER_STRINGS.length ? CHARACTER_STRINGS[c] : String.valueOf(c);
+    }
+
     public void onCharacters(String content)
     {
         if (!fPeek.isContentContainer() || shouldIgnoreElements()) {
@@ -235,16 +257,21 @@ public void onCharacters(String content)
     private void flushCharacters(boolean beforeEnd)
     {
         if (this.characters != null) {
-            Queue<XhtmlCharacter> stack = new ArrayDeque<>();
-            for (int i = 0; i < this.characters.length(); i++) {
-                char c = this.characters.charAt(i);
-                fPreviousCharType =
-                    getCharacterType(c, fPreviousCharType, (this.characters.length() == i + 1) && beforeEnd);
-                stack.offer(new XhtmlCharacter(c, fPreviousCharType));
+            // Send the events for each run of characters of the same type, directly from the content string.
+            String content = this.characters;
+            int length = content.length();
+            XhtmlCharacterType runType = null;
+            int runStart = 0;
+            for (int i = 0; i < length; i++) {
+                char c = content.charAt(i);
+                fPreviousCharType = getCharacterType(c, fPreviousCharType, (length == i + 1) && beforeEnd);
+                if (fPreviousCharType != runType) {
+                    flushRun(content, runType, runStart, i);
+                    runType = fPreviousCharType;
+                    runStart = i;
+                }
             }
-
-            // Now send the events.
-            flushStack(stack);
+            flushRun(content, runType, runStart, length);
 
             this.characters = null;
         }
@@ -19,12 +19,15 @@
  */
 package org.xwiki.rendering.wikimodel.xwiki.xwiki20;
 
+import java.io.IOException;
 import java.io.Reader;
 
 import org.xwiki.rendering.wikimodel.IWemListener;
-import org.xwiki.rendering.wikimodel.IWikiParser;
+import org.xwiki.rendering.wikimodel.IWikiInlineParser;
 import org.xwiki.rendering.wikimodel.WikiParserException;
+import org.xwiki.rendering.wikimodel.impl.CharSequenceStream;
 import org.xwiki.rendering.wikimodel.impl.WikiScannerContext;
+import org.xwiki.rendering.wikimodel.internal.xwiki.xwiki20.javacc.ContentCharStream;
 import org.xwiki.rendering.wikimodel.internal.xwiki.xwiki20.javacc.ParseException;
 import org.xwiki.rendering.wikimodel.internal.xwiki.xwiki20.javacc.XWikiScanner;
 
@@ -32,7 +35,7 @@
  * @version $Id$
  * @since 4.0M1
  */
-public class XWikiParser implements IWikiParser
+public class XWikiParser implements IWikiInlineParser
 {
     public XWikiParser()
     {
@@ -46,12 +49,37 @@ public XWikiParser()
     public void parse(Reader reader, IWemListener listener)
         throws WikiParserException
     {
+        String content;
         try {
-            XWikiScanner scanner = new XWikiScanner(reader);
+            content = CharSequenceStream.read(reader);
+        } catch (IOException e) {
+            throw new WikiParserException("Failed to read the content", e);
+        }
+
+        parse(content, listener);
+    }
+
+    @Override
+    public void parse(CharSequence content, IWemListener listener) throws WikiParserException
+    {
+        try {
+            XWikiScanner scanner = new XWikiScanner(new ContentCharStream(content));
             WikiScannerContext context = new WikiScannerContext(listener);
             scanner.parse(context);
         } catch (ParseException e) {
             throw new WikiParserException(e);
         }
     }
+
+    @Override
+    public void parseInline(String content, IWemListener listener) throws WikiParserException
+    {
+        try {
+            XWikiScanner scanner = new XWikiScanner(new ContentCharStream(content));
+            WikiScannerContext context = new WikiScannerContext(listener);
+            scanner.parseInline(context);
+        } catch (ParseException e) {
+            throw new WikiParserException(e);
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.wikimodel.test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.wikimodel.impl.CharSequenceStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link CharSequenceStream}.
+ *
+ * @version $Id$
+ */
+class CharSequenceStreamTest
+{
+    @Test
+    void readTokens() throws IOException
+    {
+        CharSequenceStream stream = new CharSequenceStream("ab cd");
+
+        assertEquals('a', stream.BeginToken());
+        assertEquals('b', stream.readChar());
+        assertEquals(' ', stream.readChar());
+        stream.backup(1);
+        assertEquals("ab", stream.GetImage());
+        assertArrayEquals(new char[] {'b'}, stream.GetSuffix(1));
+
+        assertEquals(' ', stream.BeginToken());
+        assertEquals('c', stream.BeginToken());
+        assertEquals('d', stream.readChar());
+        assertEquals("cd", stream.GetImage());
+
+        assertThrows(IOException.class, stream::readChar);
+        // Failing to read doesn't move the position.
+        assertEquals("cd", stream.GetImage());
+        assertThrows(IOException.class, stream::BeginToken);
+    }
+
+    @Test
+    void lineAndColumn() throws IOException
+    {
+        CharSequenceStream stream = new CharSequenceStream("a\nbc\r\nd\re");
+
+        assertEquals('a', stream.BeginToken());
+        assertEquals(1, stream.getBeginLine());
+        assertEquals(1, stream.getBeginColumn());
+        assertEquals('\n', stream.BeginToken());
+        assertEquals(1, stream.getEndLine());
+        assertEquals(2, stream.getEndColumn());
+
+        assertEquals('b', stream.BeginToken());
+        assertEquals('c', stream.readChar());
+        assertEquals(2, stream.getBeginLine());
+        assertEquals(1, stream.getBeginColumn());
+        assertEquals(2, stream.getEndColumn());
+
+        stream.readChar();
+        stream.readChar();
+        assertEquals('d', stream.BeginToken());
+        assertEquals(3, stream.getBeginLine());
+        stream.readChar();
+        assertEquals('e', stream.BeginToken());
+        assertEquals(4, stream.getBeginLine());
+        assertEquals(1, stream.getBeginColumn());
+
+        // Reading again after a backup gives the same positions.
+        stream.backup(6);
+        assertEquals('c', stream.BeginToken());
+        assertEquals(2, stream.getBeginLine());
+        assertEquals(2, stream.getBeginColumn());
+    }
+
+    @Test
+    void read() throws IOException
+    {
+        String content = "x".repeat(10000);
+
+        assertEquals(content, CharSequenceStream.read(new StringReader(content)));
+        assertEquals("", CharSequenceStream.read(new StringReader("")));
+    }
+}
@@ -23,6 +23,7 @@
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.rendering.wikimodel.IWemListener;
+import org.xwiki.rendering.wikimodel.IWikiInlineParser;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.IWikiPrinter;
 import org.xwiki.rendering.wikimodel.WikiParserException;
@@ -67,6 +68,40 @@ protected IWikiParser newWikiParser()
         return new XWikiParser();
     }
 
+    private void testInline(String string, String control) throws WikiParserException
+    {
+        IWikiInlineParser parser = (IWikiInlineParser) newWikiParser();
+        StringBuffer buf = new StringBuffer();
+        parser.parseInline(string, newParserListener(buf));
+        checkResults(control, buf.toString());
+    }
+
+    @Test
+    void testInline() throws WikiParserException
+    {
+        testInline("before **bold** after", "<p>before <strong>bold</strong> after</p>");
+        // The beginning of the content is never block syntax.
+        testInline("* not a list", "<p>* not a list</p>");
+        testInline("= not a header =", "<p>= not a header =</p>");
+        testInline("{{macro/}} after", "<p><span class='wikimodel-macro' macroName='macro'/> after</p>");
+        // The following lines are parsed as usual.
+        testInline("before \n* item", """
+                <p>before </p>
+                <ul>
+                  <li>item</li>
+                </ul>""");
+    }
+
+    @Test
+    void testInlineStartingWithNewLine() throws WikiParserException
+    {
+        // The leading new line is kept, as if the content was following some text.
+        testInline("\nlabel", "<p>\nlabel</p>");
+        testInline("\nlabel **bold**", "<p>\nlabel <strong>bold</strong></p>");
+        // A leading empty line ends the first paragraph.
+        testInline("\n\nlabel", "<p>label</p>");
+    }
+
     @Test
     void test() throws Exception
     {
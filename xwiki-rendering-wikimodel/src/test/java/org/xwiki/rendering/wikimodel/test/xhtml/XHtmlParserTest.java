@@ -19,12 +19,20 @@
  */
 package org.xwiki.rendering.wikimodel.test.xhtml;
 
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xwiki.rendering.wikimodel.IWikiParser;
 import org.xwiki.rendering.wikimodel.WikiParserException;
 import org.xwiki.rendering.wikimodel.test.AbstractWikiParserTest;
 import org.xwiki.rendering.wikimodel.xhtml.XhtmlParser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * @version $Id$
  * @since 4.0M1
@@ -733,4 +741,30 @@ void testBasicHTML5Tags() throws WikiParserException
                 <p>Footer</p>
                 </div>""");
     }
-}
\ No newline at end of file
+
+    /**
+     * Verify that parsing a DOM produces the same events as parsing its serialization.
+     */
+    @Test
+    void testDOM() throws Exception
+    {
+        testDOM("<html><p>before <strong>bold</strong> after</p>\n<ul>\n<li>item</li>\n</ul></html>");
+        testDOM("<html><table><tr><th>head</th><td colspan=\"2\">cell</td></tr></table></html>");
+        testDOM("<html><p><a href=\"target\">label</a><!--comment--><img src=\"image.png\"/></p></html>");
+        testDOM("<html xmlns=\"http://www.w3.org/1999/xhtml\"><pre>  pre\n  formatted</pre>"
+            + "<!--startmacro:name|-|param=\"value\"|-|content--><!--stopmacro--></html>");
+    }
+
+    private void testDOM(String xhtml) throws Exception
+    {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new InputSource(new StringReader(xhtml)));
+
+        StringBuffer expected = new StringBuffer();
+        newWikiParser().parse(new StringReader(xhtml), newParserListener(expected));
+        StringBuffer actual = new StringBuffer();
+        new XhtmlParser().parse(document, newParserListener(actual));
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+}